@@ -0,0 +1,130 @@
+/**
+ * Copyright 2011-2015 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.omid.benchmarks.tso;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.yahoo.omid.tso.BucketedLongCache;
+import com.yahoo.omid.tso.Cache;
+import com.yahoo.omid.tso.LongCache;
+import com.yahoo.omid.tso.OffHeapLongCache;
+
+/**
+ * Microbenchmark comparing the {@link Cache} implementations used to keep the
+ * cell id -> commit timestamp mappings in the TSO. The workload is the same
+ * as in TestLongCache: random cell ids written with increasing timestamps,
+ * after the cache has been filled up and is evicting entries.
+ *
+ * With 100M entries the heap caches take about 2GB, so the fork gets a 4GB
+ * heap.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LongCacheBenchmark {
+
+    private static final int ASSOCIATIVITY = 32;
+    private static final int NUM_KEYS = 1 << 20; // Must be a power of two
+
+    @Param({ "HEAP", "OFF_HEAP", "BUCKETED" })
+    public Cache.Type cacheType;
+
+    @Param({ "1000000", "100000000" })
+    public int entries;
+
+    private Cache cache;
+    private final long[] keys = new long[NUM_KEYS];
+    private int next = 0;
+    private long timestamp = 0;
+
+    @Setup
+    public void setup() {
+        switch (cacheType) {
+        case OFF_HEAP:
+            cache = new OffHeapLongCache(entries, ASSOCIATIVITY);
+            break;
+        case BUCKETED:
+            cache = new BucketedLongCache(entries, ASSOCIATIVITY);
+            break;
+        case HEAP:
+        default:
+            cache = new LongCache(entries, ASSOCIATIVITY);
+            break;
+        }
+        Random random = new Random(0);
+        for (int i = 0; i < NUM_KEYS; i++) {
+            keys[i] = random.nextLong() & Long.MAX_VALUE;
+        }
+        // Fill the cache so the benchmarks measure the eviction path too
+        for (long i = 0; i < entries; i++) {
+            cache.set(random.nextLong() & Long.MAX_VALUE, ++timestamp);
+        }
+    }
+
+    @Benchmark
+    public long set() {
+        return cache.set(nextKey(), ++timestamp);
+    }
+
+    @Benchmark
+    public long get() {
+        return cache.get(nextKey());
+    }
+
+    /**
+     * A conflict check of a write set followed by the update of its cells
+     */
+    @Benchmark
+    public long getAndSet() {
+        long key = nextKey();
+        long value = cache.get(key);
+        return value + cache.set(key, ++timestamp);
+    }
+
+    private long nextKey() {
+        long key = keys[next];
+        next = (next + 1) & (NUM_KEYS - 1);
+        return key;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(LongCacheBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+
+}
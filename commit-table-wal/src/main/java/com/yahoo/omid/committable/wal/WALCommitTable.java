@@ -0,0 +1,511 @@
+/**
+ * Copyright 2011-2015 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.omid.committable.wal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.zip.CRC32;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Optional;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.yahoo.omid.committable.CommitTable;
+
+/**
+ * Commit table kept in a local append-only write-ahead log, for deployments
+ * where the commit table doesn't need to be read from other processes.
+ *
+ * Commits and low watermarks are appended as fixed size checksummed records
+ * to memory-mapped segment files. The writers append their records on
+ * flush() and wait for a single fsync shared by all the writers flushing at
+ * the same time (group commit). Each segment has an in-memory hash index of
+ * the positions of its commits, which is rebuilt when the table is opened.
+ *
+ * A segment is deleted with its index once all its commits are below the low
+ * watermark. The table isn't read from other processes, so nobody looks up
+ * those commits afterwards, and both the disk and the heap used are bounded
+ * by the segments above the low watermark. Each segment starts with the low
+ * watermark at the time it was created, so it's never lost with the older
+ * segments.
+ */
+public class WALCommitTable implements CommitTable, Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WALCommitTable.class);
+
+    public static final String WAL_COMMIT_TABLE_DIR_KEY = "omid.committable.wal.dir";
+    public static final String WAL_COMMIT_TABLE_DEFAULT_DIR = "omid-commit-table";
+    static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    static final int RECORD_SIZE = 3 * 8; // start timestamp, commit timestamp, checksum
+    // Start timestamp of the records holding a low watermark
+    static final long LOW_WATERMARK_RECORD = -1;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+
+    private final File dir;
+    private final int segmentSize;
+
+    private volatile long lowWatermark = 0;
+
+    private final Deque<Segment> segments = new ArrayDeque<Segment>(); // @GuardedBy("this")
+    // Copy of the segments for the lookups, updated when they change
+    private volatile Segment[] liveSegments = new Segment[0];
+    private Segment active; // @GuardedBy("this")
+    private long appended = 0; // Bytes appended since opened, @GuardedBy("this")
+    private long lowWatermarkAppended = 0; // @GuardedBy("this")
+
+    private final Object syncLock = new Object();
+    private long synced = 0; // @GuardedBy("syncLock")
+
+    @Inject
+    public WALCommitTable(@Named(WAL_COMMIT_TABLE_DIR_KEY) String dir) throws IOException {
+        this(new File(dir), DEFAULT_SEGMENT_SIZE);
+    }
+
+    public WALCommitTable(File dir, int segmentSize) throws IOException {
+        if (segmentSize < 2 * RECORD_SIZE) {
+            throw new IllegalArgumentException("Segment size too small: " + segmentSize);
+        }
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Can't create commit table directory " + dir);
+        }
+        recover();
+    }
+
+    // ************************* Reader and writer *************************
+
+    public class Writer implements CommitTable.Writer {
+        private long[] commits = new long[2 * 1024]; // start and commit timestamp pairs
+        private int numCommits = 0;
+        private long lowWatermarkToWrite = 0;
+
+        @Override
+        public void addCommittedTransaction(long startTimestamp, long commitTimestamp) {
+            assert(startTimestamp < commitTimestamp);
+            if (2 * numCommits == commits.length) {
+                commits = Arrays.copyOf(commits, 2 * commits.length);
+            }
+            commits[2 * numCommits] = startTimestamp;
+            commits[2 * numCommits + 1] = commitTimestamp;
+            numCommits++;
+        }
+
+        @Override
+        public void updateLowWatermark(long lowWatermark) {
+            lowWatermarkToWrite = Math.max(lowWatermarkToWrite, lowWatermark);
+        }
+
+        @Override
+        public ListenableFuture<Void> flush() {
+            SettableFuture<Void> f = SettableFuture.<Void>create();
+            try {
+                if (numCommits > 0 || lowWatermarkToWrite > 0) {
+                    sync(append(commits, numCommits, lowWatermarkToWrite));
+                    if (lowWatermarkToWrite > 0) {
+                        truncate();
+                    }
+                }
+                numCommits = 0;
+                lowWatermarkToWrite = 0;
+                f.set(null);
+            } catch (IOException e) {
+                LOG.error("Error flushing data", e);
+                f.setException(e);
+            }
+            return f;
+        }
+
+        @Override
+        public void close() {}
+
+    }
+
+    public class Client implements CommitTable.Client {
+
+        @Override
+        public ListenableFuture<Optional<Long>> getCommitTimestamp(long startTimestamp) {
+            SettableFuture<Optional<Long>> f = SettableFuture.<Optional<Long>>create();
+            f.set(lookup(startTimestamp));
+            return f;
+        }
+
+        @Override
+        public ListenableFuture<List<Optional<Long>>> getCommitTimestamps(long[] startTimestamps) {
+            SettableFuture<List<Optional<Long>>> f = SettableFuture.<List<Optional<Long>>>create();
+            List<Optional<Long>> results = new ArrayList<Optional<Long>>(startTimestamps.length);
+            for (long startTimestamp : startTimestamps) {
+                results.add(lookup(startTimestamp));
+            }
+            f.set(results);
+            return f;
+        }
+
+        @Override
+        public ListenableFuture<Long> readLowWatermark() {
+            SettableFuture<Long> f = SettableFuture.<Long>create();
+            f.set(lowWatermark);
+            return f;
+        }
+
+        @Override
+        public ListenableFuture<Void> completeTransaction(long startTimestamp) {
+            SettableFuture<Void> f = SettableFuture.<Void>create();
+            for (Segment segment : liveSegments) {
+                segment.complete(startTimestamp);
+            }
+            f.set(null);
+            return f;
+        }
+
+        @Override
+        public void close() {}
+
+    }
+
+    // ******************************* Getters ********************************
+
+    @Override
+    public ListenableFuture<CommitTable.Writer> getWriter() {
+        SettableFuture<CommitTable.Writer> f = SettableFuture.<CommitTable.Writer>create();
+        f.set(new Writer());
+        return f;
+    }
+
+    @Override
+    public ListenableFuture<CommitTable.Client> getClient() {
+        SettableFuture<CommitTable.Client> f = SettableFuture.<CommitTable.Client>create();
+        f.set(new Client());
+        return f;
+    }
+
+    @Override
+    public int partitionOf(long startTimestamp, int numPartitions) {
+        // All the writers append to the same log
+        return (int) (startTimestamp % numPartitions);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        active.buffer.force();
+        for (Segment segment : segments) {
+            segment.close();
+        }
+        segments.clear();
+        liveSegments = new Segment[0];
+    }
+
+    /**
+     * Number of commits in the index of the segments kept
+     */
+    synchronized int indexSize() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.numCommits;
+        }
+        return size;
+    }
+
+    private Optional<Long> lookup(long startTimestamp) {
+        Segment[] segments = liveSegments;
+        // The newest commit of a start timestamp wins
+        for (int i = segments.length - 1; i >= 0; i--) {
+            long commitTimestamp = segments[i].lookup(startTimestamp);
+            if (commitTimestamp != -1) {
+                return Optional.of(commitTimestamp);
+            }
+        }
+        return Optional.absent();
+    }
+
+    // ********************************* Log **********************************
+
+    /**
+     * Appends the records and returns the position the log must be synced to
+     */
+    private synchronized long append(long[] commits, int numCommits, long newLowWatermark)
+            throws IOException {
+        for (int i = 0; i < numCommits; i++) {
+            long startTimestamp = commits[2 * i];
+            long commitTimestamp = commits[2 * i + 1];
+            appendRecord(startTimestamp, commitTimestamp);
+            active.index(startTimestamp, active.position - RECORD_SIZE);
+        }
+        if (newLowWatermark > lowWatermarkAppended) {
+            appendRecord(LOW_WATERMARK_RECORD, newLowWatermark);
+            lowWatermarkAppended = newLowWatermark;
+            lowWatermark = newLowWatermark;
+        }
+        return appended;
+    }
+
+    private void appendRecord(long startTimestamp, long commitTimestamp) throws IOException {
+        if (!active.hasRoom()) {
+            rotate();
+        }
+        active.append(startTimestamp, commitTimestamp);
+        appended += RECORD_SIZE;
+    }
+
+    private void rotate() throws IOException {
+        active.buffer.force();
+        active = openSegment(active.id + 1);
+        segments.addLast(active);
+        publishSegments();
+        active.append(LOW_WATERMARK_RECORD, lowWatermarkAppended);
+        appended += RECORD_SIZE;
+    }
+
+    /**
+     * Makes the log durable up to the position passed. A single fsync covers
+     * all the records appended by the time it starts, so concurrent writers
+     * share it. Full segments are synced when the log moves to the next one.
+     */
+    private void sync(long position) {
+        synchronized (syncLock) {
+            if (synced >= position) {
+                return;
+            }
+            Segment segment;
+            long target;
+            synchronized (this) {
+                segment = active;
+                target = appended;
+            }
+            segment.buffer.force();
+            synced = target;
+        }
+    }
+
+    private synchronized void truncate() {
+        while (segments.size() > 1) {
+            Segment oldest = segments.peekFirst();
+            if (oldest.maxStartTimestamp >= lowWatermark) {
+                break;
+            }
+            segments.removeFirst();
+            publishSegments();
+            try {
+                oldest.close();
+            } catch (IOException e) {
+                LOG.warn("Error closing segment {}", oldest.file, e);
+            }
+            if (!oldest.file.delete()) {
+                LOG.warn("Can't delete segment {}", oldest.file);
+            } else {
+                LOG.info("Deleted segment {} below low watermark {}", oldest.file, lowWatermark);
+            }
+        }
+    }
+
+    private synchronized void recover() throws IOException {
+        File[] files = dir.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }
+        });
+        long[] ids = new long[files.length];
+        for (int i = 0; i < files.length; i++) {
+            String name = files[i].getName();
+            ids[i] = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        }
+        Arrays.sort(ids);
+        for (long id : ids) {
+            Segment segment = openSegment(id);
+            replay(segment);
+            segments.addLast(segment);
+        }
+        if (segments.isEmpty()) {
+            segments.addLast(openSegment(0));
+        }
+        active = segments.peekLast();
+        publishSegments();
+        lowWatermarkAppended = lowWatermark;
+        LOG.info("Commit table in {} opened with {} segments, {} commits and low watermark {}",
+                 dir, segments.size(), indexSize(), lowWatermark);
+    }
+
+    private void publishSegments() {
+        liveSegments = segments.toArray(new Segment[segments.size()]);
+    }
+
+    private void replay(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position + RECORD_SIZE <= buffer.capacity()) {
+            long startTimestamp = buffer.getLong(position);
+            long commitTimestamp = buffer.getLong(position + 8);
+            if (buffer.getLong(position + 16) != checksum(startTimestamp, commitTimestamp)) {
+                break; // End of the log or torn write
+            }
+            if (startTimestamp == LOW_WATERMARK_RECORD) {
+                lowWatermark = Math.max(lowWatermark, commitTimestamp);
+            } else {
+                segment.index(startTimestamp, position);
+            }
+            position += RECORD_SIZE;
+        }
+        segment.position = position;
+    }
+
+    private Segment openSegment(long id) throws IOException {
+        File file = new File(dir, String.format("%s%020d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            int size = (int) Math.max(raf.length(), segmentSize);
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            return new Segment(id, file, raf, buffer);
+        } catch (IOException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    private static long checksum(long startTimestamp, long commitTimestamp) {
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < 8; i++) {
+            crc.update((int) (startTimestamp >>> (i * 8)));
+        }
+        for (int i = 0; i < 8; i++) {
+            crc.update((int) (commitTimestamp >>> (i * 8)));
+        }
+        // Keep the high bit set, so an all zero record is never valid
+        return crc.getValue() | (1L << 63);
+    }
+
+    /**
+     * A segment file and the open addressing index of its commits. The slots
+     * hold the record numbers plus one, so the index takes an int per slot,
+     * with room for a full segment at a load factor of 3/4 at most. A slot
+     * is written after its record, so the lookups don't need to lock.
+     */
+    private static class Segment {
+        private static final int EMPTY = 0;
+        private static final int COMPLETED = -1;
+
+        final long id;
+        final File file;
+        final RandomAccessFile raf;
+        final MappedByteBuffer buffer;
+        final AtomicIntegerArray slots;
+        final int mask;
+        int position = 0;
+        int numCommits = 0;
+        long maxStartTimestamp = -1;
+
+        Segment(long id, File file, RandomAccessFile raf, MappedByteBuffer buffer) {
+            this.id = id;
+            this.file = file;
+            this.raf = raf;
+            this.buffer = buffer;
+            int records = buffer.capacity() / RECORD_SIZE;
+            int size = Integer.highestOneBit(records + records / 3) << 1;
+            this.slots = new AtomicIntegerArray(size);
+            this.mask = size - 1;
+        }
+
+        boolean hasRoom() {
+            return position + RECORD_SIZE <= buffer.capacity();
+        }
+
+        void append(long startTimestamp, long commitTimestamp) {
+            buffer.putLong(position, startTimestamp);
+            buffer.putLong(position + 8, commitTimestamp);
+            buffer.putLong(position + 16, checksum(startTimestamp, commitTimestamp));
+            position += RECORD_SIZE;
+        }
+
+        /**
+         * Adds the commit record at the position to the index, replacing
+         * a previous commit of the same start timestamp
+         */
+        void index(long startTimestamp, int recordPosition) {
+            int i = slotOf(startTimestamp);
+            int slot = slots.get(i);
+            while (slot != EMPTY && (slot == COMPLETED || startTimestampAt(slot) != startTimestamp)) {
+                i = (i + 1) & mask;
+                slot = slots.get(i);
+            }
+            if (slot == EMPTY) {
+                numCommits++;
+            }
+            slots.set(i, recordPosition / RECORD_SIZE + 1);
+            maxStartTimestamp = Math.max(maxStartTimestamp, startTimestamp);
+        }
+
+        /**
+         * Returns the commit timestamp of the transaction, or -1 if it's not
+         * in the segment or it's been completed
+         */
+        long lookup(long startTimestamp) {
+            int i = findSlot(startTimestamp);
+            return i < 0 ? -1 : buffer.getLong((slots.get(i) - 1) * RECORD_SIZE + 8);
+        }
+
+        void complete(long startTimestamp) {
+            int i = findSlot(startTimestamp);
+            if (i >= 0) {
+                slots.set(i, COMPLETED);
+            }
+        }
+
+        private int findSlot(long startTimestamp) {
+            int i = slotOf(startTimestamp);
+            int slot = slots.get(i);
+            while (slot != EMPTY) {
+                if (slot != COMPLETED && startTimestampAt(slot) == startTimestamp) {
+                    return i;
+                }
+                i = (i + 1) & mask;
+                slot = slots.get(i);
+            }
+            return -1;
+        }
+
+        private int slotOf(long startTimestamp) {
+            return (int) ((startTimestamp * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        }
+
+        private long startTimestampAt(int slot) {
+            return buffer.getLong((slot - 1) * RECORD_SIZE);
+        }
+
+        void close() throws IOException {
+            raf.close();
+        }
+    }
+
+}
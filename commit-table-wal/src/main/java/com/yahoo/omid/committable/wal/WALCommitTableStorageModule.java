@@ -0,0 +1,33 @@
+/**
+ * Copyright 2011-2015 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.omid.committable.wal;
+
+import javax.inject.Singleton;
+
+import com.google.inject.AbstractModule;
+import com.yahoo.omid.committable.CommitTable;
+
+public class WALCommitTableStorageModule extends AbstractModule {
+
+    @Override
+    public void configure() {
+
+        // Local write-ahead log commit table creation
+        bind(CommitTable.class).to(WALCommitTable.class).in(Singleton.class);
+
+    }
+
+}
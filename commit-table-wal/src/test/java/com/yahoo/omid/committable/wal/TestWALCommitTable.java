@@ -0,0 +1,167 @@
+package com.yahoo.omid.committable.wal;
+
+import static com.yahoo.omid.committable.wal.WALCommitTable.RECORD_SIZE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Optional;
+import com.google.common.io.Files;
+import com.yahoo.omid.committable.CommitTable;
+
+public class TestWALCommitTable {
+
+    private static final int SEGMENT_SIZE = 8 * RECORD_SIZE;
+
+    private File dir;
+
+    @BeforeMethod
+    public void createDir() throws Exception {
+        dir = Files.createTempDir();
+    }
+
+    @AfterMethod
+    public void deleteDir() throws Exception {
+        for (File f : dir.listFiles()) {
+            f.delete();
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void testBasicFunctionality() throws Exception {
+        WALCommitTable commitTable = new WALCommitTable(dir, SEGMENT_SIZE);
+        CommitTable.Writer writer = commitTable.getWriter().get();
+        CommitTable.Client client = commitTable.getClient().get();
+
+        // Nothing is visible before flushing
+        writer.addCommittedTransaction(1, 2);
+        writer.updateLowWatermark(1);
+        assertFalse(client.getCommitTimestamp(1).get().isPresent());
+        assertEquals(client.readLowWatermark().get().longValue(), 0);
+
+        writer.flush().get();
+        assertEquals(client.getCommitTimestamp(1).get(), Optional.of(2L));
+        assertEquals(client.readLowWatermark().get().longValue(), 1);
+
+        client.completeTransaction(1).get();
+        assertFalse(client.getCommitTimestamp(1).get().isPresent());
+        commitTable.close();
+    }
+
+    @Test
+    public void testRecovery() throws Exception {
+        WALCommitTable commitTable = new WALCommitTable(dir, SEGMENT_SIZE);
+        CommitTable.Writer writer = commitTable.getWriter().get();
+        // Several segments
+        for (long i = 1; i <= 20; i++) {
+            writer.addCommittedTransaction(i, i + 100);
+        }
+        writer.updateLowWatermark(5);
+        writer.flush().get();
+        commitTable.close();
+        assertTrue(dir.listFiles().length > 1);
+
+        commitTable = new WALCommitTable(dir, SEGMENT_SIZE);
+        CommitTable.Client client = commitTable.getClient().get();
+        for (long i = 1; i <= 20; i++) {
+            assertEquals(client.getCommitTimestamp(i).get(), Optional.of(i + 100));
+        }
+        assertEquals(client.readLowWatermark().get().longValue(), 5);
+
+        // Appends go on after the last record
+        writer = commitTable.getWriter().get();
+        writer.addCommittedTransaction(21, 121);
+        writer.flush().get();
+        commitTable.close();
+
+        commitTable = new WALCommitTable(dir, SEGMENT_SIZE);
+        client = commitTable.getClient().get();
+        assertEquals(client.getCommitTimestamp(20).get(), Optional.of(120L));
+        assertEquals(client.getCommitTimestamp(21).get(), Optional.of(121L));
+        commitTable.close();
+    }
+
+    @Test
+    public void testTornRecordIsIgnored() throws Exception {
+        WALCommitTable commitTable = new WALCommitTable(dir, SEGMENT_SIZE);
+        CommitTable.Writer writer = commitTable.getWriter().get();
+        writer.addCommittedTransaction(1, 2);
+        writer.addCommittedTransaction(3, 4);
+        writer.flush().get();
+        commitTable.close();
+
+        File segment = dir.listFiles()[0];
+        try (RandomAccessFile raf = new RandomAccessFile(segment, "rw")) {
+            raf.seek(RECORD_SIZE + 8);
+            raf.writeLong(5); // Commit timestamp of the second record
+        }
+
+        commitTable = new WALCommitTable(dir, SEGMENT_SIZE);
+        CommitTable.Client client = commitTable.getClient().get();
+        assertEquals(client.getCommitTimestamp(1).get(), Optional.of(2L));
+        assertFalse(client.getCommitTimestamp(3).get().isPresent());
+        commitTable.close();
+    }
+
+    @Test
+    public void testSegmentsAreTruncated() throws Exception {
+        WALCommitTable commitTable = new WALCommitTable(dir, SEGMENT_SIZE);
+        CommitTable.Writer writer = commitTable.getWriter().get();
+        CommitTable.Client client = commitTable.getClient().get();
+        for (long i = 1; i <= 40; i++) {
+            writer.addCommittedTransaction(i, i + 100);
+        }
+        writer.flush().get();
+        int segments = dir.listFiles().length;
+        assertTrue(segments > 4);
+
+        // The segments are deleted when they are below the low watermark,
+        // even if their transactions haven't been completed
+        writer.updateLowWatermark(21);
+        writer.flush().get();
+        assertTrue(dir.listFiles().length < segments);
+        assertFalse(client.getCommitTimestamp(1).get().isPresent());
+        assertEquals(client.getCommitTimestamp(40).get(), Optional.of(140L));
+
+        writer.updateLowWatermark(100);
+        writer.flush().get();
+        assertEquals(dir.listFiles().length, 1);
+        commitTable.close();
+
+        // The low watermark is kept in the remaining segment
+        commitTable = new WALCommitTable(dir, SEGMENT_SIZE);
+        assertEquals(commitTable.getClient().get().readLowWatermark().get().longValue(), 100);
+        commitTable.close();
+    }
+
+    @Test
+    public void testDiskAndIndexAreBoundedInLongRuns() throws Exception {
+        WALCommitTable commitTable = new WALCommitTable(dir, SEGMENT_SIZE);
+        CommitTable.Writer writer = commitTable.getWriter().get();
+        CommitTable.Client client = commitTable.getClient().get();
+        // No transaction is ever completed, as when the clients run in
+        // other processes, and the low watermark lags 20 transactions behind
+        long ts = 0;
+        for (int batch = 0; batch < 1000; batch++) {
+            for (int i = 0; i < 5; i++) {
+                ts += 2;
+                writer.addCommittedTransaction(ts, ts + 1);
+            }
+            writer.updateLowWatermark(ts - 40);
+            writer.flush().get();
+            assertTrue(dir.listFiles().length <= 5, "Segments: " + dir.listFiles().length);
+            assertTrue(commitTable.indexSize() <= 5 * 8, "Index size: " + commitTable.indexSize());
+        }
+        assertEquals(client.getCommitTimestamp(ts).get(), Optional.of(ts + 1));
+        commitTable.close();
+    }
+
+}
@@ -17,6 +17,7 @@ package com.yahoo.omid.committable;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.List;
 
 import com.google.common.base.Optional;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -25,6 +26,9 @@ public interface CommitTable {
 
     ListenableFuture<Writer> getWriter();
     ListenableFuture<Client> getClient();
+    // Partition of a commit among numPartitions writers flushing in parallel.
+    // Commits stored close together, like in the same region, share it
+    int partitionOf(long startTimestamp, int numPartitions);
 
     public interface Writer extends Closeable {
         void addCommittedTransaction(long startTimestamp, long commitTimestamp) throws IOException;
@@ -35,6 +39,8 @@ public interface CommitTable {
 
     public interface Client extends Closeable {
         ListenableFuture<Optional<Long>> getCommitTimestamp(long startTimestamp);
+        // Commit timestamps of several transactions, in the same order
+        ListenableFuture<List<Optional<Long>>> getCommitTimestamps(long[] startTimestamps);
         ListenableFuture<Long> readLowWatermark();
         ListenableFuture<Void> completeTransaction(long startTimestamp);
     }
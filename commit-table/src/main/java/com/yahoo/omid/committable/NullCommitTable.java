@@ -16,6 +16,7 @@
 package com.yahoo.omid.committable;
 
 import java.io.IOException;
+import java.util.List;
 
 import com.google.common.base.Optional;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -36,6 +37,11 @@ public class NullCommitTable implements CommitTable {
         return f;
     }
 
+    @Override
+    public int partitionOf(long startTimestamp, int numPartitions) {
+        return (int) (startTimestamp % numPartitions);
+    }
+
     public class Writer implements CommitTable.Writer {
         @Override
         public void addCommittedTransaction(long startTimestamp, long commitTimestamp) {
@@ -64,6 +70,11 @@ public class NullCommitTable implements CommitTable {
             throw new UnsupportedOperationException();
         }
 
+        @Override
+        public ListenableFuture<List<Optional<Long>>> getCommitTimestamps(long[] startTimestamps) {
+            throw new UnsupportedOperationException();
+        }
+
         @Override
         public ListenableFuture<Long> readLowWatermark() {
             throw new UnsupportedOperationException();
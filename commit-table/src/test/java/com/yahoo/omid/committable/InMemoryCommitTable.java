@@ -5,6 +5,8 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class InMemoryCommitTable implements CommitTable {
@@ -26,6 +28,11 @@ public class InMemoryCommitTable implements CommitTable {
         return f;
     }
 
+    @Override
+    public int partitionOf(long startTimestamp, int numPartitions) {
+        return (int) (startTimestamp % numPartitions);
+    }
+
     public class Writer implements CommitTable.Writer {
         @Override
         public void addCommittedTransaction(long startTimestamp, long commitTimestamp) {
@@ -61,6 +68,17 @@ public class InMemoryCommitTable implements CommitTable {
             return f;
         }
 
+        @Override
+        public ListenableFuture<List<Optional<Long>>> getCommitTimestamps(long[] startTimestamps) {
+            SettableFuture<List<Optional<Long>>> f = SettableFuture.<List<Optional<Long>>> create();
+            List<Optional<Long>> results = new ArrayList<Optional<Long>>(startTimestamps.length);
+            for (long startTimestamp : startTimestamps) {
+                results.add(Optional.fromNullable(table.get(startTimestamp)));
+            }
+            f.set(results);
+            return f;
+        }
+
         @Override
         public ListenableFuture<Long> readLowWatermark() {
             SettableFuture<Long> f = SettableFuture.<Long> create();
@@ -93,6 +93,7 @@ public class HBaseTransactionManager extends AbstractTransactionManager implemen
             if (commitTableClient == null) {
                 try {
                     HBaseCommitTableConfig config = new HBaseCommitTableConfig();
+                    config.setBatchRows(conf.getBoolean(HBaseCommitTable.HBASE_COMMIT_TABLE_BATCH_ROWS_KEY, false));
                     CommitTable commitTable =
                             new HBaseCommitTable(conf, config);
                     commitTableClient = commitTable.getClient().get();
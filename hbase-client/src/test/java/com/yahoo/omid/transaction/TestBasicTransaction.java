@@ -2,6 +2,10 @@ package com.yahoo.omid.transaction;
 
 import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertTrue;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import org.testng.annotations.Test;
 import org.testng.AssertJUnit;
 import org.apache.hadoop.hbase.client.Delete;
@@ -14,9 +18,11 @@ import org.apache.hadoop.hbase.util.Bytes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.yahoo.omid.committable.CommitTable;
 import com.yahoo.omid.transaction.TTable;
 import com.yahoo.omid.transaction.Transaction;
 import com.yahoo.omid.transaction.TransactionManager;
+import com.yahoo.omid.tsoclient.TSOClient;
 
 public class TestBasicTransaction extends OmidTestBase {
     private static final Logger LOG = LoggerFactory.getLogger(TestBasicTransaction.class);
@@ -430,4 +436,25 @@ public class TestBasicTransaction extends OmidTestBase {
 
     }
 
+    @Test
+    public void testReadOnlyTransactionCommitsLocally() throws Exception {
+        CommitTable.Client commitTableClient = spy(getTSO().getCommitTable().getClient().get());
+        TSOClient client = TSOClient.newBuilder().withConfiguration(getTSO().getClientConfiguration())
+                .build();
+        TransactionManager tm = HBaseTransactionManager.newBuilder()
+                .withConfiguration(hbaseConf).withTSOClient(client)
+                .withCommitTableClient(commitTableClient).build();
+        TTable tt = new TTable(hbaseConf, TEST_TABLE);
+
+        HBaseTransaction tx = (HBaseTransaction) tm.begin();
+        tt.get(tx, new Get(Bytes.toBytes("row1")));
+        tm.commit(tx);
+
+        assertEquals(Transaction.Status.COMMITTED, tx.getStatus());
+        assertEquals("Read-only transactions commit at their start timestamp",
+                     tx.getStartTimestamp(), tx.getCommitTimestamp());
+        verify(commitTableClient, never()).completeTransaction(anyLong());
+        tt.close();
+    }
+
 }
@@ -0,0 +1,229 @@
+/**
+ * Copyright 2011-2015 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.omid.committable.hbase;
+
+import static com.google.common.base.Charsets.UTF_8;
+
+import java.util.BitSet;
+
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * Encoding of the commit table in batch rows.
+ *
+ * Each row holds the commits of a range of 2^16 start timestamps. Every
+ * flushed batch adds a cell to the rows of the ranges it has commits in,
+ * so the commits of a batch take a handful of cells instead of a row each.
+ * The qualifier of a cell is the lowest commit timestamp in it, which is
+ * unique. Its value is the width of the commit deltas, followed by the
+ * sorted start timestamps as offsets from the start of the range and the
+ * commit timestamps as deltas from their start timestamps. Both are fixed
+ * width, so a start timestamp is found with a binary search.
+ *
+ * A row also holds a completion cell for each of its completed
+ * transactions, whose qualifier is the offset of the start timestamp. They
+ * are written with puts, so completing a transaction again is harmless, and
+ * the row is removed when they cover all its commits and it's below the low
+ * watermark.
+ */
+final class CommitBatchRows {
+
+    static final int RANGE_BITS = 16;
+    static final byte[] BATCH_CELL_PREFIX = "B".getBytes(UTF_8);
+    static final byte[] COMPLETED_CELL_PREFIX = "D".getBytes(UTF_8);
+
+    private static final int OFFSET_SIZE = 2;
+
+    private CommitBatchRows() {
+    }
+
+    static long rangeOf(long startTimestamp) {
+        return startTimestamp >>> RANGE_BITS;
+    }
+
+    static long rangeStart(long range) {
+        return range << RANGE_BITS;
+    }
+
+    /**
+     * The keys are spread in buckets like the ones of the transaction rows,
+     * and one byte longer so they never clash with them
+     */
+    static byte[] rowKey(long range) {
+        byte[] key = new byte[10];
+        key[0] = (byte) (range & (HBaseCommitTable.NUM_BUCKETS - 1));
+        Bytes.putLong(key, 1, rangeStart(range));
+        return key;
+    }
+
+    static boolean isBatchRowKey(byte[] key) {
+        return key.length == 10;
+    }
+
+    static long keyToRange(byte[] key) {
+        return rangeOf(Bytes.toLong(key, 1));
+    }
+
+    static byte[] cellQualifier(long lowestCommitTimestamp) {
+        return Bytes.add(BATCH_CELL_PREFIX, Bytes.toBytes(lowestCommitTimestamp));
+    }
+
+    static boolean isBatchCell(byte[] qualifier) {
+        return qualifier.length == BATCH_CELL_PREFIX.length + Bytes.SIZEOF_LONG
+                && Bytes.startsWith(qualifier, BATCH_CELL_PREFIX);
+    }
+
+    static byte[] completedQualifier(long startTimestamp) {
+        int offset = offsetOf(startTimestamp);
+        return Bytes.add(COMPLETED_CELL_PREFIX, new byte[] { (byte) (offset >>> 8), (byte) offset });
+    }
+
+    static boolean isCompletedCell(byte[] qualifier) {
+        return qualifier.length == COMPLETED_CELL_PREFIX.length + OFFSET_SIZE
+                && Bytes.startsWith(qualifier, COMPLETED_CELL_PREFIX);
+    }
+
+    /**
+     * Returns the offset in its range of the start timestamp
+     * of a completion cell
+     */
+    static int completedOffset(byte[] qualifier) {
+        return readOffset(qualifier, COMPLETED_CELL_PREFIX.length);
+    }
+
+    /**
+     * Encodes the commits in positions [from, to) of the arrays, which must
+     * be sorted by start timestamp and belong to the same range
+     */
+    static byte[] encode(long[] startTimestamps, long[] commitTimestamps, int from, int to) {
+        long maxDelta = 0;
+        for (int i = from; i < to; i++) {
+            maxDelta = Math.max(maxDelta, commitTimestamps[i] - startTimestamps[i]);
+        }
+        int width = maxDelta <= 0xFFFFFFFFL ? Bytes.SIZEOF_INT : Bytes.SIZEOF_LONG;
+        int n = to - from;
+        byte[] value = new byte[1 + n * (OFFSET_SIZE + width)];
+        value[0] = (byte) width;
+        int offsets = 1;
+        int deltas = 1 + n * OFFSET_SIZE;
+        for (int i = from; i < to; i++) {
+            assert (rangeOf(startTimestamps[i]) == rangeOf(startTimestamps[from]));
+            int offset = offsetOf(startTimestamps[i]);
+            value[offsets++] = (byte) (offset >>> 8);
+            value[offsets++] = (byte) offset;
+            long delta = commitTimestamps[i] - startTimestamps[i];
+            for (int shift = (width - 1) * 8; shift >= 0; shift -= 8) {
+                value[deltas++] = (byte) (delta >>> shift);
+            }
+        }
+        return value;
+    }
+
+    static int numCommits(byte[] value) {
+        return (value.length - 1) / (OFFSET_SIZE + value[0]);
+    }
+
+    /**
+     * Sets the offsets in their range of the start timestamps of the cell
+     */
+    static void addOffsets(byte[] value, BitSet offsets) {
+        int n = numCommits(value);
+        for (int i = 0; i < n; i++) {
+            offsets.set(readOffset(value, 1 + i * OFFSET_SIZE));
+        }
+    }
+
+    /**
+     * Returns the commit timestamp of the transaction in the cell,
+     * or -1 if it's not there
+     */
+    static long lookup(byte[] value, long startTimestamp) {
+        int width = value[0];
+        int n = numCommits(value);
+        int target = offsetOf(startTimestamp);
+        int lo = 0;
+        int hi = n - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int offset = readOffset(value, 1 + mid * OFFSET_SIZE);
+            if (offset < target) {
+                lo = mid + 1;
+            } else if (offset > target) {
+                hi = mid - 1;
+            } else {
+                long delta = 0;
+                int deltaPos = 1 + n * OFFSET_SIZE + mid * width;
+                for (int i = 0; i < width; i++) {
+                    delta = delta << 8 | (value[deltaPos + i] & 0xFF);
+                }
+                return startTimestamp + delta;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Sorts the first n commits by start timestamp
+     */
+    static void sort(long[] startTimestamps, long[] commitTimestamps, int n) {
+        sort(startTimestamps, commitTimestamps, 0, n - 1);
+    }
+
+    private static void sort(long[] starts, long[] commits, int lo, int hi) {
+        while (lo < hi) {
+            long pivot = starts[(lo + hi) >>> 1];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (starts[i] < pivot) {
+                    i++;
+                }
+                while (starts[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(starts, i, j);
+                    swap(commits, i, j);
+                    i++;
+                    j--;
+                }
+            }
+            // Recurse on the smaller side to bound the stack
+            if (j - lo < hi - i) {
+                sort(starts, commits, lo, j);
+                lo = i;
+            } else {
+                sort(starts, commits, i, hi);
+                hi = j;
+            }
+        }
+    }
+
+    private static int offsetOf(long startTimestamp) {
+        return (int) (startTimestamp - rangeStart(rangeOf(startTimestamp)));
+    }
+
+    private static int readOffset(byte[] bytes, int pos) {
+        return (bytes[pos] & 0xFF) << 8 | (bytes[pos + 1] & 0xFF);
+    }
+
+    private static void swap(long[] a, int i, int j) {
+        long tmp = a[i];
+        a[i] = a[j];
+        a[j] = tmp;
+    }
+
+}
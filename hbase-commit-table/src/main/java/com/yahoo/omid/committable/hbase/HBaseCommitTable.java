@@ -19,7 +19,10 @@ import static com.google.common.base.Charsets.UTF_8;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
+import java.util.TreeSet;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
@@ -29,11 +32,21 @@ import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Delete;
 import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.HConnection;
+import org.apache.hadoop.hbase.client.HConnectionManager;
 import org.apache.hadoop.hbase.client.HTable;
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.filter.FirstKeyOnlyFilter;
+import org.apache.hadoop.hbase.filter.KeyOnlyFilter;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,10 +72,16 @@ public class HBaseCommitTable implements CommitTable {
     static final byte[] LOW_WATERMARK_QUALIFIER = "LWC".getBytes(UTF_8);
 
     public static final String HBASE_COMMIT_TABLE_NAME_KEY = "omid.committable.tablename";
+    public static final String HBASE_COMMIT_TABLE_BATCH_ROWS_KEY = "omid.committable.batchrows";
+
+    // Number of buckets the rows are spread over by the default key generator
+    static final int NUM_BUCKETS = 16;
 
     private final String tableName;
     private final Configuration hbaseConfig;
     private final KeyGenerator keygen;
+    // Whether the commits are stored in batch rows. See CommitBatchRows
+    private final boolean batchRows;
 
     /**
      * Create a hbase commit table.
@@ -71,24 +90,33 @@ public class HBaseCommitTable implements CommitTable {
      */
     @Inject
     public HBaseCommitTable(Configuration hbaseConfig, HBaseCommitTableConfig config) {
-        this(hbaseConfig, config.getTableName(), defaultKeyGenerator());
+        this(hbaseConfig, config.getTableName(), defaultKeyGenerator(), config.isBatchRows());
     }
 
     protected HBaseCommitTable(Configuration hbaseConfig, String tableName, KeyGenerator keygen) {
+        this(hbaseConfig, tableName, keygen, false);
+    }
+
+    private HBaseCommitTable(Configuration hbaseConfig, String tableName, KeyGenerator keygen,
+                             boolean batchRows) {
 
         this.hbaseConfig = hbaseConfig;
         this.tableName = tableName;
         this.keygen = keygen;
+        this.batchRows = batchRows;
 
     }
 
     // ************************* Reader and writer *************************
 
     public class HBaseWriter implements Writer {
+        // Not shared with other writers, so they can flush in parallel
+        final HConnection connection;
         final HTable table;
 
         HBaseWriter(Configuration hbaseConfig, String tableName) throws IOException {
-            table = new HTable(hbaseConfig, tableName);
+            connection = HConnectionManager.createConnection(hbaseConfig);
+            table = new HTable(TableName.valueOf(tableName), connection);
             table.setAutoFlush(false, true);
         }
 
@@ -127,6 +155,205 @@ public class HBaseCommitTable implements CommitTable {
         @Override
         public void close() throws IOException {
             table.close();
+            connection.close();
+        }
+
+    }
+
+    /**
+     * Writes each flushed batch as a cell in the batch row of each range of
+     * start timestamps it has commits in. The rows below the low watermark
+     * whose transactions have all been completed are removed in the
+     * background.
+     */
+    public class HBaseBatchWriter implements Writer {
+        // Not shared with other writers, so they can flush in parallel
+        final HConnection connection;
+        final HTable table;
+        // HTables aren't thread safe, the GC thread uses its own
+        final HTable gcTable;
+
+        long[] startTimestamps = new long[1024];
+        long[] commitTimestamps = new long[1024];
+        int numCommits = 0;
+
+        long lowWatermarkToCollect = 0;
+        ExecutorService gcExecutor = null;
+        // First range never checked for garbage, or -1 before looking for it
+        long nextRangeToCollect = -1;
+        // Ranges checked with commits not completed yet
+        final TreeSet<Long> uncompletedRanges = new TreeSet<Long>();
+
+        HBaseBatchWriter(Configuration hbaseConfig, String tableName) throws IOException {
+            connection = HConnectionManager.createConnection(hbaseConfig);
+            table = new HTable(TableName.valueOf(tableName), connection);
+            table.setAutoFlush(false, true);
+            gcTable = new HTable(TableName.valueOf(tableName), connection);
+        }
+
+        @Override
+        public void addCommittedTransaction(long startTimestamp, long commitTimestamp) throws IOException {
+            assert(startTimestamp < commitTimestamp);
+            if (numCommits == startTimestamps.length) {
+                startTimestamps = Arrays.copyOf(startTimestamps, numCommits * 2);
+                commitTimestamps = Arrays.copyOf(commitTimestamps, numCommits * 2);
+            }
+            startTimestamps[numCommits] = startTimestamp;
+            commitTimestamps[numCommits] = commitTimestamp;
+            numCommits++;
+        }
+
+        @Override
+        public void updateLowWatermark(long lowWatermark) throws IOException {
+            Put put = new Put(LOW_WATERMARK_ROW);
+            put.add(LOW_WATERMARK_FAMILY, LOW_WATERMARK_QUALIFIER,
+                    Bytes.toBytes(lowWatermark));
+            table.put(put);
+            lowWatermarkToCollect = lowWatermark;
+        }
+
+        @Override
+        public ListenableFuture<Void> flush() {
+            SettableFuture<Void> f = SettableFuture.<Void>create();
+            try {
+                CommitBatchRows.sort(startTimestamps, commitTimestamps, numCommits);
+                int from = 0;
+                while (from < numCommits) {
+                    long range = CommitBatchRows.rangeOf(startTimestamps[from]);
+                    long lowestCommitTimestamp = commitTimestamps[from];
+                    int to = from + 1;
+                    while (to < numCommits && CommitBatchRows.rangeOf(startTimestamps[to]) == range) {
+                        lowestCommitTimestamp = Math.min(lowestCommitTimestamp, commitTimestamps[to]);
+                        to++;
+                    }
+                    Put put = new Put(CommitBatchRows.rowKey(range));
+                    put.add(COMMIT_TABLE_FAMILY, CommitBatchRows.cellQualifier(lowestCommitTimestamp),
+                            CommitBatchRows.encode(startTimestamps, commitTimestamps, from, to));
+                    table.put(put);
+                    from = to;
+                }
+                table.flushCommits();
+                numCommits = 0;
+                if (lowWatermarkToCollect != 0) {
+                    scheduleGarbageCollection(lowWatermarkToCollect);
+                    lowWatermarkToCollect = 0;
+                }
+                f.set(null);
+            } catch (IOException e) {
+                LOG.error("Error flushing data", e);
+                f.setException(e);
+            }
+            return f;
+        }
+
+        private void scheduleGarbageCollection(final long lowWatermark) {
+            if (gcExecutor == null) {
+                gcExecutor = Executors.newSingleThreadExecutor(
+                        new ThreadFactoryBuilder().setNameFormat("omid-committable-gc-%d").build());
+            }
+            gcExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        collectGarbage(lowWatermark);
+                    } catch (IOException e) {
+                        LOG.warn("Error removing batch rows below low watermark {}", lowWatermark, e);
+                    }
+                }
+            });
+        }
+
+        /**
+         * Removes the batch rows of the ranges below the low watermark whose
+         * transactions have all been completed. No transaction below the low
+         * watermark can commit, so these rows don't get any new commits.
+         */
+        void collectGarbage(long lowWatermark) throws IOException {
+            // Ranges whose last timestamp is at or below the low watermark
+            long endRange = CommitBatchRows.rangeOf(lowWatermark + 1);
+            if (nextRangeToCollect < 0) {
+                nextRangeToCollect = findFirstBatchRowRange(endRange);
+            }
+            List<Long> ranges = new ArrayList<Long>(uncompletedRanges);
+            for (long range = nextRangeToCollect; range < endRange; range++) {
+                ranges.add(range);
+            }
+            if (ranges.isEmpty()) {
+                return;
+            }
+            List<Get> gets = new ArrayList<Get>(ranges.size());
+            for (long range : ranges) {
+                Get get = new Get(CommitBatchRows.rowKey(range));
+                get.addFamily(COMMIT_TABLE_FAMILY);
+                gets.add(get);
+            }
+            Result[] results = gcTable.get(gets);
+            List<Delete> deletes = new ArrayList<Delete>();
+            for (int i = 0; i < results.length; i++) {
+                long range = ranges.get(i);
+                if (results[i] == null || results[i].isEmpty()) {
+                    uncompletedRanges.remove(range);
+                    continue;
+                }
+                BitSet uncompleted = new BitSet();
+                BitSet completed = new BitSet();
+                for (Cell cell : results[i].rawCells()) {
+                    byte[] qualifier = CellUtil.cloneQualifier(cell);
+                    if (CommitBatchRows.isBatchCell(qualifier)) {
+                        CommitBatchRows.addOffsets(CellUtil.cloneValue(cell), uncompleted);
+                    } else if (CommitBatchRows.isCompletedCell(qualifier)) {
+                        completed.set(CommitBatchRows.completedOffset(qualifier));
+                    }
+                }
+                uncompleted.andNot(completed);
+                if (uncompleted.isEmpty()) {
+                    deletes.add(new Delete(CommitBatchRows.rowKey(range)));
+                    uncompletedRanges.remove(range);
+                } else {
+                    uncompletedRanges.add(range);
+                }
+            }
+            if (!deletes.isEmpty()) {
+                LOG.debug("Removing {} batch rows below low watermark {}", deletes.size(), lowWatermark);
+                gcTable.delete(deletes);
+            }
+            nextRangeToCollect = Math.max(nextRangeToCollect, endRange);
+        }
+
+        /**
+         * Looks for the first range with a batch row left by previous
+         * instances, so the garbage collection can start from it
+         */
+        private long findFirstBatchRowRange(long endRange) throws IOException {
+            long first = endRange;
+            Scan scan = new Scan();
+            scan.addFamily(COMMIT_TABLE_FAMILY);
+            scan.setFilter(new FilterList(new FirstKeyOnlyFilter(), new KeyOnlyFilter()));
+            try (ResultScanner scanner = gcTable.getScanner(scan)) {
+                for (Result result : scanner) {
+                    if (CommitBatchRows.isBatchRowKey(result.getRow())) {
+                        first = Math.min(first, CommitBatchRows.keyToRange(result.getRow()));
+                    }
+                }
+            }
+            return first;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (gcExecutor != null) {
+                gcExecutor.shutdownNow();
+                try {
+                    if (!gcExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                        LOG.warn("Garbage collection executor did not shutdown");
+                    }
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            gcTable.close();
+            table.close();
+            connection.close();
         }
 
     }
@@ -154,6 +381,9 @@ public class HBaseCommitTable implements CommitTable {
         @Override
         public ListenableFuture<Optional<Long>> getCommitTimestamp(long startTimestamp) {
 
+            if (batchRows) {
+                return getCommitTimestampFromBatchRow(startTimestamp);
+            }
             SettableFuture<Optional<Long>> f = SettableFuture.<Optional<Long>>create();
             try {
                 Get get = new Get(startTimestampToKey(startTimestamp));
@@ -175,6 +405,73 @@ public class HBaseCommitTable implements CommitTable {
             return f;
         }
 
+        /**
+         * Reads all the rows with a single multi-get
+         */
+        @Override
+        public ListenableFuture<List<Optional<Long>>> getCommitTimestamps(long[] startTimestamps) {
+            SettableFuture<List<Optional<Long>>> f = SettableFuture.<List<Optional<Long>>>create();
+            try {
+                List<Get> gets = new ArrayList<Get>(startTimestamps.length);
+                for (long startTimestamp : startTimestamps) {
+                    Get get;
+                    if (batchRows) {
+                        get = new Get(CommitBatchRows.rowKey(CommitBatchRows.rangeOf(startTimestamp)));
+                        get.addFamily(COMMIT_TABLE_FAMILY);
+                    } else {
+                        get = new Get(startTimestampToKey(startTimestamp));
+                        get.addColumn(COMMIT_TABLE_FAMILY, COMMIT_TABLE_QUALIFIER);
+                    }
+                    gets.add(get);
+                }
+                Result[] results = table.get(gets);
+                List<Optional<Long>> commitTimestamps = new ArrayList<Optional<Long>>(startTimestamps.length);
+                for (int i = 0; i < startTimestamps.length; i++) {
+                    if (batchRows) {
+                        commitTimestamps.add(findInBatchRow(results[i], startTimestamps[i]));
+                    } else if (containsATimestamp(results[i])) {
+                        commitTimestamps.add(Optional.of(decodeCommitTimestamp(startTimestamps[i],
+                                results[i].getValue(COMMIT_TABLE_FAMILY, COMMIT_TABLE_QUALIFIER))));
+                    } else {
+                        commitTimestamps.add(Optional.<Long>absent());
+                    }
+                }
+                f.set(commitTimestamps);
+            } catch (IOException e) {
+                LOG.error("Error getting commit timestamps for {} TXs", startTimestamps.length, e);
+                f.setException(e);
+            }
+            return f;
+        }
+
+        private ListenableFuture<Optional<Long>> getCommitTimestampFromBatchRow(long startTimestamp) {
+            SettableFuture<Optional<Long>> f = SettableFuture.<Optional<Long>>create();
+            try {
+                Get get = new Get(CommitBatchRows.rowKey(CommitBatchRows.rangeOf(startTimestamp)));
+                get.addFamily(COMMIT_TABLE_FAMILY);
+                f.set(findInBatchRow(table.get(get), startTimestamp));
+            } catch (IOException e) {
+                LOG.error("Error getting commit timestamp for TX {}", startTimestamp, e);
+                f.setException(e);
+            }
+            return f;
+        }
+
+        private Optional<Long> findInBatchRow(Result result, long startTimestamp) {
+            if (result != null && !result.isEmpty()) {
+                for (Cell cell : result.rawCells()) {
+                    if (!CommitBatchRows.isBatchCell(CellUtil.cloneQualifier(cell))) {
+                        continue;
+                    }
+                    long commitTs = CommitBatchRows.lookup(CellUtil.cloneValue(cell), startTimestamp);
+                    if (commitTs != -1) {
+                        return Optional.of(commitTs);
+                    }
+                }
+            }
+            return Optional.absent();
+        }
+
         @Override
         public ListenableFuture<Long> readLowWatermark() {
             SettableFuture<Long> f = SettableFuture.<Long> create();
@@ -208,8 +505,12 @@ public class HBaseCommitTable implements CommitTable {
                         return f;
                     }
 
-                    DeleteRequest req = new DeleteRequest(
-                            new Delete(startTimestampToKey(startTimestamp), startTimestamp));
+                    // Batch rows only count the completed transactions, the
+                    // rows are removed once they are below the low watermark
+                    Delete delete = batchRows
+                            ? null
+                            : new Delete(startTimestampToKey(startTimestamp), startTimestamp);
+                    DeleteRequest req = new DeleteRequest(delete, startTimestamp);
                     deleteQueue.put(req);
                     return req;
                 }
@@ -241,12 +542,16 @@ public class HBaseCommitTable implements CommitTable {
                     }
 
                     if (r == null || reqbatch.size() == DELETE_BATCH_SIZE) {
-                        List<Delete> deletes = new ArrayList<Delete>();
-                        for (DeleteRequest dr : reqbatch) {
-                            deletes.add(dr.getDelete());
-                        }
                         try {
-                            deleteTable.delete(deletes);
+                            if (batchRows) {
+                                markCompletedTransactions(reqbatch);
+                            } else {
+                                List<Delete> deletes = new ArrayList<Delete>();
+                                for (DeleteRequest dr : reqbatch) {
+                                    deletes.add(dr.getDelete());
+                                }
+                                deleteTable.delete(deletes);
+                            }
                             for (DeleteRequest dr : reqbatch) {
                                 dr.complete();
                             }
@@ -279,6 +584,21 @@ public class HBaseCommitTable implements CommitTable {
             }
         }
 
+        /**
+         * Writes a completion cell for each transaction in its batch row.
+         * They are idempotent, so a retried batch doesn't count twice
+         */
+        private void markCompletedTransactions(List<DeleteRequest> reqbatch) throws IOException {
+            List<Put> puts = new ArrayList<Put>(reqbatch.size());
+            for (DeleteRequest dr : reqbatch) {
+                long startTimestamp = dr.getStartTimestamp();
+                Put put = new Put(CommitBatchRows.rowKey(CommitBatchRows.rangeOf(startTimestamp)));
+                put.add(COMMIT_TABLE_FAMILY, CommitBatchRows.completedQualifier(startTimestamp), new byte[0]);
+                puts.add(put);
+            }
+            deleteTable.put(puts);
+        }
+
         @Override
         public synchronized void close() throws IOException {
             isClosed = true;
@@ -313,9 +633,11 @@ public class HBaseCommitTable implements CommitTable {
 
         private class DeleteRequest extends AbstractFuture<Void> {
             final Delete delete;
+            final long startTimestamp;
 
-            DeleteRequest(Delete delete) {
+            DeleteRequest(Delete delete, long startTimestamp) {
                 this.delete = delete;
+                this.startTimestamp = startTimestamp;
             }
 
             void error(IOException ioe) {
@@ -329,6 +651,10 @@ public class HBaseCommitTable implements CommitTable {
             Delete getDelete() {
                 return delete;
             }
+
+            long getStartTimestamp() {
+                return startTimestamp;
+            }
         }
     }
 
@@ -338,7 +664,11 @@ public class HBaseCommitTable implements CommitTable {
     public ListenableFuture<Writer> getWriter() {
         SettableFuture<Writer> f = SettableFuture.<Writer> create();
         try {
-            f.set(new HBaseWriter(hbaseConfig, tableName));
+            if (batchRows) {
+                f.set(new HBaseBatchWriter(hbaseConfig, tableName));
+            } else {
+                f.set(new HBaseWriter(hbaseConfig, tableName));
+            }
         } catch (IOException ioe) {
             f.setException(ioe);
         }
@@ -356,6 +686,18 @@ public class HBaseCommitTable implements CommitTable {
         return f;
     }
 
+    /**
+     * Gives adjacent buckets to each partition. Pre-split tables have their
+     * regions over ranges of buckets, so each writer mostly writes to its
+     * own regions. Batch rows are spread by range instead of by timestamp.
+     */
+    @Override
+    public int partitionOf(long startTimestamp, int numPartitions) {
+        long spread = batchRows ? CommitBatchRows.rangeOf(startTimestamp) : startTimestamp;
+        int bucket = (int) (spread & (NUM_BUCKETS - 1));
+        return bucket * numPartitions / NUM_BUCKETS;
+    }
+
     // *************************** Helper methods *****************************
 
     protected byte[] startTimestampToKey(long startTimestamp) throws IOException {
@@ -400,7 +742,7 @@ public class HBaseCommitTable implements CommitTable {
         @Override
         public byte[] startTimestampToKey(long startTimestamp) throws IOException {
             byte[] bytes = new byte[9];
-            bytes[0] = (byte) (startTimestamp & 0x0F);
+            bytes[0] = (byte) (startTimestamp & (NUM_BUCKETS - 1));
             bytes[1] = (byte) ((startTimestamp >> 56) & 0xFF);
             bytes[2] = (byte) ((startTimestamp >> 48) & 0xFF);
             bytes[3] = (byte) ((startTimestamp >> 40) & 0xFF);
@@ -17,6 +17,7 @@ package com.yahoo.omid.committable.hbase;
 
 import static com.yahoo.omid.committable.hbase.HBaseCommitTable.COMMIT_TABLE_DEFAULT_NAME;
 import static com.yahoo.omid.committable.hbase.HBaseCommitTable.HBASE_COMMIT_TABLE_NAME_KEY;
+import static com.yahoo.omid.committable.hbase.HBaseCommitTable.HBASE_COMMIT_TABLE_BATCH_ROWS_KEY;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -27,6 +28,7 @@ import com.google.inject.Inject;
 public class HBaseCommitTableConfig {
 
     private String tableName = COMMIT_TABLE_DEFAULT_NAME;
+    private boolean batchRows = false;
 
     public String getTableName() {
         return tableName;
@@ -37,4 +39,13 @@ public class HBaseCommitTableConfig {
         this.tableName = tableName;
     }
 
+    public boolean isBatchRows() {
+        return batchRows;
+    }
+
+    @Inject(optional = true)
+    public void setBatchRows(@Named(HBASE_COMMIT_TABLE_BATCH_ROWS_KEY) boolean batchRows) {
+        this.batchRows = batchRows;
+    }
+
 }
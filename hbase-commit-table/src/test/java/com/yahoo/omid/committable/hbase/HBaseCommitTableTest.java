@@ -10,6 +10,8 @@ import org.testng.annotations.BeforeClass;
 import org.testng.Assert;
 import static com.yahoo.omid.committable.hbase.HBaseCommitTable.COMMIT_TABLE_FAMILY;
 import static com.yahoo.omid.committable.hbase.HBaseCommitTable.LOW_WATERMARK_FAMILY;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
@@ -153,6 +155,10 @@ public class HBaseCommitTableTest {
         }
         assertEquals("Rows should be 1000!", 1000, rowCount(TABLE_NAME, COMMIT_TABLE_FAMILY));
 
+        // Test we get several commit timestamps at once
+        List<Optional<Long>> commitTimestamps = client.getCommitTimestamps(new long[] { 999, 5000, 0 }).get();
+        assertEquals(Arrays.asList(Optional.of(1000L), Optional.<Long>absent(), Optional.of(1L)), commitTimestamps);
+
         // Test the successful deletion of the 1000 txs
         Future<Void> f = null;
         for (long i = 0; i < 1000; i++) {
@@ -188,6 +194,95 @@ public class HBaseCommitTableTest {
 
     }
 
+    @Test
+    public void testBatchRows() throws Throwable {
+        HBaseCommitTableConfig config = new HBaseCommitTableConfig();
+        config.setTableName(TEST_TABLE);
+        config.setBatchRows(true);
+        HBaseCommitTable commitTable = new HBaseCommitTable(hbaseConf, config);
+
+        Writer writer = commitTable.getWriter().get();
+        Client client = commitTable.getClient().get();
+
+        // 1000 txs in a single batch row, and another one in the next range
+        long nextRangeStart = CommitBatchRows.rangeStart(1);
+        for (int i = 999; i >= 0; i--) {
+            writer.addCommittedTransaction(i, 1000 + i);
+        }
+        writer.addCommittedTransaction(nextRangeStart, nextRangeStart + 1);
+        writer.flush().get();
+        assertEquals("Rows should be 2!", 2, rowCount(TABLE_NAME, COMMIT_TABLE_FAMILY));
+
+        // A second batch adds a cell to the same row
+        writer.addCommittedTransaction(2000, 2001);
+        writer.flush().get();
+        assertEquals("Rows should be 2!", 2, rowCount(TABLE_NAME, COMMIT_TABLE_FAMILY));
+
+        for (long i = 0; i < 1000; i++) {
+            assertEquals("Commit timestamp should be " + (1000 + i),
+                    Optional.of(1000 + i), client.getCommitTimestamp(i).get());
+        }
+        assertEquals(Optional.of(2001L), client.getCommitTimestamp(2000).get());
+        assertEquals(Optional.of(nextRangeStart + 1), client.getCommitTimestamp(nextRangeStart).get());
+        assertFalse("Commit timestamp should not be present", client.getCommitTimestamp(1000).get().isPresent());
+        assertEquals(Arrays.asList(Optional.of(nextRangeStart + 1), Optional.<Long>absent(), Optional.of(1000L)),
+                     client.getCommitTimestamps(new long[] { nextRangeStart, 1000, 0 }).get());
+
+        // The first row is only removed when it's below the low watermark
+        // and all its transactions have been completed
+        for (long i = 0; i < 1000; i++) {
+            client.completeTransaction(i).get();
+        }
+        writer.updateLowWatermark(nextRangeStart + 1);
+        writer.flush().get();
+        waitForGarbageCollection(writer);
+        assertEquals("Rows should be 2!", 2, rowCount(TABLE_NAME, COMMIT_TABLE_FAMILY));
+
+        client.completeTransaction(2000).get();
+        writer.updateLowWatermark(nextRangeStart + 2);
+        writer.flush().get();
+        waitForGarbageCollection(writer);
+        assertEquals("Rows should be 1!", 1, rowCount(TABLE_NAME, COMMIT_TABLE_FAMILY));
+        assertEquals(Optional.of(nextRangeStart + 1), client.getCommitTimestamp(nextRangeStart).get());
+
+        writer.close();
+        client.close();
+    }
+
+    @Test
+    public void testBatchRowsAreNotRemovedWhenTransactionsAreCompletedTwice() throws Throwable {
+        HBaseCommitTableConfig config = new HBaseCommitTableConfig();
+        config.setTableName(TEST_TABLE);
+        config.setBatchRows(true);
+        HBaseCommitTable commitTable = new HBaseCommitTable(hbaseConf, config);
+
+        Writer writer = commitTable.getWriter().get();
+        Client client = commitTable.getClient().get();
+
+        writer.addCommittedTransaction(1, 2);
+        writer.addCommittedTransaction(3, 4);
+        writer.flush().get();
+
+        // As if the completion was retried, the row must still keep
+        // the commit of the transaction that wasn't completed
+        client.completeTransaction(1).get();
+        client.completeTransaction(1).get();
+        writer.updateLowWatermark(CommitBatchRows.rangeStart(1));
+        writer.flush().get();
+        waitForGarbageCollection(writer);
+        assertEquals("Rows should be 1!", 1, rowCount(TABLE_NAME, COMMIT_TABLE_FAMILY));
+        assertEquals(Optional.of(4L), client.getCommitTimestamp(3).get());
+
+        client.completeTransaction(3).get();
+        writer.updateLowWatermark(CommitBatchRows.rangeStart(1) + 1);
+        writer.flush().get();
+        waitForGarbageCollection(writer);
+        assertEquals("Rows should be 0!", 0, rowCount(TABLE_NAME, COMMIT_TABLE_FAMILY));
+
+        writer.close();
+        client.close();
+    }
+
     @Test
     public void testClosingClientEmptyQueuesProperly() throws Throwable {
         HBaseCommitTableConfig config = new HBaseCommitTableConfig();
@@ -221,6 +316,38 @@ public class HBaseCommitTableTest {
 
     }
 
+    @Test
+    public void testPartitionsFollowTheBuckets() throws Throwable {
+        HBaseCommitTableConfig config = new HBaseCommitTableConfig();
+        config.setTableName(TEST_TABLE);
+        HBaseCommitTable commitTable = new HBaseCommitTable(hbaseConf, config);
+
+        // Each partition takes adjacent buckets, whatever the timestamp
+        for (long startTs = 0; startTs < 1000; startTs++) {
+            long bucket = startTs % HBaseCommitTable.NUM_BUCKETS;
+            assertEquals(bucket / 4, commitTable.partitionOf(startTs, 4));
+            assertEquals(0, commitTable.partitionOf(startTs, 1));
+        }
+
+        // Batch rows are spread by range
+        config.setBatchRows(true);
+        commitTable = new HBaseCommitTable(hbaseConf, config);
+        long rangeSize = CommitBatchRows.rangeStart(1);
+        for (long range = 0; range < HBaseCommitTable.NUM_BUCKETS; range++) {
+            long startTs = CommitBatchRows.rangeStart(range);
+            assertEquals(range / 2, commitTable.partitionOf(startTs, 8));
+            assertEquals(range / 2, commitTable.partitionOf(startTs + rangeSize - 1, 8));
+        }
+    }
+
+    private static void waitForGarbageCollection(Writer writer) throws Exception {
+        ((HBaseCommitTable.HBaseBatchWriter) writer).gcExecutor.submit(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }).get();
+    }
+
     private static long rowCount(TableName table, byte[] family) throws Throwable {
         Scan scan = new Scan();
         scan.addFamily(family);
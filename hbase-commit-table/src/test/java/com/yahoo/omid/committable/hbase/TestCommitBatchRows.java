@@ -0,0 +1,69 @@
+package com.yahoo.omid.committable.hbase;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+public class TestCommitBatchRows {
+
+    @Test
+    public void testEncodeLookup() throws Exception {
+        int n = 1000;
+        long rangeStart = CommitBatchRows.rangeStart(12345);
+        long[] starts = new long[n];
+        long[] commits = new long[n];
+        Random r = new Random(7);
+        for (int i = 0; i < n; i++) {
+            // Even offsets, so odd ones are never committed
+            starts[i] = rangeStart + 2 * (n - i);
+            commits[i] = starts[i] + 1 + r.nextInt(1000);
+        }
+        // A long running transaction needs wide deltas
+        commits[n / 2] = starts[n / 2] + (1L << 40);
+
+        CommitBatchRows.sort(starts, commits, n);
+        for (int i = 1; i < n; i++) {
+            assertTrue(starts[i - 1] < starts[i]);
+        }
+        byte[] value = CommitBatchRows.encode(starts, commits, 0, n);
+        assertEquals(CommitBatchRows.numCommits(value), n);
+        for (int i = 0; i < n; i++) {
+            assertEquals(CommitBatchRows.lookup(value, starts[i]), commits[i]);
+            assertEquals(CommitBatchRows.lookup(value, starts[i] + 1), -1);
+        }
+        assertEquals(CommitBatchRows.lookup(value, rangeStart), -1);
+
+        BitSet offsets = new BitSet();
+        CommitBatchRows.addOffsets(value, offsets);
+        assertEquals(offsets.cardinality(), n);
+        for (int i = 0; i < n; i++) {
+            assertTrue(offsets.get((int) (starts[i] - rangeStart)));
+        }
+    }
+
+    @Test
+    public void testKeys() throws Exception {
+        long range = CommitBatchRows.rangeOf(1234567890L);
+        byte[] key = CommitBatchRows.rowKey(range);
+        assertTrue(CommitBatchRows.isBatchRowKey(key));
+        assertEquals(CommitBatchRows.keyToRange(key), range);
+        assertFalse(CommitBatchRows.isBatchRowKey(
+                new HBaseCommitTable.BucketKeyGenerator().startTimestampToKey(1234567890L)));
+
+        assertTrue(CommitBatchRows.isBatchCell(CommitBatchRows.cellQualifier(10)));
+        assertFalse(CommitBatchRows.isBatchCell(CommitBatchRows.completedQualifier(10)));
+        assertFalse(CommitBatchRows.isBatchCell(HBaseCommitTable.COMMIT_TABLE_QUALIFIER));
+
+        byte[] completed = CommitBatchRows.completedQualifier(CommitBatchRows.rangeStart(range) + 12345);
+        assertTrue(CommitBatchRows.isCompletedCell(completed));
+        assertEquals(CommitBatchRows.completedOffset(completed), 12345);
+        assertFalse(CommitBatchRows.isCompletedCell(CommitBatchRows.cellQualifier(10)));
+        assertFalse(CommitBatchRows.isCompletedCell(HBaseCommitTable.COMMIT_TABLE_QUALIFIER));
+    }
+
+}
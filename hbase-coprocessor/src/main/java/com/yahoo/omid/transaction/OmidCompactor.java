@@ -16,6 +16,7 @@
 package com.yahoo.omid.transaction;
 
 import static com.yahoo.omid.committable.hbase.HBaseCommitTable.HBASE_COMMIT_TABLE_NAME_KEY;
+import static com.yahoo.omid.committable.hbase.HBaseCommitTable.HBASE_COMMIT_TABLE_BATCH_ROWS_KEY;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -87,6 +88,7 @@ public class OmidCompactor extends BaseRegionObserver {
         if (commitTableName != null) {
             this.commitTableConf.setTableName(commitTableName);
         }
+        this.commitTableConf.setBatchRows(this.conf.getBoolean(HBASE_COMMIT_TABLE_BATCH_ROWS_KEY, false));
         LOG.info("Compactor coprocessor started");
     }
 
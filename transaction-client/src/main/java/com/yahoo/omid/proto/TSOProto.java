@@ -52,6 +52,34 @@ public final class TSOProto {
      * <code>optional .HandshakeRequest handshakeRequest = 3;</code>
      */
     com.yahoo.omid.proto.TSOProto.HandshakeRequestOrBuilder getHandshakeRequestOrBuilder();
+
+    // optional .TimestampRangeRequest timestampRangeRequest = 4;
+    /**
+     * <code>optional .TimestampRangeRequest timestampRangeRequest = 4;</code>
+     */
+    boolean hasTimestampRangeRequest();
+    /**
+     * <code>optional .TimestampRangeRequest timestampRangeRequest = 4;</code>
+     */
+    com.yahoo.omid.proto.TSOProto.TimestampRangeRequest getTimestampRangeRequest();
+    /**
+     * <code>optional .TimestampRangeRequest timestampRangeRequest = 4;</code>
+     */
+    com.yahoo.omid.proto.TSOProto.TimestampRangeRequestOrBuilder getTimestampRangeRequestOrBuilder();
+
+    // optional .RequestBatch requestBatch = 5;
+    /**
+     * <code>optional .RequestBatch requestBatch = 5;</code>
+     */
+    boolean hasRequestBatch();
+    /**
+     * <code>optional .RequestBatch requestBatch = 5;</code>
+     */
+    com.yahoo.omid.proto.TSOProto.RequestBatch getRequestBatch();
+    /**
+     * <code>optional .RequestBatch requestBatch = 5;</code>
+     */
+    com.yahoo.omid.proto.TSOProto.RequestBatchOrBuilder getRequestBatchOrBuilder();
   }
   /**
    * Protobuf type {@code Request}
@@ -143,6 +171,32 @@ public final class TSOProto {
               bitField0_ |= 0x00000004;
               break;
             }
+            case 34: {
+              com.yahoo.omid.proto.TSOProto.TimestampRangeRequest.Builder subBuilder = null;
+              if (((bitField0_ & 0x00000008) == 0x00000008)) {
+                subBuilder = timestampRangeRequest_.toBuilder();
+              }
+              timestampRangeRequest_ = input.readMessage(com.yahoo.omid.proto.TSOProto.TimestampRangeRequest.PARSER, extensionRegistry);
+              if (subBuilder != null) {
+                subBuilder.mergeFrom(timestampRangeRequest_);
+                timestampRangeRequest_ = subBuilder.buildPartial();
+              }
+              bitField0_ |= 0x00000008;
+              break;
+            }
+            case 42: {
+              com.yahoo.omid.proto.TSOProto.RequestBatch.Builder subBuilder = null;
+              if (((bitField0_ & 0x00000010) == 0x00000010)) {
+                subBuilder = requestBatch_.toBuilder();
+              }
+              requestBatch_ = input.readMessage(com.yahoo.omid.proto.TSOProto.RequestBatch.PARSER, extensionRegistry);
+              if (subBuilder != null) {
+                subBuilder.mergeFrom(requestBatch_);
+                requestBatch_ = subBuilder.buildPartial();
+              }
+              bitField0_ |= 0x00000010;
+              break;
+            }
           }
         }
       } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -249,10 +303,56 @@ public final class TSOProto {
       return handshakeRequest_;
     }
 
+    // optional .TimestampRangeRequest timestampRangeRequest = 4;
+    public static final int TIMESTAMPRANGEREQUEST_FIELD_NUMBER = 4;
+    private com.yahoo.omid.proto.TSOProto.TimestampRangeRequest timestampRangeRequest_;
+    /**
+     * <code>optional .TimestampRangeRequest timestampRangeRequest = 4;</code>
+     */
+    public boolean hasTimestampRangeRequest() {
+      return ((bitField0_ & 0x00000008) == 0x00000008);
+    }
+    /**
+     * <code>optional .TimestampRangeRequest timestampRangeRequest = 4;</code>
+     */
+    public com.yahoo.omid.proto.TSOProto.TimestampRangeRequest getTimestampRangeRequest() {
+      return timestampRangeRequest_;
+    }
+    /**
+     * <code>optional .TimestampRangeRequest timestampRangeRequest = 4;</code>
+     */
+    public com.yahoo.omid.proto.TSOProto.TimestampRangeRequestOrBuilder getTimestampRangeRequestOrBuilder() {
+      return timestampRangeRequest_;
+    }
+
+    // optional .RequestBatch requestBatch = 5;
+    public static final int REQUESTBATCH_FIELD_NUMBER = 5;
+    private com.yahoo.omid.proto.TSOProto.RequestBatch requestBatch_;
+    /**
+     * <code>optional .RequestBatch requestBatch = 5;</code>
+     */
+    public boolean hasRequestBatch() {
+      return ((bitField0_ & 0x00000010) == 0x00000010);
+    }
+    /**
+     * <code>optional .RequestBatch requestBatch = 5;</code>
+     */
+    public com.yahoo.omid.proto.TSOProto.RequestBatch getRequestBatch() {
+      return requestBatch_;
+    }
+    /**
+     * <code>optional .RequestBatch requestBatch = 5;</code>
+     */
+    public com.yahoo.omid.proto.TSOProto.RequestBatchOrBuilder getRequestBatchOrBuilder() {
+      return requestBatch_;
+    }
+
     private void initFields() {
       timestampRequest_ = com.yahoo.omid.proto.TSOProto.TimestampRequest.getDefaultInstance();
       commitRequest_ = com.yahoo.omid.proto.TSOProto.CommitRequest.getDefaultInstance();
       handshakeRequest_ = com.yahoo.omid.proto.TSOProto.HandshakeRequest.getDefaultInstance();
+      timestampRangeRequest_ = com.yahoo.omid.proto.TSOProto.TimestampRangeRequest.getDefaultInstance();
+      requestBatch_ = com.yahoo.omid.proto.TSOProto.RequestBatch.getDefaultInstance();
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -275,6 +375,12 @@ public final class TSOProto {
       if (((bitField0_ & 0x00000004) == 0x00000004)) {
         output.writeMessage(3, handshakeRequest_);
       }
+      if (((bitField0_ & 0x00000008) == 0x00000008)) {
+        output.writeMessage(4, timestampRangeRequest_);
+      }
+      if (((bitField0_ & 0x00000010) == 0x00000010)) {
+        output.writeMessage(5, requestBatch_);
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -296,6 +402,14 @@ public final class TSOProto {
         size += com.google.protobuf.CodedOutputStream
           .computeMessageSize(3, handshakeRequest_);
       }
+      if (((bitField0_ & 0x00000008) == 0x00000008)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(4, timestampRangeRequest_);
+      }
+      if (((bitField0_ & 0x00000010) == 0x00000010)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(5, requestBatch_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
       return size;
@@ -407,6 +521,8 @@ public final class TSOProto {
           getTimestampRequestFieldBuilder();
           getCommitRequestFieldBuilder();
           getHandshakeRequestFieldBuilder();
+          getTimestampRangeRequestFieldBuilder();
+          getRequestBatchFieldBuilder();
         }
       }
       private static Builder create() {
@@ -433,6 +549,18 @@ public final class TSOProto {
           handshakeRequestBuilder_.clear();
         }
         bitField0_ = (bitField0_ & ~0x00000004);
+        if (timestampRangeRequestBuilder_ == null) {
+          timestampRangeRequest_ = com.yahoo.omid.proto.TSOProto.TimestampRangeRequest.getDefaultInstance();
+        } else {
+          timestampRangeRequestBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000008);
+        if (requestBatchBuilder_ == null) {
+          requestBatch_ = com.yahoo.omid.proto.TSOProto.RequestBatch.getDefaultInstance();
+        } else {
+          requestBatchBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000010);
         return this;
       }
 
@@ -485,6 +613,22 @@ public final class TSOProto {
         } else {
           result.handshakeRequest_ = handshakeRequestBuilder_.build();
         }
+        if (((from_bitField0_ & 0x00000008) == 0x00000008)) {
+          to_bitField0_ |= 0x00000008;
+        }
+        if (timestampRangeRequestBuilder_ == null) {
+          result.timestampRangeRequest_ = timestampRangeRequest_;
+        } else {
+          result.timestampRangeRequest_ = timestampRangeRequestBuilder_.build();
+        }
+        if (((from_bitField0_ & 0x00000010) == 0x00000010)) {
+          to_bitField0_ |= 0x00000010;
+        }
+        if (requestBatchBuilder_ == null) {
+          result.requestBatch_ = requestBatch_;
+        } else {
+          result.requestBatch_ = requestBatchBuilder_.build();
+        }
         result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
@@ -510,6 +654,12 @@ public final class TSOProto {
         if (other.hasHandshakeRequest()) {
           mergeHandshakeRequest(other.getHandshakeRequest());
         }
+        if (other.hasTimestampRangeRequest()) {
+          mergeTimestampRangeRequest(other.getTimestampRangeRequest());
+        }
+        if (other.hasRequestBatch()) {
+          mergeRequestBatch(other.getRequestBatch());
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
@@ -888,6 +1038,240 @@ public final class TSOProto {
         return handshakeRequestBuilder_;
       }
 
+      // optional .TimestampRangeRequest timestampRangeRequest = 4;
+      private com.yahoo.omid.proto.TSOProto.TimestampRangeRequest timestampRangeRequest_ = com.yahoo.omid.proto.TSOProto.TimestampRangeRequest.getDefaultInstance();
+      private com.google.protobuf.SingleFieldBuilder<
+          com.yahoo.omid.proto.TSOProto.TimestampRangeRequest, com.yahoo.omid.proto.TSOProto.TimestampRangeRequest.Builder, com.yahoo.omid.proto.TSOProto.TimestampRangeRequestOrBuilder> timestampRangeRequestBuilder_;
+      /**
+       * <code>optional .TimestampRangeRequest timestampRangeRequest = 4;</code>
+       */
+      public boolean hasTimestampRangeRequest() {
+        return ((bitField0_ & 0x00000008) == 0x00000008);
+      }
+      /**
+       * <code>optional .TimestampRangeRequest timestampRangeRequest = 4;</code>
+       */
+      public com.yahoo.omid.proto.TSOProto.TimestampRangeRequest getTimestampRangeRequest() {
+        if (timestampRangeRequestBuilder_ == null) {
+          return timestampRangeRequest_;
+        } else {
+          return timestampRangeRequestBuilder_.getMessage();
+        }
+      }
+      /**
+       * <code>optional .TimestampRangeRequest timestampRangeRequest = 4;</code>
+       */
+      public Builder setTimestampRangeRequest(com.yahoo.omid.proto.TSOProto.TimestampRangeRequest value) {
+        if (timestampRangeRequestBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          timestampRangeRequest_ = value;
+          onChanged();
+        } else {
+          timestampRangeRequestBuilder_.setMessage(value);
+        }
+        bitField0_ |= 0x00000008;
+        return this;
+      }
+      /**
+       * <code>optional .TimestampRangeRequest timestampRangeRequest = 4;</code>
+       */
+      public Builder setTimestampRangeRequest(
+          com.yahoo.omid.proto.TSOProto.TimestampRangeRequest.Builder builderForValue) {
+        if (timestampRangeRequestBuilder_ == null) {
+          timestampRangeRequest_ = builderForValue.build();
+          onChanged();
+        } else {
+          timestampRangeRequestBuilder_.setMessage(builderForValue.build());
+        }
+        bitField0_ |= 0x00000008;
+        return this;
+      }
+      /**
+       * <code>optional .TimestampRangeRequest timestampRangeRequest = 4;</code>
+       */
+      public Builder mergeTimestampRangeRequest(com.yahoo.omid.proto.TSOProto.TimestampRangeRequest value) {
+        if (timestampRangeRequestBuilder_ == null) {
+          if (((bitField0_ & 0x00000008) == 0x00000008) &&
+              timestampRangeRequest_ != com.yahoo.omid.proto.TSOProto.TimestampRangeRequest.getDefaultInstance()) {
+            timestampRangeRequest_ =
+              com.yahoo.omid.proto.TSOProto.TimestampRangeRequest.newBuilder(timestampRangeRequest_).mergeFrom(value).buildPartial();
+          } else {
+            timestampRangeRequest_ = value;
+          }
+          onChanged();
+        } else {
+          timestampRangeRequestBuilder_.mergeFrom(value);
+        }
+        bitField0_ |= 0x00000008;
+        return this;
+      }
+      /**
+       * <code>optional .TimestampRangeRequest timestampRangeRequest = 4;</code>
+       */
+      public Builder clearTimestampRangeRequest() {
+        if (timestampRangeRequestBuilder_ == null) {
+          timestampRangeRequest_ = com.yahoo.omid.proto.TSOProto.TimestampRangeRequest.getDefaultInstance();
+          onChanged();
+        } else {
+          timestampRangeRequestBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000008);
+        return this;
+      }
+      /**
+       * <code>optional .TimestampRangeRequest timestampRangeRequest = 4;</code>
+       */
+      public com.yahoo.omid.proto.TSOProto.TimestampRangeRequest.Builder getTimestampRangeRequestBuilder() {
+        bitField0_ |= 0x00000008;
+        onChanged();
+        return getTimestampRangeRequestFieldBuilder().getBuilder();
+      }
+      /**
+       * <code>optional .TimestampRangeRequest timestampRangeRequest = 4;</code>
+       */
+      public com.yahoo.omid.proto.TSOProto.TimestampRangeRequestOrBuilder getTimestampRangeRequestOrBuilder() {
+        if (timestampRangeRequestBuilder_ != null) {
+          return timestampRangeRequestBuilder_.getMessageOrBuilder();
+        } else {
+          return timestampRangeRequest_;
+        }
+      }
+      /**
+       * <code>optional .TimestampRangeRequest timestampRangeRequest = 4;</code>
+       */
+      private com.google.protobuf.SingleFieldBuilder<
+          com.yahoo.omid.proto.TSOProto.TimestampRangeRequest, com.yahoo.omid.proto.TSOProto.TimestampRangeRequest.Builder, com.yahoo.omid.proto.TSOProto.TimestampRangeRequestOrBuilder> 
+          getTimestampRangeRequestFieldBuilder() {
+        if (timestampRangeRequestBuilder_ == null) {
+          timestampRangeRequestBuilder_ = new com.google.protobuf.SingleFieldBuilder<
+              com.yahoo.omid.proto.TSOProto.TimestampRangeRequest, com.yahoo.omid.proto.TSOProto.TimestampRangeRequest.Builder, com.yahoo.omid.proto.TSOProto.TimestampRangeRequestOrBuilder>(
+                  timestampRangeRequest_,
+                  getParentForChildren(),
+                  isClean());
+          timestampRangeRequest_ = null;
+        }
+        return timestampRangeRequestBuilder_;
+      }
+
+      // optional .RequestBatch requestBatch = 5;
+      private com.yahoo.omid.proto.TSOProto.RequestBatch requestBatch_ = com.yahoo.omid.proto.TSOProto.RequestBatch.getDefaultInstance();
+      private com.google.protobuf.SingleFieldBuilder<
+          com.yahoo.omid.proto.TSOProto.RequestBatch, com.yahoo.omid.proto.TSOProto.RequestBatch.Builder, com.yahoo.omid.proto.TSOProto.RequestBatchOrBuilder> requestBatchBuilder_;
+      /**
+       * <code>optional .RequestBatch requestBatch = 5;</code>
+       */
+      public boolean hasRequestBatch() {
+        return ((bitField0_ & 0x00000010) == 0x00000010);
+      }
+      /**
+       * <code>optional .RequestBatch requestBatch = 5;</code>
+       */
+      public com.yahoo.omid.proto.TSOProto.RequestBatch getRequestBatch() {
+        if (requestBatchBuilder_ == null) {
+          return requestBatch_;
+        } else {
+          return requestBatchBuilder_.getMessage();
+        }
+      }
+      /**
+       * <code>optional .RequestBatch requestBatch = 5;</code>
+       */
+      public Builder setRequestBatch(com.yahoo.omid.proto.TSOProto.RequestBatch value) {
+        if (requestBatchBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          requestBatch_ = value;
+          onChanged();
+        } else {
+          requestBatchBuilder_.setMessage(value);
+        }
+        bitField0_ |= 0x00000010;
+        return this;
+      }
+      /**
+       * <code>optional .RequestBatch requestBatch = 5;</code>
+       */
+      public Builder setRequestBatch(
+          com.yahoo.omid.proto.TSOProto.RequestBatch.Builder builderForValue) {
+        if (requestBatchBuilder_ == null) {
+          requestBatch_ = builderForValue.build();
+          onChanged();
+        } else {
+          requestBatchBuilder_.setMessage(builderForValue.build());
+        }
+        bitField0_ |= 0x00000010;
+        return this;
+      }
+      /**
+       * <code>optional .RequestBatch requestBatch = 5;</code>
+       */
+      public Builder mergeRequestBatch(com.yahoo.omid.proto.TSOProto.RequestBatch value) {
+        if (requestBatchBuilder_ == null) {
+          if (((bitField0_ & 0x00000010) == 0x00000010) &&
+              requestBatch_ != com.yahoo.omid.proto.TSOProto.RequestBatch.getDefaultInstance()) {
+            requestBatch_ =
+              com.yahoo.omid.proto.TSOProto.RequestBatch.newBuilder(requestBatch_).mergeFrom(value).buildPartial();
+          } else {
+            requestBatch_ = value;
+          }
+          onChanged();
+        } else {
+          requestBatchBuilder_.mergeFrom(value);
+        }
+        bitField0_ |= 0x00000010;
+        return this;
+      }
+      /**
+       * <code>optional .RequestBatch requestBatch = 5;</code>
+       */
+      public Builder clearRequestBatch() {
+        if (requestBatchBuilder_ == null) {
+          requestBatch_ = com.yahoo.omid.proto.TSOProto.RequestBatch.getDefaultInstance();
+          onChanged();
+        } else {
+          requestBatchBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000010);
+        return this;
+      }
+      /**
+       * <code>optional .RequestBatch requestBatch = 5;</code>
+       */
+      public com.yahoo.omid.proto.TSOProto.RequestBatch.Builder getRequestBatchBuilder() {
+        bitField0_ |= 0x00000010;
+        onChanged();
+        return getRequestBatchFieldBuilder().getBuilder();
+      }
+      /**
+       * <code>optional .RequestBatch requestBatch = 5;</code>
+       */
+      public com.yahoo.omid.proto.TSOProto.RequestBatchOrBuilder getRequestBatchOrBuilder() {
+        if (requestBatchBuilder_ != null) {
+          return requestBatchBuilder_.getMessageOrBuilder();
+        } else {
+          return requestBatch_;
+        }
+      }
+      /**
+       * <code>optional .RequestBatch requestBatch = 5;</code>
+       */
+      private com.google.protobuf.SingleFieldBuilder<
+          com.yahoo.omid.proto.TSOProto.RequestBatch, com.yahoo.omid.proto.TSOProto.RequestBatch.Builder, com.yahoo.omid.proto.TSOProto.RequestBatchOrBuilder> 
+          getRequestBatchFieldBuilder() {
+        if (requestBatchBuilder_ == null) {
+          requestBatchBuilder_ = new com.google.protobuf.SingleFieldBuilder<
+              com.yahoo.omid.proto.TSOProto.RequestBatch, com.yahoo.omid.proto.TSOProto.RequestBatch.Builder, com.yahoo.omid.proto.TSOProto.RequestBatchOrBuilder>(
+                  requestBatch_,
+                  getParentForChildren(),
+                  isClean());
+          requestBatch_ = null;
+        }
+        return requestBatchBuilder_;
+      }
+
       // @@protoc_insertion_point(builder_scope:Request)
     }
 
@@ -1208,62 +1592,58 @@ public final class TSOProto {
     // @@protoc_insertion_point(class_scope:TimestampRequest)
   }
 
-  public interface CommitRequestOrBuilder
+  public interface RequestBatchOrBuilder
       extends com.google.protobuf.MessageOrBuilder {
 
-    // optional int64 startTimestamp = 1;
-    /**
-     * <code>optional int64 startTimestamp = 1;</code>
-     */
-    boolean hasStartTimestamp();
-    /**
-     * <code>optional int64 startTimestamp = 1;</code>
-     */
-    long getStartTimestamp();
-
-    // optional bool isRetry = 2 [default = false];
+    // repeated .Request request = 1;
     /**
-     * <code>optional bool isRetry = 2 [default = false];</code>
+     * <code>repeated .Request request = 1;</code>
      */
-    boolean hasIsRetry();
+    java.util.List<com.yahoo.omid.proto.TSOProto.Request> 
+        getRequestList();
     /**
-     * <code>optional bool isRetry = 2 [default = false];</code>
+     * <code>repeated .Request request = 1;</code>
      */
-    boolean getIsRetry();
-
-    // repeated int64 cellId = 3;
+    com.yahoo.omid.proto.TSOProto.Request getRequest(int index);
     /**
-     * <code>repeated int64 cellId = 3;</code>
+     * <code>repeated .Request request = 1;</code>
      */
-    java.util.List<java.lang.Long> getCellIdList();
+    int getRequestCount();
     /**
-     * <code>repeated int64 cellId = 3;</code>
+     * <code>repeated .Request request = 1;</code>
      */
-    int getCellIdCount();
+    java.util.List<? extends com.yahoo.omid.proto.TSOProto.RequestOrBuilder> 
+        getRequestOrBuilderList();
     /**
-     * <code>repeated int64 cellId = 3;</code>
+     * <code>repeated .Request request = 1;</code>
      */
-    long getCellId(int index);
+    com.yahoo.omid.proto.TSOProto.RequestOrBuilder getRequestOrBuilder(
+        int index);
   }
   /**
-   * Protobuf type {@code CommitRequest}
+   * Protobuf type {@code RequestBatch}
+   *
+   * <pre>
+   * Several timestamp, timestamp range and commit requests sent in a single
+   * frame. Only sent to servers with the requestBatches capability
+   * </pre>
    */
-  public static final class CommitRequest extends
+  public static final class RequestBatch extends
       com.google.protobuf.GeneratedMessage
-      implements CommitRequestOrBuilder {
-    // Use CommitRequest.newBuilder() to construct.
-    private CommitRequest(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      implements RequestBatchOrBuilder {
+    // Use RequestBatch.newBuilder() to construct.
+    private RequestBatch(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
       super(builder);
       this.unknownFields = builder.getUnknownFields();
     }
-    private CommitRequest(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+    private RequestBatch(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
 
-    private static final CommitRequest defaultInstance;
-    public static CommitRequest getDefaultInstance() {
+    private static final RequestBatch defaultInstance;
+    public static RequestBatch getDefaultInstance() {
       return defaultInstance;
     }
 
-    public CommitRequest getDefaultInstanceForType() {
+    public RequestBatch getDefaultInstanceForType() {
       return defaultInstance;
     }
 
@@ -1273,7 +1653,7 @@ public final class TSOProto {
         getUnknownFields() {
       return this.unknownFields;
     }
-    private CommitRequest(
+    private RequestBatch(
         com.google.protobuf.CodedInputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
@@ -1296,35 +1676,12 @@ public final class TSOProto {
               }
               break;
             }
-            case 8: {
-              bitField0_ |= 0x00000001;
-              startTimestamp_ = input.readInt64();
-              break;
-            }
-            case 16: {
-              bitField0_ |= 0x00000002;
-              isRetry_ = input.readBool();
-              break;
-            }
-            case 24: {
-              if (!((mutable_bitField0_ & 0x00000004) == 0x00000004)) {
-                cellId_ = new java.util.ArrayList<java.lang.Long>();
-                mutable_bitField0_ |= 0x00000004;
-              }
-              cellId_.add(input.readInt64());
-              break;
-            }
-            case 26: {
-              int length = input.readRawVarint32();
-              int limit = input.pushLimit(length);
-              if (!((mutable_bitField0_ & 0x00000004) == 0x00000004) && input.getBytesUntilLimit() > 0) {
-                cellId_ = new java.util.ArrayList<java.lang.Long>();
-                mutable_bitField0_ |= 0x00000004;
-              }
-              while (input.getBytesUntilLimit() > 0) {
-                cellId_.add(input.readInt64());
+            case 10: {
+              if (!((mutable_bitField0_ & 0x00000001) == 0x00000001)) {
+                request_ = new java.util.ArrayList<com.yahoo.omid.proto.TSOProto.Request>();
+                mutable_bitField0_ |= 0x00000001;
               }
-              input.popLimit(limit);
+              request_.add(input.readMessage(com.yahoo.omid.proto.TSOProto.Request.PARSER, extensionRegistry));
               break;
             }
           }
@@ -1335,8 +1692,8 @@ public final class TSOProto {
         throw new com.google.protobuf.InvalidProtocolBufferException(
             e.getMessage()).setUnfinishedMessage(this);
       } finally {
-        if (((mutable_bitField0_ & 0x00000004) == 0x00000004)) {
-          cellId_ = java.util.Collections.unmodifiableList(cellId_);
+        if (((mutable_bitField0_ & 0x00000001) == 0x00000001)) {
+          request_ = java.util.Collections.unmodifiableList(request_);
         }
         this.unknownFields = unknownFields.build();
         makeExtensionsImmutable();
@@ -1344,91 +1701,69 @@ public final class TSOProto {
     }
     public static final com.google.protobuf.Descriptors.Descriptor
         getDescriptor() {
-      return com.yahoo.omid.proto.TSOProto.internal_static_CommitRequest_descriptor;
+      return com.yahoo.omid.proto.TSOProto.internal_static_RequestBatch_descriptor;
     }
 
     protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
         internalGetFieldAccessorTable() {
-      return com.yahoo.omid.proto.TSOProto.internal_static_CommitRequest_fieldAccessorTable
+      return com.yahoo.omid.proto.TSOProto.internal_static_RequestBatch_fieldAccessorTable
           .ensureFieldAccessorsInitialized(
-              com.yahoo.omid.proto.TSOProto.CommitRequest.class, com.yahoo.omid.proto.TSOProto.CommitRequest.Builder.class);
+              com.yahoo.omid.proto.TSOProto.RequestBatch.class, com.yahoo.omid.proto.TSOProto.RequestBatch.Builder.class);
     }
 
-    public static com.google.protobuf.Parser<CommitRequest> PARSER =
-        new com.google.protobuf.AbstractParser<CommitRequest>() {
-      public CommitRequest parsePartialFrom(
+    public static com.google.protobuf.Parser<RequestBatch> PARSER =
+        new com.google.protobuf.AbstractParser<RequestBatch>() {
+      public RequestBatch parsePartialFrom(
           com.google.protobuf.CodedInputStream input,
           com.google.protobuf.ExtensionRegistryLite extensionRegistry)
           throws com.google.protobuf.InvalidProtocolBufferException {
-        return new CommitRequest(input, extensionRegistry);
+        return new RequestBatch(input, extensionRegistry);
       }
     };
 
     @java.lang.Override
-    public com.google.protobuf.Parser<CommitRequest> getParserForType() {
+    public com.google.protobuf.Parser<RequestBatch> getParserForType() {
       return PARSER;
     }
 
-    private int bitField0_;
-    // optional int64 startTimestamp = 1;
-    public static final int STARTTIMESTAMP_FIELD_NUMBER = 1;
-    private long startTimestamp_;
+    // repeated .Request request = 1;
+    public static final int REQUEST_FIELD_NUMBER = 1;
+    private java.util.List<com.yahoo.omid.proto.TSOProto.Request> request_;
     /**
-     * <code>optional int64 startTimestamp = 1;</code>
-     */
-    public boolean hasStartTimestamp() {
-      return ((bitField0_ & 0x00000001) == 0x00000001);
-    }
-    /**
-     * <code>optional int64 startTimestamp = 1;</code>
-     */
-    public long getStartTimestamp() {
-      return startTimestamp_;
-    }
-
-    // optional bool isRetry = 2 [default = false];
-    public static final int ISRETRY_FIELD_NUMBER = 2;
-    private boolean isRetry_;
-    /**
-     * <code>optional bool isRetry = 2 [default = false];</code>
+     * <code>repeated .Request request = 1;</code>
      */
-    public boolean hasIsRetry() {
-      return ((bitField0_ & 0x00000002) == 0x00000002);
+    public java.util.List<com.yahoo.omid.proto.TSOProto.Request> getRequestList() {
+      return request_;
     }
     /**
-     * <code>optional bool isRetry = 2 [default = false];</code>
+     * <code>repeated .Request request = 1;</code>
      */
-    public boolean getIsRetry() {
-      return isRetry_;
+    public java.util.List<? extends com.yahoo.omid.proto.TSOProto.RequestOrBuilder> 
+        getRequestOrBuilderList() {
+      return request_;
     }
-
-    // repeated int64 cellId = 3;
-    public static final int CELLID_FIELD_NUMBER = 3;
-    private java.util.List<java.lang.Long> cellId_;
     /**
-     * <code>repeated int64 cellId = 3;</code>
+     * <code>repeated .Request request = 1;</code>
      */
-    public java.util.List<java.lang.Long>
-        getCellIdList() {
-      return cellId_;
+    public int getRequestCount() {
+      return request_.size();
     }
     /**
-     * <code>repeated int64 cellId = 3;</code>
+     * <code>repeated .Request request = 1;</code>
      */
-    public int getCellIdCount() {
-      return cellId_.size();
+    public com.yahoo.omid.proto.TSOProto.Request getRequest(int index) {
+      return request_.get(index);
     }
     /**
-     * <code>repeated int64 cellId = 3;</code>
+     * <code>repeated .Request request = 1;</code>
      */
-    public long getCellId(int index) {
-      return cellId_.get(index);
+    public com.yahoo.omid.proto.TSOProto.RequestOrBuilder getRequestOrBuilder(
+        int index) {
+      return request_.get(index);
     }
 
     private void initFields() {
-      startTimestamp_ = 0L;
-      isRetry_ = false;
-      cellId_ = java.util.Collections.emptyList();
+      request_ = java.util.Collections.emptyList();
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -1442,14 +1777,8 @@ public final class TSOProto {
     public void writeTo(com.google.protobuf.CodedOutputStream output)
                         throws java.io.IOException {
       getSerializedSize();
-      if (((bitField0_ & 0x00000001) == 0x00000001)) {
-        output.writeInt64(1, startTimestamp_);
-      }
-      if (((bitField0_ & 0x00000002) == 0x00000002)) {
-        output.writeBool(2, isRetry_);
-      }
-      for (int i = 0; i < cellId_.size(); i++) {
-        output.writeInt64(3, cellId_.get(i));
+      for (int i = 0; i < request_.size(); i++) {
+        output.writeMessage(1, request_.get(i));
       }
       getUnknownFields().writeTo(output);
     }
@@ -1460,22 +1789,9 @@ public final class TSOProto {
       if (size != -1) return size;
 
       size = 0;
-      if (((bitField0_ & 0x00000001) == 0x00000001)) {
-        size += com.google.protobuf.CodedOutputStream
-          .computeInt64Size(1, startTimestamp_);
-      }
-      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+      for (int i = 0; i < request_.size(); i++) {
         size += com.google.protobuf.CodedOutputStream
-          .computeBoolSize(2, isRetry_);
-      }
-      {
-        int dataSize = 0;
-        for (int i = 0; i < cellId_.size(); i++) {
-          dataSize += com.google.protobuf.CodedOutputStream
-            .computeInt64SizeNoTag(cellId_.get(i));
-        }
-        size += dataSize;
-        size += 1 * getCellIdList().size();
+          .computeMessageSize(1, request_.get(i));
       }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
@@ -1489,53 +1805,53 @@ public final class TSOProto {
       return super.writeReplace();
     }
 
-    public static com.yahoo.omid.proto.TSOProto.CommitRequest parseFrom(
+    public static com.yahoo.omid.proto.TSOProto.RequestBatch parseFrom(
         com.google.protobuf.ByteString data)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data);
     }
-    public static com.yahoo.omid.proto.TSOProto.CommitRequest parseFrom(
+    public static com.yahoo.omid.proto.TSOProto.RequestBatch parseFrom(
         com.google.protobuf.ByteString data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data, extensionRegistry);
     }
-    public static com.yahoo.omid.proto.TSOProto.CommitRequest parseFrom(byte[] data)
+    public static com.yahoo.omid.proto.TSOProto.RequestBatch parseFrom(byte[] data)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data);
     }
-    public static com.yahoo.omid.proto.TSOProto.CommitRequest parseFrom(
+    public static com.yahoo.omid.proto.TSOProto.RequestBatch parseFrom(
         byte[] data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data, extensionRegistry);
     }
-    public static com.yahoo.omid.proto.TSOProto.CommitRequest parseFrom(java.io.InputStream input)
+    public static com.yahoo.omid.proto.TSOProto.RequestBatch parseFrom(java.io.InputStream input)
         throws java.io.IOException {
       return PARSER.parseFrom(input);
     }
-    public static com.yahoo.omid.proto.TSOProto.CommitRequest parseFrom(
+    public static com.yahoo.omid.proto.TSOProto.RequestBatch parseFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
       return PARSER.parseFrom(input, extensionRegistry);
     }
-    public static com.yahoo.omid.proto.TSOProto.CommitRequest parseDelimitedFrom(java.io.InputStream input)
+    public static com.yahoo.omid.proto.TSOProto.RequestBatch parseDelimitedFrom(java.io.InputStream input)
         throws java.io.IOException {
       return PARSER.parseDelimitedFrom(input);
     }
-    public static com.yahoo.omid.proto.TSOProto.CommitRequest parseDelimitedFrom(
+    public static com.yahoo.omid.proto.TSOProto.RequestBatch parseDelimitedFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
       return PARSER.parseDelimitedFrom(input, extensionRegistry);
     }
-    public static com.yahoo.omid.proto.TSOProto.CommitRequest parseFrom(
+    public static com.yahoo.omid.proto.TSOProto.RequestBatch parseFrom(
         com.google.protobuf.CodedInputStream input)
         throws java.io.IOException {
       return PARSER.parseFrom(input);
     }
-    public static com.yahoo.omid.proto.TSOProto.CommitRequest parseFrom(
+    public static com.yahoo.omid.proto.TSOProto.RequestBatch parseFrom(
         com.google.protobuf.CodedInputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
@@ -1544,7 +1860,7 @@ public final class TSOProto {
 
     public static Builder newBuilder() { return Builder.create(); }
     public Builder newBuilderForType() { return newBuilder(); }
-    public static Builder newBuilder(com.yahoo.omid.proto.TSOProto.CommitRequest prototype) {
+    public static Builder newBuilder(com.yahoo.omid.proto.TSOProto.RequestBatch prototype) {
       return newBuilder().mergeFrom(prototype);
     }
     public Builder toBuilder() { return newBuilder(this); }
@@ -1556,24 +1872,29 @@ public final class TSOProto {
       return builder;
     }
     /**
-     * Protobuf type {@code CommitRequest}
+     * Protobuf type {@code RequestBatch}
+     *
+     * <pre>
+     * Several timestamp, timestamp range and commit requests sent in a single
+     * frame. Only sent to servers with the requestBatches capability
+     * </pre>
      */
     public static final class Builder extends
         com.google.protobuf.GeneratedMessage.Builder<Builder>
-       implements com.yahoo.omid.proto.TSOProto.CommitRequestOrBuilder {
+       implements com.yahoo.omid.proto.TSOProto.RequestBatchOrBuilder {
       public static final com.google.protobuf.Descriptors.Descriptor
           getDescriptor() {
-        return com.yahoo.omid.proto.TSOProto.internal_static_CommitRequest_descriptor;
+        return com.yahoo.omid.proto.TSOProto.internal_static_RequestBatch_descriptor;
       }
 
       protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
           internalGetFieldAccessorTable() {
-        return com.yahoo.omid.proto.TSOProto.internal_static_CommitRequest_fieldAccessorTable
+        return com.yahoo.omid.proto.TSOProto.internal_static_RequestBatch_fieldAccessorTable
             .ensureFieldAccessorsInitialized(
-                com.yahoo.omid.proto.TSOProto.CommitRequest.class, com.yahoo.omid.proto.TSOProto.CommitRequest.Builder.class);
+                com.yahoo.omid.proto.TSOProto.RequestBatch.class, com.yahoo.omid.proto.TSOProto.RequestBatch.Builder.class);
       }
 
-      // Construct using com.yahoo.omid.proto.TSOProto.CommitRequest.newBuilder()
+      // Construct using com.yahoo.omid.proto.TSOProto.RequestBatch.newBuilder()
       private Builder() {
         maybeForceBuilderInitialization();
       }
@@ -1585,6 +1906,7 @@ public final class TSOProto {
       }
       private void maybeForceBuilderInitialization() {
         if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+          getRequestFieldBuilder();
         }
       }
       private static Builder create() {
@@ -1593,12 +1915,12 @@ public final class TSOProto {
 
       public Builder clear() {
         super.clear();
-        startTimestamp_ = 0L;
-        bitField0_ = (bitField0_ & ~0x00000001);
-        isRetry_ = false;
-        bitField0_ = (bitField0_ & ~0x00000002);
-        cellId_ = java.util.Collections.emptyList();
-        bitField0_ = (bitField0_ & ~0x00000004);
+        if (requestBuilder_ == null) {
+          request_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000001);
+        } else {
+          requestBuilder_.clear();
+        }
         return this;
       }
 
@@ -1608,69 +1930,73 @@ public final class TSOProto {
 
       public com.google.protobuf.Descriptors.Descriptor
           getDescriptorForType() {
-        return com.yahoo.omid.proto.TSOProto.internal_static_CommitRequest_descriptor;
+        return com.yahoo.omid.proto.TSOProto.internal_static_RequestBatch_descriptor;
       }
 
-      public com.yahoo.omid.proto.TSOProto.CommitRequest getDefaultInstanceForType() {
-        return com.yahoo.omid.proto.TSOProto.CommitRequest.getDefaultInstance();
+      public com.yahoo.omid.proto.TSOProto.RequestBatch getDefaultInstanceForType() {
+        return com.yahoo.omid.proto.TSOProto.RequestBatch.getDefaultInstance();
       }
 
-      public com.yahoo.omid.proto.TSOProto.CommitRequest build() {
-        com.yahoo.omid.proto.TSOProto.CommitRequest result = buildPartial();
+      public com.yahoo.omid.proto.TSOProto.RequestBatch build() {
+        com.yahoo.omid.proto.TSOProto.RequestBatch result = buildPartial();
         if (!result.isInitialized()) {
           throw newUninitializedMessageException(result);
         }
         return result;
       }
 
-      public com.yahoo.omid.proto.TSOProto.CommitRequest buildPartial() {
-        com.yahoo.omid.proto.TSOProto.CommitRequest result = new com.yahoo.omid.proto.TSOProto.CommitRequest(this);
+      public com.yahoo.omid.proto.TSOProto.RequestBatch buildPartial() {
+        com.yahoo.omid.proto.TSOProto.RequestBatch result = new com.yahoo.omid.proto.TSOProto.RequestBatch(this);
         int from_bitField0_ = bitField0_;
-        int to_bitField0_ = 0;
-        if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
-          to_bitField0_ |= 0x00000001;
-        }
-        result.startTimestamp_ = startTimestamp_;
-        if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
-          to_bitField0_ |= 0x00000002;
-        }
-        result.isRetry_ = isRetry_;
-        if (((bitField0_ & 0x00000004) == 0x00000004)) {
-          cellId_ = java.util.Collections.unmodifiableList(cellId_);
-          bitField0_ = (bitField0_ & ~0x00000004);
+        if (requestBuilder_ == null) {
+          if (((bitField0_ & 0x00000001) == 0x00000001)) {
+            request_ = java.util.Collections.unmodifiableList(request_);
+            bitField0_ = (bitField0_ & ~0x00000001);
+          }
+          result.request_ = request_;
+        } else {
+          result.request_ = requestBuilder_.build();
         }
-        result.cellId_ = cellId_;
-        result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
       }
 
       public Builder mergeFrom(com.google.protobuf.Message other) {
-        if (other instanceof com.yahoo.omid.proto.TSOProto.CommitRequest) {
-          return mergeFrom((com.yahoo.omid.proto.TSOProto.CommitRequest)other);
+        if (other instanceof com.yahoo.omid.proto.TSOProto.RequestBatch) {
+          return mergeFrom((com.yahoo.omid.proto.TSOProto.RequestBatch)other);
         } else {
           super.mergeFrom(other);
           return this;
         }
       }
 
-      public Builder mergeFrom(com.yahoo.omid.proto.TSOProto.CommitRequest other) {
-        if (other == com.yahoo.omid.proto.TSOProto.CommitRequest.getDefaultInstance()) return this;
-        if (other.hasStartTimestamp()) {
-          setStartTimestamp(other.getStartTimestamp());
-        }
-        if (other.hasIsRetry()) {
-          setIsRetry(other.getIsRetry());
-        }
-        if (!other.cellId_.isEmpty()) {
-          if (cellId_.isEmpty()) {
-            cellId_ = other.cellId_;
-            bitField0_ = (bitField0_ & ~0x00000004);
-          } else {
-            ensureCellIdIsMutable();
-            cellId_.addAll(other.cellId_);
+      public Builder mergeFrom(com.yahoo.omid.proto.TSOProto.RequestBatch other) {
+        if (other == com.yahoo.omid.proto.TSOProto.RequestBatch.getDefaultInstance()) return this;
+        if (requestBuilder_ == null) {
+          if (!other.request_.isEmpty()) {
+            if (request_.isEmpty()) {
+              request_ = other.request_;
+              bitField0_ = (bitField0_ & ~0x00000001);
+            } else {
+              ensureRequestIsMutable();
+              request_.addAll(other.request_);
+            }
+            onChanged();
+          }
+        } else {
+          if (!other.request_.isEmpty()) {
+            if (requestBuilder_.isEmpty()) {
+              requestBuilder_.dispose();
+              requestBuilder_ = null;
+              request_ = other.request_;
+              bitField0_ = (bitField0_ & ~0x00000001);
+              requestBuilder_ = 
+                com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders ?
+                   getRequestFieldBuilder() : null;
+            } else {
+              requestBuilder_.addAllMessages(other.request_);
+            }
           }
-          onChanged();
         }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
@@ -1684,11 +2010,11 @@ public final class TSOProto {
           com.google.protobuf.CodedInputStream input,
           com.google.protobuf.ExtensionRegistryLite extensionRegistry)
           throws java.io.IOException {
-        com.yahoo.omid.proto.TSOProto.CommitRequest parsedMessage = null;
+        com.yahoo.omid.proto.TSOProto.RequestBatch parsedMessage = null;
         try {
           parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
         } catch (com.google.protobuf.InvalidProtocolBufferException e) {
-          parsedMessage = (com.yahoo.omid.proto.TSOProto.CommitRequest) e.getUnfinishedMessage();
+          parsedMessage = (com.yahoo.omid.proto.TSOProto.RequestBatch) e.getUnfinishedMessage();
           throw e;
         } finally {
           if (parsedMessage != null) {
@@ -1699,213 +2025,293 @@ public final class TSOProto {
       }
       private int bitField0_;
 
-      // optional int64 startTimestamp = 1;
-      private long startTimestamp_ ;
+      // repeated .Request request = 1;
+      private java.util.List<com.yahoo.omid.proto.TSOProto.Request> request_ =
+        java.util.Collections.emptyList();
+      private void ensureRequestIsMutable() {
+        if (!((bitField0_ & 0x00000001) == 0x00000001)) {
+          request_ = new java.util.ArrayList<com.yahoo.omid.proto.TSOProto.Request>(request_);
+          bitField0_ |= 0x00000001;
+         }
+      }
+
+      private com.google.protobuf.RepeatedFieldBuilder<
+          com.yahoo.omid.proto.TSOProto.Request, com.yahoo.omid.proto.TSOProto.Request.Builder, com.yahoo.omid.proto.TSOProto.RequestOrBuilder> requestBuilder_;
+
       /**
-       * <code>optional int64 startTimestamp = 1;</code>
+       * <code>repeated .Request request = 1;</code>
        */
-      public boolean hasStartTimestamp() {
-        return ((bitField0_ & 0x00000001) == 0x00000001);
+      public java.util.List<com.yahoo.omid.proto.TSOProto.Request> getRequestList() {
+        if (requestBuilder_ == null) {
+          return java.util.Collections.unmodifiableList(request_);
+        } else {
+          return requestBuilder_.getMessageList();
+        }
       }
       /**
-       * <code>optional int64 startTimestamp = 1;</code>
+       * <code>repeated .Request request = 1;</code>
        */
-      public long getStartTimestamp() {
-        return startTimestamp_;
+      public int getRequestCount() {
+        if (requestBuilder_ == null) {
+          return request_.size();
+        } else {
+          return requestBuilder_.getCount();
+        }
       }
       /**
-       * <code>optional int64 startTimestamp = 1;</code>
+       * <code>repeated .Request request = 1;</code>
        */
-      public Builder setStartTimestamp(long value) {
-        bitField0_ |= 0x00000001;
-        startTimestamp_ = value;
-        onChanged();
-        return this;
+      public com.yahoo.omid.proto.TSOProto.Request getRequest(int index) {
+        if (requestBuilder_ == null) {
+          return request_.get(index);
+        } else {
+          return requestBuilder_.getMessage(index);
+        }
       }
       /**
-       * <code>optional int64 startTimestamp = 1;</code>
+       * <code>repeated .Request request = 1;</code>
        */
-      public Builder clearStartTimestamp() {
-        bitField0_ = (bitField0_ & ~0x00000001);
-        startTimestamp_ = 0L;
-        onChanged();
+      public Builder setRequest(
+          int index, com.yahoo.omid.proto.TSOProto.Request value) {
+        if (requestBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureRequestIsMutable();
+          request_.set(index, value);
+          onChanged();
+        } else {
+          requestBuilder_.setMessage(index, value);
+        }
         return this;
       }
-
-      // optional bool isRetry = 2 [default = false];
-      private boolean isRetry_ ;
       /**
-       * <code>optional bool isRetry = 2 [default = false];</code>
+       * <code>repeated .Request request = 1;</code>
        */
-      public boolean hasIsRetry() {
-        return ((bitField0_ & 0x00000002) == 0x00000002);
+      public Builder setRequest(
+          int index, com.yahoo.omid.proto.TSOProto.Request.Builder builderForValue) {
+        if (requestBuilder_ == null) {
+          ensureRequestIsMutable();
+          request_.set(index, builderForValue.build());
+          onChanged();
+        } else {
+          requestBuilder_.setMessage(index, builderForValue.build());
+        }
+        return this;
       }
       /**
-       * <code>optional bool isRetry = 2 [default = false];</code>
+       * <code>repeated .Request request = 1;</code>
        */
-      public boolean getIsRetry() {
-        return isRetry_;
+      public Builder addRequest(com.yahoo.omid.proto.TSOProto.Request value) {
+        if (requestBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureRequestIsMutable();
+          request_.add(value);
+          onChanged();
+        } else {
+          requestBuilder_.addMessage(value);
+        }
+        return this;
       }
       /**
-       * <code>optional bool isRetry = 2 [default = false];</code>
+       * <code>repeated .Request request = 1;</code>
        */
-      public Builder setIsRetry(boolean value) {
-        bitField0_ |= 0x00000002;
-        isRetry_ = value;
-        onChanged();
+      public Builder addRequest(
+          int index, com.yahoo.omid.proto.TSOProto.Request value) {
+        if (requestBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureRequestIsMutable();
+          request_.add(index, value);
+          onChanged();
+        } else {
+          requestBuilder_.addMessage(index, value);
+        }
         return this;
       }
       /**
-       * <code>optional bool isRetry = 2 [default = false];</code>
+       * <code>repeated .Request request = 1;</code>
        */
-      public Builder clearIsRetry() {
-        bitField0_ = (bitField0_ & ~0x00000002);
-        isRetry_ = false;
-        onChanged();
+      public Builder addRequest(
+          com.yahoo.omid.proto.TSOProto.Request.Builder builderForValue) {
+        if (requestBuilder_ == null) {
+          ensureRequestIsMutable();
+          request_.add(builderForValue.build());
+          onChanged();
+        } else {
+          requestBuilder_.addMessage(builderForValue.build());
+        }
         return this;
       }
-
-      // repeated int64 cellId = 3;
-      private java.util.List<java.lang.Long> cellId_ = java.util.Collections.emptyList();
-      private void ensureCellIdIsMutable() {
-        if (!((bitField0_ & 0x00000004) == 0x00000004)) {
-          cellId_ = new java.util.ArrayList<java.lang.Long>(cellId_);
-          bitField0_ |= 0x00000004;
-         }
-      }
       /**
-       * <code>repeated int64 cellId = 3;</code>
+       * <code>repeated .Request request = 1;</code>
        */
-      public java.util.List<java.lang.Long>
-          getCellIdList() {
-        return java.util.Collections.unmodifiableList(cellId_);
+      public Builder addRequest(
+          int index, com.yahoo.omid.proto.TSOProto.Request.Builder builderForValue) {
+        if (requestBuilder_ == null) {
+          ensureRequestIsMutable();
+          request_.add(index, builderForValue.build());
+          onChanged();
+        } else {
+          requestBuilder_.addMessage(index, builderForValue.build());
+        }
+        return this;
       }
       /**
-       * <code>repeated int64 cellId = 3;</code>
+       * <code>repeated .Request request = 1;</code>
        */
-      public int getCellIdCount() {
-        return cellId_.size();
+      public Builder addAllRequest(
+          java.lang.Iterable<? extends com.yahoo.omid.proto.TSOProto.Request> values) {
+        if (requestBuilder_ == null) {
+          ensureRequestIsMutable();
+          super.addAll(values, request_);
+          onChanged();
+        } else {
+          requestBuilder_.addAllMessages(values);
+        }
+        return this;
       }
       /**
-       * <code>repeated int64 cellId = 3;</code>
+       * <code>repeated .Request request = 1;</code>
        */
-      public long getCellId(int index) {
-        return cellId_.get(index);
+      public Builder clearRequest() {
+        if (requestBuilder_ == null) {
+          request_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000001);
+          onChanged();
+        } else {
+          requestBuilder_.clear();
+        }
+        return this;
       }
       /**
-       * <code>repeated int64 cellId = 3;</code>
+       * <code>repeated .Request request = 1;</code>
        */
-      public Builder setCellId(
-          int index, long value) {
-        ensureCellIdIsMutable();
-        cellId_.set(index, value);
-        onChanged();
+      public Builder removeRequest(int index) {
+        if (requestBuilder_ == null) {
+          ensureRequestIsMutable();
+          request_.remove(index);
+          onChanged();
+        } else {
+          requestBuilder_.remove(index);
+        }
         return this;
       }
       /**
-       * <code>repeated int64 cellId = 3;</code>
+       * <code>repeated .Request request = 1;</code>
        */
-      public Builder addCellId(long value) {
-        ensureCellIdIsMutable();
-        cellId_.add(value);
-        onChanged();
-        return this;
+      public com.yahoo.omid.proto.TSOProto.Request.Builder getRequestBuilder(
+          int index) {
+        return getRequestFieldBuilder().getBuilder(index);
       }
       /**
-       * <code>repeated int64 cellId = 3;</code>
+       * <code>repeated .Request request = 1;</code>
        */
-      public Builder addAllCellId(
-          java.lang.Iterable<? extends java.lang.Long> values) {
-        ensureCellIdIsMutable();
-        super.addAll(values, cellId_);
-        onChanged();
-        return this;
+      public com.yahoo.omid.proto.TSOProto.RequestOrBuilder getRequestOrBuilder(
+          int index) {
+        if (requestBuilder_ == null) {
+          return request_.get(index);  } else {
+          return requestBuilder_.getMessageOrBuilder(index);
+        }
       }
       /**
-       * <code>repeated int64 cellId = 3;</code>
+       * <code>repeated .Request request = 1;</code>
        */
-      public Builder clearCellId() {
-        cellId_ = java.util.Collections.emptyList();
-        bitField0_ = (bitField0_ & ~0x00000004);
-        onChanged();
-        return this;
+      public java.util.List<? extends com.yahoo.omid.proto.TSOProto.RequestOrBuilder> 
+           getRequestOrBuilderList() {
+        if (requestBuilder_ != null) {
+          return requestBuilder_.getMessageOrBuilderList();
+        } else {
+          return java.util.Collections.unmodifiableList(request_);
+        }
+      }
+      /**
+       * <code>repeated .Request request = 1;</code>
+       */
+      public com.yahoo.omid.proto.TSOProto.Request.Builder addRequestBuilder() {
+        return getRequestFieldBuilder().addBuilder(
+            com.yahoo.omid.proto.TSOProto.Request.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .Request request = 1;</code>
+       */
+      public com.yahoo.omid.proto.TSOProto.Request.Builder addRequestBuilder(
+          int index) {
+        return getRequestFieldBuilder().addBuilder(
+            index, com.yahoo.omid.proto.TSOProto.Request.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .Request request = 1;</code>
+       */
+      public java.util.List<com.yahoo.omid.proto.TSOProto.Request.Builder> 
+           getRequestBuilderList() {
+        return getRequestFieldBuilder().getBuilderList();
+      }
+      private com.google.protobuf.RepeatedFieldBuilder<
+          com.yahoo.omid.proto.TSOProto.Request, com.yahoo.omid.proto.TSOProto.Request.Builder, com.yahoo.omid.proto.TSOProto.RequestOrBuilder> 
+          getRequestFieldBuilder() {
+        if (requestBuilder_ == null) {
+          requestBuilder_ = new com.google.protobuf.RepeatedFieldBuilder<
+              com.yahoo.omid.proto.TSOProto.Request, com.yahoo.omid.proto.TSOProto.Request.Builder, com.yahoo.omid.proto.TSOProto.RequestOrBuilder>(
+                  request_,
+                  ((bitField0_ & 0x00000001) == 0x00000001),
+                  getParentForChildren(),
+                  isClean());
+          request_ = null;
+        }
+        return requestBuilder_;
       }
 
-      // @@protoc_insertion_point(builder_scope:CommitRequest)
+      // @@protoc_insertion_point(builder_scope:RequestBatch)
     }
 
     static {
-      defaultInstance = new CommitRequest(true);
+      defaultInstance = new RequestBatch(true);
       defaultInstance.initFields();
     }
 
-    // @@protoc_insertion_point(class_scope:CommitRequest)
+    // @@protoc_insertion_point(class_scope:RequestBatch)
   }
 
-  public interface ResponseOrBuilder
+  public interface TimestampRangeRequestOrBuilder
       extends com.google.protobuf.MessageOrBuilder {
 
-    // optional .TimestampResponse timestampResponse = 1;
-    /**
-     * <code>optional .TimestampResponse timestampResponse = 1;</code>
-     */
-    boolean hasTimestampResponse();
-    /**
-     * <code>optional .TimestampResponse timestampResponse = 1;</code>
-     */
-    com.yahoo.omid.proto.TSOProto.TimestampResponse getTimestampResponse();
-    /**
-     * <code>optional .TimestampResponse timestampResponse = 1;</code>
-     */
-    com.yahoo.omid.proto.TSOProto.TimestampResponseOrBuilder getTimestampResponseOrBuilder();
-
-    // optional .CommitResponse commitResponse = 2;
-    /**
-     * <code>optional .CommitResponse commitResponse = 2;</code>
-     */
-    boolean hasCommitResponse();
-    /**
-     * <code>optional .CommitResponse commitResponse = 2;</code>
-     */
-    com.yahoo.omid.proto.TSOProto.CommitResponse getCommitResponse();
-    /**
-     * <code>optional .CommitResponse commitResponse = 2;</code>
-     */
-    com.yahoo.omid.proto.TSOProto.CommitResponseOrBuilder getCommitResponseOrBuilder();
-
-    // optional .HandshakeResponse handshakeResponse = 3;
+    // optional int32 count = 1;
     /**
-     * <code>optional .HandshakeResponse handshakeResponse = 3;</code>
-     */
-    boolean hasHandshakeResponse();
-    /**
-     * <code>optional .HandshakeResponse handshakeResponse = 3;</code>
+     * <code>optional int32 count = 1;</code>
      */
-    com.yahoo.omid.proto.TSOProto.HandshakeResponse getHandshakeResponse();
+    boolean hasCount();
     /**
-     * <code>optional .HandshakeResponse handshakeResponse = 3;</code>
+     * <code>optional int32 count = 1;</code>
      */
-    com.yahoo.omid.proto.TSOProto.HandshakeResponseOrBuilder getHandshakeResponseOrBuilder();
+    int getCount();
   }
   /**
-   * Protobuf type {@code Response}
+   * Protobuf type {@code TimestampRangeRequest}
+   *
+   * <pre>
+   * Requests a range of consecutive timestamps in a single round trip
+   * </pre>
    */
-  public static final class Response extends
+  public static final class TimestampRangeRequest extends
       com.google.protobuf.GeneratedMessage
-      implements ResponseOrBuilder {
-    // Use Response.newBuilder() to construct.
-    private Response(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      implements TimestampRangeRequestOrBuilder {
+    // Use TimestampRangeRequest.newBuilder() to construct.
+    private TimestampRangeRequest(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
       super(builder);
       this.unknownFields = builder.getUnknownFields();
     }
-    private Response(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+    private TimestampRangeRequest(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
 
-    private static final Response defaultInstance;
-    public static Response getDefaultInstance() {
+    private static final TimestampRangeRequest defaultInstance;
+    public static TimestampRangeRequest getDefaultInstance() {
       return defaultInstance;
     }
 
-    public Response getDefaultInstanceForType() {
+    public TimestampRangeRequest getDefaultInstanceForType() {
       return defaultInstance;
     }
 
@@ -1915,7 +2321,7 @@ public final class TSOProto {
         getUnknownFields() {
       return this.unknownFields;
     }
-    private Response(
+    private TimestampRangeRequest(
         com.google.protobuf.CodedInputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
@@ -1938,43 +2344,9 @@ public final class TSOProto {
               }
               break;
             }
-            case 10: {
-              com.yahoo.omid.proto.TSOProto.TimestampResponse.Builder subBuilder = null;
-              if (((bitField0_ & 0x00000001) == 0x00000001)) {
-                subBuilder = timestampResponse_.toBuilder();
-              }
-              timestampResponse_ = input.readMessage(com.yahoo.omid.proto.TSOProto.TimestampResponse.PARSER, extensionRegistry);
-              if (subBuilder != null) {
-                subBuilder.mergeFrom(timestampResponse_);
-                timestampResponse_ = subBuilder.buildPartial();
-              }
+            case 8: {
               bitField0_ |= 0x00000001;
-              break;
-            }
-            case 18: {
-              com.yahoo.omid.proto.TSOProto.CommitResponse.Builder subBuilder = null;
-              if (((bitField0_ & 0x00000002) == 0x00000002)) {
-                subBuilder = commitResponse_.toBuilder();
-              }
-              commitResponse_ = input.readMessage(com.yahoo.omid.proto.TSOProto.CommitResponse.PARSER, extensionRegistry);
-              if (subBuilder != null) {
-                subBuilder.mergeFrom(commitResponse_);
-                commitResponse_ = subBuilder.buildPartial();
-              }
-              bitField0_ |= 0x00000002;
-              break;
-            }
-            case 26: {
-              com.yahoo.omid.proto.TSOProto.HandshakeResponse.Builder subBuilder = null;
-              if (((bitField0_ & 0x00000004) == 0x00000004)) {
-                subBuilder = handshakeResponse_.toBuilder();
-              }
-              handshakeResponse_ = input.readMessage(com.yahoo.omid.proto.TSOProto.HandshakeResponse.PARSER, extensionRegistry);
-              if (subBuilder != null) {
-                subBuilder.mergeFrom(handshakeResponse_);
-                handshakeResponse_ = subBuilder.buildPartial();
-              }
-              bitField0_ |= 0x00000004;
+              count_ = input.readInt32();
               break;
             }
           }
@@ -1991,102 +2363,50 @@ public final class TSOProto {
     }
     public static final com.google.protobuf.Descriptors.Descriptor
         getDescriptor() {
-      return com.yahoo.omid.proto.TSOProto.internal_static_Response_descriptor;
+      return com.yahoo.omid.proto.TSOProto.internal_static_TimestampRangeRequest_descriptor;
     }
 
     protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
         internalGetFieldAccessorTable() {
-      return com.yahoo.omid.proto.TSOProto.internal_static_Response_fieldAccessorTable
+      return com.yahoo.omid.proto.TSOProto.internal_static_TimestampRangeRequest_fieldAccessorTable
           .ensureFieldAccessorsInitialized(
-              com.yahoo.omid.proto.TSOProto.Response.class, com.yahoo.omid.proto.TSOProto.Response.Builder.class);
+              com.yahoo.omid.proto.TSOProto.TimestampRangeRequest.class, com.yahoo.omid.proto.TSOProto.TimestampRangeRequest.Builder.class);
     }
 
-    public static com.google.protobuf.Parser<Response> PARSER =
-        new com.google.protobuf.AbstractParser<Response>() {
-      public Response parsePartialFrom(
+    public static com.google.protobuf.Parser<TimestampRangeRequest> PARSER =
+        new com.google.protobuf.AbstractParser<TimestampRangeRequest>() {
+      public TimestampRangeRequest parsePartialFrom(
           com.google.protobuf.CodedInputStream input,
           com.google.protobuf.ExtensionRegistryLite extensionRegistry)
           throws com.google.protobuf.InvalidProtocolBufferException {
-        return new Response(input, extensionRegistry);
+        return new TimestampRangeRequest(input, extensionRegistry);
       }
     };
 
     @java.lang.Override
-    public com.google.protobuf.Parser<Response> getParserForType() {
+    public com.google.protobuf.Parser<TimestampRangeRequest> getParserForType() {
       return PARSER;
     }
 
     private int bitField0_;
-    // optional .TimestampResponse timestampResponse = 1;
-    public static final int TIMESTAMPRESPONSE_FIELD_NUMBER = 1;
-    private com.yahoo.omid.proto.TSOProto.TimestampResponse timestampResponse_;
+    // optional int32 count = 1;
+    public static final int COUNT_FIELD_NUMBER = 1;
+    private int count_;
     /**
-     * <code>optional .TimestampResponse timestampResponse = 1;</code>
+     * <code>optional int32 count = 1;</code>
      */
-    public boolean hasTimestampResponse() {
+    public boolean hasCount() {
       return ((bitField0_ & 0x00000001) == 0x00000001);
     }
     /**
-     * <code>optional .TimestampResponse timestampResponse = 1;</code>
-     */
-    public com.yahoo.omid.proto.TSOProto.TimestampResponse getTimestampResponse() {
-      return timestampResponse_;
-    }
-    /**
-     * <code>optional .TimestampResponse timestampResponse = 1;</code>
-     */
-    public com.yahoo.omid.proto.TSOProto.TimestampResponseOrBuilder getTimestampResponseOrBuilder() {
-      return timestampResponse_;
-    }
-
-    // optional .CommitResponse commitResponse = 2;
-    public static final int COMMITRESPONSE_FIELD_NUMBER = 2;
-    private com.yahoo.omid.proto.TSOProto.CommitResponse commitResponse_;
-    /**
-     * <code>optional .CommitResponse commitResponse = 2;</code>
-     */
-    public boolean hasCommitResponse() {
-      return ((bitField0_ & 0x00000002) == 0x00000002);
-    }
-    /**
-     * <code>optional .CommitResponse commitResponse = 2;</code>
-     */
-    public com.yahoo.omid.proto.TSOProto.CommitResponse getCommitResponse() {
-      return commitResponse_;
-    }
-    /**
-     * <code>optional .CommitResponse commitResponse = 2;</code>
-     */
-    public com.yahoo.omid.proto.TSOProto.CommitResponseOrBuilder getCommitResponseOrBuilder() {
-      return commitResponse_;
-    }
-
-    // optional .HandshakeResponse handshakeResponse = 3;
-    public static final int HANDSHAKERESPONSE_FIELD_NUMBER = 3;
-    private com.yahoo.omid.proto.TSOProto.HandshakeResponse handshakeResponse_;
-    /**
-     * <code>optional .HandshakeResponse handshakeResponse = 3;</code>
-     */
-    public boolean hasHandshakeResponse() {
-      return ((bitField0_ & 0x00000004) == 0x00000004);
-    }
-    /**
-     * <code>optional .HandshakeResponse handshakeResponse = 3;</code>
-     */
-    public com.yahoo.omid.proto.TSOProto.HandshakeResponse getHandshakeResponse() {
-      return handshakeResponse_;
-    }
-    /**
-     * <code>optional .HandshakeResponse handshakeResponse = 3;</code>
+     * <code>optional int32 count = 1;</code>
      */
-    public com.yahoo.omid.proto.TSOProto.HandshakeResponseOrBuilder getHandshakeResponseOrBuilder() {
-      return handshakeResponse_;
+    public int getCount() {
+      return count_;
     }
 
     private void initFields() {
-      timestampResponse_ = com.yahoo.omid.proto.TSOProto.TimestampResponse.getDefaultInstance();
-      commitResponse_ = com.yahoo.omid.proto.TSOProto.CommitResponse.getDefaultInstance();
-      handshakeResponse_ = com.yahoo.omid.proto.TSOProto.HandshakeResponse.getDefaultInstance();
+      count_ = 0;
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -2101,13 +2421,7 @@ public final class TSOProto {
                         throws java.io.IOException {
       getSerializedSize();
       if (((bitField0_ & 0x00000001) == 0x00000001)) {
-        output.writeMessage(1, timestampResponse_);
-      }
-      if (((bitField0_ & 0x00000002) == 0x00000002)) {
-        output.writeMessage(2, commitResponse_);
-      }
-      if (((bitField0_ & 0x00000004) == 0x00000004)) {
-        output.writeMessage(3, handshakeResponse_);
+        output.writeInt32(1, count_);
       }
       getUnknownFields().writeTo(output);
     }
@@ -2120,15 +2434,7 @@ public final class TSOProto {
       size = 0;
       if (((bitField0_ & 0x00000001) == 0x00000001)) {
         size += com.google.protobuf.CodedOutputStream
-          .computeMessageSize(1, timestampResponse_);
-      }
-      if (((bitField0_ & 0x00000002) == 0x00000002)) {
-        size += com.google.protobuf.CodedOutputStream
-          .computeMessageSize(2, commitResponse_);
-      }
-      if (((bitField0_ & 0x00000004) == 0x00000004)) {
-        size += com.google.protobuf.CodedOutputStream
-          .computeMessageSize(3, handshakeResponse_);
+          .computeInt32Size(1, count_);
       }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
@@ -2142,53 +2448,53 @@ public final class TSOProto {
       return super.writeReplace();
     }
 
-    public static com.yahoo.omid.proto.TSOProto.Response parseFrom(
+    public static com.yahoo.omid.proto.TSOProto.TimestampRangeRequest parseFrom(
         com.google.protobuf.ByteString data)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data);
     }
-    public static com.yahoo.omid.proto.TSOProto.Response parseFrom(
+    public static com.yahoo.omid.proto.TSOProto.TimestampRangeRequest parseFrom(
         com.google.protobuf.ByteString data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data, extensionRegistry);
     }
-    public static com.yahoo.omid.proto.TSOProto.Response parseFrom(byte[] data)
+    public static com.yahoo.omid.proto.TSOProto.TimestampRangeRequest parseFrom(byte[] data)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data);
     }
-    public static com.yahoo.omid.proto.TSOProto.Response parseFrom(
+    public static com.yahoo.omid.proto.TSOProto.TimestampRangeRequest parseFrom(
         byte[] data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data, extensionRegistry);
     }
-    public static com.yahoo.omid.proto.TSOProto.Response parseFrom(java.io.InputStream input)
+    public static com.yahoo.omid.proto.TSOProto.TimestampRangeRequest parseFrom(java.io.InputStream input)
         throws java.io.IOException {
       return PARSER.parseFrom(input);
     }
-    public static com.yahoo.omid.proto.TSOProto.Response parseFrom(
+    public static com.yahoo.omid.proto.TSOProto.TimestampRangeRequest parseFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
       return PARSER.parseFrom(input, extensionRegistry);
     }
-    public static com.yahoo.omid.proto.TSOProto.Response parseDelimitedFrom(java.io.InputStream input)
+    public static com.yahoo.omid.proto.TSOProto.TimestampRangeRequest parseDelimitedFrom(java.io.InputStream input)
         throws java.io.IOException {
       return PARSER.parseDelimitedFrom(input);
     }
-    public static com.yahoo.omid.proto.TSOProto.Response parseDelimitedFrom(
+    public static com.yahoo.omid.proto.TSOProto.TimestampRangeRequest parseDelimitedFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
       return PARSER.parseDelimitedFrom(input, extensionRegistry);
     }
-    public static com.yahoo.omid.proto.TSOProto.Response parseFrom(
+    public static com.yahoo.omid.proto.TSOProto.TimestampRangeRequest parseFrom(
         com.google.protobuf.CodedInputStream input)
         throws java.io.IOException {
       return PARSER.parseFrom(input);
     }
-    public static com.yahoo.omid.proto.TSOProto.Response parseFrom(
+    public static com.yahoo.omid.proto.TSOProto.TimestampRangeRequest parseFrom(
         com.google.protobuf.CodedInputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
@@ -2197,7 +2503,7 @@ public final class TSOProto {
 
     public static Builder newBuilder() { return Builder.create(); }
     public Builder newBuilderForType() { return newBuilder(); }
-    public static Builder newBuilder(com.yahoo.omid.proto.TSOProto.Response prototype) {
+    public static Builder newBuilder(com.yahoo.omid.proto.TSOProto.TimestampRangeRequest prototype) {
       return newBuilder().mergeFrom(prototype);
     }
     public Builder toBuilder() { return newBuilder(this); }
@@ -2209,24 +2515,28 @@ public final class TSOProto {
       return builder;
     }
     /**
-     * Protobuf type {@code Response}
+     * Protobuf type {@code TimestampRangeRequest}
+     *
+     * <pre>
+     * Requests a range of consecutive timestamps in a single round trip
+     * </pre>
      */
     public static final class Builder extends
         com.google.protobuf.GeneratedMessage.Builder<Builder>
-       implements com.yahoo.omid.proto.TSOProto.ResponseOrBuilder {
+       implements com.yahoo.omid.proto.TSOProto.TimestampRangeRequestOrBuilder {
       public static final com.google.protobuf.Descriptors.Descriptor
           getDescriptor() {
-        return com.yahoo.omid.proto.TSOProto.internal_static_Response_descriptor;
+        return com.yahoo.omid.proto.TSOProto.internal_static_TimestampRangeRequest_descriptor;
       }
 
       protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
           internalGetFieldAccessorTable() {
-        return com.yahoo.omid.proto.TSOProto.internal_static_Response_fieldAccessorTable
+        return com.yahoo.omid.proto.TSOProto.internal_static_TimestampRangeRequest_fieldAccessorTable
             .ensureFieldAccessorsInitialized(
-                com.yahoo.omid.proto.TSOProto.Response.class, com.yahoo.omid.proto.TSOProto.Response.Builder.class);
+                com.yahoo.omid.proto.TSOProto.TimestampRangeRequest.class, com.yahoo.omid.proto.TSOProto.TimestampRangeRequest.Builder.class);
       }
 
-      // Construct using com.yahoo.omid.proto.TSOProto.Response.newBuilder()
+      // Construct using com.yahoo.omid.proto.TSOProto.TimestampRangeRequest.newBuilder()
       private Builder() {
         maybeForceBuilderInitialization();
       }
@@ -2238,9 +2548,6 @@ public final class TSOProto {
       }
       private void maybeForceBuilderInitialization() {
         if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
-          getTimestampResponseFieldBuilder();
-          getCommitResponseFieldBuilder();
-          getHandshakeResponseFieldBuilder();
         }
       }
       private static Builder create() {
@@ -2249,24 +2556,8 @@ public final class TSOProto {
 
       public Builder clear() {
         super.clear();
-        if (timestampResponseBuilder_ == null) {
-          timestampResponse_ = com.yahoo.omid.proto.TSOProto.TimestampResponse.getDefaultInstance();
-        } else {
-          timestampResponseBuilder_.clear();
-        }
+        count_ = 0;
         bitField0_ = (bitField0_ & ~0x00000001);
-        if (commitResponseBuilder_ == null) {
-          commitResponse_ = com.yahoo.omid.proto.TSOProto.CommitResponse.getDefaultInstance();
-        } else {
-          commitResponseBuilder_.clear();
-        }
-        bitField0_ = (bitField0_ & ~0x00000002);
-        if (handshakeResponseBuilder_ == null) {
-          handshakeResponse_ = com.yahoo.omid.proto.TSOProto.HandshakeResponse.getDefaultInstance();
-        } else {
-          handshakeResponseBuilder_.clear();
-        }
-        bitField0_ = (bitField0_ & ~0x00000004);
         return this;
       }
 
@@ -2276,73 +2567,47 @@ public final class TSOProto {
 
       public com.google.protobuf.Descriptors.Descriptor
           getDescriptorForType() {
-        return com.yahoo.omid.proto.TSOProto.internal_static_Response_descriptor;
+        return com.yahoo.omid.proto.TSOProto.internal_static_TimestampRangeRequest_descriptor;
       }
 
-      public com.yahoo.omid.proto.TSOProto.Response getDefaultInstanceForType() {
-        return com.yahoo.omid.proto.TSOProto.Response.getDefaultInstance();
+      public com.yahoo.omid.proto.TSOProto.TimestampRangeRequest getDefaultInstanceForType() {
+        return com.yahoo.omid.proto.TSOProto.TimestampRangeRequest.getDefaultInstance();
       }
 
-      public com.yahoo.omid.proto.TSOProto.Response build() {
-        com.yahoo.omid.proto.TSOProto.Response result = buildPartial();
+      public com.yahoo.omid.proto.TSOProto.TimestampRangeRequest build() {
+        com.yahoo.omid.proto.TSOProto.TimestampRangeRequest result = buildPartial();
         if (!result.isInitialized()) {
           throw newUninitializedMessageException(result);
         }
         return result;
       }
 
-      public com.yahoo.omid.proto.TSOProto.Response buildPartial() {
-        com.yahoo.omid.proto.TSOProto.Response result = new com.yahoo.omid.proto.TSOProto.Response(this);
+      public com.yahoo.omid.proto.TSOProto.TimestampRangeRequest buildPartial() {
+        com.yahoo.omid.proto.TSOProto.TimestampRangeRequest result = new com.yahoo.omid.proto.TSOProto.TimestampRangeRequest(this);
         int from_bitField0_ = bitField0_;
         int to_bitField0_ = 0;
         if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
           to_bitField0_ |= 0x00000001;
         }
-        if (timestampResponseBuilder_ == null) {
-          result.timestampResponse_ = timestampResponse_;
+        result.count_ = count_;
+        result.bitField0_ = to_bitField0_;
+        onBuilt();
+        return result;
+      }
+
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof com.yahoo.omid.proto.TSOProto.TimestampRangeRequest) {
+          return mergeFrom((com.yahoo.omid.proto.TSOProto.TimestampRangeRequest)other);
         } else {
-          result.timestampResponse_ = timestampResponseBuilder_.build();
+          super.mergeFrom(other);
+          return this;
         }
-        if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
-          to_bitField0_ |= 0x00000002;
-        }
-        if (commitResponseBuilder_ == null) {
-          result.commitResponse_ = commitResponse_;
-        } else {
-          result.commitResponse_ = commitResponseBuilder_.build();
-        }
-        if (((from_bitField0_ & 0x00000004) == 0x00000004)) {
-          to_bitField0_ |= 0x00000004;
-        }
-        if (handshakeResponseBuilder_ == null) {
-          result.handshakeResponse_ = handshakeResponse_;
-        } else {
-          result.handshakeResponse_ = handshakeResponseBuilder_.build();
-        }
-        result.bitField0_ = to_bitField0_;
-        onBuilt();
-        return result;
-      }
-
-      public Builder mergeFrom(com.google.protobuf.Message other) {
-        if (other instanceof com.yahoo.omid.proto.TSOProto.Response) {
-          return mergeFrom((com.yahoo.omid.proto.TSOProto.Response)other);
-        } else {
-          super.mergeFrom(other);
-          return this;
-        }
-      }
-
-      public Builder mergeFrom(com.yahoo.omid.proto.TSOProto.Response other) {
-        if (other == com.yahoo.omid.proto.TSOProto.Response.getDefaultInstance()) return this;
-        if (other.hasTimestampResponse()) {
-          mergeTimestampResponse(other.getTimestampResponse());
-        }
-        if (other.hasCommitResponse()) {
-          mergeCommitResponse(other.getCommitResponse());
-        }
-        if (other.hasHandshakeResponse()) {
-          mergeHandshakeResponse(other.getHandshakeResponse());
+      }
+
+      public Builder mergeFrom(com.yahoo.omid.proto.TSOProto.TimestampRangeRequest other) {
+        if (other == com.yahoo.omid.proto.TSOProto.TimestampRangeRequest.getDefaultInstance()) return this;
+        if (other.hasCount()) {
+          setCount(other.getCount());
         }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
@@ -2356,11 +2621,11 @@ public final class TSOProto {
           com.google.protobuf.CodedInputStream input,
           com.google.protobuf.ExtensionRegistryLite extensionRegistry)
           throws java.io.IOException {
-        com.yahoo.omid.proto.TSOProto.Response parsedMessage = null;
+        com.yahoo.omid.proto.TSOProto.TimestampRangeRequest parsedMessage = null;
         try {
           parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
         } catch (com.google.protobuf.InvalidProtocolBufferException e) {
-          parsedMessage = (com.yahoo.omid.proto.TSOProto.Response) e.getUnfinishedMessage();
+          parsedMessage = (com.yahoo.omid.proto.TSOProto.TimestampRangeRequest) e.getUnfinishedMessage();
           throw e;
         } finally {
           if (parsedMessage != null) {
@@ -2371,400 +2636,2904 @@ public final class TSOProto {
       }
       private int bitField0_;
 
-      // optional .TimestampResponse timestampResponse = 1;
-      private com.yahoo.omid.proto.TSOProto.TimestampResponse timestampResponse_ = com.yahoo.omid.proto.TSOProto.TimestampResponse.getDefaultInstance();
-      private com.google.protobuf.SingleFieldBuilder<
-          com.yahoo.omid.proto.TSOProto.TimestampResponse, com.yahoo.omid.proto.TSOProto.TimestampResponse.Builder, com.yahoo.omid.proto.TSOProto.TimestampResponseOrBuilder> timestampResponseBuilder_;
+      // optional int32 count = 1;
+      private int count_ ;
       /**
-       * <code>optional .TimestampResponse timestampResponse = 1;</code>
+       * <code>optional int32 count = 1;</code>
        */
-      public boolean hasTimestampResponse() {
+      public boolean hasCount() {
         return ((bitField0_ & 0x00000001) == 0x00000001);
       }
       /**
-       * <code>optional .TimestampResponse timestampResponse = 1;</code>
+       * <code>optional int32 count = 1;</code>
        */
-      public com.yahoo.omid.proto.TSOProto.TimestampResponse getTimestampResponse() {
-        if (timestampResponseBuilder_ == null) {
-          return timestampResponse_;
-        } else {
-          return timestampResponseBuilder_.getMessage();
-        }
+      public int getCount() {
+        return count_;
       }
       /**
-       * <code>optional .TimestampResponse timestampResponse = 1;</code>
+       * <code>optional int32 count = 1;</code>
        */
-      public Builder setTimestampResponse(com.yahoo.omid.proto.TSOProto.TimestampResponse value) {
-        if (timestampResponseBuilder_ == null) {
-          if (value == null) {
-            throw new NullPointerException();
-          }
-          timestampResponse_ = value;
-          onChanged();
-        } else {
-          timestampResponseBuilder_.setMessage(value);
-        }
+      public Builder setCount(int value) {
         bitField0_ |= 0x00000001;
+        count_ = value;
+        onChanged();
         return this;
       }
       /**
-       * <code>optional .TimestampResponse timestampResponse = 1;</code>
+       * <code>optional int32 count = 1;</code>
        */
-      public Builder setTimestampResponse(
-          com.yahoo.omid.proto.TSOProto.TimestampResponse.Builder builderForValue) {
-        if (timestampResponseBuilder_ == null) {
-          timestampResponse_ = builderForValue.build();
-          onChanged();
-        } else {
-          timestampResponseBuilder_.setMessage(builderForValue.build());
-        }
-        bitField0_ |= 0x00000001;
+      public Builder clearCount() {
+        bitField0_ = (bitField0_ & ~0x00000001);
+        count_ = 0;
+        onChanged();
         return this;
       }
-      /**
-       * <code>optional .TimestampResponse timestampResponse = 1;</code>
-       */
-      public Builder mergeTimestampResponse(com.yahoo.omid.proto.TSOProto.TimestampResponse value) {
-        if (timestampResponseBuilder_ == null) {
-          if (((bitField0_ & 0x00000001) == 0x00000001) &&
-              timestampResponse_ != com.yahoo.omid.proto.TSOProto.TimestampResponse.getDefaultInstance()) {
-            timestampResponse_ =
-              com.yahoo.omid.proto.TSOProto.TimestampResponse.newBuilder(timestampResponse_).mergeFrom(value).buildPartial();
-          } else {
-            timestampResponse_ = value;
+
+      // @@protoc_insertion_point(builder_scope:TimestampRangeRequest)
+    }
+
+    static {
+      defaultInstance = new TimestampRangeRequest(true);
+      defaultInstance.initFields();
+    }
+
+    // @@protoc_insertion_point(class_scope:TimestampRangeRequest)
+  }
+
+  public interface CommitRequestOrBuilder
+      extends com.google.protobuf.MessageOrBuilder {
+
+    // optional int64 startTimestamp = 1;
+    /**
+     * <code>optional int64 startTimestamp = 1;</code>
+     */
+    boolean hasStartTimestamp();
+    /**
+     * <code>optional int64 startTimestamp = 1;</code>
+     */
+    long getStartTimestamp();
+
+    // optional bool isRetry = 2 [default = false];
+    /**
+     * <code>optional bool isRetry = 2 [default = false];</code>
+     */
+    boolean hasIsRetry();
+    /**
+     * <code>optional bool isRetry = 2 [default = false];</code>
+     */
+    boolean getIsRetry();
+
+    // repeated int64 cellId = 3 [packed = true];
+    /**
+     * <code>repeated int64 cellId = 3 [packed = true];</code>
+     */
+    java.util.List<java.lang.Long> getCellIdList();
+    /**
+     * <code>repeated int64 cellId = 3 [packed = true];</code>
+     */
+    int getCellIdCount();
+    /**
+     * <code>repeated int64 cellId = 3 [packed = true];</code>
+     */
+    long getCellId(int index);
+  }
+  /**
+   * Protobuf type {@code CommitRequest}
+   */
+  public static final class CommitRequest extends
+      com.google.protobuf.GeneratedMessage
+      implements CommitRequestOrBuilder {
+    // Use CommitRequest.newBuilder() to construct.
+    private CommitRequest(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      super(builder);
+      this.unknownFields = builder.getUnknownFields();
+    }
+    private CommitRequest(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
+    private static final CommitRequest defaultInstance;
+    public static CommitRequest getDefaultInstance() {
+      return defaultInstance;
+    }
+
+    public CommitRequest getDefaultInstanceForType() {
+      return defaultInstance;
+    }
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private CommitRequest(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 8: {
+              bitField0_ |= 0x00000001;
+              startTimestamp_ = input.readInt64();
+              break;
+            }
+            case 16: {
+              bitField0_ |= 0x00000002;
+              isRetry_ = input.readBool();
+              break;
+            }
+            case 24: {
+              if (!((mutable_bitField0_ & 0x00000004) == 0x00000004)) {
+                cellId_ = new java.util.ArrayList<java.lang.Long>();
+                mutable_bitField0_ |= 0x00000004;
+              }
+              cellId_.add(input.readInt64());
+              break;
+            }
+            case 26: {
+              int length = input.readRawVarint32();
+              int limit = input.pushLimit(length);
+              if (!((mutable_bitField0_ & 0x00000004) == 0x00000004) && input.getBytesUntilLimit() > 0) {
+                cellId_ = new java.util.ArrayList<java.lang.Long>();
+                mutable_bitField0_ |= 0x00000004;
+              }
+              while (input.getBytesUntilLimit() > 0) {
+                cellId_.add(input.readInt64());
+              }
+              input.popLimit(limit);
+              break;
+            }
           }
-          onChanged();
-        } else {
-          timestampResponseBuilder_.mergeFrom(value);
-        }
-        bitField0_ |= 0x00000001;
-        return this;
-      }
-      /**
-       * <code>optional .TimestampResponse timestampResponse = 1;</code>
-       */
-      public Builder clearTimestampResponse() {
-        if (timestampResponseBuilder_ == null) {
-          timestampResponse_ = com.yahoo.omid.proto.TSOProto.TimestampResponse.getDefaultInstance();
-          onChanged();
-        } else {
-          timestampResponseBuilder_.clear();
         }
-        bitField0_ = (bitField0_ & ~0x00000001);
-        return this;
-      }
-      /**
-       * <code>optional .TimestampResponse timestampResponse = 1;</code>
-       */
-      public com.yahoo.omid.proto.TSOProto.TimestampResponse.Builder getTimestampResponseBuilder() {
-        bitField0_ |= 0x00000001;
-        onChanged();
-        return getTimestampResponseFieldBuilder().getBuilder();
-      }
-      /**
-       * <code>optional .TimestampResponse timestampResponse = 1;</code>
-       */
-      public com.yahoo.omid.proto.TSOProto.TimestampResponseOrBuilder getTimestampResponseOrBuilder() {
-        if (timestampResponseBuilder_ != null) {
-          return timestampResponseBuilder_.getMessageOrBuilder();
-        } else {
-          return timestampResponse_;
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        if (((mutable_bitField0_ & 0x00000004) == 0x00000004)) {
+          cellId_ = java.util.Collections.unmodifiableList(cellId_);
         }
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
       }
-      /**
-       * <code>optional .TimestampResponse timestampResponse = 1;</code>
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return com.yahoo.omid.proto.TSOProto.internal_static_CommitRequest_descriptor;
+    }
+
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return com.yahoo.omid.proto.TSOProto.internal_static_CommitRequest_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.yahoo.omid.proto.TSOProto.CommitRequest.class, com.yahoo.omid.proto.TSOProto.CommitRequest.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<CommitRequest> PARSER =
+        new com.google.protobuf.AbstractParser<CommitRequest>() {
+      public CommitRequest parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new CommitRequest(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<CommitRequest> getParserForType() {
+      return PARSER;
+    }
+
+    private int bitField0_;
+    // optional int64 startTimestamp = 1;
+    public static final int STARTTIMESTAMP_FIELD_NUMBER = 1;
+    private long startTimestamp_;
+    /**
+     * <code>optional int64 startTimestamp = 1;</code>
+     */
+    public boolean hasStartTimestamp() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    /**
+     * <code>optional int64 startTimestamp = 1;</code>
+     */
+    public long getStartTimestamp() {
+      return startTimestamp_;
+    }
+
+    // optional bool isRetry = 2 [default = false];
+    public static final int ISRETRY_FIELD_NUMBER = 2;
+    private boolean isRetry_;
+    /**
+     * <code>optional bool isRetry = 2 [default = false];</code>
+     */
+    public boolean hasIsRetry() {
+      return ((bitField0_ & 0x00000002) == 0x00000002);
+    }
+    /**
+     * <code>optional bool isRetry = 2 [default = false];</code>
+     */
+    public boolean getIsRetry() {
+      return isRetry_;
+    }
+
+    // repeated int64 cellId = 3 [packed = true];
+    public static final int CELLID_FIELD_NUMBER = 3;
+    private java.util.List<java.lang.Long> cellId_;
+    /**
+     * <code>repeated int64 cellId = 3 [packed = true];</code>
+     */
+    public java.util.List<java.lang.Long>
+        getCellIdList() {
+      return cellId_;
+    }
+    /**
+     * <code>repeated int64 cellId = 3 [packed = true];</code>
+     */
+    public int getCellIdCount() {
+      return cellId_.size();
+    }
+    /**
+     * <code>repeated int64 cellId = 3 [packed = true];</code>
+     */
+    public long getCellId(int index) {
+      return cellId_.get(index);
+    }
+    private int cellIdMemoizedSerializedSize = -1;
+
+    private void initFields() {
+      startTimestamp_ = 0L;
+      isRetry_ = false;
+      cellId_ = java.util.Collections.emptyList();
+    }
+    private byte memoizedIsInitialized = -1;
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized != -1) return isInitialized == 1;
+
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      getSerializedSize();
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        output.writeInt64(1, startTimestamp_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        output.writeBool(2, isRetry_);
+      }
+      if (getCellIdList().size() > 0) {
+        output.writeRawVarint32(26);
+        output.writeRawVarint32(cellIdMemoizedSerializedSize);
+      }
+      for (int i = 0; i < cellId_.size(); i++) {
+        output.writeInt64NoTag(cellId_.get(i));
+      }
+      getUnknownFields().writeTo(output);
+    }
+
+    private int memoizedSerializedSize = -1;
+    public int getSerializedSize() {
+      int size = memoizedSerializedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt64Size(1, startTimestamp_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(2, isRetry_);
+      }
+      {
+        int dataSize = 0;
+        for (int i = 0; i < cellId_.size(); i++) {
+          dataSize += com.google.protobuf.CodedOutputStream
+            .computeInt64SizeNoTag(cellId_.get(i));
+        }
+        size += dataSize;
+        if (!getCellIdList().isEmpty()) {
+          size += 1;
+          size += com.google.protobuf.CodedOutputStream
+              .computeInt32SizeNoTag(dataSize);
+        }
+        cellIdMemoizedSerializedSize = dataSize;
+      }
+      size += getUnknownFields().getSerializedSize();
+      memoizedSerializedSize = size;
+      return size;
+    }
+
+    private static final long serialVersionUID = 0L;
+    @java.lang.Override
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
+      return super.writeReplace();
+    }
+
+    public static com.yahoo.omid.proto.TSOProto.CommitRequest parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.yahoo.omid.proto.TSOProto.CommitRequest parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.yahoo.omid.proto.TSOProto.CommitRequest parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.yahoo.omid.proto.TSOProto.CommitRequest parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.yahoo.omid.proto.TSOProto.CommitRequest parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.yahoo.omid.proto.TSOProto.CommitRequest parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+    public static com.yahoo.omid.proto.TSOProto.CommitRequest parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input);
+    }
+    public static com.yahoo.omid.proto.TSOProto.CommitRequest parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
+    }
+    public static com.yahoo.omid.proto.TSOProto.CommitRequest parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.yahoo.omid.proto.TSOProto.CommitRequest parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+
+    public static Builder newBuilder() { return Builder.create(); }
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder(com.yahoo.omid.proto.TSOProto.CommitRequest prototype) {
+      return newBuilder().mergeFrom(prototype);
+    }
+    public Builder toBuilder() { return newBuilder(this); }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code CommitRequest}
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessage.Builder<Builder>
+       implements com.yahoo.omid.proto.TSOProto.CommitRequestOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return com.yahoo.omid.proto.TSOProto.internal_static_CommitRequest_descriptor;
+      }
+
+      protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return com.yahoo.omid.proto.TSOProto.internal_static_CommitRequest_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.yahoo.omid.proto.TSOProto.CommitRequest.class, com.yahoo.omid.proto.TSOProto.CommitRequest.Builder.class);
+      }
+
+      // Construct using com.yahoo.omid.proto.TSOProto.CommitRequest.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+        }
+      }
+      private static Builder create() {
+        return new Builder();
+      }
+
+      public Builder clear() {
+        super.clear();
+        startTimestamp_ = 0L;
+        bitField0_ = (bitField0_ & ~0x00000001);
+        isRetry_ = false;
+        bitField0_ = (bitField0_ & ~0x00000002);
+        cellId_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000004);
+        return this;
+      }
+
+      public Builder clone() {
+        return create().mergeFrom(buildPartial());
+      }
+
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return com.yahoo.omid.proto.TSOProto.internal_static_CommitRequest_descriptor;
+      }
+
+      public com.yahoo.omid.proto.TSOProto.CommitRequest getDefaultInstanceForType() {
+        return com.yahoo.omid.proto.TSOProto.CommitRequest.getDefaultInstance();
+      }
+
+      public com.yahoo.omid.proto.TSOProto.CommitRequest build() {
+        com.yahoo.omid.proto.TSOProto.CommitRequest result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      public com.yahoo.omid.proto.TSOProto.CommitRequest buildPartial() {
+        com.yahoo.omid.proto.TSOProto.CommitRequest result = new com.yahoo.omid.proto.TSOProto.CommitRequest(this);
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
+        if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
+          to_bitField0_ |= 0x00000001;
+        }
+        result.startTimestamp_ = startTimestamp_;
+        if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
+          to_bitField0_ |= 0x00000002;
+        }
+        result.isRetry_ = isRetry_;
+        if (((bitField0_ & 0x00000004) == 0x00000004)) {
+          cellId_ = java.util.Collections.unmodifiableList(cellId_);
+          bitField0_ = (bitField0_ & ~0x00000004);
+        }
+        result.cellId_ = cellId_;
+        result.bitField0_ = to_bitField0_;
+        onBuilt();
+        return result;
+      }
+
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof com.yahoo.omid.proto.TSOProto.CommitRequest) {
+          return mergeFrom((com.yahoo.omid.proto.TSOProto.CommitRequest)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(com.yahoo.omid.proto.TSOProto.CommitRequest other) {
+        if (other == com.yahoo.omid.proto.TSOProto.CommitRequest.getDefaultInstance()) return this;
+        if (other.hasStartTimestamp()) {
+          setStartTimestamp(other.getStartTimestamp());
+        }
+        if (other.hasIsRetry()) {
+          setIsRetry(other.getIsRetry());
+        }
+        if (!other.cellId_.isEmpty()) {
+          if (cellId_.isEmpty()) {
+            cellId_ = other.cellId_;
+            bitField0_ = (bitField0_ & ~0x00000004);
+          } else {
+            ensureCellIdIsMutable();
+            cellId_.addAll(other.cellId_);
+          }
+          onChanged();
+        }
+        this.mergeUnknownFields(other.getUnknownFields());
+        return this;
+      }
+
+      public final boolean isInitialized() {
+        return true;
+      }
+
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        com.yahoo.omid.proto.TSOProto.CommitRequest parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (com.yahoo.omid.proto.TSOProto.CommitRequest) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      // optional int64 startTimestamp = 1;
+      private long startTimestamp_ ;
+      /**
+       * <code>optional int64 startTimestamp = 1;</code>
+       */
+      public boolean hasStartTimestamp() {
+        return ((bitField0_ & 0x00000001) == 0x00000001);
+      }
+      /**
+       * <code>optional int64 startTimestamp = 1;</code>
+       */
+      public long getStartTimestamp() {
+        return startTimestamp_;
+      }
+      /**
+       * <code>optional int64 startTimestamp = 1;</code>
+       */
+      public Builder setStartTimestamp(long value) {
+        bitField0_ |= 0x00000001;
+        startTimestamp_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional int64 startTimestamp = 1;</code>
+       */
+      public Builder clearStartTimestamp() {
+        bitField0_ = (bitField0_ & ~0x00000001);
+        startTimestamp_ = 0L;
+        onChanged();
+        return this;
+      }
+
+      // optional bool isRetry = 2 [default = false];
+      private boolean isRetry_ ;
+      /**
+       * <code>optional bool isRetry = 2 [default = false];</code>
+       */
+      public boolean hasIsRetry() {
+        return ((bitField0_ & 0x00000002) == 0x00000002);
+      }
+      /**
+       * <code>optional bool isRetry = 2 [default = false];</code>
+       */
+      public boolean getIsRetry() {
+        return isRetry_;
+      }
+      /**
+       * <code>optional bool isRetry = 2 [default = false];</code>
+       */
+      public Builder setIsRetry(boolean value) {
+        bitField0_ |= 0x00000002;
+        isRetry_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional bool isRetry = 2 [default = false];</code>
+       */
+      public Builder clearIsRetry() {
+        bitField0_ = (bitField0_ & ~0x00000002);
+        isRetry_ = false;
+        onChanged();
+        return this;
+      }
+
+      // repeated int64 cellId = 3 [packed = true];
+      private java.util.List<java.lang.Long> cellId_ = java.util.Collections.emptyList();
+      private void ensureCellIdIsMutable() {
+        if (!((bitField0_ & 0x00000004) == 0x00000004)) {
+          cellId_ = new java.util.ArrayList<java.lang.Long>(cellId_);
+          bitField0_ |= 0x00000004;
+         }
+      }
+      /**
+       * <code>repeated int64 cellId = 3 [packed = true];</code>
+       */
+      public java.util.List<java.lang.Long>
+          getCellIdList() {
+        return java.util.Collections.unmodifiableList(cellId_);
+      }
+      /**
+       * <code>repeated int64 cellId = 3 [packed = true];</code>
+       */
+      public int getCellIdCount() {
+        return cellId_.size();
+      }
+      /**
+       * <code>repeated int64 cellId = 3 [packed = true];</code>
+       */
+      public long getCellId(int index) {
+        return cellId_.get(index);
+      }
+      /**
+       * <code>repeated int64 cellId = 3 [packed = true];</code>
+       */
+      public Builder setCellId(
+          int index, long value) {
+        ensureCellIdIsMutable();
+        cellId_.set(index, value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int64 cellId = 3 [packed = true];</code>
+       */
+      public Builder addCellId(long value) {
+        ensureCellIdIsMutable();
+        cellId_.add(value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int64 cellId = 3 [packed = true];</code>
+       */
+      public Builder addAllCellId(
+          java.lang.Iterable<? extends java.lang.Long> values) {
+        ensureCellIdIsMutable();
+        super.addAll(values, cellId_);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int64 cellId = 3 [packed = true];</code>
+       */
+      public Builder clearCellId() {
+        cellId_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000004);
+        onChanged();
+        return this;
+      }
+
+      // @@protoc_insertion_point(builder_scope:CommitRequest)
+    }
+
+    static {
+      defaultInstance = new CommitRequest(true);
+      defaultInstance.initFields();
+    }
+
+    // @@protoc_insertion_point(class_scope:CommitRequest)
+  }
+
+  public interface ResponseOrBuilder
+      extends com.google.protobuf.MessageOrBuilder {
+
+    // optional .TimestampResponse timestampResponse = 1;
+    /**
+     * <code>optional .TimestampResponse timestampResponse = 1;</code>
+     */
+    boolean hasTimestampResponse();
+    /**
+     * <code>optional .TimestampResponse timestampResponse = 1;</code>
+     */
+    com.yahoo.omid.proto.TSOProto.TimestampResponse getTimestampResponse();
+    /**
+     * <code>optional .TimestampResponse timestampResponse = 1;</code>
+     */
+    com.yahoo.omid.proto.TSOProto.TimestampResponseOrBuilder getTimestampResponseOrBuilder();
+
+    // optional .CommitResponse commitResponse = 2;
+    /**
+     * <code>optional .CommitResponse commitResponse = 2;</code>
+     */
+    boolean hasCommitResponse();
+    /**
+     * <code>optional .CommitResponse commitResponse = 2;</code>
+     */
+    com.yahoo.omid.proto.TSOProto.CommitResponse getCommitResponse();
+    /**
+     * <code>optional .CommitResponse commitResponse = 2;</code>
+     */
+    com.yahoo.omid.proto.TSOProto.CommitResponseOrBuilder getCommitResponseOrBuilder();
+
+    // optional .HandshakeResponse handshakeResponse = 3;
+    /**
+     * <code>optional .HandshakeResponse handshakeResponse = 3;</code>
+     */
+    boolean hasHandshakeResponse();
+    /**
+     * <code>optional .HandshakeResponse handshakeResponse = 3;</code>
+     */
+    com.yahoo.omid.proto.TSOProto.HandshakeResponse getHandshakeResponse();
+    /**
+     * <code>optional .HandshakeResponse handshakeResponse = 3;</code>
+     */
+    com.yahoo.omid.proto.TSOProto.HandshakeResponseOrBuilder getHandshakeResponseOrBuilder();
+
+    // optional .TimestampRangeResponse timestampRangeResponse = 4;
+    /**
+     * <code>optional .TimestampRangeResponse timestampRangeResponse = 4;</code>
+     */
+    boolean hasTimestampRangeResponse();
+    /**
+     * <code>optional .TimestampRangeResponse timestampRangeResponse = 4;</code>
+     */
+    com.yahoo.omid.proto.TSOProto.TimestampRangeResponse getTimestampRangeResponse();
+    /**
+     * <code>optional .TimestampRangeResponse timestampRangeResponse = 4;</code>
+     */
+    com.yahoo.omid.proto.TSOProto.TimestampRangeResponseOrBuilder getTimestampRangeResponseOrBuilder();
+
+    // optional .OverloadedResponse overloadedResponse = 5;
+    /**
+     * <code>optional .OverloadedResponse overloadedResponse = 5;</code>
+     */
+    boolean hasOverloadedResponse();
+    /**
+     * <code>optional .OverloadedResponse overloadedResponse = 5;</code>
+     */
+    com.yahoo.omid.proto.TSOProto.OverloadedResponse getOverloadedResponse();
+    /**
+     * <code>optional .OverloadedResponse overloadedResponse = 5;</code>
+     */
+    com.yahoo.omid.proto.TSOProto.OverloadedResponseOrBuilder getOverloadedResponseOrBuilder();
+  }
+  /**
+   * Protobuf type {@code Response}
+   */
+  public static final class Response extends
+      com.google.protobuf.GeneratedMessage
+      implements ResponseOrBuilder {
+    // Use Response.newBuilder() to construct.
+    private Response(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      super(builder);
+      this.unknownFields = builder.getUnknownFields();
+    }
+    private Response(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
+    private static final Response defaultInstance;
+    public static Response getDefaultInstance() {
+      return defaultInstance;
+    }
+
+    public Response getDefaultInstanceForType() {
+      return defaultInstance;
+    }
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private Response(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 10: {
+              com.yahoo.omid.proto.TSOProto.TimestampResponse.Builder subBuilder = null;
+              if (((bitField0_ & 0x00000001) == 0x00000001)) {
+                subBuilder = timestampResponse_.toBuilder();
+              }
+              timestampResponse_ = input.readMessage(com.yahoo.omid.proto.TSOProto.TimestampResponse.PARSER, extensionRegistry);
+              if (subBuilder != null) {
+                subBuilder.mergeFrom(timestampResponse_);
+                timestampResponse_ = subBuilder.buildPartial();
+              }
+              bitField0_ |= 0x00000001;
+              break;
+            }
+            case 18: {
+              com.yahoo.omid.proto.TSOProto.CommitResponse.Builder subBuilder = null;
+              if (((bitField0_ & 0x00000002) == 0x00000002)) {
+                subBuilder = commitResponse_.toBuilder();
+              }
+              commitResponse_ = input.readMessage(com.yahoo.omid.proto.TSOProto.CommitResponse.PARSER, extensionRegistry);
+              if (subBuilder != null) {
+                subBuilder.mergeFrom(commitResponse_);
+                commitResponse_ = subBuilder.buildPartial();
+              }
+              bitField0_ |= 0x00000002;
+              break;
+            }
+            case 26: {
+              com.yahoo.omid.proto.TSOProto.HandshakeResponse.Builder subBuilder = null;
+              if (((bitField0_ & 0x00000004) == 0x00000004)) {
+                subBuilder = handshakeResponse_.toBuilder();
+              }
+              handshakeResponse_ = input.readMessage(com.yahoo.omid.proto.TSOProto.HandshakeResponse.PARSER, extensionRegistry);
+              if (subBuilder != null) {
+                subBuilder.mergeFrom(handshakeResponse_);
+                handshakeResponse_ = subBuilder.buildPartial();
+              }
+              bitField0_ |= 0x00000004;
+              break;
+            }
+            case 34: {
+              com.yahoo.omid.proto.TSOProto.TimestampRangeResponse.Builder subBuilder = null;
+              if (((bitField0_ & 0x00000008) == 0x00000008)) {
+                subBuilder = timestampRangeResponse_.toBuilder();
+              }
+              timestampRangeResponse_ = input.readMessage(com.yahoo.omid.proto.TSOProto.TimestampRangeResponse.PARSER, extensionRegistry);
+              if (subBuilder != null) {
+                subBuilder.mergeFrom(timestampRangeResponse_);
+                timestampRangeResponse_ = subBuilder.buildPartial();
+              }
+              bitField0_ |= 0x00000008;
+              break;
+            }
+            case 42: {
+              com.yahoo.omid.proto.TSOProto.OverloadedResponse.Builder subBuilder = null;
+              if (((bitField0_ & 0x00000010) == 0x00000010)) {
+                subBuilder = overloadedResponse_.toBuilder();
+              }
+              overloadedResponse_ = input.readMessage(com.yahoo.omid.proto.TSOProto.OverloadedResponse.PARSER, extensionRegistry);
+              if (subBuilder != null) {
+                subBuilder.mergeFrom(overloadedResponse_);
+                overloadedResponse_ = subBuilder.buildPartial();
+              }
+              bitField0_ |= 0x00000010;
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return com.yahoo.omid.proto.TSOProto.internal_static_Response_descriptor;
+    }
+
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return com.yahoo.omid.proto.TSOProto.internal_static_Response_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.yahoo.omid.proto.TSOProto.Response.class, com.yahoo.omid.proto.TSOProto.Response.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<Response> PARSER =
+        new com.google.protobuf.AbstractParser<Response>() {
+      public Response parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new Response(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<Response> getParserForType() {
+      return PARSER;
+    }
+
+    private int bitField0_;
+    // optional .TimestampResponse timestampResponse = 1;
+    public static final int TIMESTAMPRESPONSE_FIELD_NUMBER = 1;
+    private com.yahoo.omid.proto.TSOProto.TimestampResponse timestampResponse_;
+    /**
+     * <code>optional .TimestampResponse timestampResponse = 1;</code>
+     */
+    public boolean hasTimestampResponse() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    /**
+     * <code>optional .TimestampResponse timestampResponse = 1;</code>
+     */
+    public com.yahoo.omid.proto.TSOProto.TimestampResponse getTimestampResponse() {
+      return timestampResponse_;
+    }
+    /**
+     * <code>optional .TimestampResponse timestampResponse = 1;</code>
+     */
+    public com.yahoo.omid.proto.TSOProto.TimestampResponseOrBuilder getTimestampResponseOrBuilder() {
+      return timestampResponse_;
+    }
+
+    // optional .CommitResponse commitResponse = 2;
+    public static final int COMMITRESPONSE_FIELD_NUMBER = 2;
+    private com.yahoo.omid.proto.TSOProto.CommitResponse commitResponse_;
+    /**
+     * <code>optional .CommitResponse commitResponse = 2;</code>
+     */
+    public boolean hasCommitResponse() {
+      return ((bitField0_ & 0x00000002) == 0x00000002);
+    }
+    /**
+     * <code>optional .CommitResponse commitResponse = 2;</code>
+     */
+    public com.yahoo.omid.proto.TSOProto.CommitResponse getCommitResponse() {
+      return commitResponse_;
+    }
+    /**
+     * <code>optional .CommitResponse commitResponse = 2;</code>
+     */
+    public com.yahoo.omid.proto.TSOProto.CommitResponseOrBuilder getCommitResponseOrBuilder() {
+      return commitResponse_;
+    }
+
+    // optional .HandshakeResponse handshakeResponse = 3;
+    public static final int HANDSHAKERESPONSE_FIELD_NUMBER = 3;
+    private com.yahoo.omid.proto.TSOProto.HandshakeResponse handshakeResponse_;
+    /**
+     * <code>optional .HandshakeResponse handshakeResponse = 3;</code>
+     */
+    public boolean hasHandshakeResponse() {
+      return ((bitField0_ & 0x00000004) == 0x00000004);
+    }
+    /**
+     * <code>optional .HandshakeResponse handshakeResponse = 3;</code>
+     */
+    public com.yahoo.omid.proto.TSOProto.HandshakeResponse getHandshakeResponse() {
+      return handshakeResponse_;
+    }
+    /**
+     * <code>optional .HandshakeResponse handshakeResponse = 3;</code>
+     */
+    public com.yahoo.omid.proto.TSOProto.HandshakeResponseOrBuilder getHandshakeResponseOrBuilder() {
+      return handshakeResponse_;
+    }
+
+    // optional .TimestampRangeResponse timestampRangeResponse = 4;
+    public static final int TIMESTAMPRANGERESPONSE_FIELD_NUMBER = 4;
+    private com.yahoo.omid.proto.TSOProto.TimestampRangeResponse timestampRangeResponse_;
+    /**
+     * <code>optional .TimestampRangeResponse timestampRangeResponse = 4;</code>
+     */
+    public boolean hasTimestampRangeResponse() {
+      return ((bitField0_ & 0x00000008) == 0x00000008);
+    }
+    /**
+     * <code>optional .TimestampRangeResponse timestampRangeResponse = 4;</code>
+     */
+    public com.yahoo.omid.proto.TSOProto.TimestampRangeResponse getTimestampRangeResponse() {
+      return timestampRangeResponse_;
+    }
+    /**
+     * <code>optional .TimestampRangeResponse timestampRangeResponse = 4;</code>
+     */
+    public com.yahoo.omid.proto.TSOProto.TimestampRangeResponseOrBuilder getTimestampRangeResponseOrBuilder() {
+      return timestampRangeResponse_;
+    }
+
+    // optional .OverloadedResponse overloadedResponse = 5;
+    public static final int OVERLOADEDRESPONSE_FIELD_NUMBER = 5;
+    private com.yahoo.omid.proto.TSOProto.OverloadedResponse overloadedResponse_;
+    /**
+     * <code>optional .OverloadedResponse overloadedResponse = 5;</code>
+     */
+    public boolean hasOverloadedResponse() {
+      return ((bitField0_ & 0x00000010) == 0x00000010);
+    }
+    /**
+     * <code>optional .OverloadedResponse overloadedResponse = 5;</code>
+     */
+    public com.yahoo.omid.proto.TSOProto.OverloadedResponse getOverloadedResponse() {
+      return overloadedResponse_;
+    }
+    /**
+     * <code>optional .OverloadedResponse overloadedResponse = 5;</code>
+     */
+    public com.yahoo.omid.proto.TSOProto.OverloadedResponseOrBuilder getOverloadedResponseOrBuilder() {
+      return overloadedResponse_;
+    }
+
+    private void initFields() {
+      timestampResponse_ = com.yahoo.omid.proto.TSOProto.TimestampResponse.getDefaultInstance();
+      commitResponse_ = com.yahoo.omid.proto.TSOProto.CommitResponse.getDefaultInstance();
+      handshakeResponse_ = com.yahoo.omid.proto.TSOProto.HandshakeResponse.getDefaultInstance();
+      timestampRangeResponse_ = com.yahoo.omid.proto.TSOProto.TimestampRangeResponse.getDefaultInstance();
+      overloadedResponse_ = com.yahoo.omid.proto.TSOProto.OverloadedResponse.getDefaultInstance();
+    }
+    private byte memoizedIsInitialized = -1;
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized != -1) return isInitialized == 1;
+
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      getSerializedSize();
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        output.writeMessage(1, timestampResponse_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        output.writeMessage(2, commitResponse_);
+      }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        output.writeMessage(3, handshakeResponse_);
+      }
+      if (((bitField0_ & 0x00000008) == 0x00000008)) {
+        output.writeMessage(4, timestampRangeResponse_);
+      }
+      if (((bitField0_ & 0x00000010) == 0x00000010)) {
+        output.writeMessage(5, overloadedResponse_);
+      }
+      getUnknownFields().writeTo(output);
+    }
+
+    private int memoizedSerializedSize = -1;
+    public int getSerializedSize() {
+      int size = memoizedSerializedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(1, timestampResponse_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(2, commitResponse_);
+      }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(3, handshakeResponse_);
+      }
+      if (((bitField0_ & 0x00000008) == 0x00000008)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(4, timestampRangeResponse_);
+      }
+      if (((bitField0_ & 0x00000010) == 0x00000010)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(5, overloadedResponse_);
+      }
+      size += getUnknownFields().getSerializedSize();
+      memoizedSerializedSize = size;
+      return size;
+    }
+
+    private static final long serialVersionUID = 0L;
+    @java.lang.Override
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
+      return super.writeReplace();
+    }
+
+    public static com.yahoo.omid.proto.TSOProto.Response parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.yahoo.omid.proto.TSOProto.Response parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.yahoo.omid.proto.TSOProto.Response parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.yahoo.omid.proto.TSOProto.Response parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.yahoo.omid.proto.TSOProto.Response parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.yahoo.omid.proto.TSOProto.Response parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+    public static com.yahoo.omid.proto.TSOProto.Response parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input);
+    }
+    public static com.yahoo.omid.proto.TSOProto.Response parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
+    }
+    public static com.yahoo.omid.proto.TSOProto.Response parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.yahoo.omid.proto.TSOProto.Response parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+
+    public static Builder newBuilder() { return Builder.create(); }
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder(com.yahoo.omid.proto.TSOProto.Response prototype) {
+      return newBuilder().mergeFrom(prototype);
+    }
+    public Builder toBuilder() { return newBuilder(this); }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code Response}
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessage.Builder<Builder>
+       implements com.yahoo.omid.proto.TSOProto.ResponseOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return com.yahoo.omid.proto.TSOProto.internal_static_Response_descriptor;
+      }
+
+      protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return com.yahoo.omid.proto.TSOProto.internal_static_Response_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.yahoo.omid.proto.TSOProto.Response.class, com.yahoo.omid.proto.TSOProto.Response.Builder.class);
+      }
+
+      // Construct using com.yahoo.omid.proto.TSOProto.Response.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+          getTimestampResponseFieldBuilder();
+          getCommitResponseFieldBuilder();
+          getHandshakeResponseFieldBuilder();
+          getTimestampRangeResponseFieldBuilder();
+          getOverloadedResponseFieldBuilder();
+        }
+      }
+      private static Builder create() {
+        return new Builder();
+      }
+
+      public Builder clear() {
+        super.clear();
+        if (timestampResponseBuilder_ == null) {
+          timestampResponse_ = com.yahoo.omid.proto.TSOProto.TimestampResponse.getDefaultInstance();
+        } else {
+          timestampResponseBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000001);
+        if (commitResponseBuilder_ == null) {
+          commitResponse_ = com.yahoo.omid.proto.TSOProto.CommitResponse.getDefaultInstance();
+        } else {
+          commitResponseBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000002);
+        if (handshakeResponseBuilder_ == null) {
+          handshakeResponse_ = com.yahoo.omid.proto.TSOProto.HandshakeResponse.getDefaultInstance();
+        } else {
+          handshakeResponseBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000004);
+        if (timestampRangeResponseBuilder_ == null) {
+          timestampRangeResponse_ = com.yahoo.omid.proto.TSOProto.TimestampRangeResponse.getDefaultInstance();
+        } else {
+          timestampRangeResponseBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000008);
+        if (overloadedResponseBuilder_ == null) {
+          overloadedResponse_ = com.yahoo.omid.proto.TSOProto.OverloadedResponse.getDefaultInstance();
+        } else {
+          overloadedResponseBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000010);
+        return this;
+      }
+
+      public Builder clone() {
+        return create().mergeFrom(buildPartial());
+      }
+
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return com.yahoo.omid.proto.TSOProto.internal_static_Response_descriptor;
+      }
+
+      public com.yahoo.omid.proto.TSOProto.Response getDefaultInstanceForType() {
+        return com.yahoo.omid.proto.TSOProto.Response.getDefaultInstance();
+      }
+
+      public com.yahoo.omid.proto.TSOProto.Response build() {
+        com.yahoo.omid.proto.TSOProto.Response result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      public com.yahoo.omid.proto.TSOProto.Response buildPartial() {
+        com.yahoo.omid.proto.TSOProto.Response result = new com.yahoo.omid.proto.TSOProto.Response(this);
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
+        if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
+          to_bitField0_ |= 0x00000001;
+        }
+        if (timestampResponseBuilder_ == null) {
+          result.timestampResponse_ = timestampResponse_;
+        } else {
+          result.timestampResponse_ = timestampResponseBuilder_.build();
+        }
+        if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
+          to_bitField0_ |= 0x00000002;
+        }
+        if (commitResponseBuilder_ == null) {
+          result.commitResponse_ = commitResponse_;
+        } else {
+          result.commitResponse_ = commitResponseBuilder_.build();
+        }
+        if (((from_bitField0_ & 0x00000004) == 0x00000004)) {
+          to_bitField0_ |= 0x00000004;
+        }
+        if (handshakeResponseBuilder_ == null) {
+          result.handshakeResponse_ = handshakeResponse_;
+        } else {
+          result.handshakeResponse_ = handshakeResponseBuilder_.build();
+        }
+        if (((from_bitField0_ & 0x00000008) == 0x00000008)) {
+          to_bitField0_ |= 0x00000008;
+        }
+        if (timestampRangeResponseBuilder_ == null) {
+          result.timestampRangeResponse_ = timestampRangeResponse_;
+        } else {
+          result.timestampRangeResponse_ = timestampRangeResponseBuilder_.build();
+        }
+        if (((from_bitField0_ & 0x00000010) == 0x00000010)) {
+          to_bitField0_ |= 0x00000010;
+        }
+        if (overloadedResponseBuilder_ == null) {
+          result.overloadedResponse_ = overloadedResponse_;
+        } else {
+          result.overloadedResponse_ = overloadedResponseBuilder_.build();
+        }
+        result.bitField0_ = to_bitField0_;
+        onBuilt();
+        return result;
+      }
+
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof com.yahoo.omid.proto.TSOProto.Response) {
+          return mergeFrom((com.yahoo.omid.proto.TSOProto.Response)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(com.yahoo.omid.proto.TSOProto.Response other) {
+        if (other == com.yahoo.omid.proto.TSOProto.Response.getDefaultInstance()) return this;
+        if (other.hasTimestampResponse()) {
+          mergeTimestampResponse(other.getTimestampResponse());
+        }
+        if (other.hasCommitResponse()) {
+          mergeCommitResponse(other.getCommitResponse());
+        }
+        if (other.hasHandshakeResponse()) {
+          mergeHandshakeResponse(other.getHandshakeResponse());
+        }
+        if (other.hasTimestampRangeResponse()) {
+          mergeTimestampRangeResponse(other.getTimestampRangeResponse());
+        }
+        if (other.hasOverloadedResponse()) {
+          mergeOverloadedResponse(other.getOverloadedResponse());
+        }
+        this.mergeUnknownFields(other.getUnknownFields());
+        return this;
+      }
+
+      public final boolean isInitialized() {
+        return true;
+      }
+
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        com.yahoo.omid.proto.TSOProto.Response parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (com.yahoo.omid.proto.TSOProto.Response) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      // optional .TimestampResponse timestampResponse = 1;
+      private com.yahoo.omid.proto.TSOProto.TimestampResponse timestampResponse_ = com.yahoo.omid.proto.TSOProto.TimestampResponse.getDefaultInstance();
+      private com.google.protobuf.SingleFieldBuilder<
+          com.yahoo.omid.proto.TSOProto.TimestampResponse, com.yahoo.omid.proto.TSOProto.TimestampResponse.Builder, com.yahoo.omid.proto.TSOProto.TimestampResponseOrBuilder> timestampResponseBuilder_;
+      /**
+       * <code>optional .TimestampResponse timestampResponse = 1;</code>
+       */
+      public boolean hasTimestampResponse() {
+        return ((bitField0_ & 0x00000001) == 0x00000001);
+      }
+      /**
+       * <code>optional .TimestampResponse timestampResponse = 1;</code>
+       */
+      public com.yahoo.omid.proto.TSOProto.TimestampResponse getTimestampResponse() {
+        if (timestampResponseBuilder_ == null) {
+          return timestampResponse_;
+        } else {
+          return timestampResponseBuilder_.getMessage();
+        }
+      }
+      /**
+       * <code>optional .TimestampResponse timestampResponse = 1;</code>
+       */
+      public Builder setTimestampResponse(com.yahoo.omid.proto.TSOProto.TimestampResponse value) {
+        if (timestampResponseBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          timestampResponse_ = value;
+          onChanged();
+        } else {
+          timestampResponseBuilder_.setMessage(value);
+        }
+        bitField0_ |= 0x00000001;
+        return this;
+      }
+      /**
+       * <code>optional .TimestampResponse timestampResponse = 1;</code>
+       */
+      public Builder setTimestampResponse(
+          com.yahoo.omid.proto.TSOProto.TimestampResponse.Builder builderForValue) {
+        if (timestampResponseBuilder_ == null) {
+          timestampResponse_ = builderForValue.build();
+          onChanged();
+        } else {
+          timestampResponseBuilder_.setMessage(builderForValue.build());
+        }
+        bitField0_ |= 0x00000001;
+        return this;
+      }
+      /**
+       * <code>optional .TimestampResponse timestampResponse = 1;</code>
+       */
+      public Builder mergeTimestampResponse(com.yahoo.omid.proto.TSOProto.TimestampResponse value) {
+        if (timestampResponseBuilder_ == null) {
+          if (((bitField0_ & 0x00000001) == 0x00000001) &&
+              timestampResponse_ != com.yahoo.omid.proto.TSOProto.TimestampResponse.getDefaultInstance()) {
+            timestampResponse_ =
+              com.yahoo.omid.proto.TSOProto.TimestampResponse.newBuilder(timestampResponse_).mergeFrom(value).buildPartial();
+          } else {
+            timestampResponse_ = value;
+          }
+          onChanged();
+        } else {
+          timestampResponseBuilder_.mergeFrom(value);
+        }
+        bitField0_ |= 0x00000001;
+        return this;
+      }
+      /**
+       * <code>optional .TimestampResponse timestampResponse = 1;</code>
+       */
+      public Builder clearTimestampResponse() {
+        if (timestampResponseBuilder_ == null) {
+          timestampResponse_ = com.yahoo.omid.proto.TSOProto.TimestampResponse.getDefaultInstance();
+          onChanged();
+        } else {
+          timestampResponseBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000001);
+        return this;
+      }
+      /**
+       * <code>optional .TimestampResponse timestampResponse = 1;</code>
+       */
+      public com.yahoo.omid.proto.TSOProto.TimestampResponse.Builder getTimestampResponseBuilder() {
+        bitField0_ |= 0x00000001;
+        onChanged();
+        return getTimestampResponseFieldBuilder().getBuilder();
+      }
+      /**
+       * <code>optional .TimestampResponse timestampResponse = 1;</code>
+       */
+      public com.yahoo.omid.proto.TSOProto.TimestampResponseOrBuilder getTimestampResponseOrBuilder() {
+        if (timestampResponseBuilder_ != null) {
+          return timestampResponseBuilder_.getMessageOrBuilder();
+        } else {
+          return timestampResponse_;
+        }
+      }
+      /**
+       * <code>optional .TimestampResponse timestampResponse = 1;</code>
+       */
+      private com.google.protobuf.SingleFieldBuilder<
+          com.yahoo.omid.proto.TSOProto.TimestampResponse, com.yahoo.omid.proto.TSOProto.TimestampResponse.Builder, com.yahoo.omid.proto.TSOProto.TimestampResponseOrBuilder> 
+          getTimestampResponseFieldBuilder() {
+        if (timestampResponseBuilder_ == null) {
+          timestampResponseBuilder_ = new com.google.protobuf.SingleFieldBuilder<
+              com.yahoo.omid.proto.TSOProto.TimestampResponse, com.yahoo.omid.proto.TSOProto.TimestampResponse.Builder, com.yahoo.omid.proto.TSOProto.TimestampResponseOrBuilder>(
+                  timestampResponse_,
+                  getParentForChildren(),
+                  isClean());
+          timestampResponse_ = null;
+        }
+        return timestampResponseBuilder_;
+      }
+
+      // optional .CommitResponse commitResponse = 2;
+      private com.yahoo.omid.proto.TSOProto.CommitResponse commitResponse_ = com.yahoo.omid.proto.TSOProto.CommitResponse.getDefaultInstance();
+      private com.google.protobuf.SingleFieldBuilder<
+          com.yahoo.omid.proto.TSOProto.CommitResponse, com.yahoo.omid.proto.TSOProto.CommitResponse.Builder, com.yahoo.omid.proto.TSOProto.CommitResponseOrBuilder> commitResponseBuilder_;
+      /**
+       * <code>optional .CommitResponse commitResponse = 2;</code>
+       */
+      public boolean hasCommitResponse() {
+        return ((bitField0_ & 0x00000002) == 0x00000002);
+      }
+      /**
+       * <code>optional .CommitResponse commitResponse = 2;</code>
+       */
+      public com.yahoo.omid.proto.TSOProto.CommitResponse getCommitResponse() {
+        if (commitResponseBuilder_ == null) {
+          return commitResponse_;
+        } else {
+          return commitResponseBuilder_.getMessage();
+        }
+      }
+      /**
+       * <code>optional .CommitResponse commitResponse = 2;</code>
+       */
+      public Builder setCommitResponse(com.yahoo.omid.proto.TSOProto.CommitResponse value) {
+        if (commitResponseBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          commitResponse_ = value;
+          onChanged();
+        } else {
+          commitResponseBuilder_.setMessage(value);
+        }
+        bitField0_ |= 0x00000002;
+        return this;
+      }
+      /**
+       * <code>optional .CommitResponse commitResponse = 2;</code>
+       */
+      public Builder setCommitResponse(
+          com.yahoo.omid.proto.TSOProto.CommitResponse.Builder builderForValue) {
+        if (commitResponseBuilder_ == null) {
+          commitResponse_ = builderForValue.build();
+          onChanged();
+        } else {
+          commitResponseBuilder_.setMessage(builderForValue.build());
+        }
+        bitField0_ |= 0x00000002;
+        return this;
+      }
+      /**
+       * <code>optional .CommitResponse commitResponse = 2;</code>
+       */
+      public Builder mergeCommitResponse(com.yahoo.omid.proto.TSOProto.CommitResponse value) {
+        if (commitResponseBuilder_ == null) {
+          if (((bitField0_ & 0x00000002) == 0x00000002) &&
+              commitResponse_ != com.yahoo.omid.proto.TSOProto.CommitResponse.getDefaultInstance()) {
+            commitResponse_ =
+              com.yahoo.omid.proto.TSOProto.CommitResponse.newBuilder(commitResponse_).mergeFrom(value).buildPartial();
+          } else {
+            commitResponse_ = value;
+          }
+          onChanged();
+        } else {
+          commitResponseBuilder_.mergeFrom(value);
+        }
+        bitField0_ |= 0x00000002;
+        return this;
+      }
+      /**
+       * <code>optional .CommitResponse commitResponse = 2;</code>
+       */
+      public Builder clearCommitResponse() {
+        if (commitResponseBuilder_ == null) {
+          commitResponse_ = com.yahoo.omid.proto.TSOProto.CommitResponse.getDefaultInstance();
+          onChanged();
+        } else {
+          commitResponseBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000002);
+        return this;
+      }
+      /**
+       * <code>optional .CommitResponse commitResponse = 2;</code>
+       */
+      public com.yahoo.omid.proto.TSOProto.CommitResponse.Builder getCommitResponseBuilder() {
+        bitField0_ |= 0x00000002;
+        onChanged();
+        return getCommitResponseFieldBuilder().getBuilder();
+      }
+      /**
+       * <code>optional .CommitResponse commitResponse = 2;</code>
+       */
+      public com.yahoo.omid.proto.TSOProto.CommitResponseOrBuilder getCommitResponseOrBuilder() {
+        if (commitResponseBuilder_ != null) {
+          return commitResponseBuilder_.getMessageOrBuilder();
+        } else {
+          return commitResponse_;
+        }
+      }
+      /**
+       * <code>optional .CommitResponse commitResponse = 2;</code>
+       */
+      private com.google.protobuf.SingleFieldBuilder<
+          com.yahoo.omid.proto.TSOProto.CommitResponse, com.yahoo.omid.proto.TSOProto.CommitResponse.Builder, com.yahoo.omid.proto.TSOProto.CommitResponseOrBuilder> 
+          getCommitResponseFieldBuilder() {
+        if (commitResponseBuilder_ == null) {
+          commitResponseBuilder_ = new com.google.protobuf.SingleFieldBuilder<
+              com.yahoo.omid.proto.TSOProto.CommitResponse, com.yahoo.omid.proto.TSOProto.CommitResponse.Builder, com.yahoo.omid.proto.TSOProto.CommitResponseOrBuilder>(
+                  commitResponse_,
+                  getParentForChildren(),
+                  isClean());
+          commitResponse_ = null;
+        }
+        return commitResponseBuilder_;
+      }
+
+      // optional .HandshakeResponse handshakeResponse = 3;
+      private com.yahoo.omid.proto.TSOProto.HandshakeResponse handshakeResponse_ = com.yahoo.omid.proto.TSOProto.HandshakeResponse.getDefaultInstance();
+      private com.google.protobuf.SingleFieldBuilder<
+          com.yahoo.omid.proto.TSOProto.HandshakeResponse, com.yahoo.omid.proto.TSOProto.HandshakeResponse.Builder, com.yahoo.omid.proto.TSOProto.HandshakeResponseOrBuilder> handshakeResponseBuilder_;
+      /**
+       * <code>optional .HandshakeResponse handshakeResponse = 3;</code>
+       */
+      public boolean hasHandshakeResponse() {
+        return ((bitField0_ & 0x00000004) == 0x00000004);
+      }
+      /**
+       * <code>optional .HandshakeResponse handshakeResponse = 3;</code>
+       */
+      public com.yahoo.omid.proto.TSOProto.HandshakeResponse getHandshakeResponse() {
+        if (handshakeResponseBuilder_ == null) {
+          return handshakeResponse_;
+        } else {
+          return handshakeResponseBuilder_.getMessage();
+        }
+      }
+      /**
+       * <code>optional .HandshakeResponse handshakeResponse = 3;</code>
+       */
+      public Builder setHandshakeResponse(com.yahoo.omid.proto.TSOProto.HandshakeResponse value) {
+        if (handshakeResponseBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          handshakeResponse_ = value;
+          onChanged();
+        } else {
+          handshakeResponseBuilder_.setMessage(value);
+        }
+        bitField0_ |= 0x00000004;
+        return this;
+      }
+      /**
+       * <code>optional .HandshakeResponse handshakeResponse = 3;</code>
+       */
+      public Builder setHandshakeResponse(
+          com.yahoo.omid.proto.TSOProto.HandshakeResponse.Builder builderForValue) {
+        if (handshakeResponseBuilder_ == null) {
+          handshakeResponse_ = builderForValue.build();
+          onChanged();
+        } else {
+          handshakeResponseBuilder_.setMessage(builderForValue.build());
+        }
+        bitField0_ |= 0x00000004;
+        return this;
+      }
+      /**
+       * <code>optional .HandshakeResponse handshakeResponse = 3;</code>
+       */
+      public Builder mergeHandshakeResponse(com.yahoo.omid.proto.TSOProto.HandshakeResponse value) {
+        if (handshakeResponseBuilder_ == null) {
+          if (((bitField0_ & 0x00000004) == 0x00000004) &&
+              handshakeResponse_ != com.yahoo.omid.proto.TSOProto.HandshakeResponse.getDefaultInstance()) {
+            handshakeResponse_ =
+              com.yahoo.omid.proto.TSOProto.HandshakeResponse.newBuilder(handshakeResponse_).mergeFrom(value).buildPartial();
+          } else {
+            handshakeResponse_ = value;
+          }
+          onChanged();
+        } else {
+          handshakeResponseBuilder_.mergeFrom(value);
+        }
+        bitField0_ |= 0x00000004;
+        return this;
+      }
+      /**
+       * <code>optional .HandshakeResponse handshakeResponse = 3;</code>
+       */
+      public Builder clearHandshakeResponse() {
+        if (handshakeResponseBuilder_ == null) {
+          handshakeResponse_ = com.yahoo.omid.proto.TSOProto.HandshakeResponse.getDefaultInstance();
+          onChanged();
+        } else {
+          handshakeResponseBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000004);
+        return this;
+      }
+      /**
+       * <code>optional .HandshakeResponse handshakeResponse = 3;</code>
+       */
+      public com.yahoo.omid.proto.TSOProto.HandshakeResponse.Builder getHandshakeResponseBuilder() {
+        bitField0_ |= 0x00000004;
+        onChanged();
+        return getHandshakeResponseFieldBuilder().getBuilder();
+      }
+      /**
+       * <code>optional .HandshakeResponse handshakeResponse = 3;</code>
+       */
+      public com.yahoo.omid.proto.TSOProto.HandshakeResponseOrBuilder getHandshakeResponseOrBuilder() {
+        if (handshakeResponseBuilder_ != null) {
+          return handshakeResponseBuilder_.getMessageOrBuilder();
+        } else {
+          return handshakeResponse_;
+        }
+      }
+      /**
+       * <code>optional .HandshakeResponse handshakeResponse = 3;</code>
+       */
+      private com.google.protobuf.SingleFieldBuilder<
+          com.yahoo.omid.proto.TSOProto.HandshakeResponse, com.yahoo.omid.proto.TSOProto.HandshakeResponse.Builder, com.yahoo.omid.proto.TSOProto.HandshakeResponseOrBuilder> 
+          getHandshakeResponseFieldBuilder() {
+        if (handshakeResponseBuilder_ == null) {
+          handshakeResponseBuilder_ = new com.google.protobuf.SingleFieldBuilder<
+              com.yahoo.omid.proto.TSOProto.HandshakeResponse, com.yahoo.omid.proto.TSOProto.HandshakeResponse.Builder, com.yahoo.omid.proto.TSOProto.HandshakeResponseOrBuilder>(
+                  handshakeResponse_,
+                  getParentForChildren(),
+                  isClean());
+          handshakeResponse_ = null;
+        }
+        return handshakeResponseBuilder_;
+      }
+
+      // optional .TimestampRangeResponse timestampRangeResponse = 4;
+      private com.yahoo.omid.proto.TSOProto.TimestampRangeResponse timestampRangeResponse_ = com.yahoo.omid.proto.TSOProto.TimestampRangeResponse.getDefaultInstance();
+      private com.google.protobuf.SingleFieldBuilder<
+          com.yahoo.omid.proto.TSOProto.TimestampRangeResponse, com.yahoo.omid.proto.TSOProto.TimestampRangeResponse.Builder, com.yahoo.omid.proto.TSOProto.TimestampRangeResponseOrBuilder> timestampRangeResponseBuilder_;
+      /**
+       * <code>optional .TimestampRangeResponse timestampRangeResponse = 4;</code>
+       */
+      public boolean hasTimestampRangeResponse() {
+        return ((bitField0_ & 0x00000008) == 0x00000008);
+      }
+      /**
+       * <code>optional .TimestampRangeResponse timestampRangeResponse = 4;</code>
+       */
+      public com.yahoo.omid.proto.TSOProto.TimestampRangeResponse getTimestampRangeResponse() {
+        if (timestampRangeResponseBuilder_ == null) {
+          return timestampRangeResponse_;
+        } else {
+          return timestampRangeResponseBuilder_.getMessage();
+        }
+      }
+      /**
+       * <code>optional .TimestampRangeResponse timestampRangeResponse = 4;</code>
+       */
+      public Builder setTimestampRangeResponse(com.yahoo.omid.proto.TSOProto.TimestampRangeResponse value) {
+        if (timestampRangeResponseBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          timestampRangeResponse_ = value;
+          onChanged();
+        } else {
+          timestampRangeResponseBuilder_.setMessage(value);
+        }
+        bitField0_ |= 0x00000008;
+        return this;
+      }
+      /**
+       * <code>optional .TimestampRangeResponse timestampRangeResponse = 4;</code>
+       */
+      public Builder setTimestampRangeResponse(
+          com.yahoo.omid.proto.TSOProto.TimestampRangeResponse.Builder builderForValue) {
+        if (timestampRangeResponseBuilder_ == null) {
+          timestampRangeResponse_ = builderForValue.build();
+          onChanged();
+        } else {
+          timestampRangeResponseBuilder_.setMessage(builderForValue.build());
+        }
+        bitField0_ |= 0x00000008;
+        return this;
+      }
+      /**
+       * <code>optional .TimestampRangeResponse timestampRangeResponse = 4;</code>
+       */
+      public Builder mergeTimestampRangeResponse(com.yahoo.omid.proto.TSOProto.TimestampRangeResponse value) {
+        if (timestampRangeResponseBuilder_ == null) {
+          if (((bitField0_ & 0x00000008) == 0x00000008) &&
+              timestampRangeResponse_ != com.yahoo.omid.proto.TSOProto.TimestampRangeResponse.getDefaultInstance()) {
+            timestampRangeResponse_ =
+              com.yahoo.omid.proto.TSOProto.TimestampRangeResponse.newBuilder(timestampRangeResponse_).mergeFrom(value).buildPartial();
+          } else {
+            timestampRangeResponse_ = value;
+          }
+          onChanged();
+        } else {
+          timestampRangeResponseBuilder_.mergeFrom(value);
+        }
+        bitField0_ |= 0x00000008;
+        return this;
+      }
+      /**
+       * <code>optional .TimestampRangeResponse timestampRangeResponse = 4;</code>
+       */
+      public Builder clearTimestampRangeResponse() {
+        if (timestampRangeResponseBuilder_ == null) {
+          timestampRangeResponse_ = com.yahoo.omid.proto.TSOProto.TimestampRangeResponse.getDefaultInstance();
+          onChanged();
+        } else {
+          timestampRangeResponseBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000008);
+        return this;
+      }
+      /**
+       * <code>optional .TimestampRangeResponse timestampRangeResponse = 4;</code>
+       */
+      public com.yahoo.omid.proto.TSOProto.TimestampRangeResponse.Builder getTimestampRangeResponseBuilder() {
+        bitField0_ |= 0x00000008;
+        onChanged();
+        return getTimestampRangeResponseFieldBuilder().getBuilder();
+      }
+      /**
+       * <code>optional .TimestampRangeResponse timestampRangeResponse = 4;</code>
+       */
+      public com.yahoo.omid.proto.TSOProto.TimestampRangeResponseOrBuilder getTimestampRangeResponseOrBuilder() {
+        if (timestampRangeResponseBuilder_ != null) {
+          return timestampRangeResponseBuilder_.getMessageOrBuilder();
+        } else {
+          return timestampRangeResponse_;
+        }
+      }
+      /**
+       * <code>optional .TimestampRangeResponse timestampRangeResponse = 4;</code>
+       */
+      private com.google.protobuf.SingleFieldBuilder<
+          com.yahoo.omid.proto.TSOProto.TimestampRangeResponse, com.yahoo.omid.proto.TSOProto.TimestampRangeResponse.Builder, com.yahoo.omid.proto.TSOProto.TimestampRangeResponseOrBuilder> 
+          getTimestampRangeResponseFieldBuilder() {
+        if (timestampRangeResponseBuilder_ == null) {
+          timestampRangeResponseBuilder_ = new com.google.protobuf.SingleFieldBuilder<
+              com.yahoo.omid.proto.TSOProto.TimestampRangeResponse, com.yahoo.omid.proto.TSOProto.TimestampRangeResponse.Builder, com.yahoo.omid.proto.TSOProto.TimestampRangeResponseOrBuilder>(
+                  timestampRangeResponse_,
+                  getParentForChildren(),
+                  isClean());
+          timestampRangeResponse_ = null;
+        }
+        return timestampRangeResponseBuilder_;
+      }
+
+      // optional .OverloadedResponse overloadedResponse = 5;
+      private com.yahoo.omid.proto.TSOProto.OverloadedResponse overloadedResponse_ = com.yahoo.omid.proto.TSOProto.OverloadedResponse.getDefaultInstance();
+      private com.google.protobuf.SingleFieldBuilder<
+          com.yahoo.omid.proto.TSOProto.OverloadedResponse, com.yahoo.omid.proto.TSOProto.OverloadedResponse.Builder, com.yahoo.omid.proto.TSOProto.OverloadedResponseOrBuilder> overloadedResponseBuilder_;
+      /**
+       * <code>optional .OverloadedResponse overloadedResponse = 5;</code>
+       */
+      public boolean hasOverloadedResponse() {
+        return ((bitField0_ & 0x00000010) == 0x00000010);
+      }
+      /**
+       * <code>optional .OverloadedResponse overloadedResponse = 5;</code>
+       */
+      public com.yahoo.omid.proto.TSOProto.OverloadedResponse getOverloadedResponse() {
+        if (overloadedResponseBuilder_ == null) {
+          return overloadedResponse_;
+        } else {
+          return overloadedResponseBuilder_.getMessage();
+        }
+      }
+      /**
+       * <code>optional .OverloadedResponse overloadedResponse = 5;</code>
+       */
+      public Builder setOverloadedResponse(com.yahoo.omid.proto.TSOProto.OverloadedResponse value) {
+        if (overloadedResponseBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          overloadedResponse_ = value;
+          onChanged();
+        } else {
+          overloadedResponseBuilder_.setMessage(value);
+        }
+        bitField0_ |= 0x00000010;
+        return this;
+      }
+      /**
+       * <code>optional .OverloadedResponse overloadedResponse = 5;</code>
+       */
+      public Builder setOverloadedResponse(
+          com.yahoo.omid.proto.TSOProto.OverloadedResponse.Builder builderForValue) {
+        if (overloadedResponseBuilder_ == null) {
+          overloadedResponse_ = builderForValue.build();
+          onChanged();
+        } else {
+          overloadedResponseBuilder_.setMessage(builderForValue.build());
+        }
+        bitField0_ |= 0x00000010;
+        return this;
+      }
+      /**
+       * <code>optional .OverloadedResponse overloadedResponse = 5;</code>
+       */
+      public Builder mergeOverloadedResponse(com.yahoo.omid.proto.TSOProto.OverloadedResponse value) {
+        if (overloadedResponseBuilder_ == null) {
+          if (((bitField0_ & 0x00000010) == 0x00000010) &&
+              overloadedResponse_ != com.yahoo.omid.proto.TSOProto.OverloadedResponse.getDefaultInstance()) {
+            overloadedResponse_ =
+              com.yahoo.omid.proto.TSOProto.OverloadedResponse.newBuilder(overloadedResponse_).mergeFrom(value).buildPartial();
+          } else {
+            overloadedResponse_ = value;
+          }
+          onChanged();
+        } else {
+          overloadedResponseBuilder_.mergeFrom(value);
+        }
+        bitField0_ |= 0x00000010;
+        return this;
+      }
+      /**
+       * <code>optional .OverloadedResponse overloadedResponse = 5;</code>
+       */
+      public Builder clearOverloadedResponse() {
+        if (overloadedResponseBuilder_ == null) {
+          overloadedResponse_ = com.yahoo.omid.proto.TSOProto.OverloadedResponse.getDefaultInstance();
+          onChanged();
+        } else {
+          overloadedResponseBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000010);
+        return this;
+      }
+      /**
+       * <code>optional .OverloadedResponse overloadedResponse = 5;</code>
+       */
+      public com.yahoo.omid.proto.TSOProto.OverloadedResponse.Builder getOverloadedResponseBuilder() {
+        bitField0_ |= 0x00000010;
+        onChanged();
+        return getOverloadedResponseFieldBuilder().getBuilder();
+      }
+      /**
+       * <code>optional .OverloadedResponse overloadedResponse = 5;</code>
+       */
+      public com.yahoo.omid.proto.TSOProto.OverloadedResponseOrBuilder getOverloadedResponseOrBuilder() {
+        if (overloadedResponseBuilder_ != null) {
+          return overloadedResponseBuilder_.getMessageOrBuilder();
+        } else {
+          return overloadedResponse_;
+        }
+      }
+      /**
+       * <code>optional .OverloadedResponse overloadedResponse = 5;</code>
+       */
+      private com.google.protobuf.SingleFieldBuilder<
+          com.yahoo.omid.proto.TSOProto.OverloadedResponse, com.yahoo.omid.proto.TSOProto.OverloadedResponse.Builder, com.yahoo.omid.proto.TSOProto.OverloadedResponseOrBuilder> 
+          getOverloadedResponseFieldBuilder() {
+        if (overloadedResponseBuilder_ == null) {
+          overloadedResponseBuilder_ = new com.google.protobuf.SingleFieldBuilder<
+              com.yahoo.omid.proto.TSOProto.OverloadedResponse, com.yahoo.omid.proto.TSOProto.OverloadedResponse.Builder, com.yahoo.omid.proto.TSOProto.OverloadedResponseOrBuilder>(
+                  overloadedResponse_,
+                  getParentForChildren(),
+                  isClean());
+          overloadedResponse_ = null;
+        }
+        return overloadedResponseBuilder_;
+      }
+
+      // @@protoc_insertion_point(builder_scope:Response)
+    }
+
+    static {
+      defaultInstance = new Response(true);
+      defaultInstance.initFields();
+    }
+
+    // @@protoc_insertion_point(class_scope:Response)
+  }
+
+  public interface TimestampResponseOrBuilder
+      extends com.google.protobuf.MessageOrBuilder {
+
+    // optional int64 startTimestamp = 1;
+    /**
+     * <code>optional int64 startTimestamp = 1;</code>
+     */
+    boolean hasStartTimestamp();
+    /**
+     * <code>optional int64 startTimestamp = 1;</code>
+     */
+    long getStartTimestamp();
+  }
+  /**
+   * Protobuf type {@code TimestampResponse}
+   */
+  public static final class TimestampResponse extends
+      com.google.protobuf.GeneratedMessage
+      implements TimestampResponseOrBuilder {
+    // Use TimestampResponse.newBuilder() to construct.
+    private TimestampResponse(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      super(builder);
+      this.unknownFields = builder.getUnknownFields();
+    }
+    private TimestampResponse(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
+    private static final TimestampResponse defaultInstance;
+    public static TimestampResponse getDefaultInstance() {
+      return defaultInstance;
+    }
+
+    public TimestampResponse getDefaultInstanceForType() {
+      return defaultInstance;
+    }
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private TimestampResponse(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 8: {
+              bitField0_ |= 0x00000001;
+              startTimestamp_ = input.readInt64();
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return com.yahoo.omid.proto.TSOProto.internal_static_TimestampResponse_descriptor;
+    }
+
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return com.yahoo.omid.proto.TSOProto.internal_static_TimestampResponse_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.yahoo.omid.proto.TSOProto.TimestampResponse.class, com.yahoo.omid.proto.TSOProto.TimestampResponse.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<TimestampResponse> PARSER =
+        new com.google.protobuf.AbstractParser<TimestampResponse>() {
+      public TimestampResponse parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new TimestampResponse(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<TimestampResponse> getParserForType() {
+      return PARSER;
+    }
+
+    private int bitField0_;
+    // optional int64 startTimestamp = 1;
+    public static final int STARTTIMESTAMP_FIELD_NUMBER = 1;
+    private long startTimestamp_;
+    /**
+     * <code>optional int64 startTimestamp = 1;</code>
+     */
+    public boolean hasStartTimestamp() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    /**
+     * <code>optional int64 startTimestamp = 1;</code>
+     */
+    public long getStartTimestamp() {
+      return startTimestamp_;
+    }
+
+    private void initFields() {
+      startTimestamp_ = 0L;
+    }
+    private byte memoizedIsInitialized = -1;
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized != -1) return isInitialized == 1;
+
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      getSerializedSize();
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        output.writeInt64(1, startTimestamp_);
+      }
+      getUnknownFields().writeTo(output);
+    }
+
+    private int memoizedSerializedSize = -1;
+    public int getSerializedSize() {
+      int size = memoizedSerializedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt64Size(1, startTimestamp_);
+      }
+      size += getUnknownFields().getSerializedSize();
+      memoizedSerializedSize = size;
+      return size;
+    }
+
+    private static final long serialVersionUID = 0L;
+    @java.lang.Override
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
+      return super.writeReplace();
+    }
+
+    public static com.yahoo.omid.proto.TSOProto.TimestampResponse parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.yahoo.omid.proto.TSOProto.TimestampResponse parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.yahoo.omid.proto.TSOProto.TimestampResponse parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.yahoo.omid.proto.TSOProto.TimestampResponse parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.yahoo.omid.proto.TSOProto.TimestampResponse parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.yahoo.omid.proto.TSOProto.TimestampResponse parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+    public static com.yahoo.omid.proto.TSOProto.TimestampResponse parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input);
+    }
+    public static com.yahoo.omid.proto.TSOProto.TimestampResponse parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
+    }
+    public static com.yahoo.omid.proto.TSOProto.TimestampResponse parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.yahoo.omid.proto.TSOProto.TimestampResponse parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+
+    public static Builder newBuilder() { return Builder.create(); }
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder(com.yahoo.omid.proto.TSOProto.TimestampResponse prototype) {
+      return newBuilder().mergeFrom(prototype);
+    }
+    public Builder toBuilder() { return newBuilder(this); }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code TimestampResponse}
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessage.Builder<Builder>
+       implements com.yahoo.omid.proto.TSOProto.TimestampResponseOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return com.yahoo.omid.proto.TSOProto.internal_static_TimestampResponse_descriptor;
+      }
+
+      protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return com.yahoo.omid.proto.TSOProto.internal_static_TimestampResponse_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.yahoo.omid.proto.TSOProto.TimestampResponse.class, com.yahoo.omid.proto.TSOProto.TimestampResponse.Builder.class);
+      }
+
+      // Construct using com.yahoo.omid.proto.TSOProto.TimestampResponse.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+        }
+      }
+      private static Builder create() {
+        return new Builder();
+      }
+
+      public Builder clear() {
+        super.clear();
+        startTimestamp_ = 0L;
+        bitField0_ = (bitField0_ & ~0x00000001);
+        return this;
+      }
+
+      public Builder clone() {
+        return create().mergeFrom(buildPartial());
+      }
+
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return com.yahoo.omid.proto.TSOProto.internal_static_TimestampResponse_descriptor;
+      }
+
+      public com.yahoo.omid.proto.TSOProto.TimestampResponse getDefaultInstanceForType() {
+        return com.yahoo.omid.proto.TSOProto.TimestampResponse.getDefaultInstance();
+      }
+
+      public com.yahoo.omid.proto.TSOProto.TimestampResponse build() {
+        com.yahoo.omid.proto.TSOProto.TimestampResponse result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      public com.yahoo.omid.proto.TSOProto.TimestampResponse buildPartial() {
+        com.yahoo.omid.proto.TSOProto.TimestampResponse result = new com.yahoo.omid.proto.TSOProto.TimestampResponse(this);
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
+        if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
+          to_bitField0_ |= 0x00000001;
+        }
+        result.startTimestamp_ = startTimestamp_;
+        result.bitField0_ = to_bitField0_;
+        onBuilt();
+        return result;
+      }
+
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof com.yahoo.omid.proto.TSOProto.TimestampResponse) {
+          return mergeFrom((com.yahoo.omid.proto.TSOProto.TimestampResponse)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(com.yahoo.omid.proto.TSOProto.TimestampResponse other) {
+        if (other == com.yahoo.omid.proto.TSOProto.TimestampResponse.getDefaultInstance()) return this;
+        if (other.hasStartTimestamp()) {
+          setStartTimestamp(other.getStartTimestamp());
+        }
+        this.mergeUnknownFields(other.getUnknownFields());
+        return this;
+      }
+
+      public final boolean isInitialized() {
+        return true;
+      }
+
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        com.yahoo.omid.proto.TSOProto.TimestampResponse parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (com.yahoo.omid.proto.TSOProto.TimestampResponse) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      // optional int64 startTimestamp = 1;
+      private long startTimestamp_ ;
+      /**
+       * <code>optional int64 startTimestamp = 1;</code>
        */
-      private com.google.protobuf.SingleFieldBuilder<
-          com.yahoo.omid.proto.TSOProto.TimestampResponse, com.yahoo.omid.proto.TSOProto.TimestampResponse.Builder, com.yahoo.omid.proto.TSOProto.TimestampResponseOrBuilder> 
-          getTimestampResponseFieldBuilder() {
-        if (timestampResponseBuilder_ == null) {
-          timestampResponseBuilder_ = new com.google.protobuf.SingleFieldBuilder<
-              com.yahoo.omid.proto.TSOProto.TimestampResponse, com.yahoo.omid.proto.TSOProto.TimestampResponse.Builder, com.yahoo.omid.proto.TSOProto.TimestampResponseOrBuilder>(
-                  timestampResponse_,
-                  getParentForChildren(),
-                  isClean());
-          timestampResponse_ = null;
+      public boolean hasStartTimestamp() {
+        return ((bitField0_ & 0x00000001) == 0x00000001);
+      }
+      /**
+       * <code>optional int64 startTimestamp = 1;</code>
+       */
+      public long getStartTimestamp() {
+        return startTimestamp_;
+      }
+      /**
+       * <code>optional int64 startTimestamp = 1;</code>
+       */
+      public Builder setStartTimestamp(long value) {
+        bitField0_ |= 0x00000001;
+        startTimestamp_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional int64 startTimestamp = 1;</code>
+       */
+      public Builder clearStartTimestamp() {
+        bitField0_ = (bitField0_ & ~0x00000001);
+        startTimestamp_ = 0L;
+        onChanged();
+        return this;
+      }
+
+      // @@protoc_insertion_point(builder_scope:TimestampResponse)
+    }
+
+    static {
+      defaultInstance = new TimestampResponse(true);
+      defaultInstance.initFields();
+    }
+
+    // @@protoc_insertion_point(class_scope:TimestampResponse)
+  }
+
+  public interface TimestampRangeResponseOrBuilder
+      extends com.google.protobuf.MessageOrBuilder {
+
+    // optional int64 firstTimestamp = 1;
+    /**
+     * <code>optional int64 firstTimestamp = 1;</code>
+     */
+    boolean hasFirstTimestamp();
+    /**
+     * <code>optional int64 firstTimestamp = 1;</code>
+     */
+    long getFirstTimestamp();
+
+    // optional int32 count = 2;
+    /**
+     * <code>optional int32 count = 2;</code>
+     */
+    boolean hasCount();
+    /**
+     * <code>optional int32 count = 2;</code>
+     */
+    int getCount();
+  }
+  /**
+   * Protobuf type {@code TimestampRangeResponse}
+   *
+   * <pre>
+   * The timestamps in [firstTimestamp, firstTimestamp + count) are assigned to the client.
+   * The server may return less timestamps than requested
+   * </pre>
+   */
+  public static final class TimestampRangeResponse extends
+      com.google.protobuf.GeneratedMessage
+      implements TimestampRangeResponseOrBuilder {
+    // Use TimestampRangeResponse.newBuilder() to construct.
+    private TimestampRangeResponse(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      super(builder);
+      this.unknownFields = builder.getUnknownFields();
+    }
+    private TimestampRangeResponse(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
+    private static final TimestampRangeResponse defaultInstance;
+    public static TimestampRangeResponse getDefaultInstance() {
+      return defaultInstance;
+    }
+
+    public TimestampRangeResponse getDefaultInstanceForType() {
+      return defaultInstance;
+    }
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private TimestampRangeResponse(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 8: {
+              bitField0_ |= 0x00000001;
+              firstTimestamp_ = input.readInt64();
+              break;
+            }
+            case 16: {
+              bitField0_ |= 0x00000002;
+              count_ = input.readInt32();
+              break;
+            }
+          }
         }
-        return timestampResponseBuilder_;
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
       }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return com.yahoo.omid.proto.TSOProto.internal_static_TimestampRangeResponse_descriptor;
+    }
 
-      // optional .CommitResponse commitResponse = 2;
-      private com.yahoo.omid.proto.TSOProto.CommitResponse commitResponse_ = com.yahoo.omid.proto.TSOProto.CommitResponse.getDefaultInstance();
-      private com.google.protobuf.SingleFieldBuilder<
-          com.yahoo.omid.proto.TSOProto.CommitResponse, com.yahoo.omid.proto.TSOProto.CommitResponse.Builder, com.yahoo.omid.proto.TSOProto.CommitResponseOrBuilder> commitResponseBuilder_;
-      /**
-       * <code>optional .CommitResponse commitResponse = 2;</code>
-       */
-      public boolean hasCommitResponse() {
-        return ((bitField0_ & 0x00000002) == 0x00000002);
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return com.yahoo.omid.proto.TSOProto.internal_static_TimestampRangeResponse_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.yahoo.omid.proto.TSOProto.TimestampRangeResponse.class, com.yahoo.omid.proto.TSOProto.TimestampRangeResponse.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<TimestampRangeResponse> PARSER =
+        new com.google.protobuf.AbstractParser<TimestampRangeResponse>() {
+      public TimestampRangeResponse parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new TimestampRangeResponse(input, extensionRegistry);
       }
-      /**
-       * <code>optional .CommitResponse commitResponse = 2;</code>
-       */
-      public com.yahoo.omid.proto.TSOProto.CommitResponse getCommitResponse() {
-        if (commitResponseBuilder_ == null) {
-          return commitResponse_;
-        } else {
-          return commitResponseBuilder_.getMessage();
-        }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<TimestampRangeResponse> getParserForType() {
+      return PARSER;
+    }
+
+    private int bitField0_;
+    // optional int64 firstTimestamp = 1;
+    public static final int FIRSTTIMESTAMP_FIELD_NUMBER = 1;
+    private long firstTimestamp_;
+    /**
+     * <code>optional int64 firstTimestamp = 1;</code>
+     */
+    public boolean hasFirstTimestamp() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    /**
+     * <code>optional int64 firstTimestamp = 1;</code>
+     */
+    public long getFirstTimestamp() {
+      return firstTimestamp_;
+    }
+
+    // optional int32 count = 2;
+    public static final int COUNT_FIELD_NUMBER = 2;
+    private int count_;
+    /**
+     * <code>optional int32 count = 2;</code>
+     */
+    public boolean hasCount() {
+      return ((bitField0_ & 0x00000002) == 0x00000002);
+    }
+    /**
+     * <code>optional int32 count = 2;</code>
+     */
+    public int getCount() {
+      return count_;
+    }
+
+    private void initFields() {
+      firstTimestamp_ = 0L;
+      count_ = 0;
+    }
+    private byte memoizedIsInitialized = -1;
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized != -1) return isInitialized == 1;
+
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      getSerializedSize();
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        output.writeInt64(1, firstTimestamp_);
       }
-      /**
-       * <code>optional .CommitResponse commitResponse = 2;</code>
-       */
-      public Builder setCommitResponse(com.yahoo.omid.proto.TSOProto.CommitResponse value) {
-        if (commitResponseBuilder_ == null) {
-          if (value == null) {
-            throw new NullPointerException();
-          }
-          commitResponse_ = value;
-          onChanged();
-        } else {
-          commitResponseBuilder_.setMessage(value);
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        output.writeInt32(2, count_);
+      }
+      getUnknownFields().writeTo(output);
+    }
+
+    private int memoizedSerializedSize = -1;
+    public int getSerializedSize() {
+      int size = memoizedSerializedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt64Size(1, firstTimestamp_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(2, count_);
+      }
+      size += getUnknownFields().getSerializedSize();
+      memoizedSerializedSize = size;
+      return size;
+    }
+
+    private static final long serialVersionUID = 0L;
+    @java.lang.Override
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
+      return super.writeReplace();
+    }
+
+    public static com.yahoo.omid.proto.TSOProto.TimestampRangeResponse parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.yahoo.omid.proto.TSOProto.TimestampRangeResponse parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.yahoo.omid.proto.TSOProto.TimestampRangeResponse parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.yahoo.omid.proto.TSOProto.TimestampRangeResponse parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.yahoo.omid.proto.TSOProto.TimestampRangeResponse parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.yahoo.omid.proto.TSOProto.TimestampRangeResponse parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+    public static com.yahoo.omid.proto.TSOProto.TimestampRangeResponse parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input);
+    }
+    public static com.yahoo.omid.proto.TSOProto.TimestampRangeResponse parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
+    }
+    public static com.yahoo.omid.proto.TSOProto.TimestampRangeResponse parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.yahoo.omid.proto.TSOProto.TimestampRangeResponse parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+
+    public static Builder newBuilder() { return Builder.create(); }
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder(com.yahoo.omid.proto.TSOProto.TimestampRangeResponse prototype) {
+      return newBuilder().mergeFrom(prototype);
+    }
+    public Builder toBuilder() { return newBuilder(this); }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code TimestampRangeResponse}
+     *
+     * <pre>
+     * The timestamps in [firstTimestamp, firstTimestamp + count) are assigned to the client.
+     * The server may return less timestamps than requested
+     * </pre>
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessage.Builder<Builder>
+       implements com.yahoo.omid.proto.TSOProto.TimestampRangeResponseOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return com.yahoo.omid.proto.TSOProto.internal_static_TimestampRangeResponse_descriptor;
+      }
+
+      protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return com.yahoo.omid.proto.TSOProto.internal_static_TimestampRangeResponse_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.yahoo.omid.proto.TSOProto.TimestampRangeResponse.class, com.yahoo.omid.proto.TSOProto.TimestampRangeResponse.Builder.class);
+      }
+
+      // Construct using com.yahoo.omid.proto.TSOProto.TimestampRangeResponse.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
         }
-        bitField0_ |= 0x00000002;
+      }
+      private static Builder create() {
+        return new Builder();
+      }
+
+      public Builder clear() {
+        super.clear();
+        firstTimestamp_ = 0L;
+        bitField0_ = (bitField0_ & ~0x00000001);
+        count_ = 0;
+        bitField0_ = (bitField0_ & ~0x00000002);
         return this;
       }
-      /**
-       * <code>optional .CommitResponse commitResponse = 2;</code>
-       */
-      public Builder setCommitResponse(
-          com.yahoo.omid.proto.TSOProto.CommitResponse.Builder builderForValue) {
-        if (commitResponseBuilder_ == null) {
-          commitResponse_ = builderForValue.build();
-          onChanged();
-        } else {
-          commitResponseBuilder_.setMessage(builderForValue.build());
+
+      public Builder clone() {
+        return create().mergeFrom(buildPartial());
+      }
+
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return com.yahoo.omid.proto.TSOProto.internal_static_TimestampRangeResponse_descriptor;
+      }
+
+      public com.yahoo.omid.proto.TSOProto.TimestampRangeResponse getDefaultInstanceForType() {
+        return com.yahoo.omid.proto.TSOProto.TimestampRangeResponse.getDefaultInstance();
+      }
+
+      public com.yahoo.omid.proto.TSOProto.TimestampRangeResponse build() {
+        com.yahoo.omid.proto.TSOProto.TimestampRangeResponse result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
         }
-        bitField0_ |= 0x00000002;
-        return this;
+        return result;
+      }
+
+      public com.yahoo.omid.proto.TSOProto.TimestampRangeResponse buildPartial() {
+        com.yahoo.omid.proto.TSOProto.TimestampRangeResponse result = new com.yahoo.omid.proto.TSOProto.TimestampRangeResponse(this);
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
+        if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
+          to_bitField0_ |= 0x00000001;
+        }
+        result.firstTimestamp_ = firstTimestamp_;
+        if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
+          to_bitField0_ |= 0x00000002;
+        }
+        result.count_ = count_;
+        result.bitField0_ = to_bitField0_;
+        onBuilt();
+        return result;
       }
-      /**
-       * <code>optional .CommitResponse commitResponse = 2;</code>
-       */
-      public Builder mergeCommitResponse(com.yahoo.omid.proto.TSOProto.CommitResponse value) {
-        if (commitResponseBuilder_ == null) {
-          if (((bitField0_ & 0x00000002) == 0x00000002) &&
-              commitResponse_ != com.yahoo.omid.proto.TSOProto.CommitResponse.getDefaultInstance()) {
-            commitResponse_ =
-              com.yahoo.omid.proto.TSOProto.CommitResponse.newBuilder(commitResponse_).mergeFrom(value).buildPartial();
-          } else {
-            commitResponse_ = value;
-          }
-          onChanged();
+
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof com.yahoo.omid.proto.TSOProto.TimestampRangeResponse) {
+          return mergeFrom((com.yahoo.omid.proto.TSOProto.TimestampRangeResponse)other);
         } else {
-          commitResponseBuilder_.mergeFrom(value);
+          super.mergeFrom(other);
+          return this;
         }
-        bitField0_ |= 0x00000002;
-        return this;
       }
-      /**
-       * <code>optional .CommitResponse commitResponse = 2;</code>
-       */
-      public Builder clearCommitResponse() {
-        if (commitResponseBuilder_ == null) {
-          commitResponse_ = com.yahoo.omid.proto.TSOProto.CommitResponse.getDefaultInstance();
-          onChanged();
-        } else {
-          commitResponseBuilder_.clear();
+
+      public Builder mergeFrom(com.yahoo.omid.proto.TSOProto.TimestampRangeResponse other) {
+        if (other == com.yahoo.omid.proto.TSOProto.TimestampRangeResponse.getDefaultInstance()) return this;
+        if (other.hasFirstTimestamp()) {
+          setFirstTimestamp(other.getFirstTimestamp());
         }
-        bitField0_ = (bitField0_ & ~0x00000002);
+        if (other.hasCount()) {
+          setCount(other.getCount());
+        }
+        this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
-      /**
-       * <code>optional .CommitResponse commitResponse = 2;</code>
-       */
-      public com.yahoo.omid.proto.TSOProto.CommitResponse.Builder getCommitResponseBuilder() {
-        bitField0_ |= 0x00000002;
-        onChanged();
-        return getCommitResponseFieldBuilder().getBuilder();
-      }
-      /**
-       * <code>optional .CommitResponse commitResponse = 2;</code>
-       */
-      public com.yahoo.omid.proto.TSOProto.CommitResponseOrBuilder getCommitResponseOrBuilder() {
-        if (commitResponseBuilder_ != null) {
-          return commitResponseBuilder_.getMessageOrBuilder();
-        } else {
-          return commitResponse_;
-        }
+
+      public final boolean isInitialized() {
+        return true;
       }
-      /**
-       * <code>optional .CommitResponse commitResponse = 2;</code>
-       */
-      private com.google.protobuf.SingleFieldBuilder<
-          com.yahoo.omid.proto.TSOProto.CommitResponse, com.yahoo.omid.proto.TSOProto.CommitResponse.Builder, com.yahoo.omid.proto.TSOProto.CommitResponseOrBuilder> 
-          getCommitResponseFieldBuilder() {
-        if (commitResponseBuilder_ == null) {
-          commitResponseBuilder_ = new com.google.protobuf.SingleFieldBuilder<
-              com.yahoo.omid.proto.TSOProto.CommitResponse, com.yahoo.omid.proto.TSOProto.CommitResponse.Builder, com.yahoo.omid.proto.TSOProto.CommitResponseOrBuilder>(
-                  commitResponse_,
-                  getParentForChildren(),
-                  isClean());
-          commitResponse_ = null;
+
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        com.yahoo.omid.proto.TSOProto.TimestampRangeResponse parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (com.yahoo.omid.proto.TSOProto.TimestampRangeResponse) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
         }
-        return commitResponseBuilder_;
+        return this;
       }
+      private int bitField0_;
 
-      // optional .HandshakeResponse handshakeResponse = 3;
-      private com.yahoo.omid.proto.TSOProto.HandshakeResponse handshakeResponse_ = com.yahoo.omid.proto.TSOProto.HandshakeResponse.getDefaultInstance();
-      private com.google.protobuf.SingleFieldBuilder<
-          com.yahoo.omid.proto.TSOProto.HandshakeResponse, com.yahoo.omid.proto.TSOProto.HandshakeResponse.Builder, com.yahoo.omid.proto.TSOProto.HandshakeResponseOrBuilder> handshakeResponseBuilder_;
+      // optional int64 firstTimestamp = 1;
+      private long firstTimestamp_ ;
       /**
-       * <code>optional .HandshakeResponse handshakeResponse = 3;</code>
+       * <code>optional int64 firstTimestamp = 1;</code>
        */
-      public boolean hasHandshakeResponse() {
-        return ((bitField0_ & 0x00000004) == 0x00000004);
+      public boolean hasFirstTimestamp() {
+        return ((bitField0_ & 0x00000001) == 0x00000001);
       }
       /**
-       * <code>optional .HandshakeResponse handshakeResponse = 3;</code>
+       * <code>optional int64 firstTimestamp = 1;</code>
        */
-      public com.yahoo.omid.proto.TSOProto.HandshakeResponse getHandshakeResponse() {
-        if (handshakeResponseBuilder_ == null) {
-          return handshakeResponse_;
-        } else {
-          return handshakeResponseBuilder_.getMessage();
-        }
+      public long getFirstTimestamp() {
+        return firstTimestamp_;
       }
       /**
-       * <code>optional .HandshakeResponse handshakeResponse = 3;</code>
+       * <code>optional int64 firstTimestamp = 1;</code>
        */
-      public Builder setHandshakeResponse(com.yahoo.omid.proto.TSOProto.HandshakeResponse value) {
-        if (handshakeResponseBuilder_ == null) {
-          if (value == null) {
-            throw new NullPointerException();
-          }
-          handshakeResponse_ = value;
-          onChanged();
-        } else {
-          handshakeResponseBuilder_.setMessage(value);
-        }
-        bitField0_ |= 0x00000004;
+      public Builder setFirstTimestamp(long value) {
+        bitField0_ |= 0x00000001;
+        firstTimestamp_ = value;
+        onChanged();
         return this;
       }
       /**
-       * <code>optional .HandshakeResponse handshakeResponse = 3;</code>
+       * <code>optional int64 firstTimestamp = 1;</code>
        */
-      public Builder setHandshakeResponse(
-          com.yahoo.omid.proto.TSOProto.HandshakeResponse.Builder builderForValue) {
-        if (handshakeResponseBuilder_ == null) {
-          handshakeResponse_ = builderForValue.build();
-          onChanged();
-        } else {
-          handshakeResponseBuilder_.setMessage(builderForValue.build());
-        }
-        bitField0_ |= 0x00000004;
+      public Builder clearFirstTimestamp() {
+        bitField0_ = (bitField0_ & ~0x00000001);
+        firstTimestamp_ = 0L;
+        onChanged();
         return this;
       }
+
+      // optional int32 count = 2;
+      private int count_ ;
       /**
-       * <code>optional .HandshakeResponse handshakeResponse = 3;</code>
+       * <code>optional int32 count = 2;</code>
        */
-      public Builder mergeHandshakeResponse(com.yahoo.omid.proto.TSOProto.HandshakeResponse value) {
-        if (handshakeResponseBuilder_ == null) {
-          if (((bitField0_ & 0x00000004) == 0x00000004) &&
-              handshakeResponse_ != com.yahoo.omid.proto.TSOProto.HandshakeResponse.getDefaultInstance()) {
-            handshakeResponse_ =
-              com.yahoo.omid.proto.TSOProto.HandshakeResponse.newBuilder(handshakeResponse_).mergeFrom(value).buildPartial();
-          } else {
-            handshakeResponse_ = value;
-          }
-          onChanged();
-        } else {
-          handshakeResponseBuilder_.mergeFrom(value);
-        }
-        bitField0_ |= 0x00000004;
-        return this;
+      public boolean hasCount() {
+        return ((bitField0_ & 0x00000002) == 0x00000002);
       }
       /**
-       * <code>optional .HandshakeResponse handshakeResponse = 3;</code>
+       * <code>optional int32 count = 2;</code>
        */
-      public Builder clearHandshakeResponse() {
-        if (handshakeResponseBuilder_ == null) {
-          handshakeResponse_ = com.yahoo.omid.proto.TSOProto.HandshakeResponse.getDefaultInstance();
-          onChanged();
-        } else {
-          handshakeResponseBuilder_.clear();
-        }
-        bitField0_ = (bitField0_ & ~0x00000004);
-        return this;
+      public int getCount() {
+        return count_;
       }
       /**
-       * <code>optional .HandshakeResponse handshakeResponse = 3;</code>
+       * <code>optional int32 count = 2;</code>
        */
-      public com.yahoo.omid.proto.TSOProto.HandshakeResponse.Builder getHandshakeResponseBuilder() {
-        bitField0_ |= 0x00000004;
+      public Builder setCount(int value) {
+        bitField0_ |= 0x00000002;
+        count_ = value;
         onChanged();
-        return getHandshakeResponseFieldBuilder().getBuilder();
-      }
-      /**
-       * <code>optional .HandshakeResponse handshakeResponse = 3;</code>
-       */
-      public com.yahoo.omid.proto.TSOProto.HandshakeResponseOrBuilder getHandshakeResponseOrBuilder() {
-        if (handshakeResponseBuilder_ != null) {
-          return handshakeResponseBuilder_.getMessageOrBuilder();
-        } else {
-          return handshakeResponse_;
-        }
+        return this;
       }
       /**
-       * <code>optional .HandshakeResponse handshakeResponse = 3;</code>
+       * <code>optional int32 count = 2;</code>
        */
-      private com.google.protobuf.SingleFieldBuilder<
-          com.yahoo.omid.proto.TSOProto.HandshakeResponse, com.yahoo.omid.proto.TSOProto.HandshakeResponse.Builder, com.yahoo.omid.proto.TSOProto.HandshakeResponseOrBuilder> 
-          getHandshakeResponseFieldBuilder() {
-        if (handshakeResponseBuilder_ == null) {
-          handshakeResponseBuilder_ = new com.google.protobuf.SingleFieldBuilder<
-              com.yahoo.omid.proto.TSOProto.HandshakeResponse, com.yahoo.omid.proto.TSOProto.HandshakeResponse.Builder, com.yahoo.omid.proto.TSOProto.HandshakeResponseOrBuilder>(
-                  handshakeResponse_,
-                  getParentForChildren(),
-                  isClean());
-          handshakeResponse_ = null;
-        }
-        return handshakeResponseBuilder_;
+      public Builder clearCount() {
+        bitField0_ = (bitField0_ & ~0x00000002);
+        count_ = 0;
+        onChanged();
+        return this;
       }
 
-      // @@protoc_insertion_point(builder_scope:Response)
+      // @@protoc_insertion_point(builder_scope:TimestampRangeResponse)
     }
 
     static {
-      defaultInstance = new Response(true);
+      defaultInstance = new TimestampRangeResponse(true);
       defaultInstance.initFields();
     }
 
-    // @@protoc_insertion_point(class_scope:Response)
+    // @@protoc_insertion_point(class_scope:TimestampRangeResponse)
   }
 
-  public interface TimestampResponseOrBuilder
+  public interface CommitResponseOrBuilder
       extends com.google.protobuf.MessageOrBuilder {
 
-    // optional int64 startTimestamp = 1;
+    // optional bool aborted = 1;
     /**
-     * <code>optional int64 startTimestamp = 1;</code>
+     * <code>optional bool aborted = 1;</code>
+     */
+    boolean hasAborted();
+    /**
+     * <code>optional bool aborted = 1;</code>
+     */
+    boolean getAborted();
+
+    // optional int64 startTimestamp = 2;
+    /**
+     * <code>optional int64 startTimestamp = 2;</code>
      */
     boolean hasStartTimestamp();
     /**
-     * <code>optional int64 startTimestamp = 1;</code>
+     * <code>optional int64 startTimestamp = 2;</code>
      */
     long getStartTimestamp();
+
+    // optional int64 commitTimestamp = 3;
+    /**
+     * <code>optional int64 commitTimestamp = 3;</code>
+     */
+    boolean hasCommitTimestamp();
+    /**
+     * <code>optional int64 commitTimestamp = 3;</code>
+     */
+    long getCommitTimestamp();
   }
   /**
-   * Protobuf type {@code TimestampResponse}
+   * Protobuf type {@code CommitResponse}
    */
-  public static final class TimestampResponse extends
+  public static final class CommitResponse extends
       com.google.protobuf.GeneratedMessage
-      implements TimestampResponseOrBuilder {
-    // Use TimestampResponse.newBuilder() to construct.
-    private TimestampResponse(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      implements CommitResponseOrBuilder {
+    // Use CommitResponse.newBuilder() to construct.
+    private CommitResponse(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
       super(builder);
       this.unknownFields = builder.getUnknownFields();
     }
-    private TimestampResponse(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+    private CommitResponse(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
 
-    private static final TimestampResponse defaultInstance;
-    public static TimestampResponse getDefaultInstance() {
+    private static final CommitResponse defaultInstance;
+    public static CommitResponse getDefaultInstance() {
       return defaultInstance;
     }
 
-    public TimestampResponse getDefaultInstanceForType() {
+    public CommitResponse getDefaultInstanceForType() {
       return defaultInstance;
     }
 
@@ -2774,7 +5543,7 @@ public final class TSOProto {
         getUnknownFields() {
       return this.unknownFields;
     }
-    private TimestampResponse(
+    private CommitResponse(
         com.google.protobuf.CodedInputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
@@ -2799,9 +5568,19 @@ public final class TSOProto {
             }
             case 8: {
               bitField0_ |= 0x00000001;
+              aborted_ = input.readBool();
+              break;
+            }
+            case 16: {
+              bitField0_ |= 0x00000002;
               startTimestamp_ = input.readInt64();
               break;
             }
+            case 24: {
+              bitField0_ |= 0x00000004;
+              commitTimestamp_ = input.readInt64();
+              break;
+            }
           }
         }
       } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -2816,50 +5595,84 @@ public final class TSOProto {
     }
     public static final com.google.protobuf.Descriptors.Descriptor
         getDescriptor() {
-      return com.yahoo.omid.proto.TSOProto.internal_static_TimestampResponse_descriptor;
+      return com.yahoo.omid.proto.TSOProto.internal_static_CommitResponse_descriptor;
     }
 
     protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
         internalGetFieldAccessorTable() {
-      return com.yahoo.omid.proto.TSOProto.internal_static_TimestampResponse_fieldAccessorTable
+      return com.yahoo.omid.proto.TSOProto.internal_static_CommitResponse_fieldAccessorTable
           .ensureFieldAccessorsInitialized(
-              com.yahoo.omid.proto.TSOProto.TimestampResponse.class, com.yahoo.omid.proto.TSOProto.TimestampResponse.Builder.class);
+              com.yahoo.omid.proto.TSOProto.CommitResponse.class, com.yahoo.omid.proto.TSOProto.CommitResponse.Builder.class);
     }
-
-    public static com.google.protobuf.Parser<TimestampResponse> PARSER =
-        new com.google.protobuf.AbstractParser<TimestampResponse>() {
-      public TimestampResponse parsePartialFrom(
+
+    public static com.google.protobuf.Parser<CommitResponse> PARSER =
+        new com.google.protobuf.AbstractParser<CommitResponse>() {
+      public CommitResponse parsePartialFrom(
           com.google.protobuf.CodedInputStream input,
           com.google.protobuf.ExtensionRegistryLite extensionRegistry)
           throws com.google.protobuf.InvalidProtocolBufferException {
-        return new TimestampResponse(input, extensionRegistry);
+        return new CommitResponse(input, extensionRegistry);
       }
     };
 
     @java.lang.Override
-    public com.google.protobuf.Parser<TimestampResponse> getParserForType() {
+    public com.google.protobuf.Parser<CommitResponse> getParserForType() {
       return PARSER;
     }
 
     private int bitField0_;
-    // optional int64 startTimestamp = 1;
-    public static final int STARTTIMESTAMP_FIELD_NUMBER = 1;
+    // optional bool aborted = 1;
+    public static final int ABORTED_FIELD_NUMBER = 1;
+    private boolean aborted_;
+    /**
+     * <code>optional bool aborted = 1;</code>
+     */
+    public boolean hasAborted() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    /**
+     * <code>optional bool aborted = 1;</code>
+     */
+    public boolean getAborted() {
+      return aborted_;
+    }
+
+    // optional int64 startTimestamp = 2;
+    public static final int STARTTIMESTAMP_FIELD_NUMBER = 2;
     private long startTimestamp_;
     /**
-     * <code>optional int64 startTimestamp = 1;</code>
+     * <code>optional int64 startTimestamp = 2;</code>
      */
     public boolean hasStartTimestamp() {
-      return ((bitField0_ & 0x00000001) == 0x00000001);
+      return ((bitField0_ & 0x00000002) == 0x00000002);
     }
     /**
-     * <code>optional int64 startTimestamp = 1;</code>
+     * <code>optional int64 startTimestamp = 2;</code>
      */
     public long getStartTimestamp() {
       return startTimestamp_;
     }
 
+    // optional int64 commitTimestamp = 3;
+    public static final int COMMITTIMESTAMP_FIELD_NUMBER = 3;
+    private long commitTimestamp_;
+    /**
+     * <code>optional int64 commitTimestamp = 3;</code>
+     */
+    public boolean hasCommitTimestamp() {
+      return ((bitField0_ & 0x00000004) == 0x00000004);
+    }
+    /**
+     * <code>optional int64 commitTimestamp = 3;</code>
+     */
+    public long getCommitTimestamp() {
+      return commitTimestamp_;
+    }
+
     private void initFields() {
+      aborted_ = false;
       startTimestamp_ = 0L;
+      commitTimestamp_ = 0L;
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -2874,7 +5687,13 @@ public final class TSOProto {
                         throws java.io.IOException {
       getSerializedSize();
       if (((bitField0_ & 0x00000001) == 0x00000001)) {
-        output.writeInt64(1, startTimestamp_);
+        output.writeBool(1, aborted_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        output.writeInt64(2, startTimestamp_);
+      }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        output.writeInt64(3, commitTimestamp_);
       }
       getUnknownFields().writeTo(output);
     }
@@ -2887,7 +5706,15 @@ public final class TSOProto {
       size = 0;
       if (((bitField0_ & 0x00000001) == 0x00000001)) {
         size += com.google.protobuf.CodedOutputStream
-          .computeInt64Size(1, startTimestamp_);
+          .computeBoolSize(1, aborted_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt64Size(2, startTimestamp_);
+      }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt64Size(3, commitTimestamp_);
       }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
@@ -2901,53 +5728,53 @@ public final class TSOProto {
       return super.writeReplace();
     }
 
-    public static com.yahoo.omid.proto.TSOProto.TimestampResponse parseFrom(
+    public static com.yahoo.omid.proto.TSOProto.CommitResponse parseFrom(
         com.google.protobuf.ByteString data)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data);
     }
-    public static com.yahoo.omid.proto.TSOProto.TimestampResponse parseFrom(
+    public static com.yahoo.omid.proto.TSOProto.CommitResponse parseFrom(
         com.google.protobuf.ByteString data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data, extensionRegistry);
     }
-    public static com.yahoo.omid.proto.TSOProto.TimestampResponse parseFrom(byte[] data)
+    public static com.yahoo.omid.proto.TSOProto.CommitResponse parseFrom(byte[] data)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data);
     }
-    public static com.yahoo.omid.proto.TSOProto.TimestampResponse parseFrom(
+    public static com.yahoo.omid.proto.TSOProto.CommitResponse parseFrom(
         byte[] data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data, extensionRegistry);
     }
-    public static com.yahoo.omid.proto.TSOProto.TimestampResponse parseFrom(java.io.InputStream input)
+    public static com.yahoo.omid.proto.TSOProto.CommitResponse parseFrom(java.io.InputStream input)
         throws java.io.IOException {
       return PARSER.parseFrom(input);
     }
-    public static com.yahoo.omid.proto.TSOProto.TimestampResponse parseFrom(
+    public static com.yahoo.omid.proto.TSOProto.CommitResponse parseFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
       return PARSER.parseFrom(input, extensionRegistry);
     }
-    public static com.yahoo.omid.proto.TSOProto.TimestampResponse parseDelimitedFrom(java.io.InputStream input)
+    public static com.yahoo.omid.proto.TSOProto.CommitResponse parseDelimitedFrom(java.io.InputStream input)
         throws java.io.IOException {
       return PARSER.parseDelimitedFrom(input);
     }
-    public static com.yahoo.omid.proto.TSOProto.TimestampResponse parseDelimitedFrom(
+    public static com.yahoo.omid.proto.TSOProto.CommitResponse parseDelimitedFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
       return PARSER.parseDelimitedFrom(input, extensionRegistry);
     }
-    public static com.yahoo.omid.proto.TSOProto.TimestampResponse parseFrom(
+    public static com.yahoo.omid.proto.TSOProto.CommitResponse parseFrom(
         com.google.protobuf.CodedInputStream input)
         throws java.io.IOException {
       return PARSER.parseFrom(input);
     }
-    public static com.yahoo.omid.proto.TSOProto.TimestampResponse parseFrom(
+    public static com.yahoo.omid.proto.TSOProto.CommitResponse parseFrom(
         com.google.protobuf.CodedInputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
@@ -2956,7 +5783,7 @@ public final class TSOProto {
 
     public static Builder newBuilder() { return Builder.create(); }
     public Builder newBuilderForType() { return newBuilder(); }
-    public static Builder newBuilder(com.yahoo.omid.proto.TSOProto.TimestampResponse prototype) {
+    public static Builder newBuilder(com.yahoo.omid.proto.TSOProto.CommitResponse prototype) {
       return newBuilder().mergeFrom(prototype);
     }
     public Builder toBuilder() { return newBuilder(this); }
@@ -2968,24 +5795,24 @@ public final class TSOProto {
       return builder;
     }
     /**
-     * Protobuf type {@code TimestampResponse}
+     * Protobuf type {@code CommitResponse}
      */
     public static final class Builder extends
         com.google.protobuf.GeneratedMessage.Builder<Builder>
-       implements com.yahoo.omid.proto.TSOProto.TimestampResponseOrBuilder {
+       implements com.yahoo.omid.proto.TSOProto.CommitResponseOrBuilder {
       public static final com.google.protobuf.Descriptors.Descriptor
           getDescriptor() {
-        return com.yahoo.omid.proto.TSOProto.internal_static_TimestampResponse_descriptor;
+        return com.yahoo.omid.proto.TSOProto.internal_static_CommitResponse_descriptor;
       }
 
       protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
           internalGetFieldAccessorTable() {
-        return com.yahoo.omid.proto.TSOProto.internal_static_TimestampResponse_fieldAccessorTable
+        return com.yahoo.omid.proto.TSOProto.internal_static_CommitResponse_fieldAccessorTable
             .ensureFieldAccessorsInitialized(
-                com.yahoo.omid.proto.TSOProto.TimestampResponse.class, com.yahoo.omid.proto.TSOProto.TimestampResponse.Builder.class);
+                com.yahoo.omid.proto.TSOProto.CommitResponse.class, com.yahoo.omid.proto.TSOProto.CommitResponse.Builder.class);
       }
 
-      // Construct using com.yahoo.omid.proto.TSOProto.TimestampResponse.newBuilder()
+      // Construct using com.yahoo.omid.proto.TSOProto.CommitResponse.newBuilder()
       private Builder() {
         maybeForceBuilderInitialization();
       }
@@ -3005,8 +5832,12 @@ public final class TSOProto {
 
       public Builder clear() {
         super.clear();
-        startTimestamp_ = 0L;
+        aborted_ = false;
         bitField0_ = (bitField0_ & ~0x00000001);
+        startTimestamp_ = 0L;
+        bitField0_ = (bitField0_ & ~0x00000002);
+        commitTimestamp_ = 0L;
+        bitField0_ = (bitField0_ & ~0x00000004);
         return this;
       }
 
@@ -3016,48 +5847,62 @@ public final class TSOProto {
 
       public com.google.protobuf.Descriptors.Descriptor
           getDescriptorForType() {
-        return com.yahoo.omid.proto.TSOProto.internal_static_TimestampResponse_descriptor;
+        return com.yahoo.omid.proto.TSOProto.internal_static_CommitResponse_descriptor;
       }
 
-      public com.yahoo.omid.proto.TSOProto.TimestampResponse getDefaultInstanceForType() {
-        return com.yahoo.omid.proto.TSOProto.TimestampResponse.getDefaultInstance();
+      public com.yahoo.omid.proto.TSOProto.CommitResponse getDefaultInstanceForType() {
+        return com.yahoo.omid.proto.TSOProto.CommitResponse.getDefaultInstance();
       }
 
-      public com.yahoo.omid.proto.TSOProto.TimestampResponse build() {
-        com.yahoo.omid.proto.TSOProto.TimestampResponse result = buildPartial();
+      public com.yahoo.omid.proto.TSOProto.CommitResponse build() {
+        com.yahoo.omid.proto.TSOProto.CommitResponse result = buildPartial();
         if (!result.isInitialized()) {
           throw newUninitializedMessageException(result);
         }
         return result;
       }
 
-      public com.yahoo.omid.proto.TSOProto.TimestampResponse buildPartial() {
-        com.yahoo.omid.proto.TSOProto.TimestampResponse result = new com.yahoo.omid.proto.TSOProto.TimestampResponse(this);
+      public com.yahoo.omid.proto.TSOProto.CommitResponse buildPartial() {
+        com.yahoo.omid.proto.TSOProto.CommitResponse result = new com.yahoo.omid.proto.TSOProto.CommitResponse(this);
         int from_bitField0_ = bitField0_;
         int to_bitField0_ = 0;
         if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
           to_bitField0_ |= 0x00000001;
         }
+        result.aborted_ = aborted_;
+        if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
+          to_bitField0_ |= 0x00000002;
+        }
         result.startTimestamp_ = startTimestamp_;
+        if (((from_bitField0_ & 0x00000004) == 0x00000004)) {
+          to_bitField0_ |= 0x00000004;
+        }
+        result.commitTimestamp_ = commitTimestamp_;
         result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
       }
 
       public Builder mergeFrom(com.google.protobuf.Message other) {
-        if (other instanceof com.yahoo.omid.proto.TSOProto.TimestampResponse) {
-          return mergeFrom((com.yahoo.omid.proto.TSOProto.TimestampResponse)other);
+        if (other instanceof com.yahoo.omid.proto.TSOProto.CommitResponse) {
+          return mergeFrom((com.yahoo.omid.proto.TSOProto.CommitResponse)other);
         } else {
           super.mergeFrom(other);
           return this;
         }
       }
 
-      public Builder mergeFrom(com.yahoo.omid.proto.TSOProto.TimestampResponse other) {
-        if (other == com.yahoo.omid.proto.TSOProto.TimestampResponse.getDefaultInstance()) return this;
+      public Builder mergeFrom(com.yahoo.omid.proto.TSOProto.CommitResponse other) {
+        if (other == com.yahoo.omid.proto.TSOProto.CommitResponse.getDefaultInstance()) return this;
+        if (other.hasAborted()) {
+          setAborted(other.getAborted());
+        }
         if (other.hasStartTimestamp()) {
           setStartTimestamp(other.getStartTimestamp());
         }
+        if (other.hasCommitTimestamp()) {
+          setCommitTimestamp(other.getCommitTimestamp());
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
@@ -3070,11 +5915,11 @@ public final class TSOProto {
           com.google.protobuf.CodedInputStream input,
           com.google.protobuf.ExtensionRegistryLite extensionRegistry)
           throws java.io.IOException {
-        com.yahoo.omid.proto.TSOProto.TimestampResponse parsedMessage = null;
+        com.yahoo.omid.proto.TSOProto.CommitResponse parsedMessage = null;
         try {
           parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
         } catch (com.google.protobuf.InvalidProtocolBufferException e) {
-          parsedMessage = (com.yahoo.omid.proto.TSOProto.TimestampResponse) e.getUnfinishedMessage();
+          parsedMessage = (com.yahoo.omid.proto.TSOProto.CommitResponse) e.getUnfinishedMessage();
           throw e;
         } finally {
           if (parsedMessage != null) {
@@ -3085,102 +5930,180 @@ public final class TSOProto {
       }
       private int bitField0_;
 
-      // optional int64 startTimestamp = 1;
+      // optional bool aborted = 1;
+      private boolean aborted_ ;
+      /**
+       * <code>optional bool aborted = 1;</code>
+       */
+      public boolean hasAborted() {
+        return ((bitField0_ & 0x00000001) == 0x00000001);
+      }
+      /**
+       * <code>optional bool aborted = 1;</code>
+       */
+      public boolean getAborted() {
+        return aborted_;
+      }
+      /**
+       * <code>optional bool aborted = 1;</code>
+       */
+      public Builder setAborted(boolean value) {
+        bitField0_ |= 0x00000001;
+        aborted_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional bool aborted = 1;</code>
+       */
+      public Builder clearAborted() {
+        bitField0_ = (bitField0_ & ~0x00000001);
+        aborted_ = false;
+        onChanged();
+        return this;
+      }
+
+      // optional int64 startTimestamp = 2;
       private long startTimestamp_ ;
       /**
-       * <code>optional int64 startTimestamp = 1;</code>
+       * <code>optional int64 startTimestamp = 2;</code>
        */
       public boolean hasStartTimestamp() {
-        return ((bitField0_ & 0x00000001) == 0x00000001);
+        return ((bitField0_ & 0x00000002) == 0x00000002);
       }
       /**
-       * <code>optional int64 startTimestamp = 1;</code>
+       * <code>optional int64 startTimestamp = 2;</code>
        */
       public long getStartTimestamp() {
         return startTimestamp_;
       }
       /**
-       * <code>optional int64 startTimestamp = 1;</code>
+       * <code>optional int64 startTimestamp = 2;</code>
        */
       public Builder setStartTimestamp(long value) {
-        bitField0_ |= 0x00000001;
+        bitField0_ |= 0x00000002;
         startTimestamp_ = value;
         onChanged();
         return this;
       }
       /**
-       * <code>optional int64 startTimestamp = 1;</code>
+       * <code>optional int64 startTimestamp = 2;</code>
        */
       public Builder clearStartTimestamp() {
-        bitField0_ = (bitField0_ & ~0x00000001);
+        bitField0_ = (bitField0_ & ~0x00000002);
         startTimestamp_ = 0L;
         onChanged();
         return this;
       }
 
-      // @@protoc_insertion_point(builder_scope:TimestampResponse)
+      // optional int64 commitTimestamp = 3;
+      private long commitTimestamp_ ;
+      /**
+       * <code>optional int64 commitTimestamp = 3;</code>
+       */
+      public boolean hasCommitTimestamp() {
+        return ((bitField0_ & 0x00000004) == 0x00000004);
+      }
+      /**
+       * <code>optional int64 commitTimestamp = 3;</code>
+       */
+      public long getCommitTimestamp() {
+        return commitTimestamp_;
+      }
+      /**
+       * <code>optional int64 commitTimestamp = 3;</code>
+       */
+      public Builder setCommitTimestamp(long value) {
+        bitField0_ |= 0x00000004;
+        commitTimestamp_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional int64 commitTimestamp = 3;</code>
+       */
+      public Builder clearCommitTimestamp() {
+        bitField0_ = (bitField0_ & ~0x00000004);
+        commitTimestamp_ = 0L;
+        onChanged();
+        return this;
+      }
+
+      // @@protoc_insertion_point(builder_scope:CommitResponse)
     }
 
     static {
-      defaultInstance = new TimestampResponse(true);
+      defaultInstance = new CommitResponse(true);
       defaultInstance.initFields();
     }
 
-    // @@protoc_insertion_point(class_scope:TimestampResponse)
+    // @@protoc_insertion_point(class_scope:CommitResponse)
   }
 
-  public interface CommitResponseOrBuilder
+  public interface OverloadedResponseOrBuilder
       extends com.google.protobuf.MessageOrBuilder {
 
-    // optional bool aborted = 1;
+    // optional int32 retryAfterMs = 1;
     /**
-     * <code>optional bool aborted = 1;</code>
+     * <code>optional int32 retryAfterMs = 1;</code>
      */
-    boolean hasAborted();
+    boolean hasRetryAfterMs();
     /**
-     * <code>optional bool aborted = 1;</code>
+     * <code>optional int32 retryAfterMs = 1;</code>
      */
-    boolean getAborted();
+    int getRetryAfterMs();
 
-    // optional int64 startTimestamp = 2;
-    /**
-     * <code>optional int64 startTimestamp = 2;</code>
-     */
-    boolean hasStartTimestamp();
+    // optional .Request request = 2;
     /**
-     * <code>optional int64 startTimestamp = 2;</code>
-     */
-    long getStartTimestamp();
-
-    // optional int64 commitTimestamp = 3;
+     * <code>optional .Request request = 2;</code>
+     *
+     * <pre>
+     * The request rejected. Commit requests are returned without their write set
+     * </pre>
+     */
+    boolean hasRequest();
     /**
-     * <code>optional int64 commitTimestamp = 3;</code>
+     * <code>optional .Request request = 2;</code>
+     *
+     * <pre>
+     * The request rejected. Commit requests are returned without their write set
+     * </pre>
      */
-    boolean hasCommitTimestamp();
+    com.yahoo.omid.proto.TSOProto.Request getRequest();
     /**
-     * <code>optional int64 commitTimestamp = 3;</code>
+     * <code>optional .Request request = 2;</code>
+     *
+     * <pre>
+     * The request rejected. Commit requests are returned without their write set
+     * </pre>
      */
-    long getCommitTimestamp();
+    com.yahoo.omid.proto.TSOProto.RequestOrBuilder getRequestOrBuilder();
   }
   /**
-   * Protobuf type {@code CommitResponse}
+   * Protobuf type {@code OverloadedResponse}
+   *
+   * <pre>
+   * Sent instead of the response of a request the server had no room for.
+   * The request was not processed, so the client can send it again after
+   * retryAfterMs. Only sent to clients with the overloadedResponses capability
+   * </pre>
    */
-  public static final class CommitResponse extends
+  public static final class OverloadedResponse extends
       com.google.protobuf.GeneratedMessage
-      implements CommitResponseOrBuilder {
-    // Use CommitResponse.newBuilder() to construct.
-    private CommitResponse(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      implements OverloadedResponseOrBuilder {
+    // Use OverloadedResponse.newBuilder() to construct.
+    private OverloadedResponse(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
       super(builder);
       this.unknownFields = builder.getUnknownFields();
     }
-    private CommitResponse(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+    private OverloadedResponse(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
 
-    private static final CommitResponse defaultInstance;
-    public static CommitResponse getDefaultInstance() {
+    private static final OverloadedResponse defaultInstance;
+    public static OverloadedResponse getDefaultInstance() {
       return defaultInstance;
     }
 
-    public CommitResponse getDefaultInstanceForType() {
+    public OverloadedResponse getDefaultInstanceForType() {
       return defaultInstance;
     }
 
@@ -3190,7 +6113,7 @@ public final class TSOProto {
         getUnknownFields() {
       return this.unknownFields;
     }
-    private CommitResponse(
+    private OverloadedResponse(
         com.google.protobuf.CodedInputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
@@ -3215,17 +6138,20 @@ public final class TSOProto {
             }
             case 8: {
               bitField0_ |= 0x00000001;
-              aborted_ = input.readBool();
+              retryAfterMs_ = input.readInt32();
               break;
             }
-            case 16: {
+            case 18: {
+              com.yahoo.omid.proto.TSOProto.Request.Builder subBuilder = null;
+              if (((bitField0_ & 0x00000002) == 0x00000002)) {
+                subBuilder = request_.toBuilder();
+              }
+              request_ = input.readMessage(com.yahoo.omid.proto.TSOProto.Request.PARSER, extensionRegistry);
+              if (subBuilder != null) {
+                subBuilder.mergeFrom(request_);
+                request_ = subBuilder.buildPartial();
+              }
               bitField0_ |= 0x00000002;
-              startTimestamp_ = input.readInt64();
-              break;
-            }
-            case 24: {
-              bitField0_ |= 0x00000004;
-              commitTimestamp_ = input.readInt64();
               break;
             }
           }
@@ -3242,84 +6168,85 @@ public final class TSOProto {
     }
     public static final com.google.protobuf.Descriptors.Descriptor
         getDescriptor() {
-      return com.yahoo.omid.proto.TSOProto.internal_static_CommitResponse_descriptor;
+      return com.yahoo.omid.proto.TSOProto.internal_static_OverloadedResponse_descriptor;
     }
 
     protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
         internalGetFieldAccessorTable() {
-      return com.yahoo.omid.proto.TSOProto.internal_static_CommitResponse_fieldAccessorTable
+      return com.yahoo.omid.proto.TSOProto.internal_static_OverloadedResponse_fieldAccessorTable
           .ensureFieldAccessorsInitialized(
-              com.yahoo.omid.proto.TSOProto.CommitResponse.class, com.yahoo.omid.proto.TSOProto.CommitResponse.Builder.class);
+              com.yahoo.omid.proto.TSOProto.OverloadedResponse.class, com.yahoo.omid.proto.TSOProto.OverloadedResponse.Builder.class);
     }
 
-    public static com.google.protobuf.Parser<CommitResponse> PARSER =
-        new com.google.protobuf.AbstractParser<CommitResponse>() {
-      public CommitResponse parsePartialFrom(
+    public static com.google.protobuf.Parser<OverloadedResponse> PARSER =
+        new com.google.protobuf.AbstractParser<OverloadedResponse>() {
+      public OverloadedResponse parsePartialFrom(
           com.google.protobuf.CodedInputStream input,
           com.google.protobuf.ExtensionRegistryLite extensionRegistry)
           throws com.google.protobuf.InvalidProtocolBufferException {
-        return new CommitResponse(input, extensionRegistry);
+        return new OverloadedResponse(input, extensionRegistry);
       }
     };
 
     @java.lang.Override
-    public com.google.protobuf.Parser<CommitResponse> getParserForType() {
+    public com.google.protobuf.Parser<OverloadedResponse> getParserForType() {
       return PARSER;
     }
 
     private int bitField0_;
-    // optional bool aborted = 1;
-    public static final int ABORTED_FIELD_NUMBER = 1;
-    private boolean aborted_;
+    // optional int32 retryAfterMs = 1;
+    public static final int RETRYAFTERMS_FIELD_NUMBER = 1;
+    private int retryAfterMs_;
     /**
-     * <code>optional bool aborted = 1;</code>
+     * <code>optional int32 retryAfterMs = 1;</code>
      */
-    public boolean hasAborted() {
+    public boolean hasRetryAfterMs() {
       return ((bitField0_ & 0x00000001) == 0x00000001);
     }
     /**
-     * <code>optional bool aborted = 1;</code>
+     * <code>optional int32 retryAfterMs = 1;</code>
      */
-    public boolean getAborted() {
-      return aborted_;
+    public int getRetryAfterMs() {
+      return retryAfterMs_;
     }
 
-    // optional int64 startTimestamp = 2;
-    public static final int STARTTIMESTAMP_FIELD_NUMBER = 2;
-    private long startTimestamp_;
+    // optional .Request request = 2;
+    public static final int REQUEST_FIELD_NUMBER = 2;
+    private com.yahoo.omid.proto.TSOProto.Request request_;
     /**
-     * <code>optional int64 startTimestamp = 2;</code>
+     * <code>optional .Request request = 2;</code>
+     *
+     * <pre>
+     * The request rejected. Commit requests are returned without their write set
+     * </pre>
      */
-    public boolean hasStartTimestamp() {
+    public boolean hasRequest() {
       return ((bitField0_ & 0x00000002) == 0x00000002);
     }
     /**
-     * <code>optional int64 startTimestamp = 2;</code>
-     */
-    public long getStartTimestamp() {
-      return startTimestamp_;
-    }
-
-    // optional int64 commitTimestamp = 3;
-    public static final int COMMITTIMESTAMP_FIELD_NUMBER = 3;
-    private long commitTimestamp_;
-    /**
-     * <code>optional int64 commitTimestamp = 3;</code>
+     * <code>optional .Request request = 2;</code>
+     *
+     * <pre>
+     * The request rejected. Commit requests are returned without their write set
+     * </pre>
      */
-    public boolean hasCommitTimestamp() {
-      return ((bitField0_ & 0x00000004) == 0x00000004);
+    public com.yahoo.omid.proto.TSOProto.Request getRequest() {
+      return request_;
     }
     /**
-     * <code>optional int64 commitTimestamp = 3;</code>
+     * <code>optional .Request request = 2;</code>
+     *
+     * <pre>
+     * The request rejected. Commit requests are returned without their write set
+     * </pre>
      */
-    public long getCommitTimestamp() {
-      return commitTimestamp_;
+    public com.yahoo.omid.proto.TSOProto.RequestOrBuilder getRequestOrBuilder() {
+      return request_;
     }
 
     private void initFields() {
-      aborted_ = false;
-      startTimestamp_ = 0L;
-      commitTimestamp_ = 0L;
+      retryAfterMs_ = 0;
+      request_ = com.yahoo.omid.proto.TSOProto.Request.getDefaultInstance();
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -3334,13 +6261,10 @@ public final class TSOProto {
                         throws java.io.IOException {
       getSerializedSize();
       if (((bitField0_ & 0x00000001) == 0x00000001)) {
-        output.writeBool(1, aborted_);
+        output.writeInt32(1, retryAfterMs_);
       }
       if (((bitField0_ & 0x00000002) == 0x00000002)) {
-        output.writeInt64(2, startTimestamp_);
-      }
-      if (((bitField0_ & 0x00000004) == 0x00000004)) {
-        output.writeInt64(3, commitTimestamp_);
+        output.writeMessage(2, request_);
       }
       getUnknownFields().writeTo(output);
     }
@@ -3353,15 +6277,11 @@ public final class TSOProto {
       size = 0;
       if (((bitField0_ & 0x00000001) == 0x00000001)) {
         size += com.google.protobuf.CodedOutputStream
-          .computeBoolSize(1, aborted_);
+          .computeInt32Size(1, retryAfterMs_);
       }
       if (((bitField0_ & 0x00000002) == 0x00000002)) {
         size += com.google.protobuf.CodedOutputStream
-          .computeInt64Size(2, startTimestamp_);
-      }
-      if (((bitField0_ & 0x00000004) == 0x00000004)) {
-        size += com.google.protobuf.CodedOutputStream
-          .computeInt64Size(3, commitTimestamp_);
+          .computeMessageSize(2, request_);
       }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
@@ -3375,53 +6295,53 @@ public final class TSOProto {
       return super.writeReplace();
     }
 
-    public static com.yahoo.omid.proto.TSOProto.CommitResponse parseFrom(
+    public static com.yahoo.omid.proto.TSOProto.OverloadedResponse parseFrom(
         com.google.protobuf.ByteString data)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data);
     }
-    public static com.yahoo.omid.proto.TSOProto.CommitResponse parseFrom(
+    public static com.yahoo.omid.proto.TSOProto.OverloadedResponse parseFrom(
         com.google.protobuf.ByteString data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data, extensionRegistry);
     }
-    public static com.yahoo.omid.proto.TSOProto.CommitResponse parseFrom(byte[] data)
+    public static com.yahoo.omid.proto.TSOProto.OverloadedResponse parseFrom(byte[] data)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data);
     }
-    public static com.yahoo.omid.proto.TSOProto.CommitResponse parseFrom(
+    public static com.yahoo.omid.proto.TSOProto.OverloadedResponse parseFrom(
         byte[] data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data, extensionRegistry);
     }
-    public static com.yahoo.omid.proto.TSOProto.CommitResponse parseFrom(java.io.InputStream input)
+    public static com.yahoo.omid.proto.TSOProto.OverloadedResponse parseFrom(java.io.InputStream input)
         throws java.io.IOException {
       return PARSER.parseFrom(input);
     }
-    public static com.yahoo.omid.proto.TSOProto.CommitResponse parseFrom(
+    public static com.yahoo.omid.proto.TSOProto.OverloadedResponse parseFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
       return PARSER.parseFrom(input, extensionRegistry);
     }
-    public static com.yahoo.omid.proto.TSOProto.CommitResponse parseDelimitedFrom(java.io.InputStream input)
+    public static com.yahoo.omid.proto.TSOProto.OverloadedResponse parseDelimitedFrom(java.io.InputStream input)
         throws java.io.IOException {
       return PARSER.parseDelimitedFrom(input);
     }
-    public static com.yahoo.omid.proto.TSOProto.CommitResponse parseDelimitedFrom(
+    public static com.yahoo.omid.proto.TSOProto.OverloadedResponse parseDelimitedFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
       return PARSER.parseDelimitedFrom(input, extensionRegistry);
     }
-    public static com.yahoo.omid.proto.TSOProto.CommitResponse parseFrom(
+    public static com.yahoo.omid.proto.TSOProto.OverloadedResponse parseFrom(
         com.google.protobuf.CodedInputStream input)
         throws java.io.IOException {
       return PARSER.parseFrom(input);
     }
-    public static com.yahoo.omid.proto.TSOProto.CommitResponse parseFrom(
+    public static com.yahoo.omid.proto.TSOProto.OverloadedResponse parseFrom(
         com.google.protobuf.CodedInputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
@@ -3430,7 +6350,7 @@ public final class TSOProto {
 
     public static Builder newBuilder() { return Builder.create(); }
     public Builder newBuilderForType() { return newBuilder(); }
-    public static Builder newBuilder(com.yahoo.omid.proto.TSOProto.CommitResponse prototype) {
+    public static Builder newBuilder(com.yahoo.omid.proto.TSOProto.OverloadedResponse prototype) {
       return newBuilder().mergeFrom(prototype);
     }
     public Builder toBuilder() { return newBuilder(this); }
@@ -3442,24 +6362,30 @@ public final class TSOProto {
       return builder;
     }
     /**
-     * Protobuf type {@code CommitResponse}
+     * Protobuf type {@code OverloadedResponse}
+     *
+     * <pre>
+     * Sent instead of the response of a request the server had no room for.
+     * The request was not processed, so the client can send it again after
+     * retryAfterMs. Only sent to clients with the overloadedResponses capability
+     * </pre>
      */
     public static final class Builder extends
         com.google.protobuf.GeneratedMessage.Builder<Builder>
-       implements com.yahoo.omid.proto.TSOProto.CommitResponseOrBuilder {
+       implements com.yahoo.omid.proto.TSOProto.OverloadedResponseOrBuilder {
       public static final com.google.protobuf.Descriptors.Descriptor
           getDescriptor() {
-        return com.yahoo.omid.proto.TSOProto.internal_static_CommitResponse_descriptor;
+        return com.yahoo.omid.proto.TSOProto.internal_static_OverloadedResponse_descriptor;
       }
 
       protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
           internalGetFieldAccessorTable() {
-        return com.yahoo.omid.proto.TSOProto.internal_static_CommitResponse_fieldAccessorTable
+        return com.yahoo.omid.proto.TSOProto.internal_static_OverloadedResponse_fieldAccessorTable
             .ensureFieldAccessorsInitialized(
-                com.yahoo.omid.proto.TSOProto.CommitResponse.class, com.yahoo.omid.proto.TSOProto.CommitResponse.Builder.class);
+                com.yahoo.omid.proto.TSOProto.OverloadedResponse.class, com.yahoo.omid.proto.TSOProto.OverloadedResponse.Builder.class);
       }
 
-      // Construct using com.yahoo.omid.proto.TSOProto.CommitResponse.newBuilder()
+      // Construct using com.yahoo.omid.proto.TSOProto.OverloadedResponse.newBuilder()
       private Builder() {
         maybeForceBuilderInitialization();
       }
@@ -3471,6 +6397,7 @@ public final class TSOProto {
       }
       private void maybeForceBuilderInitialization() {
         if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+          getRequestFieldBuilder();
         }
       }
       private static Builder create() {
@@ -3479,12 +6406,14 @@ public final class TSOProto {
 
       public Builder clear() {
         super.clear();
-        aborted_ = false;
+        retryAfterMs_ = 0;
         bitField0_ = (bitField0_ & ~0x00000001);
-        startTimestamp_ = 0L;
+        if (requestBuilder_ == null) {
+          request_ = com.yahoo.omid.proto.TSOProto.Request.getDefaultInstance();
+        } else {
+          requestBuilder_.clear();
+        }
         bitField0_ = (bitField0_ & ~0x00000002);
-        commitTimestamp_ = 0L;
-        bitField0_ = (bitField0_ & ~0x00000004);
         return this;
       }
 
@@ -3494,61 +6423,58 @@ public final class TSOProto {
 
       public com.google.protobuf.Descriptors.Descriptor
           getDescriptorForType() {
-        return com.yahoo.omid.proto.TSOProto.internal_static_CommitResponse_descriptor;
+        return com.yahoo.omid.proto.TSOProto.internal_static_OverloadedResponse_descriptor;
       }
 
-      public com.yahoo.omid.proto.TSOProto.CommitResponse getDefaultInstanceForType() {
-        return com.yahoo.omid.proto.TSOProto.CommitResponse.getDefaultInstance();
+      public com.yahoo.omid.proto.TSOProto.OverloadedResponse getDefaultInstanceForType() {
+        return com.yahoo.omid.proto.TSOProto.OverloadedResponse.getDefaultInstance();
       }
 
-      public com.yahoo.omid.proto.TSOProto.CommitResponse build() {
-        com.yahoo.omid.proto.TSOProto.CommitResponse result = buildPartial();
+      public com.yahoo.omid.proto.TSOProto.OverloadedResponse build() {
+        com.yahoo.omid.proto.TSOProto.OverloadedResponse result = buildPartial();
         if (!result.isInitialized()) {
           throw newUninitializedMessageException(result);
         }
         return result;
       }
 
-      public com.yahoo.omid.proto.TSOProto.CommitResponse buildPartial() {
-        com.yahoo.omid.proto.TSOProto.CommitResponse result = new com.yahoo.omid.proto.TSOProto.CommitResponse(this);
+      public com.yahoo.omid.proto.TSOProto.OverloadedResponse buildPartial() {
+        com.yahoo.omid.proto.TSOProto.OverloadedResponse result = new com.yahoo.omid.proto.TSOProto.OverloadedResponse(this);
         int from_bitField0_ = bitField0_;
         int to_bitField0_ = 0;
         if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
           to_bitField0_ |= 0x00000001;
         }
-        result.aborted_ = aborted_;
+        result.retryAfterMs_ = retryAfterMs_;
         if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
           to_bitField0_ |= 0x00000002;
         }
-        result.startTimestamp_ = startTimestamp_;
-        if (((from_bitField0_ & 0x00000004) == 0x00000004)) {
-          to_bitField0_ |= 0x00000004;
+        if (requestBuilder_ == null) {
+          result.request_ = request_;
+        } else {
+          result.request_ = requestBuilder_.build();
         }
-        result.commitTimestamp_ = commitTimestamp_;
         result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
       }
 
       public Builder mergeFrom(com.google.protobuf.Message other) {
-        if (other instanceof com.yahoo.omid.proto.TSOProto.CommitResponse) {
-          return mergeFrom((com.yahoo.omid.proto.TSOProto.CommitResponse)other);
+        if (other instanceof com.yahoo.omid.proto.TSOProto.OverloadedResponse) {
+          return mergeFrom((com.yahoo.omid.proto.TSOProto.OverloadedResponse)other);
         } else {
           super.mergeFrom(other);
           return this;
         }
       }
 
-      public Builder mergeFrom(com.yahoo.omid.proto.TSOProto.CommitResponse other) {
-        if (other == com.yahoo.omid.proto.TSOProto.CommitResponse.getDefaultInstance()) return this;
-        if (other.hasAborted()) {
-          setAborted(other.getAborted());
-        }
-        if (other.hasStartTimestamp()) {
-          setStartTimestamp(other.getStartTimestamp());
+      public Builder mergeFrom(com.yahoo.omid.proto.TSOProto.OverloadedResponse other) {
+        if (other == com.yahoo.omid.proto.TSOProto.OverloadedResponse.getDefaultInstance()) return this;
+        if (other.hasRetryAfterMs()) {
+          setRetryAfterMs(other.getRetryAfterMs());
         }
-        if (other.hasCommitTimestamp()) {
-          setCommitTimestamp(other.getCommitTimestamp());
+        if (other.hasRequest()) {
+          mergeRequest(other.getRequest());
         }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
@@ -3562,11 +6488,11 @@ public final class TSOProto {
           com.google.protobuf.CodedInputStream input,
           com.google.protobuf.ExtensionRegistryLite extensionRegistry)
           throws java.io.IOException {
-        com.yahoo.omid.proto.TSOProto.CommitResponse parsedMessage = null;
+        com.yahoo.omid.proto.TSOProto.OverloadedResponse parsedMessage = null;
         try {
           parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
         } catch (com.google.protobuf.InvalidProtocolBufferException e) {
-          parsedMessage = (com.yahoo.omid.proto.TSOProto.CommitResponse) e.getUnfinishedMessage();
+          parsedMessage = (com.yahoo.omid.proto.TSOProto.OverloadedResponse) e.getUnfinishedMessage();
           throw e;
         } finally {
           if (parsedMessage != null) {
@@ -3577,118 +6503,279 @@ public final class TSOProto {
       }
       private int bitField0_;
 
-      // optional bool aborted = 1;
-      private boolean aborted_ ;
+      // optional int32 retryAfterMs = 1;
+      private int retryAfterMs_ ;
       /**
-       * <code>optional bool aborted = 1;</code>
+       * <code>optional int32 retryAfterMs = 1;</code>
        */
-      public boolean hasAborted() {
+      public boolean hasRetryAfterMs() {
         return ((bitField0_ & 0x00000001) == 0x00000001);
       }
       /**
-       * <code>optional bool aborted = 1;</code>
+       * <code>optional int32 retryAfterMs = 1;</code>
        */
-      public boolean getAborted() {
-        return aborted_;
+      public int getRetryAfterMs() {
+        return retryAfterMs_;
       }
       /**
-       * <code>optional bool aborted = 1;</code>
+       * <code>optional int32 retryAfterMs = 1;</code>
        */
-      public Builder setAborted(boolean value) {
+      public Builder setRetryAfterMs(int value) {
         bitField0_ |= 0x00000001;
-        aborted_ = value;
+        retryAfterMs_ = value;
         onChanged();
         return this;
       }
       /**
-       * <code>optional bool aborted = 1;</code>
+       * <code>optional int32 retryAfterMs = 1;</code>
        */
-      public Builder clearAborted() {
+      public Builder clearRetryAfterMs() {
         bitField0_ = (bitField0_ & ~0x00000001);
-        aborted_ = false;
+        retryAfterMs_ = 0;
         onChanged();
         return this;
       }
 
-      // optional int64 startTimestamp = 2;
-      private long startTimestamp_ ;
+      // optional .Request request = 2;
+      private com.yahoo.omid.proto.TSOProto.Request request_ = com.yahoo.omid.proto.TSOProto.Request.getDefaultInstance();
+      private com.google.protobuf.SingleFieldBuilder<
+          com.yahoo.omid.proto.TSOProto.Request, com.yahoo.omid.proto.TSOProto.Request.Builder, com.yahoo.omid.proto.TSOProto.RequestOrBuilder> requestBuilder_;
       /**
-       * <code>optional int64 startTimestamp = 2;</code>
+       * <code>optional .Request request = 2;</code>
+       *
+       * <pre>
+       * The request rejected. Commit requests are returned without their write set
+       * </pre>
        */
-      public boolean hasStartTimestamp() {
+      public boolean hasRequest() {
         return ((bitField0_ & 0x00000002) == 0x00000002);
       }
       /**
-       * <code>optional int64 startTimestamp = 2;</code>
+       * <code>optional .Request request = 2;</code>
+       *
+       * <pre>
+       * The request rejected. Commit requests are returned without their write set
+       * </pre>
        */
-      public long getStartTimestamp() {
-        return startTimestamp_;
+      public com.yahoo.omid.proto.TSOProto.Request getRequest() {
+        if (requestBuilder_ == null) {
+          return request_;
+        } else {
+          return requestBuilder_.getMessage();
+        }
       }
       /**
-       * <code>optional int64 startTimestamp = 2;</code>
+       * <code>optional .Request request = 2;</code>
+       *
+       * <pre>
+       * The request rejected. Commit requests are returned without their write set
+       * </pre>
        */
-      public Builder setStartTimestamp(long value) {
+      public Builder setRequest(com.yahoo.omid.proto.TSOProto.Request value) {
+        if (requestBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          request_ = value;
+          onChanged();
+        } else {
+          requestBuilder_.setMessage(value);
+        }
         bitField0_ |= 0x00000002;
-        startTimestamp_ = value;
-        onChanged();
         return this;
       }
       /**
-       * <code>optional int64 startTimestamp = 2;</code>
+       * <code>optional .Request request = 2;</code>
+       *
+       * <pre>
+       * The request rejected. Commit requests are returned without their write set
+       * </pre>
        */
-      public Builder clearStartTimestamp() {
-        bitField0_ = (bitField0_ & ~0x00000002);
-        startTimestamp_ = 0L;
-        onChanged();
+      public Builder setRequest(
+          com.yahoo.omid.proto.TSOProto.Request.Builder builderForValue) {
+        if (requestBuilder_ == null) {
+          request_ = builderForValue.build();
+          onChanged();
+        } else {
+          requestBuilder_.setMessage(builderForValue.build());
+        }
+        bitField0_ |= 0x00000002;
         return this;
       }
-
-      // optional int64 commitTimestamp = 3;
-      private long commitTimestamp_ ;
       /**
-       * <code>optional int64 commitTimestamp = 3;</code>
+       * <code>optional .Request request = 2;</code>
+       *
+       * <pre>
+       * The request rejected. Commit requests are returned without their write set
+       * </pre>
        */
-      public boolean hasCommitTimestamp() {
-        return ((bitField0_ & 0x00000004) == 0x00000004);
+      public Builder mergeRequest(com.yahoo.omid.proto.TSOProto.Request value) {
+        if (requestBuilder_ == null) {
+          if (((bitField0_ & 0x00000002) == 0x00000002) &&
+              request_ != com.yahoo.omid.proto.TSOProto.Request.getDefaultInstance()) {
+            request_ =
+              com.yahoo.omid.proto.TSOProto.Request.newBuilder(request_).mergeFrom(value).buildPartial();
+          } else {
+            request_ = value;
+          }
+          onChanged();
+        } else {
+          requestBuilder_.mergeFrom(value);
+        }
+        bitField0_ |= 0x00000002;
+        return this;
       }
       /**
-       * <code>optional int64 commitTimestamp = 3;</code>
+       * <code>optional .Request request = 2;</code>
+       *
+       * <pre>
+       * The request rejected. Commit requests are returned without their write set
+       * </pre>
        */
-      public long getCommitTimestamp() {
-        return commitTimestamp_;
+      public Builder clearRequest() {
+        if (requestBuilder_ == null) {
+          request_ = com.yahoo.omid.proto.TSOProto.Request.getDefaultInstance();
+          onChanged();
+        } else {
+          requestBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000002);
+        return this;
       }
       /**
-       * <code>optional int64 commitTimestamp = 3;</code>
+       * <code>optional .Request request = 2;</code>
+       *
+       * <pre>
+       * The request rejected. Commit requests are returned without their write set
+       * </pre>
        */
-      public Builder setCommitTimestamp(long value) {
-        bitField0_ |= 0x00000004;
-        commitTimestamp_ = value;
+      public com.yahoo.omid.proto.TSOProto.Request.Builder getRequestBuilder() {
+        bitField0_ |= 0x00000002;
         onChanged();
-        return this;
+        return getRequestFieldBuilder().getBuilder();
       }
       /**
-       * <code>optional int64 commitTimestamp = 3;</code>
+       * <code>optional .Request request = 2;</code>
+       *
+       * <pre>
+       * The request rejected. Commit requests are returned without their write set
+       * </pre>
        */
-      public Builder clearCommitTimestamp() {
-        bitField0_ = (bitField0_ & ~0x00000004);
-        commitTimestamp_ = 0L;
-        onChanged();
-        return this;
+      public com.yahoo.omid.proto.TSOProto.RequestOrBuilder getRequestOrBuilder() {
+        if (requestBuilder_ != null) {
+          return requestBuilder_.getMessageOrBuilder();
+        } else {
+          return request_;
+        }
+      }
+      /**
+       * <code>optional .Request request = 2;</code>
+       *
+       * <pre>
+       * The request rejected. Commit requests are returned without their write set
+       * </pre>
+       */
+      private com.google.protobuf.SingleFieldBuilder<
+          com.yahoo.omid.proto.TSOProto.Request, com.yahoo.omid.proto.TSOProto.Request.Builder, com.yahoo.omid.proto.TSOProto.RequestOrBuilder> 
+          getRequestFieldBuilder() {
+        if (requestBuilder_ == null) {
+          requestBuilder_ = new com.google.protobuf.SingleFieldBuilder<
+              com.yahoo.omid.proto.TSOProto.Request, com.yahoo.omid.proto.TSOProto.Request.Builder, com.yahoo.omid.proto.TSOProto.RequestOrBuilder>(
+                  request_,
+                  getParentForChildren(),
+                  isClean());
+          request_ = null;
+        }
+        return requestBuilder_;
       }
 
-      // @@protoc_insertion_point(builder_scope:CommitResponse)
+      // @@protoc_insertion_point(builder_scope:OverloadedResponse)
+    }
+
+    static {
+      defaultInstance = new OverloadedResponse(true);
+      defaultInstance.initFields();
     }
 
-    static {
-      defaultInstance = new CommitResponse(true);
-      defaultInstance.initFields();
-    }
+    // @@protoc_insertion_point(class_scope:OverloadedResponse)
+  }
+
+  public interface CapabilitiesOrBuilder
+      extends com.google.protobuf.MessageOrBuilder {
+
+    // optional bool timestampRanges = 1 [default = false];
+    /**
+     * <code>optional bool timestampRanges = 1 [default = false];</code>
+     *
+     * <pre>
+     * Set by servers able to serve TimestampRangeRequests
+     * </pre>
+     */
+    boolean hasTimestampRanges();
+    /**
+     * <code>optional bool timestampRanges = 1 [default = false];</code>
+     *
+     * <pre>
+     * Set by servers able to serve TimestampRangeRequests
+     * </pre>
+     */
+    boolean getTimestampRanges();
+
+    // optional bool requestBatches = 2 [default = false];
+    /**
+     * <code>optional bool requestBatches = 2 [default = false];</code>
+     *
+     * <pre>
+     * Set by servers able to serve RequestBatches
+     * </pre>
+     */
+    boolean hasRequestBatches();
+    /**
+     * <code>optional bool requestBatches = 2 [default = false];</code>
+     *
+     * <pre>
+     * Set by servers able to serve RequestBatches
+     * </pre>
+     */
+    boolean getRequestBatches();
 
-    // @@protoc_insertion_point(class_scope:CommitResponse)
-  }
+    // optional bool overloadedResponses = 3 [default = false];
+    /**
+     * <code>optional bool overloadedResponses = 3 [default = false];</code>
+     *
+     * <pre>
+     * Set by clients able to handle OverloadedResponses
+     * </pre>
+     */
+    boolean hasOverloadedResponses();
+    /**
+     * <code>optional bool overloadedResponses = 3 [default = false];</code>
+     *
+     * <pre>
+     * Set by clients able to handle OverloadedResponses
+     * </pre>
+     */
+    boolean getOverloadedResponses();
 
-  public interface CapabilitiesOrBuilder
-      extends com.google.protobuf.MessageOrBuilder {
+    // optional bool localReadOnlyCommits = 4 [default = false];
+    /**
+     * <code>optional bool localReadOnlyCommits = 4 [default = false];</code>
+     *
+     * <pre>
+     * Set by clients committing read-only transactions locally. The TSO
+     * rejects the empty commits they send
+     * </pre>
+     */
+    boolean hasLocalReadOnlyCommits();
+    /**
+     * <code>optional bool localReadOnlyCommits = 4 [default = false];</code>
+     *
+     * <pre>
+     * Set by clients committing read-only transactions locally. The TSO
+     * rejects the empty commits they send
+     * </pre>
+     */
+    boolean getLocalReadOnlyCommits();
   }
   /**
    * Protobuf type {@code Capabilities}
@@ -3728,6 +6815,7 @@ public final class TSOProto {
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
       initFields();
+      int mutable_bitField0_ = 0;
       com.google.protobuf.UnknownFieldSet.Builder unknownFields =
           com.google.protobuf.UnknownFieldSet.newBuilder();
       try {
@@ -3745,6 +6833,26 @@ public final class TSOProto {
               }
               break;
             }
+            case 8: {
+              bitField0_ |= 0x00000001;
+              timestampRanges_ = input.readBool();
+              break;
+            }
+            case 16: {
+              bitField0_ |= 0x00000002;
+              requestBatches_ = input.readBool();
+              break;
+            }
+            case 24: {
+              bitField0_ |= 0x00000004;
+              overloadedResponses_ = input.readBool();
+              break;
+            }
+            case 32: {
+              bitField0_ |= 0x00000008;
+              localReadOnlyCommits_ = input.readBool();
+              break;
+            }
           }
         }
       } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -3784,7 +6892,110 @@ public final class TSOProto {
       return PARSER;
     }
 
+    private int bitField0_;
+    // optional bool timestampRanges = 1 [default = false];
+    public static final int TIMESTAMPRANGES_FIELD_NUMBER = 1;
+    private boolean timestampRanges_;
+    /**
+     * <code>optional bool timestampRanges = 1 [default = false];</code>
+     *
+     * <pre>
+     * Set by servers able to serve TimestampRangeRequests
+     * </pre>
+     */
+    public boolean hasTimestampRanges() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    /**
+     * <code>optional bool timestampRanges = 1 [default = false];</code>
+     *
+     * <pre>
+     * Set by servers able to serve TimestampRangeRequests
+     * </pre>
+     */
+    public boolean getTimestampRanges() {
+      return timestampRanges_;
+    }
+
+    // optional bool requestBatches = 2 [default = false];
+    public static final int REQUESTBATCHES_FIELD_NUMBER = 2;
+    private boolean requestBatches_;
+    /**
+     * <code>optional bool requestBatches = 2 [default = false];</code>
+     *
+     * <pre>
+     * Set by servers able to serve RequestBatches
+     * </pre>
+     */
+    public boolean hasRequestBatches() {
+      return ((bitField0_ & 0x00000002) == 0x00000002);
+    }
+    /**
+     * <code>optional bool requestBatches = 2 [default = false];</code>
+     *
+     * <pre>
+     * Set by servers able to serve RequestBatches
+     * </pre>
+     */
+    public boolean getRequestBatches() {
+      return requestBatches_;
+    }
+
+    // optional bool overloadedResponses = 3 [default = false];
+    public static final int OVERLOADEDRESPONSES_FIELD_NUMBER = 3;
+    private boolean overloadedResponses_;
+    /**
+     * <code>optional bool overloadedResponses = 3 [default = false];</code>
+     *
+     * <pre>
+     * Set by clients able to handle OverloadedResponses
+     * </pre>
+     */
+    public boolean hasOverloadedResponses() {
+      return ((bitField0_ & 0x00000004) == 0x00000004);
+    }
+    /**
+     * <code>optional bool overloadedResponses = 3 [default = false];</code>
+     *
+     * <pre>
+     * Set by clients able to handle OverloadedResponses
+     * </pre>
+     */
+    public boolean getOverloadedResponses() {
+      return overloadedResponses_;
+    }
+
+    // optional bool localReadOnlyCommits = 4 [default = false];
+    public static final int LOCALREADONLYCOMMITS_FIELD_NUMBER = 4;
+    private boolean localReadOnlyCommits_;
+    /**
+     * <code>optional bool localReadOnlyCommits = 4 [default = false];</code>
+     *
+     * <pre>
+     * Set by clients committing read-only transactions locally. The TSO
+     * rejects the empty commits they send
+     * </pre>
+     */
+    public boolean hasLocalReadOnlyCommits() {
+      return ((bitField0_ & 0x00000008) == 0x00000008);
+    }
+    /**
+     * <code>optional bool localReadOnlyCommits = 4 [default = false];</code>
+     *
+     * <pre>
+     * Set by clients committing read-only transactions locally. The TSO
+     * rejects the empty commits they send
+     * </pre>
+     */
+    public boolean getLocalReadOnlyCommits() {
+      return localReadOnlyCommits_;
+    }
+
     private void initFields() {
+      timestampRanges_ = false;
+      requestBatches_ = false;
+      overloadedResponses_ = false;
+      localReadOnlyCommits_ = false;
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -3798,6 +7009,18 @@ public final class TSOProto {
     public void writeTo(com.google.protobuf.CodedOutputStream output)
                         throws java.io.IOException {
       getSerializedSize();
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        output.writeBool(1, timestampRanges_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        output.writeBool(2, requestBatches_);
+      }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        output.writeBool(3, overloadedResponses_);
+      }
+      if (((bitField0_ & 0x00000008) == 0x00000008)) {
+        output.writeBool(4, localReadOnlyCommits_);
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -3807,6 +7030,22 @@ public final class TSOProto {
       if (size != -1) return size;
 
       size = 0;
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(1, timestampRanges_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(2, requestBatches_);
+      }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(3, overloadedResponses_);
+      }
+      if (((bitField0_ & 0x00000008) == 0x00000008)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(4, localReadOnlyCommits_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
       return size;
@@ -3928,6 +7167,14 @@ public final class TSOProto {
 
       public Builder clear() {
         super.clear();
+        timestampRanges_ = false;
+        bitField0_ = (bitField0_ & ~0x00000001);
+        requestBatches_ = false;
+        bitField0_ = (bitField0_ & ~0x00000002);
+        overloadedResponses_ = false;
+        bitField0_ = (bitField0_ & ~0x00000004);
+        localReadOnlyCommits_ = false;
+        bitField0_ = (bitField0_ & ~0x00000008);
         return this;
       }
 
@@ -3954,6 +7201,25 @@ public final class TSOProto {
 
       public com.yahoo.omid.proto.TSOProto.Capabilities buildPartial() {
         com.yahoo.omid.proto.TSOProto.Capabilities result = new com.yahoo.omid.proto.TSOProto.Capabilities(this);
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
+        if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
+          to_bitField0_ |= 0x00000001;
+        }
+        result.timestampRanges_ = timestampRanges_;
+        if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
+          to_bitField0_ |= 0x00000002;
+        }
+        result.requestBatches_ = requestBatches_;
+        if (((from_bitField0_ & 0x00000004) == 0x00000004)) {
+          to_bitField0_ |= 0x00000004;
+        }
+        result.overloadedResponses_ = overloadedResponses_;
+        if (((from_bitField0_ & 0x00000008) == 0x00000008)) {
+          to_bitField0_ |= 0x00000008;
+        }
+        result.localReadOnlyCommits_ = localReadOnlyCommits_;
+        result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
       }
@@ -3969,6 +7235,18 @@ public final class TSOProto {
 
       public Builder mergeFrom(com.yahoo.omid.proto.TSOProto.Capabilities other) {
         if (other == com.yahoo.omid.proto.TSOProto.Capabilities.getDefaultInstance()) return this;
+        if (other.hasTimestampRanges()) {
+          setTimestampRanges(other.getTimestampRanges());
+        }
+        if (other.hasRequestBatches()) {
+          setRequestBatches(other.getRequestBatches());
+        }
+        if (other.hasOverloadedResponses()) {
+          setOverloadedResponses(other.getOverloadedResponses());
+        }
+        if (other.hasLocalReadOnlyCommits()) {
+          setLocalReadOnlyCommits(other.getLocalReadOnlyCommits());
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
@@ -3994,6 +7272,207 @@ public final class TSOProto {
         }
         return this;
       }
+      private int bitField0_;
+
+      // optional bool timestampRanges = 1 [default = false];
+      private boolean timestampRanges_ ;
+      /**
+       * <code>optional bool timestampRanges = 1 [default = false];</code>
+       *
+       * <pre>
+       * Set by servers able to serve TimestampRangeRequests
+       * </pre>
+       */
+      public boolean hasTimestampRanges() {
+        return ((bitField0_ & 0x00000001) == 0x00000001);
+      }
+      /**
+       * <code>optional bool timestampRanges = 1 [default = false];</code>
+       *
+       * <pre>
+       * Set by servers able to serve TimestampRangeRequests
+       * </pre>
+       */
+      public boolean getTimestampRanges() {
+        return timestampRanges_;
+      }
+      /**
+       * <code>optional bool timestampRanges = 1 [default = false];</code>
+       *
+       * <pre>
+       * Set by servers able to serve TimestampRangeRequests
+       * </pre>
+       */
+      public Builder setTimestampRanges(boolean value) {
+        bitField0_ |= 0x00000001;
+        timestampRanges_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional bool timestampRanges = 1 [default = false];</code>
+       *
+       * <pre>
+       * Set by servers able to serve TimestampRangeRequests
+       * </pre>
+       */
+      public Builder clearTimestampRanges() {
+        bitField0_ = (bitField0_ & ~0x00000001);
+        timestampRanges_ = false;
+        onChanged();
+        return this;
+      }
+
+      // optional bool requestBatches = 2 [default = false];
+      private boolean requestBatches_ ;
+      /**
+       * <code>optional bool requestBatches = 2 [default = false];</code>
+       *
+       * <pre>
+       * Set by servers able to serve RequestBatches
+       * </pre>
+       */
+      public boolean hasRequestBatches() {
+        return ((bitField0_ & 0x00000002) == 0x00000002);
+      }
+      /**
+       * <code>optional bool requestBatches = 2 [default = false];</code>
+       *
+       * <pre>
+       * Set by servers able to serve RequestBatches
+       * </pre>
+       */
+      public boolean getRequestBatches() {
+        return requestBatches_;
+      }
+      /**
+       * <code>optional bool requestBatches = 2 [default = false];</code>
+       *
+       * <pre>
+       * Set by servers able to serve RequestBatches
+       * </pre>
+       */
+      public Builder setRequestBatches(boolean value) {
+        bitField0_ |= 0x00000002;
+        requestBatches_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional bool requestBatches = 2 [default = false];</code>
+       *
+       * <pre>
+       * Set by servers able to serve RequestBatches
+       * </pre>
+       */
+      public Builder clearRequestBatches() {
+        bitField0_ = (bitField0_ & ~0x00000002);
+        requestBatches_ = false;
+        onChanged();
+        return this;
+      }
+
+      // optional bool overloadedResponses = 3 [default = false];
+      private boolean overloadedResponses_ ;
+      /**
+       * <code>optional bool overloadedResponses = 3 [default = false];</code>
+       *
+       * <pre>
+       * Set by clients able to handle OverloadedResponses
+       * </pre>
+       */
+      public boolean hasOverloadedResponses() {
+        return ((bitField0_ & 0x00000004) == 0x00000004);
+      }
+      /**
+       * <code>optional bool overloadedResponses = 3 [default = false];</code>
+       *
+       * <pre>
+       * Set by clients able to handle OverloadedResponses
+       * </pre>
+       */
+      public boolean getOverloadedResponses() {
+        return overloadedResponses_;
+      }
+      /**
+       * <code>optional bool overloadedResponses = 3 [default = false];</code>
+       *
+       * <pre>
+       * Set by clients able to handle OverloadedResponses
+       * </pre>
+       */
+      public Builder setOverloadedResponses(boolean value) {
+        bitField0_ |= 0x00000004;
+        overloadedResponses_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional bool overloadedResponses = 3 [default = false];</code>
+       *
+       * <pre>
+       * Set by clients able to handle OverloadedResponses
+       * </pre>
+       */
+      public Builder clearOverloadedResponses() {
+        bitField0_ = (bitField0_ & ~0x00000004);
+        overloadedResponses_ = false;
+        onChanged();
+        return this;
+      }
+
+      // optional bool localReadOnlyCommits = 4 [default = false];
+      private boolean localReadOnlyCommits_ ;
+      /**
+       * <code>optional bool localReadOnlyCommits = 4 [default = false];</code>
+       *
+       * <pre>
+       * Set by clients committing read-only transactions locally. The TSO
+       * rejects the empty commits they send
+       * </pre>
+       */
+      public boolean hasLocalReadOnlyCommits() {
+        return ((bitField0_ & 0x00000008) == 0x00000008);
+      }
+      /**
+       * <code>optional bool localReadOnlyCommits = 4 [default = false];</code>
+       *
+       * <pre>
+       * Set by clients committing read-only transactions locally. The TSO
+       * rejects the empty commits they send
+       * </pre>
+       */
+      public boolean getLocalReadOnlyCommits() {
+        return localReadOnlyCommits_;
+      }
+      /**
+       * <code>optional bool localReadOnlyCommits = 4 [default = false];</code>
+       *
+       * <pre>
+       * Set by clients committing read-only transactions locally. The TSO
+       * rejects the empty commits they send
+       * </pre>
+       */
+      public Builder setLocalReadOnlyCommits(boolean value) {
+        bitField0_ |= 0x00000008;
+        localReadOnlyCommits_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional bool localReadOnlyCommits = 4 [default = false];</code>
+       *
+       * <pre>
+       * Set by clients committing read-only transactions locally. The TSO
+       * rejects the empty commits they send
+       * </pre>
+       */
+      public Builder clearLocalReadOnlyCommits() {
+        bitField0_ = (bitField0_ & ~0x00000008);
+        localReadOnlyCommits_ = false;
+        onChanged();
+        return this;
+      }
 
       // @@protoc_insertion_point(builder_scope:Capabilities)
     }
@@ -5111,6 +8590,16 @@ public final class TSOProto {
   private static
     com.google.protobuf.GeneratedMessage.FieldAccessorTable
       internal_static_TimestampRequest_fieldAccessorTable;
+  private static com.google.protobuf.Descriptors.Descriptor
+    internal_static_RequestBatch_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_RequestBatch_fieldAccessorTable;
+  private static com.google.protobuf.Descriptors.Descriptor
+    internal_static_TimestampRangeRequest_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_TimestampRangeRequest_fieldAccessorTable;
   private static com.google.protobuf.Descriptors.Descriptor
     internal_static_CommitRequest_descriptor;
   private static
@@ -5126,11 +8615,21 @@ public final class TSOProto {
   private static
     com.google.protobuf.GeneratedMessage.FieldAccessorTable
       internal_static_TimestampResponse_fieldAccessorTable;
+  private static com.google.protobuf.Descriptors.Descriptor
+    internal_static_TimestampRangeResponse_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_TimestampRangeResponse_fieldAccessorTable;
   private static com.google.protobuf.Descriptors.Descriptor
     internal_static_CommitResponse_descriptor;
   private static
     com.google.protobuf.GeneratedMessage.FieldAccessorTable
       internal_static_CommitResponse_fieldAccessorTable;
+  private static com.google.protobuf.Descriptors.Descriptor
+    internal_static_OverloadedResponse_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_OverloadedResponse_fieldAccessorTable;
   private static com.google.protobuf.Descriptors.Descriptor
     internal_static_Capabilities_descriptor;
   private static
@@ -5155,23 +8654,37 @@ public final class TSOProto {
       descriptor;
   static {
     java.lang.String[] descriptorData = {
-      "\n\035src/main/proto/TSOProto.proto\"\212\001\n\007Requ" +
+      "\n\035src/main/proto/TSOProto.proto\"\346\001\n\007Requ" +
       "est\022+\n\020timestampRequest\030\001 \001(\0132\021.Timestam" +
       "pRequest\022%\n\rcommitRequest\030\002 \001(\0132\016.Commit" +
       "Request\022+\n\020handshakeRequest\030\003 \001(\0132\021.Hand" +
-      "shakeRequest\"\022\n\020TimestampRequest\"O\n\rComm" +
-      "itRequest\022\026\n\016startTimestamp\030\001 \001(\003\022\026\n\007isR" +
-      "etry\030\002 \001(\010:\005false\022\016\n\006cellId\030\003 \003(\003\"\221\001\n\010Re" +
-      "sponse\022-\n\021timestampResponse\030\001 \001(\0132\022.Time" +
-      "stampResponse\022\'\n\016commitResponse\030\002 \001(\0132\017." +
-      "CommitResponse\022-\n\021handshakeResponse\030\003 \001(",
-      "\0132\022.HandshakeResponse\"+\n\021TimestampRespon" +
-      "se\022\026\n\016startTimestamp\030\001 \001(\003\"R\n\016CommitResp" +
-      "onse\022\017\n\007aborted\030\001 \001(\010\022\026\n\016startTimestamp\030" +
-      "\002 \001(\003\022\027\n\017commitTimestamp\030\003 \001(\003\"\016\n\014Capabi" +
-      "lities\"=\n\020HandshakeRequest\022)\n\022clientCapa" +
+      "shakeRequest\0225\n\025timestampRangeRequest\030\004 " +
+      "\001(\0132\026.TimestampRangeRequest\022#\n\014requestBa" +
+      "tch\030\005 \001(\0132\r.RequestBatch\"\022\n\020TimestampReq" +
+      "uest\")\n\014RequestBatch\022\031\n\007request\030\001 \003(\0132\010." +
+      "Request\"&\n\025TimestampRangeRequest\022\r\n\005coun" +
+      "t\030\001 \001(\005\"S\n\rCommitRequest\022\026\n\016startTimesta",
+      "mp\030\001 \001(\003\022\026\n\007isRetry\030\002 \001(\010:\005false\022\022\n\006cell" +
+      "Id\030\003 \003(\003B\002\020\001\"\373\001\n\010Response\022-\n\021timestampRe" +
+      "sponse\030\001 \001(\0132\022.TimestampResponse\022\'\n\016comm" +
+      "itResponse\030\002 \001(\0132\017.CommitResponse\022-\n\021han" +
+      "dshakeResponse\030\003 \001(\0132\022.HandshakeResponse" +
+      "\0227\n\026timestampRangeResponse\030\004 \001(\0132\027.Times" +
+      "tampRangeResponse\022/\n\022overloadedResponse\030" +
+      "\005 \001(\0132\023.OverloadedResponse\"+\n\021TimestampR" +
+      "esponse\022\026\n\016startTimestamp\030\001 \001(\003\"?\n\026Times" +
+      "tampRangeResponse\022\026\n\016firstTimestamp\030\001 \001(",
+      "\003\022\r\n\005count\030\002 \001(\005\"R\n\016CommitResponse\022\017\n\007ab" +
+      "orted\030\001 \001(\010\022\026\n\016startTimestamp\030\002 \001(\003\022\027\n\017c" +
+      "ommitTimestamp\030\003 \001(\003\"E\n\022OverloadedRespon" +
+      "se\022\024\n\014retryAfterMs\030\001 \001(\005\022\031\n\007request\030\002 \001(" +
+      "\0132\010.Request\"\226\001\n\014Capabilities\022\036\n\017timest" +
+      "ampRanges\030\001 \001(\010:\005false\022\035\n\016requestBatches\030\002" +
+      " \001(\010:\005false\022\"\n\023overloadedResponses\030\003 \001(\010" +
+      ":\005false\022#\n\024localReadOnlyCommits\030\004 \001(\010:\005false" +
+      "\"=\n\020HandshakeRequest\022)\n\022clientCapa" +
       "bilities\030\001 \001(\0132\r.Capabilities\"X\n\021Handsha" +
-      "keResponse\022\030\n\020clientCompatible\030\001 \001(\010\022)\n\022" +
+      "keResponse\022\030\n\020clientCompatible\030\001 \001(\010\022)\n\022",
       "serverCapabilities\030\002 \001(\0132\r.CapabilitiesB" +
       "\030\n\024com.yahoo.omid.protoH\001"
     };
@@ -5185,51 +8698,75 @@ public final class TSOProto {
           internal_static_Request_fieldAccessorTable = new
             com.google.protobuf.GeneratedMessage.FieldAccessorTable(
               internal_static_Request_descriptor,
-              new java.lang.String[] { "TimestampRequest", "CommitRequest", "HandshakeRequest", });
+              new java.lang.String[] { "TimestampRequest", "CommitRequest", "HandshakeRequest", "TimestampRangeRequest", "RequestBatch", });
           internal_static_TimestampRequest_descriptor =
             getDescriptor().getMessageTypes().get(1);
           internal_static_TimestampRequest_fieldAccessorTable = new
             com.google.protobuf.GeneratedMessage.FieldAccessorTable(
               internal_static_TimestampRequest_descriptor,
               new java.lang.String[] { });
-          internal_static_CommitRequest_descriptor =
+          internal_static_RequestBatch_descriptor =
             getDescriptor().getMessageTypes().get(2);
+          internal_static_RequestBatch_fieldAccessorTable = new
+            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+              internal_static_RequestBatch_descriptor,
+              new java.lang.String[] { "Request", });
+          internal_static_TimestampRangeRequest_descriptor =
+            getDescriptor().getMessageTypes().get(3);
+          internal_static_TimestampRangeRequest_fieldAccessorTable = new
+            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+              internal_static_TimestampRangeRequest_descriptor,
+              new java.lang.String[] { "Count", });
+          internal_static_CommitRequest_descriptor =
+            getDescriptor().getMessageTypes().get(4);
           internal_static_CommitRequest_fieldAccessorTable = new
             com.google.protobuf.GeneratedMessage.FieldAccessorTable(
               internal_static_CommitRequest_descriptor,
               new java.lang.String[] { "StartTimestamp", "IsRetry", "CellId", });
           internal_static_Response_descriptor =
-            getDescriptor().getMessageTypes().get(3);
+            getDescriptor().getMessageTypes().get(5);
           internal_static_Response_fieldAccessorTable = new
             com.google.protobuf.GeneratedMessage.FieldAccessorTable(
               internal_static_Response_descriptor,
-              new java.lang.String[] { "TimestampResponse", "CommitResponse", "HandshakeResponse", });
+              new java.lang.String[] { "TimestampResponse", "CommitResponse", "HandshakeResponse", "TimestampRangeResponse", "OverloadedResponse", });
           internal_static_TimestampResponse_descriptor =
-            getDescriptor().getMessageTypes().get(4);
+            getDescriptor().getMessageTypes().get(6);
           internal_static_TimestampResponse_fieldAccessorTable = new
             com.google.protobuf.GeneratedMessage.FieldAccessorTable(
               internal_static_TimestampResponse_descriptor,
               new java.lang.String[] { "StartTimestamp", });
+          internal_static_TimestampRangeResponse_descriptor =
+            getDescriptor().getMessageTypes().get(7);
+          internal_static_TimestampRangeResponse_fieldAccessorTable = new
+            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+              internal_static_TimestampRangeResponse_descriptor,
+              new java.lang.String[] { "FirstTimestamp", "Count", });
           internal_static_CommitResponse_descriptor =
-            getDescriptor().getMessageTypes().get(5);
+            getDescriptor().getMessageTypes().get(8);
           internal_static_CommitResponse_fieldAccessorTable = new
             com.google.protobuf.GeneratedMessage.FieldAccessorTable(
               internal_static_CommitResponse_descriptor,
               new java.lang.String[] { "Aborted", "StartTimestamp", "CommitTimestamp", });
+          internal_static_OverloadedResponse_descriptor =
+            getDescriptor().getMessageTypes().get(9);
+          internal_static_OverloadedResponse_fieldAccessorTable = new
+            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+              internal_static_OverloadedResponse_descriptor,
+              new java.lang.String[] { "RetryAfterMs", "Request", });
           internal_static_Capabilities_descriptor =
-            getDescriptor().getMessageTypes().get(6);
+            getDescriptor().getMessageTypes().get(10);
           internal_static_Capabilities_fieldAccessorTable = new
             com.google.protobuf.GeneratedMessage.FieldAccessorTable(
               internal_static_Capabilities_descriptor,
-              new java.lang.String[] { });
+              new java.lang.String[] { "TimestampRanges", "RequestBatches", "OverloadedResponses", "LocalReadOnlyCommits", });
           internal_static_HandshakeRequest_descriptor =
-            getDescriptor().getMessageTypes().get(7);
+            getDescriptor().getMessageTypes().get(11);
           internal_static_HandshakeRequest_fieldAccessorTable = new
             com.google.protobuf.GeneratedMessage.FieldAccessorTable(
               internal_static_HandshakeRequest_descriptor,
               new java.lang.String[] { "ClientCapabilities", });
           internal_static_HandshakeResponse_descriptor =
-            getDescriptor().getMessageTypes().get(8);
+            getDescriptor().getMessageTypes().get(12);
           internal_static_HandshakeResponse_fieldAccessorTable = new
             com.google.protobuf.GeneratedMessage.FieldAccessorTable(
               internal_static_HandshakeResponse_descriptor,
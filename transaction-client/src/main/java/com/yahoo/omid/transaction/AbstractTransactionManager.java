@@ -200,6 +200,18 @@ public abstract class AbstractTransactionManager implements TransactionManager {
                 tx.cleanup();
                 throw new TransactionException(e.getMessage(), e);
             }
+            if (tx.getWriteSet().isEmpty()) {
+                // Read-only transactions can't conflict with anybody, so they commit
+                // locally at their start timestamp. There is nothing to persist or clean up
+                tx.setStatus(Status.COMMITTED);
+                tx.setCommitTimestamp(tx.getStartTimestamp());
+                try {
+                    postCommit(tx);
+                } catch (TransactionManagerException e) {
+                    LOG.warn(e.getMessage());
+                }
+                return;
+            }
             long commitTs = tsoClient.commit(tx.getStartTimestamp(), tx.getWriteSet()).get();
             tx.setStatus(Status.COMMITTED);
             tx.setCommitTimestamp(commitTs);
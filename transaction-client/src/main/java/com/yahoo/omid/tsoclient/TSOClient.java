@@ -44,9 +44,48 @@ public abstract class TSOClient {
     public static final int DEFAULT_TSO_RETRY_DELAY_MS = 1000;
     public static final String TSO_EXECUTOR_THREAD_NUM_CONFKEY = "tso.executor.threads";
     public static final int DEFAULT_TSO_EXECUTOR_THREAD_NUM = 3;
+    public static final String TSO_DIRECT_BUFFERS_CONFKEY = "tso.direct-buffers";
+    public static final boolean DEFAULT_TSO_DIRECT_BUFFERS = false;
+    public static final String TSO_SOCKET_BUFFER_SIZE_CONFKEY = "tso.socket-buffer-size";
+    public static final int DEFAULT_TSO_SOCKET_BUFFER_SIZE = 0; // OS default
+
+    // Timestamp range leasing. See getNewStartTimestamp()
+    public static final String TIMESTAMP_RANGE_SIZE_CONFKEY = "tso.timestamp-range-size";
+    public static final int DEFAULT_TIMESTAMP_RANGE_SIZE = 0; // Disabled
+    public static final String TIMESTAMP_RANGE_MAX_AGE_MS_CONFKEY = "tso.timestamp-range-max-age-ms";
+    public static final int DEFAULT_TIMESTAMP_RANGE_MAX_AGE_MS = 10;
+
+    // Requests pending to be sent are packed in a single frame when the server supports it
+    public static final String REQUEST_BATCHING_CONFKEY = "tso.request-batching";
+    public static final boolean DEFAULT_REQUEST_BATCHING = true;
+
+    // Requests rejected by an overloaded server are sent again after the delay
+    // it asks for, doubled on each consecutive rejection up to this maximum
+    public static final String MAX_OVERLOAD_BACKOFF_MS_CONFKEY = "tso.max-overload-backoff-ms";
+    public static final int DEFAULT_MAX_OVERLOAD_BACKOFF_MS = 1000;
 
     // ************* Abstract interface to communicate to the TSO *************
 
+    /**
+     * Returns a new start timestamp. Each timestamp is requested to the TSO
+     * server unless the timestamp range leasing is enabled setting
+     * {@value #TIMESTAMP_RANGE_SIZE_CONFKEY} to a positive value and the
+     * server supports it. Then a range of consecutive timestamps is requested
+     * in a single round trip and the following timestamps are served locally
+     * from it. A timestamp taken from a range is guaranteed to be:
+     * <ul>
+     * <li>greater than all the commit timestamps assigned by the server
+     * before the range was leased</li>
+     * <li>greater than all the commit timestamps returned to this client,
+     * as the range is discarded when a commit timestamp greater than its
+     * next timestamp is received</li>
+     * </ul>
+     * However, it is not guaranteed to be greater than the commit timestamps
+     * assigned to other clients after the range was leased, so a transaction
+     * may not see the writes of a transaction of another client committed
+     * just before it started. This staleness is bounded by discarding the
+     * ranges older than {@value #TIMESTAMP_RANGE_MAX_AGE_MS_CONFKEY}.
+     */
     public abstract TSOFuture<Long> getNewStartTimestamp();
 
     /**
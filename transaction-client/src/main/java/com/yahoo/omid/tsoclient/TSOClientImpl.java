@@ -21,14 +21,18 @@ import static com.yahoo.omid.zk.ZKUtils.provideZookeeperClient;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.configuration.Configuration;
@@ -37,6 +41,7 @@ import org.apache.curator.framework.recipes.cache.ChildData;
 import org.apache.curator.framework.recipes.cache.NodeCache;
 import org.apache.curator.framework.recipes.cache.NodeCacheListener;
 import org.jboss.netty.bootstrap.ClientBootstrap;
+import org.jboss.netty.buffer.DirectChannelBufferFactory;
 import org.jboss.netty.channel.Channel;
 import org.jboss.netty.channel.ChannelFactory;
 import org.jboss.netty.channel.ChannelFuture;
@@ -78,6 +83,9 @@ class TSOClientImpl extends TSOClient implements NodeCacheListener {
 
     private static final Logger LOG = LoggerFactory.getLogger(TSOClient.class);
 
+    // Max number of requests packed in a RequestBatch
+    static final int MAX_REQUESTS_PER_BATCH = 1000;
+
     private CuratorFramework zkClient;
     private NodeCache currentTSOZNode;
 
@@ -89,6 +97,10 @@ class TSOClientImpl extends TSOClient implements NodeCacheListener {
     private final int requestTimeoutMs;
     private final int requestMaxRetries;
     private final int retryDelayMs; // ignored for now
+    private final int timestampRangeSize;
+    private final long timestampRangeMaxAgeNanos;
+    private final boolean requestBatching;
+    private final int maxOverloadBackoffMs;
     private InetSocketAddress tsoAddr;
     private final MetricRegistry metrics;
 
@@ -110,6 +122,11 @@ class TSOClientImpl extends TSOClient implements NodeCacheListener {
         requestTimeoutMs = conf.getInt(REQUEST_TIMEOUT_IN_MS_CONFKEY, DEFAULT_REQUEST_TIMEOUT_MS);
         requestMaxRetries = conf.getInt(REQUEST_MAX_RETRIES_CONFKEY, DEFAULT_TSO_MAX_REQUEST_RETRIES);
         retryDelayMs = conf.getInt(TSO_RETRY_DELAY_MS_CONFKEY, DEFAULT_TSO_RETRY_DELAY_MS);
+        timestampRangeSize = conf.getInt(TIMESTAMP_RANGE_SIZE_CONFKEY, DEFAULT_TIMESTAMP_RANGE_SIZE);
+        timestampRangeMaxAgeNanos = TimeUnit.MILLISECONDS.toNanos(
+                conf.getInt(TIMESTAMP_RANGE_MAX_AGE_MS_CONFKEY, DEFAULT_TIMESTAMP_RANGE_MAX_AGE_MS));
+        requestBatching = conf.getBoolean(REQUEST_BATCHING_CONFKEY, DEFAULT_REQUEST_BATCHING);
+        maxOverloadBackoffMs = conf.getInt(MAX_OVERLOAD_BACKOFF_MS_CONFKEY, DEFAULT_MAX_OVERLOAD_BACKOFF_MS);
 
         LOG.info("Connecting to TSO...");
         // Try to connect to TSO from ZK. If fails, go through host:port config
@@ -148,6 +165,14 @@ class TSOClientImpl extends TSOClient implements NodeCacheListener {
         bootstrap.setOption("keepAlive", true);
         bootstrap.setOption("reuseAddress", true);
         bootstrap.setOption("connectTimeoutMillis", 100);
+        if (conf.getBoolean(TSO_DIRECT_BUFFERS_CONFKEY, DEFAULT_TSO_DIRECT_BUFFERS)) {
+            bootstrap.setOption("bufferFactory", DirectChannelBufferFactory.getInstance());
+        }
+        int socketBufferSize = conf.getInt(TSO_SOCKET_BUFFER_SIZE_CONFKEY, DEFAULT_TSO_SOCKET_BUFFER_SIZE);
+        if (socketBufferSize > 0) {
+            bootstrap.setOption("sendBufferSize", socketBufferSize);
+            bootstrap.setOption("receiveBufferSize", socketBufferSize);
+        }
     }
 
     // *********************** Helper methods & classes ***********************
@@ -373,6 +398,23 @@ class TSOClientImpl extends TSOClient implements NodeCacheListener {
         }
     }
 
+    private static class FlushRequestsEvent implements Event {
+    }
+
+    // Sends again a request rejected by the server, or requests a new
+    // timestamp range when the request is null
+    private static class OverloadBackoffEvent implements Event {
+        final RequestEvent request;
+
+        OverloadBackoffEvent(RequestEvent request) {
+            this.request = request;
+        }
+
+        RequestEvent getRequest() {
+            return request;
+        }
+    }
+
     // ***************************** States ***********************************
 
     class BaseState extends State {
@@ -384,6 +426,16 @@ class TSOClientImpl extends TSOClient implements NodeCacheListener {
             LOG.error("Unhandled event {} while in state {}", e, this.getClass().getName());
             return this;
         }
+
+        public State handleEvent(FlushRequestsEvent e) {
+            // Ignored. The requests of a lost connection are retried or errored
+            return this;
+        }
+
+        public State handleEvent(OverloadBackoffEvent e) {
+            // Ignored. The requests of a lost connection are retried or errored
+            return this;
+        }
     }
 
     class DisconnectedState extends BaseState {
@@ -469,7 +521,9 @@ class TSOClientImpl extends TSOClient implements NodeCacheListener {
             this.channel = channel;
             TSOProto.HandshakeRequest.Builder handshake = TSOProto.HandshakeRequest.newBuilder();
             // Add the required handshake capabilities when necessary
-            handshake.setClientCapabilities(TSOProto.Capabilities.newBuilder().build());
+            handshake.setClientCapabilities(TSOProto.Capabilities.newBuilder()
+                                            .setOverloadedResponses(true)
+                                            .setLocalReadOnlyCommits(true).build());
             channel.write(TSOProto.Request.newBuilder()
                           .setHandshakeRequest(handshake.build()).build());
             timeout = newTimeout();
@@ -499,7 +553,8 @@ class TSOClientImpl extends TSOClient implements NodeCacheListener {
                 if (timeout != null) {
                     timeout.cancel();
                 }
-                return new ConnectedState(fsm, channel, timeoutExecutor);
+                return new ConnectedState(fsm, channel, timeoutExecutor,
+                                          e.getParam().getHandshakeResponse().getServerCapabilities());
             } else {
                 cleanupState();
                 LOG.error("Client incompatible with server");
@@ -563,18 +618,40 @@ class TSOClientImpl extends TSOClient implements NodeCacheListener {
     }
 
     class ConnectedState extends BaseState {
-        final Queue<RequestAndTimeout> timestampRequests;
+        final Deque<RequestAndTimeout> timestampRequests;
         final Map<Long, RequestAndTimeout> commitRequests;
         final Channel channel;
 
         final HashedWheelTimer timeoutExecutor;
 
-        ConnectedState(Fsm fsm, Channel channel, HashedWheelTimer timeoutExecutor) {
+        // Timestamp range leased, [rangeNext, rangeEnd)
+        final boolean leaseTimestampRanges;
+        long rangeNext = 0;
+        long rangeEnd = 0;
+        long rangeLeaseTime = 0;
+        boolean rangeRequestInFlight = false;
+        long lastCommitTimestamp = 0;
+
+        // Requests written since the last flush. The flush event is queued
+        // after the first one, so all the requests queued in the fsm before
+        // it are sent in a single frame
+        final boolean batchRequests;
+        final List<TSOProto.Request> pendingWrites = new ArrayList<TSOProto.Request>();
+
+        // Requests rejected by the server waiting to be sent again, and the
+        // number of consecutive rejections, which sets the backoff
+        final Set<OverloadBackoffEvent> overloadBackoffs = new HashSet<OverloadBackoffEvent>();
+        int overloadedResponses = 0;
+
+        ConnectedState(Fsm fsm, Channel channel, HashedWheelTimer timeoutExecutor,
+                       TSOProto.Capabilities serverCapabilities) {
             super(fsm);
             this.channel = channel;
             this.timeoutExecutor = timeoutExecutor;
             timestampRequests = new ArrayDeque<RequestAndTimeout>();
             commitRequests = new HashMap<Long, RequestAndTimeout>();
+            leaseTimestampRanges = timestampRangeSize > 0 && serverCapabilities.getTimestampRanges();
+            batchRequests = requestBatching && serverCapabilities.getRequestBatches();
         }
 
         private Timeout newTimeout(final Event timeoutEvent) {
@@ -593,7 +670,19 @@ class TSOClientImpl extends TSOClient implements NodeCacheListener {
         private void sendRequest(final Fsm fsm, RequestEvent request) {
             TSOProto.Request req = request.getRequest();
 
-            if (req.hasTimestampRequest()) {
+            if (req.hasTimestampRequest() && leaseTimestampRanges) {
+                if (timestampRequests.isEmpty() && isRangeValid()) {
+                    request.success(rangeNext++);
+                    return;
+                }
+                timestampRequests.add(
+                        new RequestAndTimeout(request,
+                                newTimeout(new TimestampRequestTimeoutEvent())));
+                if (!rangeRequestInFlight) {
+                    requestTimestampRange();
+                }
+                return;
+            } else if (req.hasTimestampRequest()) {
                 timestampRequests.add(
                         new RequestAndTimeout(request,
                                 newTimeout(new TimestampRequestTimeoutEvent())));
@@ -607,6 +696,46 @@ class TSOClientImpl extends TSOClient implements NodeCacheListener {
                 request.error(new IllegalArgumentException("Unknown request type"));
                 return;
             }
+            write(req);
+        }
+
+        private boolean isRangeValid() {
+            return rangeNext < rangeEnd && System.nanoTime() - rangeLeaseTime <= timestampRangeMaxAgeNanos;
+        }
+
+        private void requestTimestampRange() {
+            int count = Math.max(timestampRangeSize, timestampRequests.size());
+            TSOProto.Request.Builder builder = TSOProto.Request.newBuilder();
+            builder.setTimestampRangeRequest(TSOProto.TimestampRangeRequest.newBuilder().setCount(count).build());
+            rangeRequestInFlight = true;
+            write(builder.build());
+        }
+
+        private void write(TSOProto.Request req) {
+            if (!batchRequests) {
+                writeToChannel(req);
+                return;
+            }
+            pendingWrites.add(req);
+            if (pendingWrites.size() == 1) {
+                fsm.sendEvent(new FlushRequestsEvent());
+            } else if (pendingWrites.size() == MAX_REQUESTS_PER_BATCH) {
+                flushRequests();
+            }
+        }
+
+        private void flushRequests() {
+            if (pendingWrites.size() == 1) {
+                writeToChannel(pendingWrites.get(0));
+            } else if (pendingWrites.size() > 1) {
+                TSOProto.RequestBatch.Builder batch = TSOProto.RequestBatch.newBuilder();
+                batch.addAllRequest(pendingWrites);
+                writeToChannel(TSOProto.Request.newBuilder().setRequestBatch(batch.build()).build());
+            }
+            pendingWrites.clear();
+        }
+
+        private void writeToChannel(TSOProto.Request req) {
             ChannelFuture f = channel.write(req);
 
             f.addListener(new ChannelFutureListener() {
@@ -621,6 +750,11 @@ class TSOClientImpl extends TSOClient implements NodeCacheListener {
 
         private void handleResponse(ResponseEvent response) {
             TSOProto.Response resp = response.getParam();
+            if (resp.hasOverloadedResponse()) {
+                handleOverloadedResponse(resp.getOverloadedResponse());
+                return;
+            }
+            overloadedResponses = 0;
             if (resp.hasTimestampResponse()) {
                 if (timestampRequests.size() == 0) {
                     LOG.debug("Received timestamp response when no requests outstanding");
@@ -631,6 +765,8 @@ class TSOClientImpl extends TSOClient implements NodeCacheListener {
                 if (e.getTimeout() != null) {
                     e.getTimeout().cancel();
                 }
+            } else if (resp.hasTimestampRangeResponse()) {
+                handleTimestampRangeResponse(resp.getTimestampRangeResponse());
             } else if (resp.hasCommitResponse()) {
                 long startTimestamp = resp.getCommitResponse().getStartTimestamp();
                 RequestAndTimeout e = commitRequests.remove(startTimestamp);
@@ -645,12 +781,107 @@ class TSOClientImpl extends TSOClient implements NodeCacheListener {
                 if (resp.getCommitResponse().getAborted()) {
                     e.getRequest().error(new AbortException());
                 } else {
-                    e.getRequest().success(resp.getCommitResponse().getCommitTimestamp());
+                    long commitTimestamp = resp.getCommitResponse().getCommitTimestamp();
+                    if (commitTimestamp > lastCommitTimestamp) {
+                        lastCommitTimestamp = commitTimestamp;
+                    }
+                    if (commitTimestamp >= rangeNext) {
+                        // The next transactions of this client must see this commit
+                        rangeNext = rangeEnd;
+                    }
+                    e.getRequest().success(commitTimestamp);
                 }
             }
         }
 
+        private void handleTimestampRangeResponse(TSOProto.TimestampRangeResponse range) {
+            rangeRequestInFlight = false;
+            // The response of a range request timed out may arrive after some
+            // commit responses, so skip the timestamps below them
+            rangeNext = Math.max(range.getFirstTimestamp(), lastCommitTimestamp + 1);
+            rangeEnd = range.getFirstTimestamp() + range.getCount();
+            rangeLeaseTime = System.nanoTime();
+            while (!timestampRequests.isEmpty() && rangeNext < rangeEnd) {
+                RequestAndTimeout e = timestampRequests.remove();
+                if (e.getTimeout() != null) {
+                    e.getTimeout().cancel();
+                }
+                e.getRequest().success(rangeNext++);
+            }
+            if (!timestampRequests.isEmpty()) {
+                requestTimestampRange();
+            }
+        }
+
+        /**
+         * The request rejected was not processed by the server, so it's sent
+         * again after the backoff without counting as a retry
+         */
+        private void handleOverloadedResponse(TSOProto.OverloadedResponse overloaded) {
+            TSOProto.Request rejected = overloaded.getRequest();
+            long backoffMs = nextOverloadBackoffMs(overloaded.getRetryAfterMs());
+            if (rejected.hasCommitRequest()) {
+                long startTimestamp = rejected.getCommitRequest().getStartTimestamp();
+                RequestAndTimeout r = commitRequests.remove(startTimestamp);
+                if (r == null) {
+                    LOG.debug("Received overloaded response for commit request that doesn't exist."
+                            + " Start timestamp: {}", startTimestamp);
+                    return;
+                }
+                if (r.getTimeout() != null) {
+                    r.getTimeout().cancel();
+                }
+                backOff(r.getRequest(), backoffMs);
+            } else if (rejected.hasTimestampRangeRequest()) {
+                // Still in flight until it is requested again
+                backOff(null, backoffMs);
+            } else if (rejected.hasTimestampRequest()) {
+                // The timestamps are interchangeable, so the last request waits
+                RequestAndTimeout r = timestampRequests.pollLast();
+                if (r == null) {
+                    LOG.debug("Received overloaded response when no timestamp requests outstanding");
+                    return;
+                }
+                if (r.getTimeout() != null) {
+                    r.getTimeout().cancel();
+                }
+                backOff(r.getRequest(), backoffMs);
+            }
+        }
+
+        private long nextOverloadBackoffMs(int retryAfterMs) {
+            long backoffMs = Math.max(1, retryAfterMs);
+            backoffMs = Math.min(backoffMs << Math.min(overloadedResponses, 20), maxOverloadBackoffMs);
+            overloadedResponses++;
+            // Jittered, so the rejected clients don't come back all at once
+            return backoffMs / 2 + ThreadLocalRandom.current().nextLong(backoffMs / 2 + 1);
+        }
+
+        private void backOff(RequestEvent request, long backoffMs) {
+            OverloadBackoffEvent e = new OverloadBackoffEvent(request);
+            overloadBackoffs.add(e);
+            fsm.sendEvent(e, backoffMs, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public State handleEvent(OverloadBackoffEvent e) {
+            if (!overloadBackoffs.remove(e)) {
+                return this; // Already retried or errored
+            }
+            if (e.getRequest() != null) {
+                sendRequest(fsm, e.getRequest());
+            } else {
+                rangeRequestInFlight = false;
+                if (!timestampRequests.isEmpty()) {
+                    requestTimestampRange();
+                }
+            }
+            return this;
+        }
+
         public State handleEvent(TimestampRequestTimeoutEvent e) {
+            // The range requested is considered lost, so the retries request a new one
+            rangeRequestInFlight = false;
             if (!timestampRequests.isEmpty()) {
                 RequestAndTimeout r = timestampRequests.remove();
                 if (r.getTimeout() != null) {
@@ -690,6 +921,12 @@ class TSOClientImpl extends TSOClient implements NodeCacheListener {
             return this;
         }
 
+        @Override
+        public State handleEvent(FlushRequestsEvent e) {
+            flushRequests();
+            return this;
+        }
+
         public State handleEvent(ErrorEvent e) {
             timeoutExecutor.stop();
             handleError(fsm);
@@ -713,6 +950,13 @@ class TSOClientImpl extends TSOClient implements NodeCacheListener {
                 queueRetryOrError(fsm, r.getRequest());
                 iter.remove();
             }
+            // Never processed, so they are sent again without counting as retries
+            for (OverloadBackoffEvent e : overloadBackoffs) {
+                if (e.getRequest() != null) {
+                    fsm.sendEvent(e.getRequest());
+                }
+            }
+            overloadBackoffs.clear();
             channel.close();
         }
 
@@ -750,6 +994,12 @@ class TSOClientImpl extends TSOClient implements NodeCacheListener {
                 }
                 r.getRequest().error(new ClosingException());
             }
+            for (OverloadBackoffEvent e : overloadBackoffs) {
+                if (e.getRequest() != null) {
+                    e.getRequest().error(new ClosingException());
+                }
+            }
+            overloadBackoffs.clear();
         }
     }
 
@@ -31,12 +31,17 @@ createHBaseTimestampTable() {
     exec java -cp $CLASSPATH com.yahoo.omid.tso.hbase.CreateTable $@
 }
 
+dumpHotCells() {
+    exec java -cp $CLASSPATH com.yahoo.omid.tso.HotCellsDump $@
+}
+
 usage() {
     echo "Usage: omid.sh <command> <options>"
     echo "where <command> is one of:"
     echo "  tso                           Starts The Status Oracle server (TSO)"
     echo "  create-hbase-commit-table     Creates the hbase commit table."
     echo "  create-hbase-timestamp-table  Creates the hbase timestamp table."
+    echo "  dump-hot-cells                Prints the cells causing more conflicts in a running TSO (needs JMX)."
 }
 
 # if no args specified, show usage
@@ -54,6 +59,8 @@ elif [ "$COMMAND" = "create-hbase-commit-table" ]; then
     createHBaseCommitTable $@;
 elif [ "$COMMAND" = "create-hbase-timestamp-table" ]; then
     createHBaseTimestampTable $@;
+elif [ "$COMMAND" = "dump-hot-cells" ]; then
+    dumpHotCells $@;
 else
     exec java -cp $CLASSPATH $COMMAND $@
 fi
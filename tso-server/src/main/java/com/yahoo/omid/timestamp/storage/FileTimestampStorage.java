@@ -0,0 +1,162 @@
+/**
+ * Copyright 2011-2015 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.omid.timestamp.storage;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.zip.CRC32;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the max timestamp in a small memory-mapped local file, for
+ * single-node deployments that don't want to depend on ZK or HBase.
+ *
+ * The file has two slots, each one with a generation number, the max
+ * timestamp and a checksum of both. Updates are written to the slot not
+ * holding the current value and forced to disk before returning, so a torn
+ * write leaves the previous value readable. If both slots are unreadable
+ * the storage refuses to start, instead of going back to the initial
+ * timestamp. The file is locked while the storage is open, so two TSOs
+ * can't share it.
+ */
+public class FileTimestampStorage implements TimestampStorage, Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FileTimestampStorage.class);
+
+    public static final String TIMESTAMP_FILE_KEY = "tso.timestampfile";
+    public static final String DEFAULT_TIMESTAMP_FILE = "omid-max-timestamp";
+
+    static final long INITIAL_MAX_TS_VALUE = 0;
+
+    static final int SLOT_SIZE = 3 * 8; // generation, max timestamp, checksum
+    static final int NUM_SLOTS = 2;
+
+    private final RandomAccessFile file;
+    private final FileLock lock;
+    private final MappedByteBuffer buffer;
+
+    private long generation;
+    private long maxTimestamp;
+
+    @Inject
+    public FileTimestampStorage(@Named(TIMESTAMP_FILE_KEY) String path) throws IOException {
+        this(new File(path));
+    }
+
+    public FileTimestampStorage(File path) throws IOException {
+        this.file = new RandomAccessFile(path, "rw");
+        FileChannel channel = file.getChannel();
+        try {
+            this.lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            file.close();
+            throw new IOException("Timestamp file " + path + " is already opened in this process", e);
+        }
+        if (lock == null) {
+            file.close();
+            throw new IOException("Timestamp file " + path + " is in use by another process");
+        }
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, NUM_SLOTS * SLOT_SIZE);
+
+        generation = -1;
+        boolean empty = true;
+        for (int slot = 0; slot < NUM_SLOTS; slot++) {
+            long slotGeneration = buffer.getLong(slot * SLOT_SIZE);
+            long slotMaxTimestamp = buffer.getLong(slot * SLOT_SIZE + 8);
+            long checksum = buffer.getLong(slot * SLOT_SIZE + 16);
+            empty &= slotGeneration == 0 && slotMaxTimestamp == 0 && checksum == 0;
+            if (checksum == checksum(slotGeneration, slotMaxTimestamp) && slotGeneration > generation) {
+                generation = slotGeneration;
+                maxTimestamp = slotMaxTimestamp;
+            }
+        }
+        if (generation == -1) {
+            if (!empty) {
+                close();
+                throw new IOException("Timestamp file " + path + " is corrupted");
+            }
+            LOG.info("New timestamp file {}, initializing it to {}", path, INITIAL_MAX_TS_VALUE);
+            write(0, INITIAL_MAX_TS_VALUE);
+        } else {
+            LOG.info("Max timestamp {} read from {}", maxTimestamp, path);
+        }
+    }
+
+    @Override
+    public synchronized void updateMaxTimestamp(long previousMaxTimestamp, long newMaxTimestamp)
+            throws IOException {
+
+        if (newMaxTimestamp < 0) {
+            LOG.error("Negative value received for maxTimestamp: {}", newMaxTimestamp);
+            throw new IllegalArgumentException();
+        }
+        if (newMaxTimestamp <= previousMaxTimestamp) {
+            LOG.error("maxTimestamp {} <= previousMaxTimesamp: {}", newMaxTimestamp, previousMaxTimestamp);
+            throw new IllegalArgumentException();
+        }
+        if (previousMaxTimestamp != maxTimestamp) {
+            throw new IOException("Stored max timestamp " + maxTimestamp
+                    + " differs from the previous one " + previousMaxTimestamp);
+        }
+        write(generation + 1, newMaxTimestamp);
+
+    }
+
+    @Override
+    public synchronized long getMaxTimestamp() throws IOException {
+        return maxTimestamp;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        lock.release();
+        file.close();
+    }
+
+    private void write(long newGeneration, long newMaxTimestamp) {
+        int offset = (int) (newGeneration % NUM_SLOTS) * SLOT_SIZE;
+        buffer.putLong(offset, newGeneration);
+        buffer.putLong(offset + 8, newMaxTimestamp);
+        buffer.putLong(offset + 16, checksum(newGeneration, newMaxTimestamp));
+        buffer.force();
+        generation = newGeneration;
+        maxTimestamp = newMaxTimestamp;
+    }
+
+    private static long checksum(long generation, long maxTimestamp) {
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < 8; i++) {
+            crc.update((int) (generation >>> (i * 8)));
+        }
+        for (int i = 0; i < 8; i++) {
+            crc.update((int) (maxTimestamp >>> (i * 8)));
+        }
+        // Set the top bit, so an all zero slot is never valid
+        return crc.getValue() | (1L << 63);
+    }
+
+}
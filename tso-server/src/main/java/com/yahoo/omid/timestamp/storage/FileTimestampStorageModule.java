@@ -0,0 +1,49 @@
+/**
+ * Copyright 2011-2015 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.omid.timestamp.storage;
+
+import static com.yahoo.omid.timestamp.storage.FileTimestampStorage.TIMESTAMP_FILE_KEY;
+
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.name.Names;
+import com.yahoo.omid.tso.TSOServerCommandLineConfig;
+
+public class FileTimestampStorageModule extends AbstractModule {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FileTimestampStorageModule.class);
+
+    private final TSOServerCommandLineConfig config;
+
+    public FileTimestampStorageModule(TSOServerCommandLineConfig config) {
+        this.config = config;
+    }
+
+    @Override
+    public void configure() {
+
+        LOG.info("Storing the max timestamp in file {}", config.getTimestampFile());
+        bindConstant().annotatedWith(Names.named(TIMESTAMP_FILE_KEY)).to(config.getTimestampFile());
+        // Timestamp storage creation
+        bind(TimestampStorage.class).to(FileTimestampStorage.class).in(Singleton.class);
+
+    }
+
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright 2011-2015 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.omid.tso;
+
+import java.util.concurrent.TimeUnit;
+
+import com.yahoo.omid.metrics.Histogram;
+import com.yahoo.omid.metrics.Timer;
+
+/**
+ * Chooses how long the persist processor lingers before flushing a batch
+ * and how large the batches can grow.
+ *
+ * Without a target commit latency, batches linger up to the batch persist
+ * timeout and grow up to the max batch size. With a target, the linger time
+ * is whatever is left of the target after a flush, so commits are replied
+ * within the target under light load. The batch size limit is halved when
+ * flushes alone take longer than the target and doubled when batches fill
+ * up before the linger time, so batches are still large under heavy load.
+ *
+ * It's fed from the flush timer and the batch size histogram of the
+ * persist processor, which it wraps. The flush times are updated by the
+ * flush thread and the batch sizes by the persist thread, which reads the
+ * parameters. The metrics gauges read them from other threads.
+ */
+class BatchingController {
+
+    static final int MIN_BATCH_SIZE_LIMIT = 16;
+
+    private final long targetLatencyNanos;
+    private final long maxLingerNanos;
+    private final int maxBatchSize;
+
+    private volatile long lingerNanos;
+    private volatile int batchSizeLimit;
+
+    private final DecayingMax flushNanos = new DecayingMax();
+
+    BatchingController(int targetLatencyMs, int maxLingerMs, int maxBatchSize) {
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMs);
+        this.maxLingerNanos = TimeUnit.MILLISECONDS.toNanos(maxLingerMs);
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = isAdaptive() ? Math.min(targetLatencyNanos, maxLingerNanos) : maxLingerNanos;
+        this.batchSizeLimit = maxBatchSize;
+    }
+
+    boolean isAdaptive() {
+        return targetLatencyNanos > 0;
+    }
+
+    /**
+     * Returns a timer that also passes the flush times to the controller
+     */
+    Timer observeFlushes(final Timer flushTimer) {
+        return new Timer() {
+            @Override
+            public void start() {
+                flushTimer.start();
+            }
+
+            @Override
+            public void stop() {
+                flushTimer.stop();
+            }
+
+            @Override
+            public void update(long durationInNs) {
+                flushTimer.update(durationInNs);
+                flushCompleted(durationInNs);
+            }
+        };
+    }
+
+    /**
+     * Returns a histogram that also passes the sizes of the batches handed to
+     * the flush thread to the controller
+     */
+    Histogram observeBatchSizes(final Histogram batchSizeHistogram) {
+        return new Histogram() {
+            @Override
+            public void update(int value) {
+                batchSizeHistogram.update(value);
+                batchFlushed(value);
+            }
+
+            @Override
+            public void update(long value) {
+                batchSizeHistogram.update(value);
+                batchFlushed((int) value);
+            }
+        };
+    }
+
+    void flushCompleted(long nanos) {
+        flushNanos.update(nanos);
+    }
+
+    /**
+     * Adjusts the parameters when a batch is handed to the flush thread
+     */
+    void batchFlushed(int batchSize) {
+        if (!isAdaptive()) {
+            return;
+        }
+        long flush = (long) flushNanos.get();
+        lingerNanos = Math.max(0, Math.min(maxLingerNanos, targetLatencyNanos - flush));
+        if (flush > targetLatencyNanos) {
+            batchSizeLimit = Math.max(Math.min(MIN_BATCH_SIZE_LIMIT, maxBatchSize), batchSizeLimit / 2);
+        } else if (batchSize >= batchSizeLimit) {
+            batchSizeLimit = (int) Math.min(maxBatchSize, 2L * batchSizeLimit);
+        }
+    }
+
+    long getLingerNanos() {
+        return lingerNanos;
+    }
+
+    int getBatchSizeLimit() {
+        return batchSizeLimit;
+    }
+
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright 2011-2015 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.omid.tso;
+
+/**
+ * Set-associative cache with disjoint buckets. Unlike {@link LongCache}, where
+ * the probe sequences of neighbouring keys overlap, each key is mapped to one
+ * bucket of associativity slots and the number of buckets is a power of two,
+ * so the bucket is found with a mask instead of a modulo. The size is rounded
+ * up to fill a power of two of buckets, so up to twice the memory of the size
+ * asked for can be allocated (16 bytes per slot).
+ *
+ * Keys and values are kept in separate arrays. A lookup only sweeps the keys
+ * of a single bucket sequentially; with an associativity multiple of 8, each
+ * bucket of keys spans a whole number of 64 byte cache lines.
+ */
+public class BucketedLongCache implements Cache {
+
+    // Largest array size the VMs can allocate
+    private static final int MAX_SLOTS = Integer.MAX_VALUE - 8;
+
+    private final long[] keys;
+    private final long[] values;
+    private final int bucketMask;
+    private final int associativity;
+    private long lastEvictedKey;
+
+    public BucketedLongCache(int size, int associativity) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Illegal size: " + size);
+        }
+        if (associativity <= 0) {
+            throw new IllegalArgumentException("Illegal associativity: " + associativity);
+        }
+        long minBuckets = ((long) size + associativity - 1) / associativity;
+        long numBuckets = Long.highestOneBit(minBuckets);
+        if (numBuckets < minBuckets) {
+            numBuckets <<= 1;
+        }
+        if (numBuckets * associativity > MAX_SLOTS) {
+            throw new IllegalArgumentException("Size too large: " + size + " rounds up to "
+                    + numBuckets * associativity + " slots");
+        }
+        this.associativity = associativity;
+        this.bucketMask = (int) numBuckets - 1;
+        this.keys = new long[(int) numBuckets * associativity];
+        this.values = new long[(int) numBuckets * associativity];
+    }
+
+    /* (non-Javadoc)
+     * @see com.yahoo.omid.tso.Cache#set(long, long)
+     */
+    @Override
+    public long set(long key, long value) {
+        final int start = bucket(key) * associativity;
+        final int end = start + associativity;
+        for (int i = start; i < end; ++i) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return 0;
+            }
+        }
+        int oldestIndex = start;
+        long oldestValue = values[start];
+        for (int i = start + 1; i < end; ++i) {
+            if (values[i] <= oldestValue) {
+                oldestValue = values[i];
+                oldestIndex = i;
+            }
+        }
+        lastEvictedKey = keys[oldestIndex];
+        keys[oldestIndex] = key;
+        values[oldestIndex] = value;
+        return oldestValue;
+    }
+
+    /* (non-Javadoc)
+     * @see com.yahoo.omid.tso.Cache#get(long)
+     */
+    @Override
+    public long get(long key) {
+        final int start = bucket(key) * associativity;
+        final int end = start + associativity;
+        for (int i = start; i < end; ++i) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+        }
+        return 0;
+    }
+
+    /* (non-Javadoc)
+     * @see com.yahoo.omid.tso.Cache#getLastEvictedKey()
+     */
+    @Override
+    public long getLastEvictedKey() {
+        return lastEvictedKey;
+    }
+
+    /* (non-Javadoc)
+     * @see com.yahoo.omid.tso.Cache#slot(long)
+     */
+    @Override
+    public int slot(long key) {
+        return bucket(key) * associativity;
+    }
+
+    private int bucket(long key) {
+        // Mix the bits so sequential keys are spread across the buckets
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & bucketMask;
+    }
+
+}
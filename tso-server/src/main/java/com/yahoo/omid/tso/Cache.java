@@ -21,8 +21,28 @@ package com.yahoo.omid.tso;
  */
 public interface Cache {
 
+    /**
+     * Available implementations for the cell id -> commit timestamp mappings
+     */
+    public enum Type {
+        HEAP, OFF_HEAP, BUCKETED
+    };
+
     public abstract long set(long key, long value);
 
     public abstract long get(long key);
 
+    /**
+     * Returns the key of the entry evicted by the last call to {@link #set(long, long)}.
+     * Only meaningful when that call returned a value other than 0.
+     */
+    public abstract long getLastEvictedKey();
+
+    /**
+     * Returns the index of the first slot of the table where the key can be
+     * stored. Accessing the keys in increasing order of their slots sweeps
+     * the table in one direction.
+     */
+    public abstract int slot(long key);
+
 }
\ No newline at end of file
@@ -15,6 +15,8 @@
  */
 package com.yahoo.omid.tso;
 
+import java.util.Arrays;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,8 +29,12 @@ import org.slf4j.LoggerFactory;
  * on even indexes and values on odd indexes. The rationale is that we want
  * queries to be fast and touch as least memory regions as possible.
  *
- * Each time an entry is removed, the caller updates the largestDeletedTimestamp
- * if the entry's commit timestamp is greater than this value.
+ * Each time an entry is removed, the low watermark of the segment the cell id
+ * of the entry belongs to is raised to the entry's commit timestamp, if it is
+ * greater. Transactions only need to be checked against the low watermarks of
+ * the segments their write sets hit, so evictions in a segment don't abort
+ * transactions writing to the others. The low watermark of the whole map is
+ * the minimum of the segments ones.
  *
  * TODO: improve garbage collection, right now an entry is picked at random
  * (by hash) which could cause the eviction of a very recent timestamp
@@ -40,6 +46,18 @@ class CommitHashMap {
 
     private final Cache cellIdToCommitMap;
 
+    // Largest commit timestamp evicted from each segment of the cell ids
+    private final long[] segmentLowWatermarks;
+    private final int segmentMask;
+    private long lowWatermark;
+
+    // Records the cells whose eviction raised a low watermark, if set
+    private HotCellSketch lowWatermarkRaisers = null;
+
+    // Scratch space for sortByLocation()
+    private long[] sortKeys = new long[0];
+    private long[] sortCells = new long[0];
+
     /**
      * Constructs a new, empty hashtable with a default size of 1000
      */
@@ -56,12 +74,65 @@ class CommitHashMap {
      *             if the size is less than zero.
      */
     public CommitHashMap(int size, long largestDeletedTimestamp) {
+        this(size, Cache.Type.HEAP, largestDeletedTimestamp);
+    }
+
+    /**
+     * Constructs a new, empty hashtable with the specified size, backed by
+     * the specified type of cache
+     *
+     * @param size
+     *            the initial size of the hashtable.
+     * @param cacheType
+     *            whether the entries are kept in the Java heap or off-heap.
+     * @throws IllegalArgumentException
+     *             if the size is less than zero.
+     */
+    public CommitHashMap(int size, Cache.Type cacheType, long largestDeletedTimestamp) {
+        this(size, cacheType, 1, largestDeletedTimestamp);
+    }
+
+    /**
+     * Constructs a new, empty hashtable with the specified size, backed by
+     * the specified type of cache and keeping a separate low watermark for
+     * each one of the segments the cell ids are split into
+     *
+     * @param size
+     *            the initial size of the hashtable.
+     * @param cacheType
+     *            whether the entries are kept in the Java heap or off-heap.
+     * @param numSegments
+     *            number of low watermark segments. Must be a power of two.
+     * @throws IllegalArgumentException
+     *             if the size is less than zero or the number of segments
+     *             is not a power of two.
+     */
+    public CommitHashMap(int size, Cache.Type cacheType, int numSegments, long largestDeletedTimestamp) {
         if (size < 0) {
             throw new IllegalArgumentException("Illegal size: " + size);
         }
+        if (numSegments <= 0 || Integer.bitCount(numSegments) != 1) {
+            throw new IllegalArgumentException("Illegal number of segments: " + numSegments);
+        }
 
-        this.cellIdToCommitMap = new LongCache(size, 32);
-        LOG.info("CellId -> CommitTS map created with [{}] buckets (32 elems/bucket)", size);
+        switch (cacheType) {
+        case OFF_HEAP:
+            this.cellIdToCommitMap = new OffHeapLongCache(size, 32);
+            break;
+        case BUCKETED:
+            this.cellIdToCommitMap = new BucketedLongCache(size, 32);
+            break;
+        case HEAP:
+        default:
+            this.cellIdToCommitMap = new LongCache(size, 32);
+            break;
+        }
+        this.segmentMask = numSegments - 1;
+        this.segmentLowWatermarks = new long[numSegments];
+        Arrays.fill(segmentLowWatermarks, largestDeletedTimestamp);
+        this.lowWatermark = largestDeletedTimestamp;
+        LOG.info("CellId -> CommitTS map created with [{}] buckets (32 elems/bucket) in {} cache, {} segments",
+                 new Object[] { size, cacheType, numSegments });
     }
 
     public long getLatestWriteForCell(long hash) {
@@ -69,6 +140,80 @@ class CommitHashMap {
     }
 
     public long putLatestWriteForCell(long hash, long commitTimestamp) {
-        return cellIdToCommitMap.set(hash, commitTimestamp);
+        long removed = cellIdToCommitMap.set(hash, commitTimestamp);
+        if (removed != 0) {
+            int segment = segment(cellIdToCommitMap.getLastEvictedKey());
+            long segmentLowWatermark = segmentLowWatermarks[segment];
+            if (removed > segmentLowWatermark) {
+                if (lowWatermarkRaisers != null) {
+                    lowWatermarkRaisers.record(cellIdToCommitMap.getLastEvictedKey());
+                }
+                segmentLowWatermarks[segment] = removed;
+                if (segmentLowWatermark == lowWatermark) {
+                    // The segment might have been holding the minimum
+                    updateLowWatermark();
+                }
+            }
+        }
+        return removed;
+    }
+
+    void trackLowWatermarkRaisers(HotCellSketch sketch) {
+        this.lowWatermarkRaisers = sketch;
+    }
+
+    /**
+     * Returns the low watermark of the segment the cell belongs to. The last
+     * write of the cell can have been evicted from the map for transactions
+     * started at or before this timestamp, so conflicts can't be checked
+     * reliably for them.
+     */
+    public long getLowWatermark(long hash) {
+        return segmentLowWatermarks[segment(hash)];
+    }
+
+    /**
+     * Returns the low watermark of the whole map, that is, the minimum of the
+     * low watermarks of the segments
+     */
+    public long getLowWatermark() {
+        return lowWatermark;
+    }
+
+    private void updateLowWatermark() {
+        long min = Long.MAX_VALUE;
+        for (long segmentLowWatermark : segmentLowWatermarks) {
+            min = Math.min(min, segmentLowWatermark);
+        }
+        lowWatermark = min;
+    }
+
+    /**
+     * Reorders the first numCells cell ids by the location of their entries
+     * in the map, so a pass over them walks the memory of the map forward
+     * instead of jumping back and forth.
+     */
+    void sortByLocation(long[] cellIds, int numCells) {
+        if (numCells < 2) {
+            return;
+        }
+        if (sortKeys.length < numCells) {
+            sortKeys = new long[Math.max(numCells, sortKeys.length * 2)];
+            sortCells = new long[sortKeys.length];
+        }
+        // Slot in the high bits, original position in the low ones
+        for (int i = 0; i < numCells; i++) {
+            sortKeys[i] = ((long) cellIdToCommitMap.slot(cellIds[i]) << 32) | i;
+        }
+        Arrays.sort(sortKeys, 0, numCells);
+        System.arraycopy(cellIds, 0, sortCells, 0, numCells);
+        for (int i = 0; i < numCells; i++) {
+            cellIds[i] = sortCells[(int) sortKeys[i]];
+        }
+    }
+
+    int segment(long hash) {
+        long h = hash * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & segmentMask;
     }
 }
@@ -0,0 +1,37 @@
+/**
+ * Copyright 2011-2015 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.omid.tso;
+
+/**
+ * Keeps a recent maximum of some measure, like a latency or a rate. Samples
+ * above it raise it immediately, and lower ones only take it halfway down,
+ * so a single fast sample doesn't hide that the measure was just high.
+ *
+ * Updated by one thread at a time, and read by any.
+ */
+final class DecayingMax {
+
+    private volatile double value = 0;
+
+    void update(double sample) {
+        value = Math.max(sample, (value + sample) / 2);
+    }
+
+    double get() {
+        return value;
+    }
+
+}
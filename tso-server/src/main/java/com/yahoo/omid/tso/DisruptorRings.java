@@ -0,0 +1,165 @@
+/**
+ * Copyright 2011-2015 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.omid.tso;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.lmax.disruptor.AlertException;
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.PhasedBackoffWaitStrategy;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.Sequence;
+import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.TimeoutBlockingWaitStrategy;
+import com.lmax.disruptor.TimeoutException;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
+import com.yahoo.omid.metrics.Gauge;
+import com.yahoo.omid.metrics.MetricsRegistry;
+
+/**
+ * Configuration helpers shared by the disruptor rings of the TSO.
+ *
+ * Busy spinning gives the lowest latency but burns a core per ring even
+ * when idle, so the wait strategy of each ring can be chosen depending on
+ * whether the TSO has the host for itself.
+ */
+public final class DisruptorRings {
+
+    public enum WaitStrategyType {
+        BUSY_SPIN, YIELDING, PHASED_BACKOFF, BLOCKING
+    };
+
+    // Phases of the backoff strategy, spinning first, then yielding, then blocking
+    static final long PHASED_BACKOFF_SPIN_MICROS = 100;
+    static final long PHASED_BACKOFF_YIELD_MICROS = 1000;
+    // Sleep between checks of the backoff strategy with a timeout
+    static final long PHASED_BACKOFF_SLEEP_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private DisruptorRings() {
+    }
+
+    static WaitStrategy waitStrategy(WaitStrategyType type) {
+        switch (type) {
+        case BUSY_SPIN:
+            return new BusySpinWaitStrategy();
+        case YIELDING:
+            return new YieldingWaitStrategy();
+        case PHASED_BACKOFF:
+            return PhasedBackoffWaitStrategy.withLock(PHASED_BACKOFF_SPIN_MICROS,
+                                                      PHASED_BACKOFF_YIELD_MICROS,
+                                                      TimeUnit.MICROSECONDS);
+        case BLOCKING:
+            return new BlockingWaitStrategy();
+        default:
+            throw new IllegalArgumentException("Unknown wait strategy " + type);
+        }
+    }
+
+    /**
+     * Returns a wait strategy that gives up after the timeout, so the
+     * consumer gets called back when there are no new events
+     */
+    static WaitStrategy timeoutWaitStrategy(WaitStrategyType type, long timeout, TimeUnit unit) {
+        long timeoutNanos = unit.toNanos(timeout);
+        switch (type) {
+        case BUSY_SPIN:
+            return new TimeoutPhasedWaitStrategy(Long.MAX_VALUE, Long.MAX_VALUE, timeoutNanos);
+        case YIELDING:
+            return new TimeoutPhasedWaitStrategy(0, Long.MAX_VALUE, timeoutNanos);
+        case PHASED_BACKOFF:
+            return new TimeoutPhasedWaitStrategy(TimeUnit.MICROSECONDS.toNanos(PHASED_BACKOFF_SPIN_MICROS),
+                                                 TimeUnit.MICROSECONDS.toNanos(PHASED_BACKOFF_YIELD_MICROS),
+                                                 timeoutNanos);
+        case BLOCKING:
+            return new TimeoutBlockingWaitStrategy(timeout, unit);
+        default:
+            throw new IllegalArgumentException("Unknown wait strategy " + type);
+        }
+    }
+
+    static int checkRingSize(String ring, int size) {
+        if (size <= 0 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Size of the " + ring + " ring must be a power of 2: " + size);
+        }
+        return size;
+    }
+
+    /**
+     * Reports the events of the ring not released by its last consumers
+     * (depth) and the ones not seen yet by its first consumer (lag)
+     */
+    static void registerMetrics(MetricsRegistry metrics, String ring,
+                                final RingBuffer<?> ringBuffer, final Sequence firstConsumer) {
+        metrics.gauge(name("tso", ring, "ring", "depth"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return ringBuffer.getCursor() - ringBuffer.getMinimumGatingSequence();
+            }
+        });
+        metrics.gauge(name("tso", ring, "ring", "lag"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return ringBuffer.getCursor() - firstConsumer.get();
+            }
+        });
+    }
+
+    /**
+     * Spins, then yields, then sleeps until the events are available or the
+     * timeout expires. As it never blocks, producers don't need to signal it.
+     */
+    private static final class TimeoutPhasedWaitStrategy implements WaitStrategy {
+        private final long spinNanos;
+        private final long yieldNanos;
+        private final long timeoutNanos;
+
+        TimeoutPhasedWaitStrategy(long spinNanos, long yieldNanos, long timeoutNanos) {
+            this.spinNanos = spinNanos;
+            this.yieldNanos = yieldNanos;
+            this.timeoutNanos = timeoutNanos;
+        }
+
+        @Override
+        public long waitFor(long sequence, Sequence cursor, Sequence dependentSequence, SequenceBarrier barrier)
+                throws AlertException, InterruptedException, TimeoutException {
+            long availableSequence;
+            long start = System.nanoTime();
+            while ((availableSequence = dependentSequence.get()) < sequence) {
+                barrier.checkAlert();
+                long waited = System.nanoTime() - start;
+                if (waited >= timeoutNanos) {
+                    throw TimeoutException.INSTANCE;
+                } else if (waited >= yieldNanos) {
+                    LockSupport.parkNanos(PHASED_BACKOFF_SLEEP_NANOS);
+                } else if (waited >= spinNanos) {
+                    Thread.yield();
+                }
+            }
+            return availableSequence;
+        }
+
+        @Override
+        public void signalAllWhenBlocking() {
+        }
+
+    }
+
+}
@@ -0,0 +1,163 @@
+/**
+ * Copyright 2011-2015 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.omid.tso;
+
+import java.util.Arrays;
+
+/**
+ * Finds the most frequent cell ids of a stream, e.g. the cells hitting
+ * conflicts, in constant space.
+ *
+ * The frequencies are estimated with a count-min sketch and the top-K cells
+ * are kept in a small table, which is only scanned when the estimate of the
+ * cell recorded is above the minimum of the table. So recording a cell that
+ * is not hot only costs DEPTH counter increments, and nothing is allocated.
+ *
+ * It must be written by a single thread. Other threads can read it, but they
+ * may see a slightly inconsistent view of the top-K cells.
+ */
+class HotCellSketch {
+
+    static final int DEPTH = 4;
+    static final int DEFAULT_WIDTH = 1 << 12;
+
+    private static final long[] SEEDS = {
+        0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xFF51AFD7ED558CCDL
+    };
+
+    private final long[] counters; // DEPTH rows of width counters
+    private final int width;
+    private final int widthMask;
+
+    private final long[] topCells;
+    private final long[] topCounts;
+    private volatile int topSize = 0;
+    private long topMin = 0;
+
+    private long total = 0;
+    private volatile boolean resetRequested = false;
+
+    HotCellSketch(int topK) {
+        this(topK, DEFAULT_WIDTH);
+    }
+
+    HotCellSketch(int topK, int width) {
+        if (topK <= 0) {
+            throw new IllegalArgumentException("Illegal number of top cells: " + topK);
+        }
+        if (width <= 0 || Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("Width must be a power of two: " + width);
+        }
+        this.width = width;
+        this.widthMask = width - 1;
+        this.counters = new long[DEPTH * width];
+        this.topCells = new long[topK];
+        this.topCounts = new long[topK];
+    }
+
+    /**
+     * Counts a new occurrence of the cell
+     */
+    void record(long cellId) {
+        if (resetRequested) {
+            clear();
+        }
+        total++;
+
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = row * width + column(cellId, row);
+            estimate = Math.min(estimate, ++counters[index]);
+        }
+        if (topSize < topCells.length || estimate > topMin) {
+            updateTop(cellId, estimate);
+        }
+    }
+
+    /**
+     * The sketch is cleared by the writer thread before recording the next cell
+     */
+    void reset() {
+        resetRequested = true;
+    }
+
+    long getTotal() {
+        return total;
+    }
+
+    /**
+     * Returns the number of top cells, which may change right after returning
+     */
+    int getTopSize() {
+        return topSize;
+    }
+
+    long getTopCell(int i) {
+        return topCells[i];
+    }
+
+    long getTopCount(int i) {
+        return topCounts[i];
+    }
+
+    private void updateTop(long cellId, long estimate) {
+        int size = topSize;
+        int slot = -1;
+        for (int i = 0; i < size; i++) {
+            if (topCells[i] == cellId) {
+                slot = i;
+                break;
+            }
+        }
+        if (slot == -1) {
+            if (size < topCells.length) {
+                slot = size++;
+                topCells[slot] = cellId;
+                topCounts[slot] = estimate;
+                topSize = size;
+            } else {
+                slot = indexOfMin(size);
+                topCells[slot] = cellId;
+            }
+        }
+        topCounts[slot] = estimate;
+        topMin = topCounts[indexOfMin(size)];
+    }
+
+    private int indexOfMin(int size) {
+        int min = 0;
+        for (int i = 1; i < size; i++) {
+            if (topCounts[i] < topCounts[min]) {
+                min = i;
+            }
+        }
+        return min;
+    }
+
+    private void clear() {
+        resetRequested = false;
+        Arrays.fill(counters, 0);
+        topSize = 0;
+        topMin = 0;
+        total = 0;
+    }
+
+    private int column(long cellId, int row) {
+        long h = (cellId ^ SEEDS[row]) * SEEDS[(row + 1) % DEPTH];
+        return (int) (h >>> 32) & widthMask;
+    }
+
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright 2011-2015 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.omid.tso;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.yahoo.omid.metrics.Gauge;
+import com.yahoo.omid.metrics.MetricsRegistry;
+
+/**
+ * Tracks the hot cells of the TSO: the ones hitting write-write conflicts and
+ * the ones whose eviction from the commit hash map raised the low watermark.
+ * Each conflict detection thread records in its own {@link HotCellSketch}s.
+ *
+ * The top cells are published as gauges and can be dumped through JMX, under
+ * {@value #MBEAN_NAME} (see {@link HotCellsDump}).
+ */
+class HotCells implements HotCellsMXBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HotCells.class);
+
+    static final String MBEAN_NAME = "com.yahoo.omid.tso:type=HotCells";
+    static final int TOP_GAUGES = 5;
+
+    private final HotCellSketch[] conflicts;
+    private final HotCellSketch[] lowWatermarkRaisers;
+
+    HotCells(int numWriters, int topK, MetricsRegistry metrics) {
+        conflicts = new HotCellSketch[numWriters];
+        lowWatermarkRaisers = new HotCellSketch[numWriters];
+        for (int i = 0; i < numWriters; i++) {
+            conflicts[i] = new HotCellSketch(topK);
+            lowWatermarkRaisers[i] = new HotCellSketch(topK);
+        }
+        registerGauges(metrics, "conflicts", conflicts);
+        registerGauges(metrics, "lowWatermarkRaisers", lowWatermarkRaisers);
+        registerMBean();
+    }
+
+    HotCellSketch getConflicts(int writer) {
+        return conflicts[writer];
+    }
+
+    HotCellSketch getLowWatermarkRaisers(int writer) {
+        return lowWatermarkRaisers[writer];
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder sb = new StringBuilder();
+        dump(sb, "Cells hitting conflicts", conflicts);
+        dump(sb, "Cells whose eviction raised the low watermark", lowWatermarkRaisers);
+        return sb.toString();
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < conflicts.length; i++) {
+            conflicts[i].reset();
+            lowWatermarkRaisers[i].reset();
+        }
+    }
+
+    private static void dump(StringBuilder sb, String title, HotCellSketch[] sketches) {
+        sb.append(title).append(" (").append(total(sketches)).append(" total)\n");
+        for (long[] cell : top(sketches)) {
+            sb.append(String.format("  %20d %12d%n", cell[0], cell[1]));
+        }
+    }
+
+    static long total(HotCellSketch[] sketches) {
+        long total = 0;
+        for (HotCellSketch sketch : sketches) {
+            total += sketch.getTotal();
+        }
+        return total;
+    }
+
+    /**
+     * Merges the top cells of the sketches, returning {cellId, count} pairs
+     * sorted by decreasing count. The writers partition the cells, so a cell
+     * can't be in more than one sketch.
+     */
+    static List<long[]> top(HotCellSketch[] sketches) {
+        List<long[]> top = new ArrayList<long[]>();
+        for (HotCellSketch sketch : sketches) {
+            int size = sketch.getTopSize();
+            for (int i = 0; i < size; i++) {
+                top.add(new long[] { sketch.getTopCell(i), sketch.getTopCount(i) });
+            }
+        }
+        Collections.sort(top, new Comparator<long[]>() {
+            @Override
+            public int compare(long[] a, long[] b) {
+                return a[1] < b[1] ? 1 : (a[1] == b[1] ? 0 : -1);
+            }
+        });
+        return top;
+    }
+
+    private static void registerGauges(MetricsRegistry metrics, String kind, final HotCellSketch[] sketches) {
+        metrics.gauge(name("tso", "hotcells", kind, "total"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return total(sketches);
+            }
+        });
+        for (int i = 0; i < TOP_GAUGES; i++) {
+            final int position = i;
+            metrics.gauge(name("tso", "hotcells", kind, "top" + i, "cellId"), new Gauge<Long>() {
+                @Override
+                public Long getValue() {
+                    List<long[]> top = top(sketches);
+                    return position < top.size() ? top.get(position)[0] : 0L;
+                }
+            });
+            metrics.gauge(name("tso", "hotcells", kind, "top" + i, "count"), new Gauge<Long>() {
+                @Override
+                public Long getValue() {
+                    List<long[]> top = top(sketches);
+                    return position < top.size() ? top.get(position)[1] : 0L;
+                }
+            });
+        }
+    }
+
+    private void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(MBEAN_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            LOG.warn("Hot cells won't be available through JMX", e);
+        }
+    }
+
+}
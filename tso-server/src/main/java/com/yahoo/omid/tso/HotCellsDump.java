@@ -0,0 +1,62 @@
+/**
+ * Copyright 2011-2015 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.omid.tso;
+
+import javax.management.JMX;
+import javax.management.ObjectName;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+
+/**
+ * Prints the hot cells of a running TSO. The TSO JVM must have remote JMX
+ * enabled (-Dcom.sun.management.jmxremote.port=...)
+ */
+public class HotCellsDump {
+
+    static class Config {
+
+        @Parameter(names = "-jmx", description = "host:port of the JMX agent of the TSO", required = true)
+        String jmxHostAndPort;
+
+        @Parameter(names = "-reset", description = "Start counting again after the dump", required = false)
+        boolean reset = false;
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        Config config = new Config();
+        new JCommander(config, args);
+
+        JMXServiceURL url = new JMXServiceURL("service:jmx:rmi:///jndi/rmi://" + config.jmxHostAndPort + "/jmxrmi");
+        JMXConnector connector = JMXConnectorFactory.connect(url);
+        try {
+            HotCellsMXBean hotCells = JMX.newMXBeanProxy(connector.getMBeanServerConnection(),
+                                                         new ObjectName(HotCells.MBEAN_NAME),
+                                                         HotCellsMXBean.class);
+            System.out.print(hotCells.dump());
+            if (config.reset) {
+                hotCells.reset();
+            }
+        } finally {
+            connector.close();
+        }
+    }
+
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright 2011-2015 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.omid.tso;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelLocal;
+
+/**
+ * Counts the requests of each connection that haven't been replied yet.
+ * The handler acquires them when it passes the requests on, and the reply
+ * processor releases them when it writes their responses.
+ *
+ * The requests of a connection are only acquired by its I/O thread, so the
+ * limit can be checked before incrementing the counter.
+ */
+final class InFlightRequests {
+
+    private static final ChannelLocal<AtomicInteger> inFlight = new ChannelLocal<AtomicInteger>();
+
+    private InFlightRequests() {
+    }
+
+    static void track(Channel c) {
+        inFlight.set(c, new AtomicInteger());
+    }
+
+    static void untrack(Channel c) {
+        inFlight.remove(c);
+    }
+
+    /**
+     * Acquires up to n requests without going over max, or without limit
+     * when max is not positive. Returns the number of requests acquired
+     */
+    static int tryAcquire(Channel c, int n, int max) {
+        AtomicInteger counter = inFlight.get(c);
+        if (counter == null) {
+            return n;
+        }
+        if (max > 0) {
+            n = Math.max(0, Math.min(n, max - counter.get()));
+        }
+        counter.addAndGet(n);
+        return n;
+    }
+
+    static void acquire(Channel c, int n) {
+        AtomicInteger counter = inFlight.get(c);
+        if (counter != null) {
+            counter.addAndGet(n);
+        }
+    }
+
+    static void release(Channel c, int n) {
+        AtomicInteger counter = inFlight.get(c);
+        if (counter != null) {
+            counter.addAndGet(-n);
+        }
+    }
+
+    static int get(Channel c) {
+        AtomicInteger counter = inFlight.get(c);
+        return counter == null ? 0 : counter.get();
+    }
+
+}
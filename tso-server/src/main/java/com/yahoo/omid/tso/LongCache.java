@@ -20,6 +20,7 @@ public class LongCache implements Cache {
     private final long [] cache;
     private final int size;
     private final int associativity;
+    private long lastEvictedKey;
     
     public LongCache(int size, int associativity) {
         this.size = size;
@@ -47,6 +48,7 @@ public class LongCache implements Cache {
                 oldestIndex = currIndex;
             }
         }
+        lastEvictedKey = cache[oldestIndex];
         cache[oldestIndex] = key;
         cache[oldestIndex + 1] = value;
         return oldestValue;
@@ -67,6 +69,22 @@ public class LongCache implements Cache {
         return 0;
     }
 
+    /* (non-Javadoc)
+     * @see com.yahoo.omid.tso.Cache#getLastEvictedKey()
+     */
+    @Override
+    public long getLastEvictedKey() {
+        return lastEvictedKey;
+    }
+
+    /* (non-Javadoc)
+     * @see com.yahoo.omid.tso.Cache#slot(long)
+     */
+    @Override
+    public int slot(long key) {
+        return index(key);
+    }
+
     private int index(long hash) {
         return (int) (Math.abs(hash) % size);
     }
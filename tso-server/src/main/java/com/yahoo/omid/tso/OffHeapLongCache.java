@@ -0,0 +1,131 @@
+/**
+ * Copyright 2011-2015 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.omid.tso;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * Same set-associative cache as {@link LongCache}, but the table lives in
+ * direct memory instead of the Java heap, so very large caches don't put
+ * pressure on the garbage collector.
+ *
+ * A direct buffer can't hold more than 2GB, so the table is split in chunks
+ * of 2^chunkShift slots. Each slot is a key/value pair of longs.
+ */
+public class OffHeapLongCache implements Cache {
+
+    static final int DEFAULT_CHUNK_SHIFT = 26; // 1GB per chunk
+
+    private final LongBuffer[] chunks;
+    private final int chunkShift;
+    private final long chunkMask;
+    private final int size;
+    private final int associativity;
+    private long lastEvictedKey;
+
+    public OffHeapLongCache(int size, int associativity) {
+        this(size, associativity, DEFAULT_CHUNK_SHIFT);
+    }
+
+    OffHeapLongCache(int size, int associativity, int chunkShift) {
+        this.size = size;
+        this.associativity = associativity;
+        this.chunkShift = chunkShift;
+        this.chunkMask = (1L << chunkShift) - 1;
+
+        long slots = (long) size + associativity;
+        int numChunks = (int) ((slots + chunkMask) >>> chunkShift);
+        this.chunks = new LongBuffer[numChunks];
+        for (int i = 0; i < numChunks; i++) {
+            long chunkSlots = Math.min(1L << chunkShift, slots - ((long) i << chunkShift));
+            chunks[i] = ByteBuffer.allocateDirect((int) (chunkSlots * 2 * 8))
+                    .order(ByteOrder.nativeOrder())
+                    .asLongBuffer();
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see com.yahoo.omid.tso.Cache#set(long, long)
+     */
+    @Override
+    public long set(long key, long value) {
+        final long index = index(key);
+        LongBuffer oldestChunk = null;
+        int oldestIndex = 0;
+        long oldestValue = Long.MAX_VALUE;
+        for (int i = 0; i < associativity; ++i) {
+            long slot = index + i;
+            LongBuffer chunk = chunks[(int) (slot >>> chunkShift)];
+            int currIndex = (int) (slot & chunkMask) << 1;
+            if (chunk.get(currIndex) == key) {
+                oldestValue = 0;
+                oldestChunk = chunk;
+                oldestIndex = currIndex;
+                break;
+            }
+            long currValue = chunk.get(currIndex + 1);
+            if (currValue <= oldestValue) {
+                oldestValue = currValue;
+                oldestChunk = chunk;
+                oldestIndex = currIndex;
+            }
+        }
+        lastEvictedKey = oldestChunk.get(oldestIndex);
+        oldestChunk.put(oldestIndex, key);
+        oldestChunk.put(oldestIndex + 1, value);
+        return oldestValue;
+    }
+
+    /* (non-Javadoc)
+     * @see com.yahoo.omid.tso.Cache#get(long)
+     */
+    @Override
+    public long get(long key) {
+        final long index = index(key);
+        for (int i = 0; i < associativity; ++i) {
+            long slot = index + i;
+            LongBuffer chunk = chunks[(int) (slot >>> chunkShift)];
+            int currIndex = (int) (slot & chunkMask) << 1;
+            if (chunk.get(currIndex) == key) {
+                return chunk.get(currIndex + 1);
+            }
+        }
+        return 0;
+    }
+
+    /* (non-Javadoc)
+     * @see com.yahoo.omid.tso.Cache#getLastEvictedKey()
+     */
+    @Override
+    public long getLastEvictedKey() {
+        return lastEvictedKey;
+    }
+
+    /* (non-Javadoc)
+     * @see com.yahoo.omid.tso.Cache#slot(long)
+     */
+    @Override
+    public int slot(long key) {
+        return (int) index(key);
+    }
+
+    private long index(long hash) {
+        return (int) (Math.abs(hash) % size);
+    }
+
+}
@@ -40,6 +40,17 @@ public class PausableTimestampOracle extends TimestampOracleImpl {
 
     @Override
     public long next() throws IOException {
+        waitWhilePaused();
+        return super.next();
+    }
+
+    @Override
+    public long next(int count) throws IOException {
+        waitWhilePaused();
+        return super.next(count);
+    }
+
+    private void waitWhilePaused() {
         while (tsoPaused) {
             synchronized (this) {
                 try {
@@ -50,7 +61,6 @@ public class PausableTimestampOracle extends TimestampOracleImpl {
                 }
             }
         }
-        return super.next();
     }
 
     public synchronized void pause() {
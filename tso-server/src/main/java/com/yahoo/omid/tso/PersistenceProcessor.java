@@ -21,5 +21,14 @@ interface PersistenceProcessor {
     void persistCommit(long startTimestamp, long commitTimestamp, Channel c);
     void persistAbort(long startTimestamp, boolean isRetry, Channel c);
     void persistTimestamp(long startTimestamp, Channel c);
+    void persistTimestampRange(long firstTimestamp, int count, Channel c);
     void persistLowWatermark(long lowWatermark);
+
+    /**
+     * Persists the outcome of the first numEvents requests passed, claiming
+     * all the slots they need at once. Timestamp requests are only answered
+     * if they got a timestamp, and commit requests are aborted if they got a
+     * conflict.
+     */
+    void persistRequests(RequestProcessorImpl.RequestEvent[] events, int numEvents);
 }
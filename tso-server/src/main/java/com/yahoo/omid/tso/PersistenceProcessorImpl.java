@@ -17,9 +17,17 @@ package com.yahoo.omid.tso;
 
 import static com.codahale.metrics.MetricRegistry.name;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
@@ -29,14 +37,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.lmax.disruptor.BatchEventProcessor;
 import com.lmax.disruptor.EventFactory;
 import com.lmax.disruptor.EventHandler;
 import com.lmax.disruptor.RingBuffer;
 import com.lmax.disruptor.SequenceBarrier;
-import com.lmax.disruptor.TimeoutBlockingWaitStrategy;
 import com.lmax.disruptor.TimeoutHandler;
 import com.yahoo.omid.committable.CommitTable;
+import com.yahoo.omid.metrics.Gauge;
 import com.yahoo.omid.metrics.Histogram;
 import com.yahoo.omid.metrics.Meter;
 import com.yahoo.omid.metrics.MetricsRegistry;
@@ -52,23 +61,58 @@ class PersistenceProcessorImpl
     static final String TSO_MAX_BATCH_SIZE_KEY = "tso.maxbatchsize";
     static final int DEFAULT_BATCH_PERSIST_TIMEOUT_MS = 100;
     static final String TSO_BATCH_PERSIST_TIMEOUT_MS_KEY = "tso.batch-persist-timeout-ms";
+    static final int DEFAULT_PERSIST_PIPELINE_DEPTH = 2;
+    static final String TSO_PERSIST_PIPELINE_DEPTH_KEY = "tso.persist-pipeline-depth";
+    static final int DEFAULT_COMMIT_TABLE_WRITERS = 1;
+    static final String TSO_COMMIT_TABLE_WRITERS_KEY = "tso.committablewriters";
+    static final int DEFAULT_TARGET_COMMIT_LATENCY_MS = 0; // Fixed batching
+    static final String TSO_TARGET_COMMIT_LATENCY_MS_KEY = "tso.target-commit-latency-ms";
+    // Wait timeout when batching adaptively, so short linger times are honored when idle
+    static final int ADAPTIVE_BATCH_TIMEOUT_MS = 1;
+    static final boolean DEFAULT_EARLY_TIMESTAMP_REPLIES = false;
+    static final String TSO_EARLY_TIMESTAMP_REPLIES_KEY = "tso.early-timestamp-replies";
+    static final DisruptorRings.WaitStrategyType DEFAULT_PERSIST_WAIT_STRATEGY = DisruptorRings.WaitStrategyType.BLOCKING;
+    static final String TSO_PERSIST_WAIT_STRATEGY_KEY = "tso.persist.waitstrategy";
+    static final int DEFAULT_PERSIST_RING_SIZE = 1<<20;
+    static final String TSO_PERSIST_RING_SIZE_KEY = "tso.persist.ringsize";
 
     final ReplyProcessor reply;
     final RetryProcessor retryProc;
+    final CommitTable commitTable;
     final CommitTable.Client commitTableClient;
     final CommitTable.Writer writer;
+    // When there's more than one writer, the commits of each batch are
+    // partitioned as the commit table lays them out, and the partitions
+    // are flushed in parallel
+    final CommitTable.Writer[] writers;
+    final List<PartitionFlushTask> partitionFlushTasks;
+    final ExecutorService writersExec;
     final Panicker panicker;
     final RingBuffer<PersistEvent> persistRing;
 
     final int maxBatchSize;
 
-    final Batch batch;
+    // The batch being filled. When it's flushed, the next one is taken from
+    // the free batches, so new events are batched while the flush is going on
+    Batch batch;
+    final BlockingQueue<Batch> freeBatches;
+    // Single thread, so the batches are flushed and replied in order
+    final ExecutorService flushExec;
 
     final Timer flushTimer;
+    final Timer batchWaitTimer;
     final Histogram batchSizeHistogram;
     final Meter timeoutMeter;
     long lastFlush = System.nanoTime();
-    final static int BATCH_TIMEOUT_MS = 100;
+    // Low watermark updates are coalesced and only the largest one is written in each flush
+    long lowWatermarkToWrite = 0;
+    long lastLowWatermarkWritten = 0;
+    final BatchingController batching;
+    // When not null, timestamps are replied as soon as the commits persisted
+    // before them are durable, instead of after the flush of their own batch
+    final PendingTimestamps pendingTimestamps;
+    // Number of commits received, which identifies the last one of each batch
+    long commitsReceived = 0;
 
     @Inject
     PersistenceProcessorImpl(MetricsRegistry metrics,
@@ -79,34 +123,104 @@ class PersistenceProcessorImpl
                              TSOServerConfig config)
     throws InterruptedException, ExecutionException {
 
+        this.commitTable = commitTable;
         this.commitTableClient = commitTable.getClient().get();
-        this.writer = commitTable.getWriter().get();
+        int numWriters = config.getCommitTableWriters();
+        if (numWriters < 1) {
+            throw new IllegalArgumentException("Illegal number of commit table writers: " + numWriters);
+        }
+        this.writers = new CommitTable.Writer[numWriters];
+        this.partitionFlushTasks = new ArrayList<PartitionFlushTask>(numWriters);
+        for (int i = 0; i < numWriters; i++) {
+            writers[i] = commitTable.getWriter().get();
+            partitionFlushTasks.add(new PartitionFlushTask(i));
+        }
+        this.writer = writers[0];
+        if (numWriters > 1) {
+            writersExec = Executors.newFixedThreadPool(numWriters,
+                    new ThreadFactoryBuilder().setNameFormat("persist-writer-%d").build());
+        } else {
+            writersExec = null;
+        }
         this.reply = reply;
         this.retryProc = retryProc;
         this.panicker = panicker;
         this.maxBatchSize = config.getMaxBatchSize();
+        final int pipelineDepth = config.getPersistPipelineDepth();
+        if (pipelineDepth < 1) {
+            throw new IllegalArgumentException("Illegal persist pipeline depth: " + pipelineDepth);
+        }
 
-        LOG.info("Creating the persist processor with batch size {}, and timeout {}ms",
-                 maxBatchSize, config.getBatchPersistTimeoutMS());
-        batch = new Batch(maxBatchSize);
+        LOG.info("Creating the persist processor with batch size {}, timeout {}ms, pipeline depth {} and {} writers",
+                 maxBatchSize, config.getBatchPersistTimeoutMS(), pipelineDepth, numWriters);
+        batch = new Batch(maxBatchSize, numWriters);
+        freeBatches = new ArrayBlockingQueue<Batch>(pipelineDepth);
+        for (int i = 1; i < pipelineDepth; i++) {
+            freeBatches.add(new Batch(maxBatchSize, numWriters));
+        }
+        flushExec = Executors.newSingleThreadExecutor(
+                new ThreadFactoryBuilder().setNameFormat("persist-flush-%d").build());
+
+        batching = new BatchingController(config.getTargetCommitLatencyMS(),
+                                          config.getBatchPersistTimeoutMS(),
+                                          maxBatchSize);
+        if (batching.isAdaptive()) {
+            LOG.info("Adapting the batches to a target commit latency of {}ms", config.getTargetCommitLatencyMS());
+        }
+        if (config.isEarlyTimestampReplies()) {
+            LOG.info("Replying timestamps as soon as the previous commits are durable");
+            pendingTimestamps = new PendingTimestamps(reply);
+        } else {
+            pendingTimestamps = null;
+        }
 
-        flushTimer = metrics.timer(name("tso", "persist", "flush"));
-        batchSizeHistogram = metrics.histogram(name("tso", "persist", "batchsize"));
+        flushTimer = batching.observeFlushes(metrics.timer(name("tso", "persist", "flush")));
+        batchWaitTimer = metrics.timer(name("tso", "persist", "batchwait"));
+        metrics.gauge(name("tso", "persist", "flushesInFlight"), new Gauge<Integer>() {
+            @Override
+            public Integer getValue() {
+                return pipelineDepth - 1 - freeBatches.size();
+            }
+        });
+        batchSizeHistogram = batching.observeBatchSizes(metrics.histogram(name("tso", "persist", "batchsize")));
         timeoutMeter = metrics.meter(name("tso", "persist", "timeout"));
+        metrics.gauge(name("tso", "persist", "lingerMicros"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return TimeUnit.NANOSECONDS.toMicros(batching.getLingerNanos());
+            }
+        });
+        metrics.gauge(name("tso", "persist", "batchSizeLimit"), new Gauge<Integer>() {
+            @Override
+            public Integer getValue() {
+                return batching.getBatchSizeLimit();
+            }
+        });
+        if (pendingTimestamps != null) {
+            metrics.gauge(name("tso", "persist", "pendingTimestamps"), new Gauge<Integer>() {
+                @Override
+                public Integer getValue() {
+                    return pendingTimestamps.size();
+                }
+            });
+        }
 
-        // FIXME consider putting something more like a phased strategy here to avoid
-        // all the syscalls
-        final TimeoutBlockingWaitStrategy timeoutStrategy
-            = new TimeoutBlockingWaitStrategy(config.getBatchPersistTimeoutMS(), TimeUnit.MILLISECONDS);
-
-        persistRing = RingBuffer.<PersistEvent>createSingleProducer(
-                PersistEvent.EVENT_FACTORY, 1<<20, timeoutStrategy); // 2^20 entries in ringbuffer
+        // The persist ring always waits with a timeout, so the batches are
+        // flushed after lingering even if no new events arrive
+        int batchTimeoutMS = batching.isAdaptive()
+                ? Math.min(ADAPTIVE_BATCH_TIMEOUT_MS, config.getBatchPersistTimeoutMS())
+                : config.getBatchPersistTimeoutMS();
+        persistRing = RingBuffer.<PersistEvent>createSingleProducer(PersistEvent.EVENT_FACTORY,
+                DisruptorRings.checkRingSize("persist", config.getPersistRingSize()),
+                DisruptorRings.timeoutWaitStrategy(config.getPersistWaitStrategy(),
+                                                   batchTimeoutMS, TimeUnit.MILLISECONDS));
         SequenceBarrier persistSequenceBarrier = persistRing.newBarrier();
         BatchEventProcessor<PersistEvent> persistProcessor = new BatchEventProcessor<PersistEvent>(
                 persistRing,
                 persistSequenceBarrier,
                 this);
         persistRing.addGatingSequences(persistProcessor.getSequence());
+        DisruptorRings.registerMetrics(metrics, "persist", persistRing, persistProcessor.getSequence());
         persistProcessor.setExceptionHandler(new FatalExceptionHandler(panicker));
 
         ExecutorService persistExec = Executors.newSingleThreadExecutor(
@@ -120,22 +234,35 @@ class PersistenceProcessorImpl
 
         switch (event.getType()) {
         case COMMIT:
-            // TODO: What happens when the IOException is thrown?
-            writer.addCommittedTransaction(event.getStartTimestamp(), event.getCommitTimestamp());
-            batch.addCommit(event.getStartTimestamp(), event.getCommitTimestamp(), event.getChannel());
+            int partition = writers.length == 1
+                    ? 0
+                    : commitTable.partitionOf(event.getStartTimestamp(), writers.length);
+            batch.addCommit(event.getStartTimestamp(), event.getCommitTimestamp(), partition, event.getChannel());
+            commitsReceived++;
             break;
         case ABORT:
             sendAbortOrIdentifyFalsePositive(event.getStartTimestamp(), event.isRetry(), event.getChannel());
             break;
         case TIMESTAMP:
-            batch.addTimestamp(event.getStartTimestamp(), event.getChannel());
+            if (pendingTimestamps != null) {
+                pendingTimestamps.add(event.getStartTimestamp(), 0, event.getChannel(), commitsReceived);
+            } else {
+                batch.addTimestamp(event.getStartTimestamp(), event.getChannel());
+            }
+            break;
+        case TIMESTAMP_RANGE:
+            if (pendingTimestamps != null) {
+                pendingTimestamps.add(event.getStartTimestamp(), event.getCount(), event.getChannel(), commitsReceived);
+            } else {
+                batch.addTimestampRange(event.getStartTimestamp(), event.getCount(), event.getChannel());
+            }
             break;
         case LOW_WATERMARK:
-            writer.updateLowWatermark(event.getLowWatermark());
+            lowWatermarkToWrite = Math.max(lowWatermarkToWrite, event.getLowWatermark());
             break;
         }
 
-        if (batch.isFull() || endOfBatch) {
+        if (isBatchFull() || endOfBatch) {
             maybeFlushBatch();
         }
     }
@@ -162,32 +289,118 @@ class PersistenceProcessorImpl
         maybeFlushBatch();
     }
 
+    private boolean isBatchFull() {
+        return batch.isFull() || batch.getNumEvents() >= batching.getBatchSizeLimit();
+    }
+
     /**
-     * Flush the current batch if it is larger than the max batch size,
-     * or BATCH_TIMEOUT_MS milliseconds have elapsed since the last flush.
+     * Flush the current batch if it has reached the batch size limit, or the
+     * linger time chosen by the batching controller has elapsed since the
+     * last flush. Nothing is flushed if there's nothing to write.
      */
     private void maybeFlushBatch() {
-        if (batch.isFull()) {
+        if (isBatchFull()) {
             flush();
-        } else if ((System.nanoTime() - lastFlush) > TimeUnit.MILLISECONDS.toNanos(BATCH_TIMEOUT_MS)) {
+        } else if (batch.getNumEvents() == 0 && lowWatermarkToWrite <= lastLowWatermarkWritten) {
+            return;
+        } else if ((System.nanoTime() - lastFlush) > batching.getLingerNanos()) {
             timeoutMeter.mark();
             flush();
         }
     }
 
+    /**
+     * Hands the current batch to the flush thread and carries on with a
+     * free one. Only waits if all the batches are still being flushed.
+     */
     private void flush() {
         lastFlush = System.nanoTime();
         batchSizeHistogram.update(batch.getNumEvents());
-        try {
-            writer.flush().get();
-            flushTimer.update((System.nanoTime() - lastFlush));
-            batch.sendRepliesAndReset(reply, retryProc);
-        } catch (ExecutionException ee) {
-            panicker.panic("Error persisting commit batch", ee.getCause());
-        } catch (InterruptedException ie) {
-            Thread.currentThread().interrupt();
-            LOG.error("Interrupted after persistence");
+        long lowWatermark = 0;
+        if (lowWatermarkToWrite > lastLowWatermarkWritten) {
+            lowWatermark = lowWatermarkToWrite;
+            lastLowWatermarkWritten = lowWatermarkToWrite;
         }
+        flushExec.execute(new FlushBatchTask(batch, lowWatermark, commitsReceived));
+        batch = Uninterruptibles.takeUninterruptibly(freeBatches);
+        batchWaitTimer.update(System.nanoTime() - lastFlush);
+    }
+
+    private class FlushBatchTask implements Runnable {
+        private final Batch batch;
+        private final long lowWatermark;
+        private final long commitsUpToBatch;
+
+        FlushBatchTask(Batch batch, long lowWatermark, long commitsUpToBatch) {
+            this.batch = batch;
+            this.lowWatermark = lowWatermark;
+            this.commitsUpToBatch = commitsUpToBatch;
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            try {
+                if (writersExec == null) {
+                    partitionFlushTasks.get(0).prepare(batch, lowWatermark).call();
+                } else {
+                    for (PartitionFlushTask task : partitionFlushTasks) {
+                        task.prepare(batch, lowWatermark);
+                    }
+                    // The batch is only complete when all the partitions are flushed
+                    for (Future<Void> f : writersExec.invokeAll(partitionFlushTasks)) {
+                        f.get();
+                    }
+                }
+                flushTimer.update(System.nanoTime() - start);
+                batch.sendRepliesAndReset(reply, retryProc);
+                if (pendingTimestamps != null) {
+                    pendingTimestamps.commitsDurable(commitsUpToBatch);
+                }
+                freeBatches.add(batch);
+            } catch (ExecutionException ee) {
+                panicker.panic("Error persisting commit batch", ee.getCause());
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                LOG.error("Interrupted after persistence");
+            } catch (Throwable t) {
+                // Nobody else would see it in the flush thread
+                panicker.panic("Error persisting commit batch", t);
+            }
+        }
+
+    }
+
+    /**
+     * Writes the commits of a batch falling in the partition of one writer.
+     * Reused for all the batches, which are flushed one at a time.
+     */
+    private class PartitionFlushTask implements Callable<Void> {
+        private final int partition;
+        private Batch batch;
+        private long lowWatermark;
+
+        PartitionFlushTask(int partition) {
+            this.partition = partition;
+        }
+
+        PartitionFlushTask prepare(Batch batch, long lowWatermark) {
+            this.batch = batch;
+            this.lowWatermark = lowWatermark;
+            return this;
+        }
+
+        @Override
+        public Void call() throws Exception {
+            CommitTable.Writer partitionWriter = writers[partition];
+            batch.addCommittedTransactions(partitionWriter, partition);
+            if (partition == 0 && lowWatermark != 0) {
+                partitionWriter.updateLowWatermark(lowWatermark);
+            }
+            partitionWriter.flush().get();
+            return null;
+        }
+
     }
 
     @Override
@@ -214,6 +427,14 @@ class PersistenceProcessorImpl
         persistRing.publish(seq);
     }
 
+    @Override
+    public void persistTimestampRange(long firstTimestamp, int count, Channel c) {
+        long seq = persistRing.next();
+        PersistEvent e = persistRing.get(seq);
+        PersistEvent.makePersistTimestampRange(e, firstTimestamp, count, c);
+        persistRing.publish(seq);
+    }
+
     @Override
     public void persistLowWatermark(long lowWatermark) {
         long seq = persistRing.next();
@@ -222,19 +443,74 @@ class PersistenceProcessorImpl
         persistRing.publish(seq);
     }
 
+    @Override
+    public void persistRequests(RequestProcessorImpl.RequestEvent[] events, int numEvents) {
+        int remaining = 0;
+        for (int i = 0; i < numEvents; i++) {
+            if (isPersisted(events[i])) {
+                remaining++;
+            }
+        }
+
+        int i = 0;
+        while (remaining > 0) {
+            int n = Math.min(remaining, persistRing.getBufferSize());
+            long hi = persistRing.next(n);
+            long lo = hi - n + 1;
+            for (long seq = lo; seq <= hi; seq++) {
+                while (!isPersisted(events[i])) {
+                    i++;
+                }
+                RequestProcessorImpl.RequestEvent r = events[i++];
+                PersistEvent e = persistRing.get(seq);
+                switch (r.getType()) {
+                case TIMESTAMP:
+                    PersistEvent.makePersistTimestamp(e, r.getTimestamp(), r.getChannel());
+                    break;
+                case TIMESTAMP_RANGE:
+                    PersistEvent.makePersistTimestampRange(e, r.getTimestamp(), r.getCount(), r.getChannel());
+                    break;
+                case COMMIT:
+                    if (r.hasConflict()) {
+                        PersistEvent.makePersistAbort(e, r.getStartTimestamp(), r.isRetry(), r.getChannel());
+                    } else {
+                        PersistEvent.makePersistCommit(e, r.getStartTimestamp(), r.getTimestamp(), r.getChannel());
+                    }
+                    break;
+                }
+            }
+            persistRing.publish(lo, hi);
+            remaining -= n;
+        }
+    }
+
+    private static boolean isPersisted(RequestProcessorImpl.RequestEvent r) {
+        // Commit requests are always answered, aborting them if needed
+        return r.getType() == RequestProcessorImpl.RequestEvent.Type.COMMIT || r.getTimestamp() != 0;
+    }
+
     public final static class Batch {
         final PersistEvent[] events;
         final int maxBatchSize;
         int numEvents;
+        // Indexes of the commits of each partition, in the order added
+        final int[][] partitionCommits;
+        final int[] partitionSizes;
 
         Batch(int maxBatchSize) {
-            assert(maxBatchSize > 0);
+            this(maxBatchSize, 1);
+        }
+
+        Batch(int maxBatchSize, int numPartitions) {
+            assert(maxBatchSize > 0 && numPartitions > 0);
             this.maxBatchSize = maxBatchSize;
             events = new PersistEvent[maxBatchSize];
             numEvents = 0;
             for (int i = 0; i < maxBatchSize; i++) {
                 events[i] = new PersistEvent();
             }
+            partitionCommits = new int[numPartitions][maxBatchSize];
+            partitionSizes = new int[numPartitions];
         }
 
         boolean isFull() {
@@ -247,12 +523,17 @@ class PersistenceProcessorImpl
         }
 
         void addCommit(long startTimestamp, long commitTimestamp, Channel c) {
+            addCommit(startTimestamp, commitTimestamp, 0, c);
+        }
+
+        void addCommit(long startTimestamp, long commitTimestamp, int partition, Channel c) {
             if (isFull()) {
                 throw new IllegalStateException("batch full");
             }
             int index = numEvents++;
             PersistEvent e = events[index];
             PersistEvent.makePersistCommit(e, startTimestamp, commitTimestamp, c);
+            partitionCommits[partition][partitionSizes[partition]++] = index;
         }
 
         void addUndecidedRetriedRequest(long startTimestamp, Channel c) {
@@ -275,6 +556,26 @@ class PersistenceProcessorImpl
             PersistEvent.makePersistTimestamp(e, startTimestamp, c);
         }
 
+        void addTimestampRange(long firstTimestamp, int count, Channel c) {
+            if (isFull()) {
+                throw new IllegalStateException("batch full");
+            }
+            int index = numEvents++;
+            PersistEvent e = events[index];
+            PersistEvent.makePersistTimestampRange(e, firstTimestamp, count, c);
+        }
+
+        /**
+         * Adds the commits of the partition
+         */
+        void addCommittedTransactions(CommitTable.Writer writer, int partition) throws IOException {
+            int[] commits = partitionCommits[partition];
+            for (int i = 0; i < partitionSizes[partition]; i++) {
+                PersistEvent e = events[commits[i]];
+                writer.addCommittedTransaction(e.getStartTimestamp(), e.getCommitTimestamp());
+            }
+        }
+
         void sendRepliesAndReset(ReplyProcessor reply, RetryProcessor retryProc) {
             for (int i = 0; i < numEvents; i++) {
                 PersistEvent e = events[i];
@@ -282,7 +583,11 @@ class PersistenceProcessorImpl
                 case TIMESTAMP:
                     reply.timestampResponse(e.getStartTimestamp(), e.getChannel());
                     break;
+                case TIMESTAMP_RANGE:
+                    reply.timestampRangeResponse(e.getStartTimestamp(), e.getCount(), e.getChannel());
+                    break;
                 case COMMIT:
+                    retryProc.commitPersisted(e.getStartTimestamp(), e.getCommitTimestamp());
                     reply.commitResponse(e.getStartTimestamp(), e.getCommitTimestamp(), e.getChannel());
                     break;
                 case ABORT:
@@ -299,13 +604,99 @@ class PersistenceProcessorImpl
                 }
             }
             numEvents = 0;
+            Arrays.fill(partitionSizes, 0);
+        }
+
+    }
+
+    /**
+     * Timestamp replies waiting for the commits received before them to be
+     * durable. Timestamps are added by the persist thread in order, along
+     * with the number of commits received so far, and released by the flush
+     * thread as soon as that many commits have been flushed. If there's
+     * nothing pending, they're replied right away.
+     */
+    final static class PendingTimestamps {
+        final ReplyProcessor reply;
+
+        // Circular buffers, grown as needed
+        long[] timestamps = new long[1024];
+        int[] counts = new int[1024]; // 0 for a single timestamp
+        Channel[] channels = new Channel[1024];
+        long[] commitsRequired = new long[1024];
+        int head = 0;
+        int size = 0;
+
+        long commitsDurable = 0;
+
+        PendingTimestamps(ReplyProcessor reply) {
+            this.reply = reply;
+        }
+
+        synchronized void add(long timestamp, int count, Channel c, long commitsBefore) {
+            if (commitsBefore <= commitsDurable) {
+                // Nothing else can be pending, as it would need fewer commits
+                sendReply(timestamp, count, c);
+                return;
+            }
+            if (size == timestamps.length) {
+                grow();
+            }
+            int i = (head + size) % timestamps.length;
+            timestamps[i] = timestamp;
+            counts[i] = count;
+            channels[i] = c;
+            commitsRequired[i] = commitsBefore;
+            size++;
+        }
+
+        synchronized void commitsDurable(long commits) {
+            commitsDurable = commits;
+            while (size > 0 && commitsRequired[head] <= commitsDurable) {
+                sendReply(timestamps[head], counts[head], channels[head]);
+                channels[head] = null;
+                head = (head + 1) % timestamps.length;
+                size--;
+            }
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        private void sendReply(long timestamp, int count, Channel c) {
+            if (count == 0) {
+                reply.timestampResponse(timestamp, c);
+            } else {
+                reply.timestampRangeResponse(timestamp, count, c);
+            }
+        }
+
+        private void grow() {
+            int capacity = timestamps.length * 2;
+            long[] newTimestamps = new long[capacity];
+            int[] newCounts = new int[capacity];
+            Channel[] newChannels = new Channel[capacity];
+            long[] newCommitsRequired = new long[capacity];
+            for (int j = 0; j < size; j++) {
+                int i = (head + j) % timestamps.length;
+                newTimestamps[j] = timestamps[i];
+                newCounts[j] = counts[i];
+                newChannels[j] = channels[i];
+                newCommitsRequired[j] = commitsRequired[i];
+            }
+            timestamps = newTimestamps;
+            counts = newCounts;
+            channels = newChannels;
+            commitsRequired = newCommitsRequired;
+            head = 0;
         }
 
     }
 
     public final static class PersistEvent {
         enum Type {
-            TIMESTAMP, COMMIT, ABORT, LOW_WATERMARK
+            TIMESTAMP, TIMESTAMP_RANGE, COMMIT, ABORT, LOW_WATERMARK
         }
         private Type type = null;
         private Channel channel = null;
@@ -314,6 +705,7 @@ class PersistenceProcessorImpl
         private long startTimestamp = 0;
         private long commitTimestamp = 0;
         private long lowWatermark;
+        private int count;
 
         static void makePersistCommit(PersistEvent e, long startTimestamp,
                                       long commitTimestamp, Channel c) {
@@ -337,6 +729,13 @@ class PersistenceProcessorImpl
             e.channel = c;
         }
 
+        static void makePersistTimestampRange(PersistEvent e, long firstTimestamp, int count, Channel c) {
+            e.type = Type.TIMESTAMP_RANGE;
+            e.startTimestamp = firstTimestamp;
+            e.count = count;
+            e.channel = c;
+        }
+
         static void makePersistLowWatermark(PersistEvent e, long lowWatermark) {
             e.type = Type.LOW_WATERMARK;
             e.lowWatermark = lowWatermark;
@@ -348,6 +747,7 @@ class PersistenceProcessorImpl
         long getStartTimestamp() { return startTimestamp; }
         long getCommitTimestamp() { return commitTimestamp; }
         long getLowWatermark() { return lowWatermark; }
+        int getCount() { return count; }
 
         public final static EventFactory<PersistEvent> EVENT_FACTORY
             = new EventFactory<PersistEvent>() {
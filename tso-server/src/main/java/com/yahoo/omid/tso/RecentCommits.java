@@ -0,0 +1,79 @@
+/**
+ * Copyright 2011-2015 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.omid.tso;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded index of the last commits persisted, from start timestamp to
+ * commit timestamp, so retried commits can be answered without reading the
+ * commit table.
+ *
+ * Each start timestamp maps to a single slot, so a new commit evicts the one
+ * in its slot. A miss only means the commit is not recent. There's a single
+ * writer and any number of readers. The writer invalidates a slot before
+ * changing its commit timestamp, and readers check the start timestamp
+ * around reading the commit timestamp, so they never get a torn entry.
+ */
+class RecentCommits {
+
+    private static final long EMPTY = -1;
+
+    private final AtomicLongArray startTimestamps;
+    private final AtomicLongArray commitTimestamps;
+    private final int mask;
+
+    RecentCommits(int size) {
+        if (size <= 0 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Number of recent commits must be a power of 2: " + size);
+        }
+        startTimestamps = new AtomicLongArray(size);
+        commitTimestamps = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            startTimestamps.set(i, EMPTY);
+        }
+        mask = size - 1;
+    }
+
+    private int slotOf(long startTimestamp) {
+        long h = startTimestamp * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    void add(long startTimestamp, long commitTimestamp) {
+        int slot = slotOf(startTimestamp);
+        startTimestamps.set(slot, EMPTY);
+        commitTimestamps.set(slot, commitTimestamp);
+        startTimestamps.set(slot, startTimestamp);
+    }
+
+    /**
+     * Returns the commit timestamp of the transaction, or -1 if it's not
+     * among the recent commits
+     */
+    long get(long startTimestamp) {
+        int slot = slotOf(startTimestamp);
+        if (startTimestamps.get(slot) != startTimestamp) {
+            return -1;
+        }
+        long commitTimestamp = commitTimestamps.get(slot);
+        if (startTimestamps.get(slot) != startTimestamp) {
+            return -1;
+        }
+        return commitTimestamp;
+    }
+
+}
@@ -21,6 +21,21 @@ interface ReplyProcessor
 {
     void commitResponse(long startTimestamp, long commitTimestamp, Channel c);
     void abortResponse(long startTimestamp, Channel c);
+
+    /**
+     * Answers a transaction with an empty write set. It's committed at its
+     * start timestamp, as it can't conflict with anybody and there is nothing
+     * to persist. Clients that commit them locally shouldn't send them, so
+     * when reject is set it's aborted instead
+     */
+    void emptyCommitResponse(long startTimestamp, boolean reject, Channel c);
+
+    /**
+     * Like emptyCommitResponse, but it doesn't wait for room in the ring
+     * when it's full. It returns false instead, and nothing is replied.
+     */
+    boolean tryEmptyCommitResponse(long startTimestamp, boolean reject, Channel c);
     void timestampResponse(long startTimestamp, Channel c);
+    void timestampRangeResponse(long firstTimestamp, int count, Channel c);
 }
 
@@ -15,6 +15,8 @@
  */
 package com.yahoo.omid.tso;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ExecutorService;
 
@@ -22,9 +24,10 @@ import javax.inject.Inject;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
 import org.jboss.netty.channel.Channel;
 
-import com.yahoo.omid.proto.TSOProto;
 import com.lmax.disruptor.*;
 import com.yahoo.omid.metrics.MetricsRegistry;
 
@@ -39,21 +42,39 @@ class ReplyProcessorImpl implements EventHandler<ReplyProcessorImpl.ReplyEvent>,
 {
     private static final Logger LOG = LoggerFactory.getLogger(ReplyProcessorImpl.class);
 
+    static final DisruptorRings.WaitStrategyType DEFAULT_REPLY_WAIT_STRATEGY = DisruptorRings.WaitStrategyType.BUSY_SPIN;
+    static final String TSO_REPLY_WAIT_STRATEGY_KEY = "tso.reply.waitstrategy";
+    static final int DEFAULT_REPLY_RING_SIZE = 1<<12;
+    static final String TSO_REPLY_RING_SIZE_KEY = "tso.reply.ringsize";
+
+    // Initial size of the buffer for the responses to a channel
+    static final int COALESCED_BUFFER_SIZE = 512;
+
     final RingBuffer<ReplyEvent> replyRing;
+
+    // Responses to each channel in the current batch of events, framed and
+    // coalesced so each channel gets a single write per batch
+    final Map<Channel, PendingResponses> pendingResponses = new HashMap<>();
+
     final Meter abortMeter;
     final Meter commitMeter;
+    final Meter emptyCommitMeter;
+    final Meter rejectedEmptyCommitMeter;
     final Meter timestampMeter;
+    final Meter coalescedWritesMeter;
 
     @Inject
-    ReplyProcessorImpl(MetricsRegistry metrics, Panicker panicker) {
-        replyRing = RingBuffer.<ReplyEvent>createMultiProducer(ReplyEvent.EVENT_FACTORY, 1<<12,
-                                                               new BusySpinWaitStrategy());
+    ReplyProcessorImpl(MetricsRegistry metrics, Panicker panicker, TSOServerConfig config) {
+        replyRing = RingBuffer.<ReplyEvent>createMultiProducer(ReplyEvent.EVENT_FACTORY,
+                DisruptorRings.checkRingSize("reply", config.getReplyRingSize()),
+                DisruptorRings.waitStrategy(config.getReplyWaitStrategy()));
         SequenceBarrier replySequenceBarrier = replyRing.newBarrier();
         BatchEventProcessor<ReplyEvent> replyProcessor = new BatchEventProcessor<ReplyEvent>(
                 replyRing, replySequenceBarrier, this);
         replyProcessor.setExceptionHandler(new FatalExceptionHandler(panicker));
 
         replyRing.addGatingSequences(replyProcessor.getSequence());
+        DisruptorRings.registerMetrics(metrics, "reply", replyRing, replyProcessor.getSequence());
 
         ExecutorService replyExec = Executors.newSingleThreadExecutor(
                 new ThreadFactoryBuilder().setNameFormat("reply-%d").build());
@@ -61,7 +82,10 @@ class ReplyProcessorImpl implements EventHandler<ReplyProcessorImpl.ReplyEvent>,
 
         abortMeter = metrics.meter(name("tso", "aborts"));
         commitMeter = metrics.meter(name("tso", "commits"));
+        emptyCommitMeter = metrics.meter(name("tso", "emptyCommits"));
+        rejectedEmptyCommitMeter = metrics.meter(name("tso", "rejectedEmptyCommits"));
         timestampMeter = metrics.meter(name("tso", "timestampAllocation"));
+        coalescedWritesMeter = metrics.meter(name("tso", "reply", "coalescedWrites"));
     }
 
     public void onEvent(final ReplyEvent event, final long sequence, final boolean endOfBatch)
@@ -77,10 +101,49 @@ class ReplyProcessorImpl implements EventHandler<ReplyProcessorImpl.ReplyEvent>,
         case TIMESTAMP:
             handleTimestampResponse(event.getStartTimestamp(), event.getChannel());
             break;
+        case TIMESTAMP_RANGE:
+            handleTimestampRangeResponse(event.getStartTimestamp(), event.getCount(), event.getChannel());
+            break;
         default:
             LOG.error("Unknown event {}", event.getType());
             break;
         }
+
+        if (endOfBatch) {
+            flushPendingResponses();
+        }
+    }
+
+    /**
+     * Returns the buffer where the next response to the channel is appended
+     */
+    private ChannelBuffer bufferFor(Channel c) {
+        PendingResponses pending = pendingResponses.get(c);
+        if (pending == null) {
+            pending = new PendingResponses(
+                    ChannelBuffers.dynamicBuffer(COALESCED_BUFFER_SIZE, c.getConfig().getBufferFactory()));
+            pendingResponses.put(c, pending);
+        }
+        pending.count++;
+        return pending.buf;
+    }
+
+    private void flushPendingResponses() {
+        for (Map.Entry<Channel, PendingResponses> entry : pendingResponses.entrySet()) {
+            InFlightRequests.release(entry.getKey(), entry.getValue().count);
+            entry.getKey().write(entry.getValue().buf);
+            coalescedWritesMeter.mark();
+        }
+        pendingResponses.clear();
+    }
+
+    private static class PendingResponses {
+        final ChannelBuffer buf;
+        int count = 0;
+
+        PendingResponses(ChannelBuffer buf) {
+            this.buf = buf;
+        }
     }
 
     @Override
@@ -91,6 +154,36 @@ class ReplyProcessorImpl implements EventHandler<ReplyProcessorImpl.ReplyEvent>,
         replyRing.publish(seq);
     }
 
+    @Override
+    public void emptyCommitResponse(long startTimestamp, boolean reject, Channel c) {
+        long seq = replyRing.next();
+        makeEmptyCommitResponse(replyRing.get(seq), startTimestamp, reject, c);
+        replyRing.publish(seq);
+    }
+
+    @Override
+    public boolean tryEmptyCommitResponse(long startTimestamp, boolean reject, Channel c) {
+        long seq;
+        try {
+            seq = replyRing.tryNext();
+        } catch (InsufficientCapacityException e) {
+            return false;
+        }
+        makeEmptyCommitResponse(replyRing.get(seq), startTimestamp, reject, c);
+        replyRing.publish(seq);
+        return true;
+    }
+
+    private void makeEmptyCommitResponse(ReplyEvent e, long startTimestamp, boolean reject, Channel c) {
+        if (reject) {
+            rejectedEmptyCommitMeter.mark();
+            ReplyEvent.makeAbortResponse(e, startTimestamp, c);
+        } else {
+            emptyCommitMeter.mark();
+            ReplyEvent.makeCommitResponse(e, startTimestamp, startTimestamp, c);
+        }
+    }
+
     @Override
     public void abortResponse(long startTimestamp, Channel c) {
         long seq = replyRing.next();
@@ -107,53 +200,50 @@ class ReplyProcessorImpl implements EventHandler<ReplyProcessorImpl.ReplyEvent>,
         replyRing.publish(seq);
     }
 
-    void handleCommitResponse(long startTimestamp, long commitTimestamp, Channel c) {
-        TSOProto.Response.Builder builder = TSOProto.Response.newBuilder();
-        TSOProto.CommitResponse.Builder commitBuilder = TSOProto.CommitResponse.newBuilder();
-        commitBuilder.setAborted(false)
-            .setStartTimestamp(startTimestamp)
-            .setCommitTimestamp(commitTimestamp);
-        builder.setCommitResponse(commitBuilder.build());
-        c.write(builder.build());
+    @Override
+    public void timestampRangeResponse(long firstTimestamp, int count, Channel c) {
+        long seq = replyRing.next();
+        ReplyEvent e = replyRing.get(seq);
+        ReplyEvent.makeTimestampRangeResponse(e, firstTimestamp, count, c);
+        replyRing.publish(seq);
+    }
 
+    void handleCommitResponse(long startTimestamp, long commitTimestamp, Channel c) {
+        TSOResponseEncoder.appendCommitResponse(bufferFor(c), startTimestamp, commitTimestamp);
         commitMeter.mark();
     }
 
     void handleAbortResponse(long startTimestamp, Channel c) {
-        TSOProto.Response.Builder builder = TSOProto.Response.newBuilder();
-        TSOProto.CommitResponse.Builder commitBuilder = TSOProto.CommitResponse.newBuilder();
-        commitBuilder.setAborted(true)
-            .setStartTimestamp(startTimestamp);
-        builder.setCommitResponse(commitBuilder.build());
-        c.write(builder.build());
-
+        TSOResponseEncoder.appendAbortResponse(bufferFor(c), startTimestamp);
         abortMeter.mark();
     }
 
     void handleTimestampResponse(long startTimestamp, Channel c) {
-        TSOProto.Response.Builder builder = TSOProto.Response.newBuilder();
-        TSOProto.TimestampResponse.Builder respBuilder = TSOProto.TimestampResponse.newBuilder();
-        respBuilder.setStartTimestamp(startTimestamp);
-        builder.setTimestampResponse(respBuilder.build());
-        c.write(builder.build());
-
+        TSOResponseEncoder.appendTimestampResponse(bufferFor(c), startTimestamp);
         timestampMeter.mark();
     }
 
+    void handleTimestampRangeResponse(long firstTimestamp, int count, Channel c) {
+        TSOResponseEncoder.appendTimestampRangeResponse(bufferFor(c), firstTimestamp, count);
+        timestampMeter.mark(count);
+    }
+
     public final static class ReplyEvent {
         enum Type {
-            TIMESTAMP, COMMIT, ABORT
+            TIMESTAMP, TIMESTAMP_RANGE, COMMIT, ABORT
         }
         private Type type = null;
         private Channel channel = null;
 
         private long startTimestamp = 0;
         private long commitTimestamp = 0;
-        
+        private int count = 0;
+
         Type getType() { return type; }
         Channel getChannel() { return channel; }
         long getStartTimestamp() { return startTimestamp; }
         long getCommitTimestamp() { return commitTimestamp; }
+        int getCount() { return count; }
 
         static void makeTimestampReponse(ReplyEvent e, long startTimestamp, Channel c) {
             e.type = Type.TIMESTAMP;
@@ -161,6 +251,13 @@ class ReplyProcessorImpl implements EventHandler<ReplyProcessorImpl.ReplyEvent>,
             e.channel = c;
         }
 
+        static void makeTimestampRangeResponse(ReplyEvent e, long firstTimestamp, int count, Channel c) {
+            e.type = Type.TIMESTAMP_RANGE;
+            e.startTimestamp = firstTimestamp;
+            e.count = count;
+            e.channel = c;
+        }
+
         static void makeCommitResponse(ReplyEvent e, long startTimestamp, long commitTimestamp, Channel c) {
             e.type = Type.COMMIT;
             e.startTimestamp = startTimestamp;
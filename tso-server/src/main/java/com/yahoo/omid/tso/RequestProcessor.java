@@ -16,12 +16,44 @@
 package com.yahoo.omid.tso;
 
 import org.jboss.netty.channel.Channel;
-import java.util.Collection;
 
 interface RequestProcessor {
 
     void timestampRequest(Channel c);
 
-    void commitRequest(long startTimestamp, Collection<Long> writeSet, boolean isRetry, Channel c);
+    /**
+     * Requests count consecutive timestamps, to be leased by the client
+     */
+    void timestampRangeRequest(int count, Channel c);
+
+    /**
+     * The first numCells positions of cellIds contain the write set. The
+     * array is copied before returning, so the caller can reuse it.
+     */
+    void commitRequest(long startTimestamp, long[] cellIds, int numCells, boolean isRetry, Channel c);
+
+    /**
+     * Passes the requests of a batch to the processor with a single claim
+     * of its ring. They can only be timestamp, timestamp range or non-empty
+     * commit requests. The holders are copied before returning.
+     */
+    void requestBatch(TSORequestDecoder.RequestBatch batch, Channel c);
+
+    /**
+     * The try methods pass the requests like the ones above, but they don't
+     * wait for room in the ring when it's full. They return false instead,
+     * and the request is not processed.
+     */
+    boolean tryTimestampRequest(Channel c);
+
+    boolean tryTimestampRangeRequest(int count, Channel c);
+
+    boolean tryCommitRequest(long startTimestamp, long[] cellIds, int numCells, boolean isRetry, Channel c);
+
+    /**
+     * Passes up to the first n requests of the batch. Returns the number of
+     * requests passed, which are the first ones. The rest are not processed.
+     */
+    int tryRequestBatch(TSORequestDecoder.RequestBatch batch, int n, Channel c);
 
 }
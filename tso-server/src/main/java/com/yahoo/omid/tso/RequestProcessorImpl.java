@@ -16,10 +16,10 @@
 package com.yahoo.omid.tso;
 
 import java.io.IOException;
-import java.util.Collection;
-import java.util.Iterator;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 import javax.inject.Inject;
 
@@ -29,13 +29,40 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.lmax.disruptor.BatchEventProcessor;
-import com.lmax.disruptor.BusySpinWaitStrategy;
 import com.lmax.disruptor.EventFactory;
 import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.InsufficientCapacityException;
 import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.Sequence;
 import com.lmax.disruptor.SequenceBarrier;
 import com.yahoo.omid.metrics.MetricsRegistry;
 
+/**
+ * Assigns timestamps and detects write-write conflicts for the requests
+ * received by the TSO.
+ *
+ * By default, a single "request" thread does the whole job against one
+ * {@link CommitHashMap}. When configured with more than one conflict detection
+ * shard, the cell ids are partitioned by hash across N commit hash maps, each
+ * one owned by its own thread, and the work for each request is split in three
+ * stages that run on the request ring:
+ *
+ * 1) the sequencer assigns the timestamps in ring order. Commit requests get a
+ *    tentative commit timestamp, which is wasted if the transaction aborts.
+ * 2) each shard checks the cells of the write set that hash to it and casts its
+ *    vote. Shards involved in a write set wait for the votes of the others
+ *    before applying (or not) the new commit timestamp to their cells.
+ * 3) the coordinator collects the final decision and forwards it, in ring
+ *    order, to the persistence processor.
+ *
+ * With a single shard, the requests can also be processed in batches: all the
+ * requests available in the ring are gathered, their timestamps are allocated
+ * from the oracle at once, their write sets are checked in ring order, each
+ * one sorted by the location of its cells in the {@link CommitHashMap}, and
+ * the results are passed to the persistence processor in a single claim of
+ * its ring. As in the sharded mode, commit requests get a tentative commit
+ * timestamp which is wasted if the transaction aborts.
+ */
 public class RequestProcessorImpl
     implements EventHandler<RequestProcessorImpl.RequestEvent>, RequestProcessor
 {
@@ -43,12 +70,33 @@ public class RequestProcessorImpl
 
     static final int DEFAULT_MAX_ITEMS = 1000000;
     public static final String TSO_MAX_ITEMS_KEY = "tso.maxitems";
+    static final int DEFAULT_CONFLICT_DETECTION_SHARDS = 1;
+    public static final String TSO_CONFLICT_DETECTION_SHARDS_KEY = "tso.conflictdetectionshards";
+    static final Cache.Type DEFAULT_CACHE_TYPE = Cache.Type.HEAP;
+    public static final String TSO_CACHE_TYPE_KEY = "tso.cachetype";
+    static final int DEFAULT_LOW_WATERMARK_SEGMENTS = 64;
+    public static final String TSO_LOW_WATERMARK_SEGMENTS_KEY = "tso.lowwatermarksegments";
+    static final int DEFAULT_HOT_CELLS_TOP_K = 32;
+    public static final String TSO_HOT_CELLS_TOP_K_KEY = "tso.hotcellstopk";
+    static final boolean DEFAULT_REQUEST_BATCHING = false;
+    public static final String TSO_REQUEST_BATCHING_KEY = "tso.requestbatching";
+    static final int MAX_CONFLICT_DETECTION_SHARDS = 64; // Limited by the bits in RequestEvent.shardMask
+    static final DisruptorRings.WaitStrategyType DEFAULT_REQUEST_WAIT_STRATEGY = DisruptorRings.WaitStrategyType.BUSY_SPIN;
+    public static final String TSO_REQUEST_WAIT_STRATEGY_KEY = "tso.request.waitstrategy";
+    static final int DEFAULT_REQUEST_RING_SIZE = 1<<12;
+    public static final String TSO_REQUEST_RING_SIZE_KEY = "tso.request.ringsize";
 
     private final TimestampOracle timestampOracle;
-    public final CommitHashMap hashmap;
+    private final CommitHashMap[] hashmaps;
+    private final HotCells hotCells; // null if disabled
     private final PersistenceProcessor persistProc;
     private final RingBuffer<RequestEvent> requestRing;
     private long lowWatermark;
+    private long persistedLowWatermark;
+
+    // Requests gathered in batching mode, null otherwise
+    private final RequestEvent[] batch;
+    private int batchSize = 0;
 
     @Inject
     RequestProcessorImpl(MetricsRegistry metrics,
@@ -62,53 +110,256 @@ public class RequestProcessorImpl
         this.timestampOracle = timestampOracle;
         this.lowWatermark = timestampOracle.getLast();
         persistProc.persistLowWatermark(lowWatermark);
+        this.persistedLowWatermark = lowWatermark;
+
+        int numShards = config.getConflictDetectionShards();
+        if (numShards < 1 || numShards > MAX_CONFLICT_DETECTION_SHARDS) {
+            throw new IllegalArgumentException("Illegal number of conflict detection shards: " + numShards);
+        }
+        this.hashmaps = new CommitHashMap[numShards];
+        for (int i = 0; i < numShards; i++) {
+            hashmaps[i] = new CommitHashMap(config.getMaxItems() / numShards,
+                                            config.getCacheType(),
+                                            config.getLowWatermarkSegments(),
+                                            lowWatermark);
+        }
+
+        if (config.getHotCellsTopK() > 0) {
+            hotCells = new HotCells(numShards, config.getHotCellsTopK(), metrics);
+            for (int i = 0; i < numShards; i++) {
+                hashmaps[i].trackLowWatermarkRaisers(hotCells.getLowWatermarkRaisers(i));
+            }
+        } else {
+            hotCells = null;
+        }
 
-        this.hashmap = new CommitHashMap(config.getMaxItems(), lowWatermark);
-
-        // Set up the disruptor thread
-        requestRing = RingBuffer.<RequestEvent>createMultiProducer(RequestEvent.EVENT_FACTORY, 1<<12,
-                                                                   new BusySpinWaitStrategy());
-        SequenceBarrier requestSequenceBarrier = requestRing.newBarrier();
-        BatchEventProcessor<RequestEvent> requestProcessor =
-                new BatchEventProcessor<RequestEvent>(requestRing,
-                                                      requestSequenceBarrier,
-                                                      this);
-        requestRing.addGatingSequences(requestProcessor.getSequence());
-        requestProcessor.setExceptionHandler(new FatalExceptionHandler(panicker));
-
-        ExecutorService requestExec = Executors.newSingleThreadExecutor(
-                new ThreadFactoryBuilder().setNameFormat("request-%d").build());
-        // Each processor runs on a separate thread
-        requestExec.submit(requestProcessor);
+        // Set up the disruptor thread(s)
+        requestRing = RingBuffer.<RequestEvent>createMultiProducer(RequestEvent.EVENT_FACTORY,
+                DisruptorRings.checkRingSize("request", config.getRequestRingSize()),
+                DisruptorRings.waitStrategy(config.getRequestWaitStrategy()));
+        FatalExceptionHandler exceptionHandler = new FatalExceptionHandler(panicker);
+        if (numShards == 1 && config.isRequestBatching()) {
+            LOG.info("Processing requests in batches");
+            batch = new RequestEvent[requestRing.getBufferSize()];
+        } else {
+            batch = null;
+        }
+        if (numShards == 1) {
+            SequenceBarrier requestSequenceBarrier = requestRing.newBarrier();
+            BatchEventProcessor<RequestEvent> requestProcessor =
+                    new BatchEventProcessor<RequestEvent>(requestRing,
+                                                          requestSequenceBarrier,
+                                                          this);
+            requestRing.addGatingSequences(requestProcessor.getSequence());
+            requestProcessor.setExceptionHandler(exceptionHandler);
+            DisruptorRings.registerMetrics(metrics, "request", requestRing, requestProcessor.getSequence());
+
+            ExecutorService requestExec = Executors.newSingleThreadExecutor(
+                    new ThreadFactoryBuilder().setNameFormat("request-%d").build());
+            // Each processor runs on a separate thread
+            requestExec.submit(requestProcessor);
+        } else {
+            LOG.info("Partitioning conflict detection in {} shards", numShards);
+
+            BatchEventProcessor<RequestEvent> sequencer =
+                    new BatchEventProcessor<RequestEvent>(requestRing,
+                                                          requestRing.newBarrier(),
+                                                          new Sequencer());
+            sequencer.setExceptionHandler(exceptionHandler);
+            DisruptorRings.registerMetrics(metrics, "request", requestRing, sequencer.getSequence());
+
+            SequenceBarrier shardsBarrier = requestRing.newBarrier(sequencer.getSequence());
+            Sequence[] shardSequences = new Sequence[numShards];
+            @SuppressWarnings("unchecked")
+            BatchEventProcessor<RequestEvent>[] shards = new BatchEventProcessor[numShards];
+            for (int i = 0; i < numShards; i++) {
+                shards[i] = new BatchEventProcessor<RequestEvent>(requestRing,
+                                                                  shardsBarrier,
+                                                                  new ConflictDetectionShard(i));
+                shards[i].setExceptionHandler(exceptionHandler);
+                shardSequences[i] = shards[i].getSequence();
+            }
+
+            BatchEventProcessor<RequestEvent> coordinator =
+                    new BatchEventProcessor<RequestEvent>(requestRing,
+                                                          requestRing.newBarrier(shardSequences),
+                                                          new Coordinator());
+            coordinator.setExceptionHandler(exceptionHandler);
+            requestRing.addGatingSequences(coordinator.getSequence());
+
+            Executors.newSingleThreadExecutor(
+                    new ThreadFactoryBuilder().setNameFormat("request-%d").build()).submit(sequencer);
+            ExecutorService shardsExec = Executors.newFixedThreadPool(numShards,
+                    new ThreadFactoryBuilder().setNameFormat("request-shard-%d").build());
+            for (BatchEventProcessor<RequestEvent> shard : shards) {
+                shardsExec.submit(shard);
+            }
+            Executors.newSingleThreadExecutor(
+                    new ThreadFactoryBuilder().setNameFormat("request-coordinator-%d").build()).submit(coordinator);
+        }
     }
 
     @Override
     public void onEvent(final RequestEvent event, final long sequence, final boolean endOfBatch)
         throws Exception
     {
+        if (batch != null) {
+            // The events are not released to the producers until endOfBatch
+            batch[batchSize++] = event;
+            if (endOfBatch || batchSize == batch.length) {
+                handleBatch();
+                batchSize = 0;
+                maybePersistLowWatermark();
+            }
+            return;
+        }
         if (event.getType() == RequestEvent.Type.TIMESTAMP) {
             handleTimestamp(event.getChannel());
+        } else if (event.getType() == RequestEvent.Type.TIMESTAMP_RANGE) {
+            handleTimestampRange(event.getCount(), event.getChannel());
         } else if (event.getType() == RequestEvent.Type.COMMIT) {
-            handleCommit(event.getStartTimestamp(), event.writeSet(), event.isRetry(), event.getChannel());
+            handleCommit(event.getStartTimestamp(), event.getCellIds(), event.getNumCells(), event.isRetry(),
+                         event.getChannel());
+        }
+        if (endOfBatch) {
+            maybePersistLowWatermark();
+        }
+    }
+
+    /**
+     * The low watermark changes are coalesced, so it's only passed to the
+     * persistence processor once per batch of requests, if it has changed
+     */
+    private void maybePersistLowWatermark() {
+        if (lowWatermark > persistedLowWatermark) {
+            LOG.trace("Persisting new low Watermark {}", lowWatermark);
+            persistProc.persistLowWatermark(lowWatermark);
+            persistedLowWatermark = lowWatermark;
         }
     }
 
     @Override
     public void timestampRequest(Channel c) {
-        long seq = requestRing.next();
+        publishTimestampRequest(requestRing.next(), c);
+    }
+
+    @Override
+    public void timestampRangeRequest(int count, Channel c) {
+        publishTimestampRangeRequest(requestRing.next(), count, c);
+    }
+
+    @Override
+    public void commitRequest(long startTimestamp, long[] cellIds, int numCells, boolean isRetry, Channel c) {
+        publishCommitRequest(requestRing.next(), startTimestamp, cellIds, numCells, isRetry, c);
+    }
+
+    @Override
+    public void requestBatch(TSORequestDecoder.RequestBatch batch, Channel c) {
+        // Batches larger than the ring are passed in several claims
+        int maxClaim = requestRing.getBufferSize();
+        for (int from = 0; from < batch.size(); from += maxClaim) {
+            int n = Math.min(maxClaim, batch.size() - from);
+            publishRequests(batch, from, n, requestRing.next(n), c);
+        }
+    }
+
+    @Override
+    public boolean tryTimestampRequest(Channel c) {
+        try {
+            publishTimestampRequest(requestRing.tryNext(), c);
+            return true;
+        } catch (InsufficientCapacityException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean tryTimestampRangeRequest(int count, Channel c) {
+        try {
+            publishTimestampRangeRequest(requestRing.tryNext(), count, c);
+            return true;
+        } catch (InsufficientCapacityException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean tryCommitRequest(long startTimestamp, long[] cellIds, int numCells, boolean isRetry, Channel c) {
+        try {
+            publishCommitRequest(requestRing.tryNext(), startTimestamp, cellIds, numCells, isRetry, c);
+            return true;
+        } catch (InsufficientCapacityException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public int tryRequestBatch(TSORequestDecoder.RequestBatch batch, int size, Channel c) {
+        int from = 0;
+        while (from < size) {
+            // As many as fit in the ring, without waiting
+            int n = (int) Math.min(size - from, requestRing.remainingCapacity());
+            if (n == 0) {
+                break;
+            }
+            long hi;
+            try {
+                hi = requestRing.tryNext(n);
+            } catch (InsufficientCapacityException e) {
+                break; // Taken by other producers meanwhile
+            }
+            publishRequests(batch, from, n, hi, c);
+            from += n;
+        }
+        return from;
+    }
+
+    private void publishTimestampRequest(long seq, Channel c) {
         RequestEvent e = requestRing.get(seq);
         RequestEvent.makeTimestampRequest(e, c);
         requestRing.publish(seq);
     }
 
-    @Override
-    public void commitRequest(long startTimestamp, Collection<Long> writeSet, boolean isRetry, Channel c) {
-        long seq = requestRing.next();
+    private void publishTimestampRangeRequest(long seq, int count, Channel c) {
+        count = Math.max(1, Math.min(count, TimestampOracleImpl.MAX_TIMESTAMP_RANGE));
         RequestEvent e = requestRing.get(seq);
-        RequestEvent.makeCommitRequest(e, startTimestamp, writeSet, isRetry, c);
+        RequestEvent.makeTimestampRangeRequest(e, count, c);
         requestRing.publish(seq);
     }
 
+    private void publishCommitRequest(long seq,
+                                      long startTimestamp, long[] cellIds, int numCells, boolean isRetry, Channel c) {
+        RequestEvent e = requestRing.get(seq);
+        RequestEvent.makeCommitRequest(e, startTimestamp, cellIds, numCells, isRetry, c, hashmaps.length);
+        requestRing.publish(seq);
+    }
+
+    /**
+     * Fills the n slots claimed up to hi with the requests starting at from
+     */
+    private void publishRequests(TSORequestDecoder.RequestBatch batch, int from, int n, long hi, Channel c) {
+        long lo = hi - n + 1;
+        try {
+            for (int i = 0; i < n; i++) {
+                RequestEvent e = requestRing.get(lo + i);
+                Object request = batch.get(from + i);
+                if (request instanceof TSORequestDecoder.CommitRequest) {
+                    TSORequestDecoder.CommitRequest cr = (TSORequestDecoder.CommitRequest) request;
+                    RequestEvent.makeCommitRequest(e, cr.getStartTimestamp(), cr.getCellIds(), cr.getNumCells(),
+                                                   cr.isRetry(), c, hashmaps.length);
+                } else if (((TSORequestDecoder.TimestampRequest) request).isRange()) {
+                    int count = Math.max(1, Math.min(((TSORequestDecoder.TimestampRequest) request).getCount(),
+                                                     TimestampOracleImpl.MAX_TIMESTAMP_RANGE));
+                    RequestEvent.makeTimestampRangeRequest(e, count, c);
+                } else {
+                    RequestEvent.makeTimestampRequest(e, c);
+                }
+            }
+        } finally {
+            requestRing.publish(lo, hi);
+        }
+    }
+
     public void handleTimestamp(Channel c) {
         long timestamp;
 
@@ -116,65 +367,339 @@ public class RequestProcessorImpl
             timestamp = timestampOracle.next();
         } catch (IOException e) {
             LOG.error("Error getting timestamp", e);
+            InFlightRequests.release(c, 1);
             return;
         }
 
         persistProc.persistTimestamp(timestamp, c);
     }
 
-    public long handleCommit(long startTimestamp, Iterable<Long> writeSet, boolean isRetry, Channel c) {
-        boolean committed = false;
+    public void handleTimestampRange(int count, Channel c) {
+        long firstTimestamp;
+
+        try {
+            firstTimestamp = timestampOracle.next(count);
+        } catch (IOException e) {
+            LOG.error("Error getting timestamp range", e);
+            InFlightRequests.release(c, 1);
+            return;
+        }
+
+        persistProc.persistTimestampRange(firstTimestamp, count, c);
+    }
+
+    public long handleCommit(long startTimestamp, long[] cellIds, int numCells, boolean isRetry, Channel c) {
         long commitTimestamp = 0L;
 
-        int numCellsInWriteset = 0;
+        if (isConflictFree(startTimestamp, cellIds, numCells)) {
+            try {
+                commitTimestamp = timestampOracle.next();
+                applyCommit(cellIds, numCells, commitTimestamp);
+                persistProc.persistCommit(startTimestamp, commitTimestamp, c);
+            } catch (IOException e) {
+                LOG.error("Error committing", e);
+                persistProc.persistAbort(startTimestamp, isRetry, c);
+            }
+        } else { // add it to the aborted list
+            persistProc.persistAbort(startTimestamp, isRetry, c);
+        }
+
+        return commitTimestamp;
+    }
+
+    private boolean isConflictFree(long startTimestamp, long[] cellIds, int numCells) {
+        CommitHashMap hashmap = hashmaps[0];
+
         // 0. check if it should abort
         if (startTimestamp <= lowWatermark) {
-            committed = false;
-        } else {
-            // 1. check the write-write conflicts
-            committed = true;
-            for (long cellId : writeSet) {
-                long value = hashmap.getLatestWriteForCell(cellId);
-                if (value != 0 && value >= startTimestamp) {
-                    committed = false;
-                    break;
+            return false;
+        }
+        // 1. check the write-write conflicts
+        for (int i = 0; i < numCells; i++) {
+            long cellId = cellIds[i];
+            if (startTimestamp <= hashmap.getLowWatermark(cellId)) {
+                return false;
+            }
+            long value = hashmap.getLatestWriteForCell(cellId);
+            if (value != 0 && value >= startTimestamp) {
+                if (hotCells != null) {
+                    hotCells.getConflicts(0).record(cellId);
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void applyCommit(long[] cellIds, int numCells, long commitTimestamp) {
+        CommitHashMap hashmap = hashmaps[0];
+
+        // 2. commit
+        if (numCells > 0) {
+            for (int i = 0; i < numCells; i++) {
+                hashmap.putLatestWriteForCell(cellIds[i], commitTimestamp);
+            }
+
+            long newLowWatermark = hashmap.getLowWatermark();
+            if (newLowWatermark > lowWatermark) {
+                LOG.trace("Setting new low Watermark to {}", newLowWatermark);
+                lowWatermark = newLowWatermark;
+            }
+        }
+    }
+
+    /**
+     * Processes the requests gathered in batching mode
+     */
+    private void handleBatch() {
+        // Timestamps needed by the whole batch
+        long pending = 0;
+        for (int i = 0; i < batchSize; i++) {
+            pending += timestampsNeeded(batch[i]);
+        }
+
+        // Assign them in ring order from as few oracle ranges as possible
+        long next = 0;
+        long end = 0;
+        for (int i = 0; i < batchSize; i++) {
+            RequestEvent event = batch[i];
+            int needed = timestampsNeeded(event);
+            if (end - next < needed) {
+                int count = (int) Math.min(pending, TimestampOracleImpl.MAX_TIMESTAMP_RANGE);
+                try {
+                    next = timestampOracle.next(count);
+                    end = next + count;
+                } catch (IOException e) {
+                    LOG.error("Error getting timestamps", e);
+                    next = end = 0;
+                }
+            }
+            pending -= needed;
+            if (end - next < needed) { // The oracle failed
+                event.timestamp = 0;
+                event.conflict = true;
+                if (event.getType() != RequestEvent.Type.COMMIT) {
+                    // Commits are aborted, but timestamp requests have no reply
+                    InFlightRequests.release(event.getChannel(), 1);
                 }
-                numCellsInWriteset++;
+                continue;
             }
+            event.timestamp = next;
+            next += needed;
         }
 
-        if (committed) {
-            // 2. commit
+        for (int i = 0; i < batchSize; i++) {
+            RequestEvent event = batch[i];
+            if (event.getType() == RequestEvent.Type.COMMIT && !event.conflict) {
+                hashmaps[0].sortByLocation(event.cellIds, event.numCells);
+                if (isConflictFree(event.getStartTimestamp(), event.cellIds, event.numCells)) {
+                    applyCommit(event.cellIds, event.numCells, event.timestamp);
+                } else {
+                    event.conflict = true;
+                }
+            }
+        }
+
+        persistProc.persistRequests(batch, batchSize);
+    }
+
+    private static int timestampsNeeded(RequestEvent event) {
+        return event.getType() == RequestEvent.Type.TIMESTAMP_RANGE ? event.getCount() : 1;
+    }
+
+    /**
+     * Returns the conflict detection shard a cell belongs to. The cell id is
+     * mixed before taking the modulo, so the cells of a shard are not biased
+     * towards some buckets of its {@link CommitHashMap}.
+     */
+    static int shardFor(long cellId, int numShards) {
+        long h = cellId;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) ((h & Long.MAX_VALUE) % numShards);
+    }
+
+    // ************************* Sharded conflict detection *************************
+
+    /**
+     * First stage of the sharded mode. Assigns the timestamps of the requests
+     * in ring order, so they are the same as in the single-threaded mode.
+     */
+    private class Sequencer implements EventHandler<RequestEvent> {
+
+        @Override
+        public void onEvent(RequestEvent event, long sequence, boolean endOfBatch) {
+            if (event.shardLowWatermarks == null) {
+                event.shardLowWatermarks = new long[hashmaps.length];
+            }
             try {
-                commitTimestamp = timestampOracle.next();
+                if (event.getType() == RequestEvent.Type.TIMESTAMP_RANGE) {
+                    event.timestamp = timestampOracle.next(event.getCount());
+                } else {
+                    event.timestamp = timestampOracle.next();
+                }
+            } catch (IOException e) {
+                LOG.error("Error getting timestamp", e);
+                event.timestamp = 0;
+                event.conflict = true;
+            }
+        }
 
-                if (numCellsInWriteset > 0) {
-                    long newLowWatermark = lowWatermark;
+    }
+
+    /**
+     * Second stage of the sharded mode. Checks and updates the cells of the write
+     * sets that belong to this shard.
+     */
+    private class ConflictDetectionShard implements EventHandler<RequestEvent> {
+
+        // Backoff while waiting for the votes of the other shards
+        private static final int VOTE_SPIN_TRIES = 100;
+        private static final int VOTE_YIELD_TRIES = 100;
+
+        private final int shardId;
+        private final long shardBit;
+        private final CommitHashMap hashmap;
+
+        ConflictDetectionShard(int shardId) {
+            this.shardId = shardId;
+            this.shardBit = 1L << shardId;
+            this.hashmap = hashmaps[shardId];
+        }
 
-                    for (long r : writeSet) {
-                        long removed = hashmap.putLatestWriteForCell(r, commitTimestamp);
-                        newLowWatermark = Math.max(removed, newLowWatermark);
+        @Override
+        public void onEvent(RequestEvent event, long sequence, boolean endOfBatch) {
+            if (event.getType() == RequestEvent.Type.COMMIT && (event.shardMask & shardBit) != 0) {
+                checkAndUpdate(event);
+            }
+            // Low watermark of the shard as of this event, for the coordinator
+            event.shardLowWatermarks[shardId] = hashmap.getLowWatermark();
+        }
+
+        private void checkAndUpdate(RequestEvent event) {
+            final long startTimestamp = event.getStartTimestamp();
+            boolean conflict = false;
+            for (int i = 0; i < event.numCells; i++) {
+                long cellId = event.cellIds[i];
+                if (event.shardMask == shardBit || belongsToThisShard(cellId)) {
+                    if (startTimestamp <= hashmap.getLowWatermark(cellId)) {
+                        conflict = true;
+                        break;
+                    }
+                    long value = hashmap.getLatestWriteForCell(cellId);
+                    if (value != 0 && value >= startTimestamp) {
+                        if (hotCells != null) {
+                            hotCells.getConflicts(shardId).record(cellId);
+                        }
+                        conflict = true;
+                        break;
                     }
+                }
+            }
+            if (conflict) {
+                event.conflict = true;
+            }
 
-                    lowWatermark = newLowWatermark;
-                    LOG.trace("Setting new low Watermark to {}", newLowWatermark);
-                    persistProc.persistLowWatermark(newLowWatermark);
+            // Wait for the vote of the rest of the shards involved in the
+            // write set. Spin first, then back off like the sleeping wait
+            // strategy, so a shard doesn't burn the time slice of a peer
+            // that shares its core
+            event.pendingVotes.decrementAndGet();
+            int tries = 0;
+            while (event.pendingVotes.get() != 0) {
+                if (tries < VOTE_SPIN_TRIES) {
+                    tries++;
+                } else if (tries < VOTE_SPIN_TRIES + VOTE_YIELD_TRIES) {
+                    tries++;
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(1L);
+                }
+            }
+
+            if (!event.conflict) {
+                for (int i = 0; i < event.numCells; i++) {
+                    long cellId = event.cellIds[i];
+                    if (event.shardMask == shardBit || belongsToThisShard(cellId)) {
+                        hashmap.putLatestWriteForCell(cellId, event.timestamp);
+                    }
                 }
-                persistProc.persistCommit(startTimestamp, commitTimestamp, c);
-            } catch (IOException e) {
-                LOG.error("Error committing", e);
             }
-        } else { // add it to the aborted list
-            persistProc.persistAbort(startTimestamp, isRetry, c);
         }
 
-        return commitTimestamp;
+        private boolean belongsToThisShard(long cellId) {
+            return (1L << shardFor(cellId, hashmaps.length)) == shardBit;
+        }
+
+    }
+
+    /**
+     * Last stage of the sharded mode. Merges the decisions and passes them to
+     * the persistence processor in ring order.
+     */
+    private class Coordinator implements EventHandler<RequestEvent> {
+
+        @Override
+        public void onEvent(RequestEvent event, long sequence, boolean endOfBatch) {
+            if (event.getType() == RequestEvent.Type.TIMESTAMP) {
+                if (event.timestamp != 0) {
+                    persistProc.persistTimestamp(event.timestamp, event.getChannel());
+                } else {
+                    InFlightRequests.release(event.getChannel(), 1); // The oracle failed
+                }
+            } else if (event.getType() == RequestEvent.Type.TIMESTAMP_RANGE) {
+                if (event.timestamp != 0) {
+                    persistProc.persistTimestampRange(event.timestamp, event.getCount(), event.getChannel());
+                } else {
+                    InFlightRequests.release(event.getChannel(), 1); // The oracle failed
+                }
+            } else {
+                handleCommit(event);
+            }
+            if (endOfBatch) {
+                maybePersistLowWatermark();
+            }
+        }
+
+        private void handleCommit(RequestEvent event) {
+            final long startTimestamp = event.getStartTimestamp();
+            boolean committed = !event.conflict;
+            if (event.shardMask == 0) { // Empty write set, check against the global watermark
+                committed = committed && startTimestamp > lowWatermark;
+            } else {
+                updateLowWatermark(event);
+            }
+
+            if (committed) {
+                persistProc.persistCommit(startTimestamp, event.timestamp, event.getChannel());
+            } else {
+                persistProc.persistAbort(startTimestamp, event.isRetry(), event.getChannel());
+            }
+        }
+
+        /**
+         * The global low watermark is the minimum of the shards ones, as none
+         * of the transactions started before it can commit anymore. The shards
+         * ones are taken as of this event, as the shards may be ahead.
+         */
+        private void updateLowWatermark(RequestEvent event) {
+            long newLowWatermark = Long.MAX_VALUE;
+            for (long shardLowWatermark : event.shardLowWatermarks) {
+                newLowWatermark = Math.min(newLowWatermark, shardLowWatermark);
+            }
+            if (newLowWatermark > lowWatermark) {
+                LOG.trace("Setting new low Watermark to {}", newLowWatermark);
+                lowWatermark = newLowWatermark;
+            }
+        }
+
     }
 
-    final static class RequestEvent implements Iterable<Long> {
+    final static class RequestEvent {
 
         enum Type {
-            TIMESTAMP, COMMIT
+            TIMESTAMP, TIMESTAMP_RANGE, COMMIT
         };
 
         private Type type = null;
@@ -182,34 +707,55 @@ public class RequestProcessorImpl
 
         private boolean isRetry = false;
         private long startTimestamp = 0;
-        private long numCells = 0;
+        private int numCells = 0;
+        private int count = 0; // size of the timestamp range requested
+
+        private static final int INITIAL_CAPACITY = 40;
+        private long[] cellIds = new long[INITIAL_CAPACITY]; // Grown on demand, reused across requests
 
-        private static final int MAX_INLINE = 40;
-        private Long writeSet[] = new Long[MAX_INLINE];
-        private Collection<Long> writeSetAsCollection = null; // for the case where there's more than MAX_INLINE
+        // Sharded conflict detection state
+        private long shardMask = 0;
+        private long timestamp = 0; // start timestamp or tentative commit timestamp
+        private volatile boolean conflict = false;
+        private final AtomicInteger pendingVotes = new AtomicInteger();
+        private long[] shardLowWatermarks = null;
 
         static void makeTimestampRequest(RequestEvent e, Channel c) {
             e.type = Type.TIMESTAMP;
             e.channel = c;
+            e.conflict = false;
+        }
+
+        static void makeTimestampRangeRequest(RequestEvent e, int count, Channel c) {
+            e.type = Type.TIMESTAMP_RANGE;
+            e.count = count;
+            e.channel = c;
+            e.conflict = false;
         }
 
         static void makeCommitRequest(RequestEvent e,
-                                      long startTimestamp, Collection<Long> writeSet, boolean isRetry, Channel c) {
+                                      long startTimestamp, long[] cellIds, int numCells, boolean isRetry, Channel c,
+                                      int numShards) {
             e.type = Type.COMMIT;
             e.channel = c;
             e.startTimestamp = startTimestamp;
             e.isRetry = isRetry;
-            if (writeSet.size() > MAX_INLINE) {
-                e.numCells = writeSet.size();
-                e.writeSetAsCollection = writeSet;
-            } else {
-                e.writeSetAsCollection = null;
-                e.numCells = writeSet.size();
-                int i = 0;
-                for (Long cellId : writeSet) {
-                    e.writeSet[i] = cellId;
-                    i++;
+            if (numCells > e.cellIds.length) {
+                e.cellIds = new long[Math.max(numCells, e.cellIds.length * 2)];
+            }
+            System.arraycopy(cellIds, 0, e.cellIds, 0, numCells);
+            e.numCells = numCells;
+            computeShards(e, numShards);
+        }
+
+        private static void computeShards(RequestEvent e, int numShards) {
+            e.shardMask = 0;
+            e.conflict = false;
+            if (numShards > 1) {
+                for (int i = 0; i < e.numCells; i++) {
+                    e.shardMask |= 1L << shardFor(e.cellIds[i], numShards);
                 }
+                e.pendingVotes.set(Long.bitCount(e.shardMask));
             }
         }
 
@@ -225,39 +771,30 @@ public class RequestProcessorImpl
             return channel;
         }
 
-        @Override
-        public Iterator<Long> iterator() {
-            if (writeSetAsCollection != null) {
-                return writeSetAsCollection.iterator();
-            }
-            return new Iterator<Long>() {
-                int i = 0;
-
-                @Override
-                public boolean hasNext() {
-                    return i < numCells;
-                }
-
-                @Override
-                public Long next() {
-                    return writeSet[i++];
-                }
+        long[] getCellIds() {
+            return cellIds;
+        }
 
-                @Override
-                public void remove() {
-                    throw new UnsupportedOperationException();
-                }
-            };
+        int getNumCells() {
+            return numCells;
         }
 
-        Iterable<Long> writeSet() {
-            return this;
+        int getCount() {
+            return count;
         }
 
         boolean isRetry() {
             return isRetry;
         }
 
+        long getTimestamp() {
+            return timestamp;
+        }
+
+        boolean hasConflict() {
+            return conflict;
+        }
+
         public final static EventFactory<RequestEvent> EVENT_FACTORY
             = new EventFactory<RequestEvent>()
         {
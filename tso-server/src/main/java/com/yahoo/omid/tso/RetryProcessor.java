@@ -19,4 +19,6 @@ import org.jboss.netty.channel.Channel;
 
 interface RetryProcessor {
     void disambiguateRetryRequestHeuristically(long startTimestamp, Channel c);
+    // Called by the persist processor when a commit is durable
+    void commitPersisted(long startTimestamp, long commitTimestamp);
 }
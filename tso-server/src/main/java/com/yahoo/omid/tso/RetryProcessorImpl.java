@@ -15,6 +15,8 @@
  */
 package com.yahoo.omid.tso;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ExecutionException;
@@ -28,8 +30,6 @@ import com.lmax.disruptor.EventFactory;
 import com.lmax.disruptor.EventHandler;
 import com.lmax.disruptor.RingBuffer;
 import com.lmax.disruptor.SequenceBarrier;
-import com.lmax.disruptor.WaitStrategy;
-import com.lmax.disruptor.YieldingWaitStrategy;
 
 import org.jboss.netty.channel.Channel;
 
@@ -52,6 +52,13 @@ class RetryProcessorImpl
 
     private static final Logger LOG = LoggerFactory.getLogger(RetryProcessor.class);
 
+    static final DisruptorRings.WaitStrategyType DEFAULT_RETRY_WAIT_STRATEGY = DisruptorRings.WaitStrategyType.YIELDING;
+    static final String TSO_RETRY_WAIT_STRATEGY_KEY = "tso.retry.waitstrategy";
+    static final int DEFAULT_RETRY_RING_SIZE = 1<<12;
+    static final String TSO_RETRY_RING_SIZE_KEY = "tso.retry.ringsize";
+    static final int DEFAULT_RECENT_COMMITS = 1<<18;
+    static final String TSO_RECENT_COMMITS_KEY = "tso.retry.recentcommits";
+
     // Disruptor chain stuff
     final ReplyProcessor replyProc;
     final RingBuffer<RetryEvent> retryRing;
@@ -59,21 +66,34 @@ class RetryProcessorImpl
     final CommitTable.Client commitTableClient;
     final CommitTable.Writer writer;
 
+    // Retries are answered from the recent commits when possible (null if
+    // disabled). The rest are looked up in the commit table at once at the
+    // end of each batch of events
+    final RecentCommits recentCommits;
+    final long[] pendingStartTimestamps;
+    final Channel[] pendingChannels;
+    int numPending = 0;
+
     // Metrics
     final Meter retriesMeter;
+    final Meter recentCommitHitsMeter;
 
     @Inject
     RetryProcessorImpl(MetricsRegistry metrics, CommitTable commitTable,
-                       ReplyProcessor replyProc, Panicker panicker)
+                       ReplyProcessor replyProc, Panicker panicker, TSOServerConfig config)
         throws InterruptedException, ExecutionException {
         this.commitTableClient = commitTable.getClient().get();
         this.writer = commitTable.getWriter().get();
         this.replyProc = replyProc;
+        if (config.getRecentCommits() > 0) {
+            this.recentCommits = new RecentCommits(config.getRecentCommits());
+        } else {
+            this.recentCommits = null;
+        }
 
-        WaitStrategy strategy = new YieldingWaitStrategy();
-
-        retryRing = RingBuffer.<RetryEvent>createSingleProducer(
-                RetryEvent.EVENT_FACTORY, 1<<12, strategy);
+        retryRing = RingBuffer.<RetryEvent>createSingleProducer(RetryEvent.EVENT_FACTORY,
+                DisruptorRings.checkRingSize("retry", config.getRetryRingSize()),
+                DisruptorRings.waitStrategy(config.getRetryWaitStrategy()));
         SequenceBarrier retrySequenceBarrier = retryRing.newBarrier();
         BatchEventProcessor<RetryEvent> retryProcessor = new BatchEventProcessor<RetryEvent>(
                 retryRing,
@@ -82,6 +102,9 @@ class RetryProcessorImpl
         retryProcessor.setExceptionHandler(new FatalExceptionHandler(panicker));
 
         retryRing.addGatingSequences(retryProcessor.getSequence());
+        DisruptorRings.registerMetrics(metrics, "retry", retryRing, retryProcessor.getSequence());
+        pendingStartTimestamps = new long[retryRing.getBufferSize()];
+        pendingChannels = new Channel[retryRing.getBufferSize()];
 
         ExecutorService retryExec = Executors.newSingleThreadExecutor(
                 new ThreadFactoryBuilder().setNameFormat("retry-%d").build());
@@ -89,6 +112,7 @@ class RetryProcessorImpl
 
         // Metrics
         retriesMeter = metrics.meter(name("tso", "retries"));
+        recentCommitHitsMeter = metrics.meter(name("tso", "retries", "recentCommitHits"));
     }
 
     @Override
@@ -97,7 +121,6 @@ class RetryProcessorImpl
 
         switch (event.getType()) {
         case COMMIT:
-            // TODO: What happens when the IOException is thrown?
             handleCommitRetry(event);
             break;
         default:
@@ -105,27 +128,72 @@ class RetryProcessorImpl
             break;
         }
 
+        if (endOfBatch || numPending == pendingStartTimestamps.length) {
+            readPendingFromCommitTable();
+        }
     }
 
-    private void handleCommitRetry(RetryEvent event) throws InterruptedException, ExecutionException {
+    private void handleCommitRetry(RetryEvent event) {
 
         final long startTimestamp = event.getStartTimestamp();
+        retriesMeter.mark();
+
+        if (recentCommits != null) {
+            long commitTimestamp = recentCommits.get(startTimestamp);
+            if (commitTimestamp != -1) {
+                recentCommitHitsMeter.mark();
+                replyProc.commitResponse(startTimestamp, commitTimestamp, event.getChannel());
+                return;
+            }
+        }
+        pendingStartTimestamps[numPending] = startTimestamp;
+        pendingChannels[numPending] = event.getChannel();
+        numPending++;
+    }
 
+    private void readPendingFromCommitTable() {
+        if (numPending == 0) {
+            return;
+        }
         try {
-            Optional<Long> commitTimestamp = commitTableClient.getCommitTimestamp(startTimestamp).get();
-            if(!commitTimestamp.isPresent()) {
-                replyProc.abortResponse(startTimestamp, event.getChannel());
-            } else {
-                replyProc.commitResponse(startTimestamp, commitTimestamp.get(), event.getChannel());
+            List<Optional<Long>> commitTimestamps = commitTableClient.getCommitTimestamps(
+                    Arrays.copyOf(pendingStartTimestamps, numPending)).get();
+            for (int i = 0; i < numPending; i++) {
+                Optional<Long> commitTimestamp = commitTimestamps.get(i);
+                if(!commitTimestamp.isPresent()) {
+                    replyProc.abortResponse(pendingStartTimestamps[i], pendingChannels[i]);
+                } else {
+                    replyProc.commitResponse(pendingStartTimestamps[i], commitTimestamp.get(), pendingChannels[i]);
+                }
             }
         } catch (InterruptedException e) {
             LOG.error("Interrupted reading from commit table");
             Thread.currentThread().interrupt();
+            abortPending();
         } catch (ExecutionException e) {
             LOG.error("Error reading from commit table", e);
+            abortPending();
+        } finally {
+            Arrays.fill(pendingChannels, 0, numPending, null);
+            numPending = 0;
         }
+    }
 
-        retriesMeter.mark();
+    /**
+     * Aborts the pending retries when the commit table can't be read, so
+     * the clients don't wait for them until they time out
+     */
+    private void abortPending() {
+        for (int i = 0; i < numPending; i++) {
+            replyProc.abortResponse(pendingStartTimestamps[i], pendingChannels[i]);
+        }
+    }
+
+    @Override
+    public void commitPersisted(long startTimestamp, long commitTimestamp) {
+        if (recentCommits != null) {
+            recentCommits.add(startTimestamp, commitTimestamp);
+        }
     }
 
     @Override
@@ -15,8 +15,12 @@
  */
 package com.yahoo.omid.tso;
 
+import java.io.IOException;
 import java.nio.channels.ClosedChannelException;
 
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.Channel;
 import org.jboss.netty.channel.ChannelHandlerContext;
 import org.jboss.netty.channel.ChannelStateEvent;
 import org.jboss.netty.channel.Channels;
@@ -41,21 +45,42 @@ public class TSOHandler extends SimpleChannelHandler {
 
     private static final Logger LOG = LoggerFactory.getLogger(TSOHandler.class);
 
+    // Admission control
+    static final int DEFAULT_MAX_IN_FLIGHT_REQUESTS = 1<<14;
+    static final int DEFAULT_OVERLOAD_RETRY_AFTER_MS = 10;
+
+    private static final TSOProto.Request TIMESTAMP_REQUEST = TSOProto.Request.newBuilder()
+        .setTimestampRequest(TSOProto.TimestampRequest.getDefaultInstance()).build();
+
     /**
      * Channel Group
      */
     private ChannelGroup channelGroup = null;
     private final RequestProcessor requestProcessor;
+    private final ReplyProcessor replyProcessor;
+    private final int maxInFlightRequests;
+    private final int overloadRetryAfterMs;
 
     /**
      * Constructor
-     * 
-     * @param channelGroup
+     *
+     * The requests of the clients that handle overloaded responses are
+     * rejected, instead of blocking the I/O thread, when the request ring is
+     * full or when their connection has maxInFlightRequests requests not
+     * replied yet (no limit if not positive). The clients are told to send
+     * them again after overloadRetryAfterMs. The requests of older clients
+     * wait for room in the ring as before.
      */
     public TSOHandler(ChannelGroup channelGroup,
-                      RequestProcessor requestProcessor) {
+                      RequestProcessor requestProcessor,
+                      ReplyProcessor replyProcessor,
+                      int maxInFlightRequests,
+                      int overloadRetryAfterMs) {
         this.channelGroup = channelGroup;
         this.requestProcessor = requestProcessor;
+        this.replyProcessor = replyProcessor;
+        this.maxInFlightRequests = maxInFlightRequests;
+        this.overloadRetryAfterMs = overloadRetryAfterMs;
      }
 
     @Override
@@ -68,13 +93,46 @@ public class TSOHandler extends SimpleChannelHandler {
         channelGroup.remove(ctx.getChannel());
     }
 
+    @Override
+    public void channelClosed(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+        InFlightRequests.untrack(ctx.getChannel());
+    }
+
     /**
      * Handle receieved messages
      */
     @Override
     public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) {
         Object msg = e.getMessage();
-        if (msg instanceof TSOProto.Request) {
+        if (msg instanceof TSORequestDecoder.CommitRequest) {
+            if (!handshakeCompleted(ctx)) {
+                LOG.info("handshake not completed");
+                ctx.getChannel().close();
+            }
+            TSORequestDecoder.CommitRequest cr = (TSORequestDecoder.CommitRequest)msg;
+            if (cr.getNumCells() == 0) {
+                emptyCommitRequest(ctx, cr.getStartTimestamp());
+                return;
+            }
+            commitRequest(ctx, cr.getStartTimestamp(), cr.getCellIds(), cr.getNumCells(), cr.isRetry());
+        } else if (msg instanceof TSORequestDecoder.TimestampRequest) {
+            if (!handshakeCompleted(ctx)) {
+                LOG.info("handshake not completed");
+                ctx.getChannel().close();
+            }
+            TSORequestDecoder.TimestampRequest tr = (TSORequestDecoder.TimestampRequest)msg;
+            if (tr.isRange()) {
+                timestampRangeRequest(ctx, tr.getCount());
+            } else {
+                timestampRequest(ctx);
+            }
+        } else if (msg instanceof TSORequestDecoder.RequestBatch) {
+            if (!handshakeCompleted(ctx)) {
+                LOG.info("handshake not completed");
+                ctx.getChannel().close();
+            }
+            handleRequestBatch(ctx, (TSORequestDecoder.RequestBatch)msg);
+        } else if (msg instanceof TSOProto.Request) {
             TSOProto.Request request = (TSOProto.Request)msg;
             if (request.hasHandshakeRequest()) {
                 checkHandshake(ctx, request.getHandshakeRequest());
@@ -86,14 +144,23 @@ public class TSOHandler extends SimpleChannelHandler {
             }
 
             if (request.hasTimestampRequest()) {
-                requestProcessor.timestampRequest(ctx.getChannel());
+                timestampRequest(ctx);
+            } else if (request.hasTimestampRangeRequest()) {
+                timestampRangeRequest(ctx, request.getTimestampRangeRequest().getCount());
             } else if (request.hasCommitRequest()) {
                 TSOProto.CommitRequest cr = request.getCommitRequest();
-                requestProcessor.commitRequest(cr.getStartTimestamp(),
-                                               cr.getCellIdList(),
-                                               cr.getIsRetry(),
-                                               ctx.getChannel());
+                if (cr.getCellIdCount() == 0) {
+                    emptyCommitRequest(ctx, cr.getStartTimestamp());
+                    return;
+                }
+                long[] cellIds = new long[cr.getCellIdCount()];
+                for (int i = 0; i < cellIds.length; i++) {
+                    cellIds[i] = cr.getCellId(i);
+                }
+                commitRequest(ctx, cr.getStartTimestamp(), cellIds, cellIds.length, cr.getIsRetry());
             } else {
+                // Including the batches with requests other than timestamp
+                // and commit requests, which the decoder doesn't parse
                 LOG.error("Invalid request {}", request);
                 ctx.getChannel().close();
             }
@@ -102,6 +169,160 @@ public class TSOHandler extends SimpleChannelHandler {
         }
     }
 
+    private void timestampRequest(ChannelHandlerContext ctx) {
+        Channel c = ctx.getChannel();
+        if (!admissionControl(ctx)) {
+            InFlightRequests.acquire(c, 1);
+            requestProcessor.timestampRequest(c);
+        } else if (InFlightRequests.tryAcquire(c, 1, maxInFlightRequests) == 0) {
+            reject(c, TIMESTAMP_REQUEST);
+        } else if (!requestProcessor.tryTimestampRequest(c)) {
+            InFlightRequests.release(c, 1);
+            reject(c, TIMESTAMP_REQUEST);
+        }
+    }
+
+    private void timestampRangeRequest(ChannelHandlerContext ctx, int count) {
+        Channel c = ctx.getChannel();
+        if (!admissionControl(ctx)) {
+            InFlightRequests.acquire(c, 1);
+            requestProcessor.timestampRangeRequest(count, c);
+        } else if (InFlightRequests.tryAcquire(c, 1, maxInFlightRequests) == 0) {
+            reject(c, timestampRangeRequestMessage(count));
+        } else if (!requestProcessor.tryTimestampRangeRequest(count, c)) {
+            InFlightRequests.release(c, 1);
+            reject(c, timestampRangeRequestMessage(count));
+        }
+    }
+
+    private void commitRequest(ChannelHandlerContext ctx,
+                               long startTimestamp, long[] cellIds, int numCells, boolean isRetry) {
+        Channel c = ctx.getChannel();
+        if (!admissionControl(ctx)) {
+            InFlightRequests.acquire(c, 1);
+            requestProcessor.commitRequest(startTimestamp, cellIds, numCells, isRetry, c);
+        } else if (InFlightRequests.tryAcquire(c, 1, maxInFlightRequests) == 0) {
+            reject(c, commitRequestMessage(startTimestamp));
+        } else if (!requestProcessor.tryCommitRequest(startTimestamp, cellIds, numCells, isRetry, c)) {
+            InFlightRequests.release(c, 1);
+            reject(c, commitRequestMessage(startTimestamp));
+        }
+    }
+
+    /**
+     * Empty commits don't go through the request processor, they are
+     * answered straight by the reply processor. Clients committing read-only
+     * transactions locally get them aborted, older ones get them committed.
+     * They are admitted like the other requests, and rejected as overloaded
+     * when its ring is full
+     */
+    private void emptyCommitRequest(ChannelHandlerContext ctx, long startTimestamp) {
+        Channel c = ctx.getChannel();
+        boolean reject = localReadOnlyCommits(ctx);
+        if (!admissionControl(ctx)) {
+            InFlightRequests.acquire(c, 1);
+            replyProcessor.emptyCommitResponse(startTimestamp, reject, c);
+        } else if (InFlightRequests.tryAcquire(c, 1, maxInFlightRequests) == 0) {
+            reject(c, commitRequestMessage(startTimestamp));
+        } else if (!replyProcessor.tryEmptyCommitResponse(startTimestamp, reject, c)) {
+            InFlightRequests.release(c, 1);
+            reject(c, commitRequestMessage(startTimestamp));
+        }
+    }
+
+    private void handleRequestBatch(ChannelHandlerContext ctx, TSORequestDecoder.RequestBatch batch) {
+        Channel c = ctx.getChannel();
+        // The empty commits are answered here and dropped from the batch
+        int size = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Object request = batch.get(i);
+            if (request instanceof TSORequestDecoder.CommitRequest
+                    && ((TSORequestDecoder.CommitRequest)request).getNumCells() == 0) {
+                emptyCommitRequest(ctx, ((TSORequestDecoder.CommitRequest)request).getStartTimestamp());
+            } else {
+                batch.set(size++, request);
+            }
+        }
+        batch.truncate(size);
+        if (size == 0) {
+            return;
+        }
+        if (!admissionControl(ctx)) {
+            InFlightRequests.acquire(c, size);
+            requestProcessor.requestBatch(batch, c);
+            return;
+        }
+        // The requests that don't fit are rejected, in a single write
+        int admitted = InFlightRequests.tryAcquire(c, size, maxInFlightRequests);
+        int passed = 0;
+        if (admitted > 0) {
+            passed = requestProcessor.tryRequestBatch(batch, admitted, c);
+            InFlightRequests.release(c, admitted - passed);
+        }
+        if (passed < size) {
+            reject(c, batch, passed);
+        }
+    }
+
+    private boolean admissionControl(ChannelHandlerContext ctx) {
+        Object o = ctx.getAttachment();
+        return o instanceof TSOChannelContext && ((TSOChannelContext)o).getOverloadedResponses();
+    }
+
+    private boolean localReadOnlyCommits(ChannelHandlerContext ctx) {
+        Object o = ctx.getAttachment();
+        return o instanceof TSOChannelContext && ((TSOChannelContext)o).getLocalReadOnlyCommits();
+    }
+
+    // Requests returned in the overloaded responses
+    private static TSOProto.Request timestampRangeRequestMessage(int count) {
+        return TSOProto.Request.newBuilder()
+            .setTimestampRangeRequest(TSOProto.TimestampRangeRequest.newBuilder().setCount(count)).build();
+    }
+
+    private static TSOProto.Request commitRequestMessage(long startTimestamp) {
+        return TSOProto.Request.newBuilder()
+            .setCommitRequest(TSOProto.CommitRequest.newBuilder().setStartTimestamp(startTimestamp)).build();
+    }
+
+    private static TSOProto.Request requestMessage(Object request) {
+        if (request instanceof TSORequestDecoder.CommitRequest) {
+            return commitRequestMessage(((TSORequestDecoder.CommitRequest)request).getStartTimestamp());
+        }
+        TSORequestDecoder.TimestampRequest tr = (TSORequestDecoder.TimestampRequest)request;
+        return tr.isRange() ? timestampRangeRequestMessage(tr.getCount()) : TIMESTAMP_REQUEST;
+    }
+
+    private TSOProto.Response overloadedResponse(TSOProto.Request request) {
+        if (request.hasCommitRequest()) { // Without the write set
+            request = commitRequestMessage(request.getCommitRequest().getStartTimestamp());
+        }
+        return TSOProto.Response.newBuilder()
+            .setOverloadedResponse(TSOProto.OverloadedResponse.newBuilder()
+                                   .setRetryAfterMs(overloadRetryAfterMs)
+                                   .setRequest(request)).build();
+    }
+
+    private void reject(Channel c, TSOProto.Request request) {
+        c.write(overloadedResponse(request));
+    }
+
+    /**
+     * Rejects the requests of the batch from the one at position from
+     */
+    private void reject(Channel c, TSORequestDecoder.RequestBatch batch, int from) {
+        ChannelBuffer buf = ChannelBuffers.dynamicBuffer(ReplyProcessorImpl.COALESCED_BUFFER_SIZE,
+                                                         c.getConfig().getBufferFactory());
+        for (int i = from; i < batch.size(); i++) {
+            try {
+                TSOResponseEncoder.appendFrame(buf, overloadedResponse(requestMessage(batch.get(i))));
+            } catch (IOException e) {
+                throw new IllegalStateException("Error encoding overloaded response", e);
+            }
+        }
+        c.write(buf);
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, ExceptionEvent e) {
         if (e.getCause() instanceof ClosedChannelException) {
@@ -117,10 +338,15 @@ public class TSOHandler extends SimpleChannelHandler {
         if (request.hasClientCapabilities()) {
 
             response.setClientCompatible(true)
-                .setServerCapabilities(TSOProto.Capabilities.newBuilder().build());
+                .setServerCapabilities(TSOProto.Capabilities.newBuilder()
+                                       .setTimestampRanges(true)
+                                       .setRequestBatches(true).build());
             TSOChannelContext tsoCtx = new TSOChannelContext();
             tsoCtx.setHandshakeComplete();
+            tsoCtx.setOverloadedResponses(request.getClientCapabilities().getOverloadedResponses());
+            tsoCtx.setLocalReadOnlyCommits(request.getClientCapabilities().getLocalReadOnlyCommits());
             ctx.setAttachment(tsoCtx);
+            InFlightRequests.track(ctx.getChannel());
         } else {
             response.setClientCompatible(false);
         }
@@ -139,6 +365,8 @@ public class TSOHandler extends SimpleChannelHandler {
 
     static class TSOChannelContext {
         boolean handshakeComplete;
+        boolean overloadedResponses = false;
+        boolean localReadOnlyCommits = false;
 
         TSOChannelContext() {
             handshakeComplete = false;
@@ -151,5 +379,21 @@ public class TSOHandler extends SimpleChannelHandler {
         void setHandshakeComplete() {
             handshakeComplete = true;
         }
+
+        boolean getOverloadedResponses() {
+            return overloadedResponses;
+        }
+
+        void setOverloadedResponses(boolean overloadedResponses) {
+            this.overloadedResponses = overloadedResponses;
+        }
+
+        boolean getLocalReadOnlyCommits() {
+            return localReadOnlyCommits;
+        }
+
+        void setLocalReadOnlyCommits(boolean localReadOnlyCommits) {
+            this.localReadOnlyCommits = localReadOnlyCommits;
+        }
     }
 }
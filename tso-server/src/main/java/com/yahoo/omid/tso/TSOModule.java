@@ -15,10 +15,30 @@
  */
 package com.yahoo.omid.tso;
 
+import static com.yahoo.omid.tso.RequestProcessorImpl.TSO_CACHE_TYPE_KEY;
+import static com.yahoo.omid.tso.RequestProcessorImpl.TSO_CONFLICT_DETECTION_SHARDS_KEY;
+import static com.yahoo.omid.tso.RequestProcessorImpl.TSO_HOT_CELLS_TOP_K_KEY;
+import static com.yahoo.omid.tso.RequestProcessorImpl.TSO_LOW_WATERMARK_SEGMENTS_KEY;
 import static com.yahoo.omid.tso.RequestProcessorImpl.TSO_MAX_ITEMS_KEY;
+import static com.yahoo.omid.tso.RequestProcessorImpl.TSO_REQUEST_BATCHING_KEY;
 import static com.yahoo.omid.tso.PersistenceProcessorImpl.TSO_MAX_BATCH_SIZE_KEY;
 import static com.yahoo.omid.tso.PersistenceProcessorImpl.TSO_BATCH_PERSIST_TIMEOUT_MS_KEY;
+import static com.yahoo.omid.tso.PersistenceProcessorImpl.TSO_PERSIST_PIPELINE_DEPTH_KEY;
+import static com.yahoo.omid.tso.PersistenceProcessorImpl.TSO_COMMIT_TABLE_WRITERS_KEY;
+import static com.yahoo.omid.tso.PersistenceProcessorImpl.TSO_TARGET_COMMIT_LATENCY_MS_KEY;
+import static com.yahoo.omid.tso.PersistenceProcessorImpl.TSO_EARLY_TIMESTAMP_REPLIES_KEY;
+import static com.yahoo.omid.tso.RequestProcessorImpl.TSO_REQUEST_WAIT_STRATEGY_KEY;
+import static com.yahoo.omid.tso.RequestProcessorImpl.TSO_REQUEST_RING_SIZE_KEY;
+import static com.yahoo.omid.tso.PersistenceProcessorImpl.TSO_PERSIST_WAIT_STRATEGY_KEY;
+import static com.yahoo.omid.tso.PersistenceProcessorImpl.TSO_PERSIST_RING_SIZE_KEY;
+import static com.yahoo.omid.tso.ReplyProcessorImpl.TSO_REPLY_WAIT_STRATEGY_KEY;
+import static com.yahoo.omid.tso.ReplyProcessorImpl.TSO_REPLY_RING_SIZE_KEY;
+import static com.yahoo.omid.tso.RetryProcessorImpl.TSO_RETRY_WAIT_STRATEGY_KEY;
+import static com.yahoo.omid.tso.RetryProcessorImpl.TSO_RETRY_RING_SIZE_KEY;
+import static com.yahoo.omid.tso.RetryProcessorImpl.TSO_RECENT_COMMITS_KEY;
 import static com.yahoo.omid.committable.hbase.HBaseCommitTable.HBASE_COMMIT_TABLE_NAME_KEY;
+import static com.yahoo.omid.committable.hbase.HBaseCommitTable.HBASE_COMMIT_TABLE_BATCH_ROWS_KEY;
+import static com.yahoo.omid.committable.wal.WALCommitTable.WAL_COMMIT_TABLE_DIR_KEY;
 import static com.yahoo.omid.tso.hbase.HBaseTimestampStorage.HBASE_TIMESTAMPSTORAGE_TABLE_NAME_KEY;
 
 import javax.inject.Singleton;
@@ -45,15 +65,56 @@ public class TSOModule extends AbstractModule {
                 .to(config.getMaxBatchSize());
         bindConstant().annotatedWith(Names.named(TSO_MAX_ITEMS_KEY))
                 .to(config.getMaxItems());
+        bindConstant().annotatedWith(Names.named(TSO_CONFLICT_DETECTION_SHARDS_KEY))
+                .to(config.getConflictDetectionShards());
+        bindConstant().annotatedWith(Names.named(TSO_CACHE_TYPE_KEY))
+                .to(config.getCacheType());
+        bindConstant().annotatedWith(Names.named(TSO_LOW_WATERMARK_SEGMENTS_KEY))
+                .to(config.getLowWatermarkSegments());
+        bindConstant().annotatedWith(Names.named(TSO_REQUEST_BATCHING_KEY))
+                .to(config.isRequestBatching());
+        bindConstant().annotatedWith(Names.named(TSO_HOT_CELLS_TOP_K_KEY))
+                .to(config.getHotCellsTopK());
         bindConstant().annotatedWith(Names.named(TSO_BATCH_PERSIST_TIMEOUT_MS_KEY))
             .to(config.getBatchPersistTimeoutMS());
+        bindConstant().annotatedWith(Names.named(TSO_PERSIST_PIPELINE_DEPTH_KEY))
+            .to(config.getPersistPipelineDepth());
+        bindConstant().annotatedWith(Names.named(TSO_COMMIT_TABLE_WRITERS_KEY))
+            .to(config.getCommitTableWriters());
+        bindConstant().annotatedWith(Names.named(TSO_TARGET_COMMIT_LATENCY_MS_KEY))
+            .to(config.getTargetCommitLatencyMS());
+        bindConstant().annotatedWith(Names.named(TSO_EARLY_TIMESTAMP_REPLIES_KEY))
+            .to(config.isEarlyTimestampReplies());
+        bindConstant().annotatedWith(Names.named(TSO_REQUEST_WAIT_STRATEGY_KEY))
+            .to(config.getRequestWaitStrategy());
+        bindConstant().annotatedWith(Names.named(TSO_REQUEST_RING_SIZE_KEY))
+            .to(config.getRequestRingSize());
+        bindConstant().annotatedWith(Names.named(TSO_PERSIST_WAIT_STRATEGY_KEY))
+            .to(config.getPersistWaitStrategy());
+        bindConstant().annotatedWith(Names.named(TSO_PERSIST_RING_SIZE_KEY))
+            .to(config.getPersistRingSize());
+        bindConstant().annotatedWith(Names.named(TSO_REPLY_WAIT_STRATEGY_KEY))
+            .to(config.getReplyWaitStrategy());
+        bindConstant().annotatedWith(Names.named(TSO_REPLY_RING_SIZE_KEY))
+            .to(config.getReplyRingSize());
+        bindConstant().annotatedWith(Names.named(TSO_RETRY_WAIT_STRATEGY_KEY))
+            .to(config.getRetryWaitStrategy());
+        bindConstant().annotatedWith(Names.named(TSO_RETRY_RING_SIZE_KEY))
+            .to(config.getRetryRingSize());
+        bindConstant().annotatedWith(Names.named(TSO_RECENT_COMMITS_KEY))
+            .to(config.getRecentCommits());
 
         bindConstant().annotatedWith(Names.named(HBASE_COMMIT_TABLE_NAME_KEY))
                 .to(config.getHBaseCommitTable());
+        bindConstant().annotatedWith(Names.named(HBASE_COMMIT_TABLE_BATCH_ROWS_KEY))
+                .to(config.isHBaseCommitTableBatchRows());
 
         bindConstant().annotatedWith(Names.named(HBASE_TIMESTAMPSTORAGE_TABLE_NAME_KEY))
                 .to(config.getHBaseTimestampTable());
 
+        bindConstant().annotatedWith(Names.named(WAL_COMMIT_TABLE_DIR_KEY))
+                .to(config.getWALCommitTableDir());
+
         // Disruptor setup
         install(new DisruptorModule());
 
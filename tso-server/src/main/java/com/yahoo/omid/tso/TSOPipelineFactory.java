@@ -21,11 +21,6 @@ import org.jboss.netty.channel.ChannelPipelineFactory;
 import org.jboss.netty.channel.Channels;
 
 import org.jboss.netty.handler.codec.frame.LengthFieldBasedFrameDecoder;
-import org.jboss.netty.handler.codec.frame.LengthFieldPrepender;
-import org.jboss.netty.handler.codec.protobuf.ProtobufDecoder;
-import org.jboss.netty.handler.codec.protobuf.ProtobufEncoder;
-
-import com.yahoo.omid.proto.TSOProto;
 
 public class TSOPipelineFactory implements ChannelPipelineFactory {
     private final ChannelHandler handler;
@@ -41,11 +36,11 @@ public class TSOPipelineFactory implements ChannelPipelineFactory {
         // 10MB is enough for 2 million cells in a transaction though.
         pipeline.addLast("lengthbaseddecoder",
                          new LengthFieldBasedFrameDecoder(10*1024*1024, 0, 4, 0, 4));
-        pipeline.addLast("lengthprepender", new LengthFieldPrepender(4));
+        // Frames the responses, and passes through the ones already
+        // framed and coalesced by the reply processor
+        pipeline.addLast("responseencoder", new TSOResponseEncoder());
 
-        pipeline.addLast("protobufdecoder",
-                         new ProtobufDecoder(TSOProto.Request.getDefaultInstance()));
-        pipeline.addLast("protobufencoder", new ProtobufEncoder());
+        pipeline.addLast("protobufdecoder", new TSORequestDecoder());
 
         pipeline.addLast("handler", handler);
         return pipeline;
@@ -0,0 +1,379 @@
+/**
+ * Copyright 2011-2015 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.omid.tso;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBufferInputStream;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.handler.codec.oneone.OneToOneDecoder;
+
+import com.yahoo.omid.proto.TSOProto;
+
+/**
+ * Decodes the requests received by the TSO. Commit and timestamp requests,
+ * which are the bulk of the traffic, are parsed straight from the frame
+ * into {@link CommitRequest} and {@link TimestampRequest} holders reused for
+ * all the requests of the channel, so they don't allocate and the cell ids
+ * are never boxed. So are the ones sent in a {@link RequestBatch}. Any other
+ * message, or a request this decoder doesn't understand, is parsed by the
+ * generated protobuf code.
+ *
+ * A new decoder must be created for each channel. The holder returned is
+ * only valid until the next frame of the channel is decoded.
+ */
+public class TSORequestDecoder extends OneToOneDecoder {
+
+    // Wire format tags: (field number << 3) | wire type
+    private static final int REQUEST_TIMESTAMP_REQUEST_TAG = (1 << 3) | 2;
+    private static final int REQUEST_COMMIT_REQUEST_TAG = (2 << 3) | 2;
+    private static final int REQUEST_TIMESTAMP_RANGE_REQUEST_TAG = (4 << 3) | 2;
+    private static final int REQUEST_REQUEST_BATCH_TAG = (5 << 3) | 2;
+    private static final int BATCH_REQUEST_TAG = (1 << 3) | 2;
+    private static final int TIMESTAMP_RANGE_COUNT_TAG = (1 << 3) | 0;
+    private static final int COMMIT_START_TIMESTAMP_TAG = (1 << 3) | 0;
+    private static final int COMMIT_IS_RETRY_TAG = (2 << 3) | 0;
+    private static final int COMMIT_CELL_ID_TAG = (3 << 3) | 0;
+    private static final int COMMIT_PACKED_CELL_ID_TAG = (3 << 3) | 2;
+
+    private final CommitRequest commitRequest = new CommitRequest();
+    private final TimestampRequest timestampRequest = new TimestampRequest();
+    private final RequestBatch requestBatch = new RequestBatch();
+
+    @Override
+    protected Object decode(ChannelHandlerContext ctx, Channel channel, Object msg) throws Exception {
+        if (!(msg instanceof ChannelBuffer)) {
+            return msg;
+        }
+        ChannelBuffer buf = (ChannelBuffer) msg;
+        int start = buf.readerIndex();
+        try {
+            if (buf.readable()) {
+                switch (buf.getByte(start)) {
+                case REQUEST_COMMIT_REQUEST_TAG:
+                    if (decodeCommitRequest(buf, buf.writerIndex(), commitRequest)) {
+                        return commitRequest;
+                    }
+                    break;
+                case REQUEST_TIMESTAMP_REQUEST_TAG:
+                case REQUEST_TIMESTAMP_RANGE_REQUEST_TAG:
+                    if (decodeTimestampRequest(buf, buf.writerIndex(), timestampRequest)) {
+                        return timestampRequest;
+                    }
+                    break;
+                case REQUEST_REQUEST_BATCH_TAG:
+                    if (decodeRequestBatch(buf, requestBatch)) {
+                        return requestBatch;
+                    }
+                    break;
+                default:
+                    break;
+                }
+            }
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            // Malformed message, let the protobuf parser report it
+        }
+        buf.readerIndex(start);
+        return TSOProto.Request.newBuilder().mergeFrom(new ChannelBufferInputStream(buf)).build();
+    }
+
+    /**
+     * Parses a Request frame only containing a RequestBatch into the holder
+     * passed. Returns false if the frame has any other content, or if any of
+     * the requests of the batch is not a commit or timestamp request.
+     */
+    static boolean decodeRequestBatch(ChannelBuffer buf, RequestBatch batch) {
+        if (!buf.readable() || readRawVarint32(buf) != REQUEST_REQUEST_BATCH_TAG) {
+            return false;
+        }
+        int length = readRawVarint32(buf);
+        int end = buf.readerIndex() + length;
+        if (length < 0 || end != buf.writerIndex()) {
+            return false;
+        }
+
+        batch.clear();
+        while (buf.readerIndex() < end) {
+            if (readRawVarint32(buf) != BATCH_REQUEST_TAG) {
+                return false;
+            }
+            int requestLength = readRawVarint32(buf);
+            int requestEnd = buf.readerIndex() + requestLength;
+            if (requestLength <= 0 || requestEnd > end) {
+                return false;
+            }
+            switch (buf.getByte(buf.readerIndex())) {
+            case REQUEST_COMMIT_REQUEST_TAG:
+                if (!decodeCommitRequest(buf, requestEnd, batch.addCommitRequest())) {
+                    return false;
+                }
+                break;
+            case REQUEST_TIMESTAMP_REQUEST_TAG:
+            case REQUEST_TIMESTAMP_RANGE_REQUEST_TAG:
+                if (!decodeTimestampRequest(buf, requestEnd, batch.addTimestampRequest())) {
+                    return false;
+                }
+                break;
+            default:
+                return false;
+            }
+        }
+        return buf.readerIndex() == end;
+    }
+
+    /**
+     * Parses a Request only containing a CommitRequest, which ends at the
+     * limit of the buffer passed, into the holder passed. Returns false if
+     * the Request has any other content.
+     */
+    static boolean decodeCommitRequest(ChannelBuffer buf, int limit, CommitRequest cr) {
+        if (!buf.readable() || readRawVarint32(buf) != REQUEST_COMMIT_REQUEST_TAG) {
+            return false;
+        }
+        int length = readRawVarint32(buf);
+        int end = buf.readerIndex() + length;
+        if (length < 0 || end != limit) {
+            return false;
+        }
+
+        cr.clear();
+        while (buf.readerIndex() < end) {
+            int tag = readRawVarint32(buf);
+            switch (tag) {
+            case COMMIT_START_TIMESTAMP_TAG:
+                cr.startTimestamp = readRawVarint64(buf);
+                break;
+            case COMMIT_IS_RETRY_TAG:
+                cr.isRetry = readRawVarint64(buf) != 0;
+                break;
+            case COMMIT_CELL_ID_TAG:
+                cr.addCellId(readRawVarint64(buf));
+                break;
+            case COMMIT_PACKED_CELL_ID_TAG:
+                int cellsEnd = readRawVarint32(buf) + buf.readerIndex();
+                if (cellsEnd > end) {
+                    return false;
+                }
+                while (buf.readerIndex() < cellsEnd) {
+                    cr.addCellId(readRawVarint64(buf));
+                }
+                break;
+            default:
+                return false;
+            }
+        }
+        return buf.readerIndex() == end;
+    }
+
+    /**
+     * Parses a Request only containing a TimestampRequest or a
+     * TimestampRangeRequest, which ends at the limit of the buffer passed,
+     * into the holder passed. Returns false if the Request has any other
+     * content.
+     */
+    static boolean decodeTimestampRequest(ChannelBuffer buf, int limit, TimestampRequest tr) {
+        if (!buf.readable()) {
+            return false;
+        }
+        int tag = readRawVarint32(buf);
+        if (tag != REQUEST_TIMESTAMP_REQUEST_TAG && tag != REQUEST_TIMESTAMP_RANGE_REQUEST_TAG) {
+            return false;
+        }
+        int length = readRawVarint32(buf);
+        int end = buf.readerIndex() + length;
+        if (length < 0 || end != limit) {
+            return false;
+        }
+
+        if (tag == REQUEST_TIMESTAMP_REQUEST_TAG) {
+            tr.range = false;
+            tr.count = 1;
+            return length == 0;
+        }
+        tr.range = true;
+        tr.count = 0;
+        while (buf.readerIndex() < end) {
+            if (readRawVarint32(buf) != TIMESTAMP_RANGE_COUNT_TAG) {
+                return false;
+            }
+            tr.count = (int) readRawVarint64(buf);
+        }
+        return buf.readerIndex() == end;
+    }
+
+    private static int readRawVarint32(ChannelBuffer buf) {
+        return (int) readRawVarint64(buf);
+    }
+
+    private static long readRawVarint64(ChannelBuffer buf) {
+        int shift = 0;
+        long result = 0;
+        while (shift < 64) {
+            final byte b = buf.readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+            shift += 7;
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    /**
+     * Reusable holder of a decoded timestamp or timestamp range request
+     */
+    static class TimestampRequest {
+
+        private boolean range;
+        private int count;
+
+        boolean isRange() {
+            return range;
+        }
+
+        /**
+         * Number of timestamps requested, as sent by the client for ranges
+         */
+        int getCount() {
+            return count;
+        }
+
+    }
+
+    /**
+     * Reusable holder of a decoded commit request
+     */
+    static class CommitRequest {
+
+        private static final int INITIAL_CAPACITY = 40;
+
+        private long startTimestamp;
+        private boolean isRetry;
+        private long[] cellIds = new long[INITIAL_CAPACITY];
+        private int numCells;
+
+        void clear() {
+            startTimestamp = 0;
+            isRetry = false;
+            numCells = 0;
+        }
+
+        void addCellId(long cellId) {
+            if (numCells == cellIds.length) {
+                long[] newCellIds = new long[cellIds.length * 2];
+                System.arraycopy(cellIds, 0, newCellIds, 0, numCells);
+                cellIds = newCellIds;
+            }
+            cellIds[numCells++] = cellId;
+        }
+
+        long getStartTimestamp() {
+            return startTimestamp;
+        }
+
+        boolean isRetry() {
+            return isRetry;
+        }
+
+        long[] getCellIds() {
+            return cellIds;
+        }
+
+        int getNumCells() {
+            return numCells;
+        }
+
+    }
+
+    /**
+     * Reusable holder of the requests of a decoded batch, in the order they
+     * were sent. Each one is either a {@link CommitRequest} or a
+     * {@link TimestampRequest}, taken from pools that grow to the largest
+     * batch received by the channel.
+     */
+    static class RequestBatch {
+
+        private static final int INITIAL_CAPACITY = 64;
+
+        private final List<CommitRequest> commitRequests = new ArrayList<>();
+        private final List<TimestampRequest> timestampRequests = new ArrayList<>();
+        private int numCommitRequests;
+        private int numTimestampRequests;
+        private Object[] requests = new Object[INITIAL_CAPACITY];
+        private int size;
+
+        void clear() {
+            numCommitRequests = 0;
+            numTimestampRequests = 0;
+            size = 0;
+        }
+
+        CommitRequest addCommitRequest() {
+            if (numCommitRequests == commitRequests.size()) {
+                commitRequests.add(new CommitRequest());
+            }
+            CommitRequest cr = commitRequests.get(numCommitRequests++);
+            add(cr);
+            return cr;
+        }
+
+        TimestampRequest addTimestampRequest() {
+            if (numTimestampRequests == timestampRequests.size()) {
+                timestampRequests.add(new TimestampRequest());
+            }
+            TimestampRequest tr = timestampRequests.get(numTimestampRequests++);
+            add(tr);
+            return tr;
+        }
+
+        private void add(Object request) {
+            if (size == requests.length) {
+                Object[] newRequests = new Object[requests.length * 2];
+                System.arraycopy(requests, 0, newRequests, 0, size);
+                requests = newRequests;
+            }
+            requests[size++] = request;
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Returns a {@link CommitRequest} or a {@link TimestampRequest}
+         */
+        Object get(int i) {
+            return requests[i];
+        }
+
+        /**
+         * Replaces the request at i, to drop some requests in place along
+         * with {@link #truncate(int)}
+         */
+        void set(int i, Object request) {
+            requests[i] = request;
+        }
+
+        void truncate(int newSize) {
+            size = newSize;
+        }
+
+    }
+
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright 2011-2015 Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yahoo.omid.tso;
+
+import java.io.IOException;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBufferOutputStream;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.handler.codec.oneone.OneToOneEncoder;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.MessageLite;
+
+/**
+ * Encodes the messages to the clients in frames prefixed by their length,
+ * like a ProtobufEncoder followed by a LengthFieldPrepender(4) would.
+ *
+ * Buffers are written as they are, as they are expected to be frames
+ * already encoded with the append methods. This lets the reply processor
+ * send all the responses for a channel in a single write. The timestamp
+ * and commit responses are encoded by hand, straight into the buffer, so
+ * they don't create any protobuf objects. The bytes are the same the
+ * generated code produces.
+ */
+public class TSOResponseEncoder extends OneToOneEncoder {
+
+    static final int LENGTH_FIELD_SIZE = 4;
+
+    // Wire format tags: (field number << 3) | wire type
+    private static final int RESPONSE_TIMESTAMP_RESPONSE_TAG = (1 << 3) | 2;
+    private static final int RESPONSE_COMMIT_RESPONSE_TAG = (2 << 3) | 2;
+    private static final int RESPONSE_TIMESTAMP_RANGE_RESPONSE_TAG = (4 << 3) | 2;
+    private static final int TIMESTAMP_START_TIMESTAMP_TAG = (1 << 3) | 0;
+    private static final int TIMESTAMP_RANGE_FIRST_TIMESTAMP_TAG = (1 << 3) | 0;
+    private static final int TIMESTAMP_RANGE_COUNT_TAG = (2 << 3) | 0;
+    private static final int COMMIT_ABORTED_TAG = (1 << 3) | 0;
+    private static final int COMMIT_START_TIMESTAMP_TAG = (2 << 3) | 0;
+    private static final int COMMIT_COMMIT_TIMESTAMP_TAG = (3 << 3) | 0;
+
+    @Override
+    protected Object encode(ChannelHandlerContext ctx, Channel channel, Object msg) throws Exception {
+        if (!(msg instanceof MessageLite)) {
+            return msg;
+        }
+        MessageLite message = (MessageLite) msg;
+        ChannelBuffer buf = ChannelBuffers.buffer(LENGTH_FIELD_SIZE + message.getSerializedSize());
+        appendFrame(buf, message);
+        return buf;
+    }
+
+    /**
+     * Appends the message with its length prefix to the buffer
+     */
+    static void appendFrame(ChannelBuffer buf, MessageLite message) throws IOException {
+        int size = message.getSerializedSize();
+        buf.ensureWritableBytes(LENGTH_FIELD_SIZE + size);
+        buf.writeInt(size);
+        CodedOutputStream output = CodedOutputStream.newInstance(new ChannelBufferOutputStream(buf), size);
+        message.writeTo(output);
+        output.flush();
+    }
+
+    static void appendTimestampResponse(ChannelBuffer buf, long startTimestamp) {
+        appendResponseHeader(buf, RESPONSE_TIMESTAMP_RESPONSE_TAG,
+                             1 + varint64Size(startTimestamp));
+        buf.writeByte(TIMESTAMP_START_TIMESTAMP_TAG);
+        writeRawVarint64(buf, startTimestamp);
+    }
+
+    static void appendTimestampRangeResponse(ChannelBuffer buf, long firstTimestamp, int count) {
+        appendResponseHeader(buf, RESPONSE_TIMESTAMP_RANGE_RESPONSE_TAG,
+                             1 + varint64Size(firstTimestamp) + 1 + varint64Size(count));
+        buf.writeByte(TIMESTAMP_RANGE_FIRST_TIMESTAMP_TAG);
+        writeRawVarint64(buf, firstTimestamp);
+        buf.writeByte(TIMESTAMP_RANGE_COUNT_TAG);
+        writeRawVarint64(buf, count);
+    }
+
+    static void appendCommitResponse(ChannelBuffer buf, long startTimestamp, long commitTimestamp) {
+        appendResponseHeader(buf, RESPONSE_COMMIT_RESPONSE_TAG,
+                             2 + 1 + varint64Size(startTimestamp) + 1 + varint64Size(commitTimestamp));
+        buf.writeByte(COMMIT_ABORTED_TAG);
+        buf.writeByte(0);
+        buf.writeByte(COMMIT_START_TIMESTAMP_TAG);
+        writeRawVarint64(buf, startTimestamp);
+        buf.writeByte(COMMIT_COMMIT_TIMESTAMP_TAG);
+        writeRawVarint64(buf, commitTimestamp);
+    }
+
+    static void appendAbortResponse(ChannelBuffer buf, long startTimestamp) {
+        appendResponseHeader(buf, RESPONSE_COMMIT_RESPONSE_TAG,
+                             2 + 1 + varint64Size(startTimestamp));
+        buf.writeByte(COMMIT_ABORTED_TAG);
+        buf.writeByte(1);
+        buf.writeByte(COMMIT_START_TIMESTAMP_TAG);
+        writeRawVarint64(buf, startTimestamp);
+    }
+
+    /**
+     * Writes the length of the frame and the header of the Response field
+     * holding a message of bodySize bytes, leaving room for the whole frame
+     */
+    private static void appendResponseHeader(ChannelBuffer buf, int tag, int bodySize) {
+        int frameSize = 1 + varint64Size(bodySize) + bodySize;
+        buf.ensureWritableBytes(LENGTH_FIELD_SIZE + frameSize);
+        buf.writeInt(frameSize);
+        buf.writeByte(tag);
+        writeRawVarint64(buf, bodySize);
+    }
+
+    private static int varint64Size(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static void writeRawVarint64(ChannelBuffer buf, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buf.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buf.writeByte((int) value);
+    }
+
+}
@@ -34,6 +34,7 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.HBaseConfiguration;
 import org.apache.zookeeper.data.Stat;
 import org.jboss.netty.bootstrap.ServerBootstrap;
+import org.jboss.netty.buffer.DirectChannelBufferFactory;
 import org.jboss.netty.channel.Channel;
 import org.jboss.netty.channel.ChannelFactory;
 import org.jboss.netty.channel.group.ChannelGroup;
@@ -52,8 +53,10 @@ import com.google.inject.Module;
 import com.google.inject.Provides;
 import com.yahoo.omid.committable.hbase.HBaseCommitTableStorageModule;
 import com.yahoo.omid.committable.hbase.HBaseLogin;
+import com.yahoo.omid.committable.wal.WALCommitTableStorageModule;
 import com.yahoo.omid.metrics.CodahaleMetricsConfig;
 import com.yahoo.omid.metrics.MetricsProvider.Provider;
+import com.yahoo.omid.timestamp.storage.FileTimestampStorageModule;
 import com.yahoo.omid.timestamp.storage.ZKTimestampStorageModule;
 import com.yahoo.omid.tso.TSOServerCommandLineConfig.CommitTableStore;
 import com.yahoo.omid.tso.TSOServerCommandLineConfig.TimestampStore;
@@ -64,6 +67,14 @@ public class TSOServer extends AbstractIdleService {
 
     private static final Logger LOG = LoggerFactory.getLogger(TSOServer.class);
 
+    // Netty transport
+    static final int DEFAULT_IO_THREADS = (Runtime.getRuntime().availableProcessors() * 2 + 1) * 2;
+    static final boolean DEFAULT_DIRECT_BUFFERS = false;
+    static final int DEFAULT_SOCKET_BUFFER_SIZE = 0; // OS default
+    static final boolean DEFAULT_TCP_NO_DELAY = false;
+    static final boolean DEFAULT_KEEP_ALIVE = false;
+    static final boolean DEFAULT_REUSE_ADDRESS = false;
+
     public static final String TSO_HOST_AND_PORT_KEY = "tso.hostandport";
 
     private final TSOServerCommandLineConfig config;
@@ -76,14 +87,16 @@ public class TSOServer extends AbstractIdleService {
     private String tsoHostAndPortAsString;
 
     private RequestProcessor requestProc;
+    private ReplyProcessor replyProc;
 
     private ChannelFactory factory;
     private ChannelGroup channelGroup;
 
     @Inject
-    public TSOServer(TSOServerCommandLineConfig config, RequestProcessor requestProc) {
+    public TSOServer(TSOServerCommandLineConfig config, RequestProcessor requestProc, ReplyProcessor replyProc) {
         this.config = config;
         this.requestProc = requestProc;
+        this.replyProc = replyProc;
     }
 
     static TSOServer getInitializedTsoServer(TSOServerCommandLineConfig config) throws IOException {
@@ -156,6 +169,9 @@ public class TSOServer extends AbstractIdleService {
             case ZK:
                 guiceModules.add(new ZKTimestampStorageModule(config));
                 break;
+            case FILE:
+                guiceModules.add(new FileTimestampStorageModule(config));
+                break;
             default:
                 throw new IllegalArgumentException("Unknown timestamp store" + timestampStore);
             }
@@ -171,6 +187,9 @@ public class TSOServer extends AbstractIdleService {
             case MEMORY:
                 guiceModules.add(new InMemoryCommitTableStorageModule());
                 break;
+            case WAL:
+                guiceModules.add(new WALCommitTableStorageModule());
+                break;
             default:
                 throw new IllegalArgumentException("Unknown commit table store" + commitTableStore);
             }
@@ -201,15 +220,36 @@ public class TSOServer extends AbstractIdleService {
         // Setup netty listener
         factory = new NioServerSocketChannelFactory(Executors.newCachedThreadPool(new ThreadFactoryBuilder()
                 .setNameFormat("boss-%d").build()), Executors.newCachedThreadPool(new ThreadFactoryBuilder()
-                .setNameFormat("worker-%d").build()), (Runtime.getRuntime().availableProcessors() * 2 + 1) * 2);
+                .setNameFormat("worker-%d").build()), config.getIoThreads());
 
         // Create the global ChannelGroup
         channelGroup = new DefaultChannelGroup(TSOServer.class.getName());
 
-        final TSOHandler handler = new TSOHandler(channelGroup, requestProc);
+        final TSOHandler handler = new TSOHandler(channelGroup, requestProc, replyProc,
+                                                  config.getMaxInFlightRequests(),
+                                                  config.getOverloadRetryAfterMs());
 
         ServerBootstrap bootstrap = new ServerBootstrap(factory);
         bootstrap.setPipelineFactory(new TSOPipelineFactory(handler));
+        if (config.isTcpNoDelay()) {
+            // The replies are already coalesced per channel, so don't delay them further
+            bootstrap.setOption("child.tcpNoDelay", true);
+        }
+        if (config.isKeepAlive()) {
+            bootstrap.setOption("child.keepAlive", true);
+        }
+        if (config.isReuseAddress()) {
+            bootstrap.setOption("reuseAddress", true);
+        }
+        if (config.isDirectBuffers()) {
+            // Slices of preallocated direct memory, so the socket writes and
+            // reads don't copy from and to the heap
+            bootstrap.setOption("child.bufferFactory", DirectChannelBufferFactory.getInstance());
+        }
+        if (config.getSocketBufferSize() > 0) {
+            bootstrap.setOption("child.sendBufferSize", config.getSocketBufferSize());
+            bootstrap.setOption("child.receiveBufferSize", config.getSocketBufferSize());
+        }
 
         // Add the parent channel to the group
         Channel channel = bootstrap.bind(new InetSocketAddress(config.getPort()));
@@ -16,12 +16,40 @@
 package com.yahoo.omid.tso;
 
 import static com.yahoo.omid.committable.hbase.HBaseCommitTable.COMMIT_TABLE_DEFAULT_NAME;
+import static com.yahoo.omid.committable.wal.WALCommitTable.WAL_COMMIT_TABLE_DEFAULT_DIR;
 import static com.yahoo.omid.metrics.CodahaleMetricsProvider.DEFAULT_CODAHALE_METRICS_CONFIG;
+import static com.yahoo.omid.timestamp.storage.FileTimestampStorage.DEFAULT_TIMESTAMP_FILE;
 import static com.yahoo.omid.timestamp.storage.ZKTimestampStorage.DEFAULT_ZK_CLUSTER;
 import static com.yahoo.omid.tso.PersistenceProcessorImpl.DEFAULT_BATCH_PERSIST_TIMEOUT_MS;
 import static com.yahoo.omid.tso.PersistenceProcessorImpl.DEFAULT_MAX_BATCH_SIZE;
+import static com.yahoo.omid.tso.PersistenceProcessorImpl.DEFAULT_PERSIST_PIPELINE_DEPTH;
+import static com.yahoo.omid.tso.PersistenceProcessorImpl.DEFAULT_COMMIT_TABLE_WRITERS;
+import static com.yahoo.omid.tso.PersistenceProcessorImpl.DEFAULT_TARGET_COMMIT_LATENCY_MS;
+import static com.yahoo.omid.tso.PersistenceProcessorImpl.DEFAULT_EARLY_TIMESTAMP_REPLIES;
+import static com.yahoo.omid.tso.RequestProcessorImpl.DEFAULT_CACHE_TYPE;
+import static com.yahoo.omid.tso.RequestProcessorImpl.DEFAULT_CONFLICT_DETECTION_SHARDS;
+import static com.yahoo.omid.tso.RequestProcessorImpl.DEFAULT_HOT_CELLS_TOP_K;
+import static com.yahoo.omid.tso.RequestProcessorImpl.DEFAULT_LOW_WATERMARK_SEGMENTS;
 import static com.yahoo.omid.tso.RequestProcessorImpl.DEFAULT_MAX_ITEMS;
+import static com.yahoo.omid.tso.RequestProcessorImpl.DEFAULT_REQUEST_BATCHING;
+import static com.yahoo.omid.tso.RequestProcessorImpl.DEFAULT_REQUEST_WAIT_STRATEGY;
+import static com.yahoo.omid.tso.RequestProcessorImpl.DEFAULT_REQUEST_RING_SIZE;
+import static com.yahoo.omid.tso.PersistenceProcessorImpl.DEFAULT_PERSIST_WAIT_STRATEGY;
+import static com.yahoo.omid.tso.PersistenceProcessorImpl.DEFAULT_PERSIST_RING_SIZE;
+import static com.yahoo.omid.tso.ReplyProcessorImpl.DEFAULT_REPLY_WAIT_STRATEGY;
+import static com.yahoo.omid.tso.ReplyProcessorImpl.DEFAULT_REPLY_RING_SIZE;
+import static com.yahoo.omid.tso.RetryProcessorImpl.DEFAULT_RETRY_WAIT_STRATEGY;
+import static com.yahoo.omid.tso.RetryProcessorImpl.DEFAULT_RETRY_RING_SIZE;
+import static com.yahoo.omid.tso.RetryProcessorImpl.DEFAULT_RECENT_COMMITS;
 import static com.yahoo.omid.tso.hbase.HBaseTimestampStorage.TIMESTAMP_TABLE_DEFAULT_NAME;
+import static com.yahoo.omid.tso.TSOServer.DEFAULT_IO_THREADS;
+import static com.yahoo.omid.tso.TSOServer.DEFAULT_DIRECT_BUFFERS;
+import static com.yahoo.omid.tso.TSOServer.DEFAULT_SOCKET_BUFFER_SIZE;
+import static com.yahoo.omid.tso.TSOServer.DEFAULT_TCP_NO_DELAY;
+import static com.yahoo.omid.tso.TSOServer.DEFAULT_KEEP_ALIVE;
+import static com.yahoo.omid.tso.TSOServer.DEFAULT_REUSE_ADDRESS;
+import static com.yahoo.omid.tso.TSOHandler.DEFAULT_MAX_IN_FLIGHT_REQUESTS;
+import static com.yahoo.omid.tso.TSOHandler.DEFAULT_OVERLOAD_RETRY_AFTER_MS;
 
 import java.net.NetworkInterface;
 import java.net.SocketException;
@@ -48,11 +76,11 @@ public class TSOServerCommandLineConfig extends JCommander implements IVariableA
     static final String MAC_TSO_NET_IFACE_PREFIX = "en";
 
     public enum TimestampStore {
-        MEMORY, HBASE, ZK
+        MEMORY, HBASE, ZK, FILE
     };
 
     public enum CommitTableStore {
-        MEMORY, HBASE
+        MEMORY, HBASE, WAL
     };
 
     TSOServerCommandLineConfig() {
@@ -81,13 +109,16 @@ public class TSOServerCommandLineConfig extends JCommander implements IVariableA
     @Parameter(names="-help", description = "Print command options and exit", help = true)
     private boolean help = false;
 
-    @Parameter(names = "-timestampStore", description = "Available stores, MEMORY, HBASE, ZK")
+    @Parameter(names = "-timestampStore", description = "Available stores, MEMORY, HBASE, ZK, FILE")
     private TimestampStore timestampStore = TimestampStore.MEMORY;
 
     @Parameter(names = "-zkCluster", description = "Zookeeper cluster in form: <host>:<port>,<host>,<port>,...)")
     private String zkCluster = DEFAULT_ZK_CLUSTER;
 
-    @Parameter(names = "-commitTableStore", description = "Available stores, MEMORY, HBASE")
+    @Parameter(names = "-timestampFile", description = "Local file where the FILE timestamp store keeps the max timestamp")
+    private String timestampFile = DEFAULT_TIMESTAMP_FILE;
+
+    @Parameter(names = "-commitTableStore", description = "Available stores, MEMORY, HBASE, WAL")
     private CommitTableStore commitTableStore = CommitTableStore.MEMORY;
 
     @Parameter(names = "-hbaseTimestampTable", description = "HBase timestamp table name")
@@ -96,9 +127,39 @@ public class TSOServerCommandLineConfig extends JCommander implements IVariableA
     @Parameter(names = "-hbaseCommitTable", description = "HBase commit table name")
     private String hbaseCommitTable = COMMIT_TABLE_DEFAULT_NAME;
 
+    @Parameter(names = "-hbaseCommitTableBatchRows", description = "Store each persisted batch in a few HBase commit table rows, instead of a row per transaction. Clients and compactors must use the same encoding")
+    private boolean hbaseCommitTableBatchRows = false;
+
+    @Parameter(names = "-walCommitTableDir", description = "Local directory of the WAL commit table")
+    private String walCommitTableDir = WAL_COMMIT_TABLE_DEFAULT_DIR;
+
     @Parameter(names = "-port", description = "Port reserved by the Status Oracle")
     private int port = TSOClient.DEFAULT_TSO_PORT;
 
+    @Parameter(names = "-ioThreads", description = "Number of threads handling the client connections")
+    private int ioThreads = DEFAULT_IO_THREADS;
+
+    @Parameter(names = "-directBuffers", description = "Use direct buffers for the client connections")
+    private boolean directBuffers = DEFAULT_DIRECT_BUFFERS;
+
+    @Parameter(names = "-socketBufferSize", description = "Size of the socket send and receive buffers of the client connections (0 for the OS default)")
+    private int socketBufferSize = DEFAULT_SOCKET_BUFFER_SIZE;
+
+    @Parameter(names = "-tcpNoDelay", description = "Disable Nagle's algorithm on the client connections. The replies are already coalesced per connection")
+    private boolean tcpNoDelay = DEFAULT_TCP_NO_DELAY;
+
+    @Parameter(names = "-keepAlive", description = "Enable TCP keepalive on the client connections")
+    private boolean keepAlive = DEFAULT_KEEP_ALIVE;
+
+    @Parameter(names = "-reuseAddress", description = "Allow binding the port while old connections to it are in TIME_WAIT")
+    private boolean reuseAddress = DEFAULT_REUSE_ADDRESS;
+
+    @Parameter(names = "-maxInFlightRequests", description = "Max number of requests of a client connection not replied yet. The clients over it are asked to retry later (0 for no limit)")
+    private int maxInFlightRequests = DEFAULT_MAX_IN_FLIGHT_REQUESTS;
+
+    @Parameter(names = "-overloadRetryAfterMs", description = "Time the clients are asked to wait before retrying the requests rejected when the TSO is overloaded")
+    private int overloadRetryAfterMs = DEFAULT_OVERLOAD_RETRY_AFTER_MS;
+
     @Parameter(names = "-metricsProvider", description = "Metrics provider: CODAHALE")
     private MetricsProvider.Provider metricsProvider = MetricsProvider.Provider.CODAHALE;
 
@@ -108,12 +169,66 @@ public class TSOServerCommandLineConfig extends JCommander implements IVariableA
     @Parameter(names = "-maxItems", description = "Maximum number of items in the TSO (will determine the 'low watermark')")
     private int maxItems = DEFAULT_MAX_ITEMS;
 
+    @Parameter(names = "-conflictDetectionShards", description = "Number of threads (and partitions of the items) used for conflict detection")
+    private int conflictDetectionShards = DEFAULT_CONFLICT_DETECTION_SHARDS;
+
+    @Parameter(names = "-cacheType", description = "Where the items of the TSO are kept: HEAP, OFF_HEAP, BUCKETED")
+    private Cache.Type cacheType = DEFAULT_CACHE_TYPE;
+
+    @Parameter(names = "-lowWatermarkSegments", description = "Number of segments (power of two) of the items, each one with its own 'low watermark'")
+    private int lowWatermarkSegments = DEFAULT_LOW_WATERMARK_SEGMENTS;
+
+    @Parameter(names = "-requestBatching", description = "Process the requests in batches, allocating the timestamps of each batch at once. Ignored when conflict detection is sharded")
+    private boolean requestBatching = DEFAULT_REQUEST_BATCHING;
+
+    @Parameter(names = "-hotCellsTopK", description = "Number of cells hitting more conflicts tracked by the TSO (0 to disable)")
+    private int hotCellsTopK = DEFAULT_HOT_CELLS_TOP_K;
+
     @Parameter(names = "-maxBatchSize", description = "Maximum size in each persisted batch of commits")
     private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
 
     @Parameter(names = "-batchPersistTimeout", description = "Number of milliseconds the persist processer will wait without new input before flushing a batch")
     private int batchPersistTimeoutMS = DEFAULT_BATCH_PERSIST_TIMEOUT_MS;
 
+    @Parameter(names = "-persistPipelineDepth", description = "Number of batches of commits that can be filled or flushing at the same time")
+    private int persistPipelineDepth = DEFAULT_PERSIST_PIPELINE_DEPTH;
+
+    @Parameter(names = "-commitTableWriters", description = "Number of commit table writers flushing each batch in parallel, each on its own connection. The HBase commit table gives each of them a range of its 16 row buckets")
+    private int commitTableWriters = DEFAULT_COMMIT_TABLE_WRITERS;
+
+    @Parameter(names = "-targetCommitLatency", description = "Target commit latency in milliseconds. The linger time and size of the persisted batches are adapted to meet it (0 for fixed batching)")
+    private int targetCommitLatencyMS = DEFAULT_TARGET_COMMIT_LATENCY_MS;
+
+    @Parameter(names = "-earlyTimestampReplies", description = "Reply timestamp requests as soon as the commits received before them are persisted, instead of after the flush of their own batch")
+    private boolean earlyTimestampReplies = DEFAULT_EARLY_TIMESTAMP_REPLIES;
+
+    @Parameter(names = "-requestWaitStrategy", description = "How the request thread waits for new events: BUSY_SPIN, YIELDING, PHASED_BACKOFF, BLOCKING")
+    private DisruptorRings.WaitStrategyType requestWaitStrategy = DEFAULT_REQUEST_WAIT_STRATEGY;
+
+    @Parameter(names = "-requestRingSize", description = "Number of entries of the request ring (a power of 2)")
+    private int requestRingSize = DEFAULT_REQUEST_RING_SIZE;
+
+    @Parameter(names = "-persistWaitStrategy", description = "How the persist thread waits for new events: BUSY_SPIN, YIELDING, PHASED_BACKOFF, BLOCKING")
+    private DisruptorRings.WaitStrategyType persistWaitStrategy = DEFAULT_PERSIST_WAIT_STRATEGY;
+
+    @Parameter(names = "-persistRingSize", description = "Number of entries of the persist ring (a power of 2)")
+    private int persistRingSize = DEFAULT_PERSIST_RING_SIZE;
+
+    @Parameter(names = "-replyWaitStrategy", description = "How the reply thread waits for new events: BUSY_SPIN, YIELDING, PHASED_BACKOFF, BLOCKING")
+    private DisruptorRings.WaitStrategyType replyWaitStrategy = DEFAULT_REPLY_WAIT_STRATEGY;
+
+    @Parameter(names = "-replyRingSize", description = "Number of entries of the reply ring (a power of 2)")
+    private int replyRingSize = DEFAULT_REPLY_RING_SIZE;
+
+    @Parameter(names = "-retryWaitStrategy", description = "How the retry thread waits for new events: BUSY_SPIN, YIELDING, PHASED_BACKOFF, BLOCKING")
+    private DisruptorRings.WaitStrategyType retryWaitStrategy = DEFAULT_RETRY_WAIT_STRATEGY;
+
+    @Parameter(names = "-retryRingSize", description = "Number of entries of the retry ring (a power of 2)")
+    private int retryRingSize = DEFAULT_RETRY_RING_SIZE;
+
+    @Parameter(names = "-recentCommits", description = "Number of recent commits kept in memory to answer retries (a power of 2, 0 to disable)")
+    private int recentCommits = DEFAULT_RECENT_COMMITS;
+
     // TODO This is probably going to be temporary. So, we should remove it later if not required. Otherwise
     // we should make it private and provide accessors as is done with the other parameters
     @Parameter(names = "-publishHostAndPortInZK", description = "Publishes the host:port of this TSO server in ZK")
@@ -150,6 +265,10 @@ public class TSOServerCommandLineConfig extends JCommander implements IVariableA
         return zkCluster;
     }
 
+    public String getTimestampFile() {
+        return timestampFile;
+    }
+
     public CommitTableStore getCommitTableStore() {
         return commitTableStore;
     }
@@ -162,10 +281,50 @@ public class TSOServerCommandLineConfig extends JCommander implements IVariableA
         return hbaseCommitTable;
     }
 
+    public boolean isHBaseCommitTableBatchRows() {
+        return hbaseCommitTableBatchRows;
+    }
+
+    public String getWALCommitTableDir() {
+        return walCommitTableDir;
+    }
+
     public int getPort() {
         return port;
     }
 
+    public int getIoThreads() {
+        return ioThreads;
+    }
+
+    public boolean isDirectBuffers() {
+        return directBuffers;
+    }
+
+    public int getSocketBufferSize() {
+        return socketBufferSize;
+    }
+
+    public boolean isTcpNoDelay() {
+        return tcpNoDelay;
+    }
+
+    public boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    public boolean isReuseAddress() {
+        return reuseAddress;
+    }
+
+    public int getMaxInFlightRequests() {
+        return maxInFlightRequests;
+    }
+
+    public int getOverloadRetryAfterMs() {
+        return overloadRetryAfterMs;
+    }
+
     public MetricsProvider.Provider getMetricsProvider() {
         return metricsProvider;
     }
@@ -178,6 +337,26 @@ public class TSOServerCommandLineConfig extends JCommander implements IVariableA
         return maxItems;
     }
 
+    public int getConflictDetectionShards() {
+        return conflictDetectionShards;
+    }
+
+    public Cache.Type getCacheType() {
+        return cacheType;
+    }
+
+    public int getLowWatermarkSegments() {
+        return lowWatermarkSegments;
+    }
+
+    public boolean isRequestBatching() {
+        return requestBatching;
+    }
+
+    public int getHotCellsTopK() {
+        return hotCellsTopK;
+    }
+
     public int getMaxBatchSize() {
         return maxBatchSize;
     }
@@ -186,6 +365,58 @@ public class TSOServerCommandLineConfig extends JCommander implements IVariableA
         return batchPersistTimeoutMS;
     }
 
+    public int getPersistPipelineDepth() {
+        return persistPipelineDepth;
+    }
+
+    public int getCommitTableWriters() {
+        return commitTableWriters;
+    }
+
+    public int getTargetCommitLatencyMS() {
+        return targetCommitLatencyMS;
+    }
+
+    public boolean isEarlyTimestampReplies() {
+        return earlyTimestampReplies;
+    }
+
+    public DisruptorRings.WaitStrategyType getRequestWaitStrategy() {
+        return requestWaitStrategy;
+    }
+
+    public int getRequestRingSize() {
+        return requestRingSize;
+    }
+
+    public DisruptorRings.WaitStrategyType getPersistWaitStrategy() {
+        return persistWaitStrategy;
+    }
+
+    public int getPersistRingSize() {
+        return persistRingSize;
+    }
+
+    public DisruptorRings.WaitStrategyType getReplyWaitStrategy() {
+        return replyWaitStrategy;
+    }
+
+    public int getReplyRingSize() {
+        return replyRingSize;
+    }
+
+    public DisruptorRings.WaitStrategyType getRetryWaitStrategy() {
+        return retryWaitStrategy;
+    }
+
+    public int getRetryRingSize() {
+        return retryRingSize;
+    }
+
+    public int getRecentCommits() {
+        return recentCommits;
+    }
+
     public HBaseLogin.Config getLoginFlags() { return loginFlags; }
 
     public String getNetworkIface() {
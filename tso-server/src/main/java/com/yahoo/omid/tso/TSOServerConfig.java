@@ -19,9 +19,46 @@ import static com.yahoo.omid.tso.PersistenceProcessorImpl.DEFAULT_MAX_BATCH_SIZE
 import static com.yahoo.omid.tso.PersistenceProcessorImpl.TSO_MAX_BATCH_SIZE_KEY;
 import static com.yahoo.omid.tso.PersistenceProcessorImpl.DEFAULT_BATCH_PERSIST_TIMEOUT_MS;
 import static com.yahoo.omid.tso.PersistenceProcessorImpl.TSO_BATCH_PERSIST_TIMEOUT_MS_KEY;
+import static com.yahoo.omid.tso.PersistenceProcessorImpl.DEFAULT_PERSIST_PIPELINE_DEPTH;
+import static com.yahoo.omid.tso.PersistenceProcessorImpl.TSO_PERSIST_PIPELINE_DEPTH_KEY;
+import static com.yahoo.omid.tso.PersistenceProcessorImpl.DEFAULT_COMMIT_TABLE_WRITERS;
+import static com.yahoo.omid.tso.PersistenceProcessorImpl.TSO_COMMIT_TABLE_WRITERS_KEY;
+import static com.yahoo.omid.tso.PersistenceProcessorImpl.DEFAULT_TARGET_COMMIT_LATENCY_MS;
+import static com.yahoo.omid.tso.PersistenceProcessorImpl.TSO_TARGET_COMMIT_LATENCY_MS_KEY;
+import static com.yahoo.omid.tso.PersistenceProcessorImpl.DEFAULT_EARLY_TIMESTAMP_REPLIES;
+import static com.yahoo.omid.tso.PersistenceProcessorImpl.TSO_EARLY_TIMESTAMP_REPLIES_KEY;
 
+import static com.yahoo.omid.tso.RequestProcessorImpl.DEFAULT_CACHE_TYPE;
+import static com.yahoo.omid.tso.RequestProcessorImpl.DEFAULT_CONFLICT_DETECTION_SHARDS;
+import static com.yahoo.omid.tso.RequestProcessorImpl.DEFAULT_HOT_CELLS_TOP_K;
+import static com.yahoo.omid.tso.RequestProcessorImpl.DEFAULT_LOW_WATERMARK_SEGMENTS;
 import static com.yahoo.omid.tso.RequestProcessorImpl.DEFAULT_MAX_ITEMS;
+import static com.yahoo.omid.tso.RequestProcessorImpl.DEFAULT_REQUEST_BATCHING;
+import static com.yahoo.omid.tso.RequestProcessorImpl.TSO_CACHE_TYPE_KEY;
+import static com.yahoo.omid.tso.RequestProcessorImpl.TSO_CONFLICT_DETECTION_SHARDS_KEY;
+import static com.yahoo.omid.tso.RequestProcessorImpl.TSO_HOT_CELLS_TOP_K_KEY;
+import static com.yahoo.omid.tso.RequestProcessorImpl.TSO_LOW_WATERMARK_SEGMENTS_KEY;
 import static com.yahoo.omid.tso.RequestProcessorImpl.TSO_MAX_ITEMS_KEY;
+import static com.yahoo.omid.tso.RequestProcessorImpl.TSO_REQUEST_BATCHING_KEY;
+
+import static com.yahoo.omid.tso.RequestProcessorImpl.DEFAULT_REQUEST_WAIT_STRATEGY;
+import static com.yahoo.omid.tso.RequestProcessorImpl.TSO_REQUEST_WAIT_STRATEGY_KEY;
+import static com.yahoo.omid.tso.RequestProcessorImpl.DEFAULT_REQUEST_RING_SIZE;
+import static com.yahoo.omid.tso.RequestProcessorImpl.TSO_REQUEST_RING_SIZE_KEY;
+import static com.yahoo.omid.tso.PersistenceProcessorImpl.DEFAULT_PERSIST_WAIT_STRATEGY;
+import static com.yahoo.omid.tso.PersistenceProcessorImpl.TSO_PERSIST_WAIT_STRATEGY_KEY;
+import static com.yahoo.omid.tso.PersistenceProcessorImpl.DEFAULT_PERSIST_RING_SIZE;
+import static com.yahoo.omid.tso.PersistenceProcessorImpl.TSO_PERSIST_RING_SIZE_KEY;
+import static com.yahoo.omid.tso.ReplyProcessorImpl.DEFAULT_REPLY_WAIT_STRATEGY;
+import static com.yahoo.omid.tso.ReplyProcessorImpl.TSO_REPLY_WAIT_STRATEGY_KEY;
+import static com.yahoo.omid.tso.ReplyProcessorImpl.DEFAULT_REPLY_RING_SIZE;
+import static com.yahoo.omid.tso.ReplyProcessorImpl.TSO_REPLY_RING_SIZE_KEY;
+import static com.yahoo.omid.tso.RetryProcessorImpl.DEFAULT_RETRY_WAIT_STRATEGY;
+import static com.yahoo.omid.tso.RetryProcessorImpl.TSO_RETRY_WAIT_STRATEGY_KEY;
+import static com.yahoo.omid.tso.RetryProcessorImpl.DEFAULT_RETRY_RING_SIZE;
+import static com.yahoo.omid.tso.RetryProcessorImpl.TSO_RETRY_RING_SIZE_KEY;
+import static com.yahoo.omid.tso.RetryProcessorImpl.DEFAULT_RECENT_COMMITS;
+import static com.yahoo.omid.tso.RetryProcessorImpl.TSO_RECENT_COMMITS_KEY;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -33,7 +70,25 @@ public class TSOServerConfig {
 
     private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
     private int batchPersistTimeoutMS = DEFAULT_BATCH_PERSIST_TIMEOUT_MS;
+    private int persistPipelineDepth = DEFAULT_PERSIST_PIPELINE_DEPTH;
+    private int commitTableWriters = DEFAULT_COMMIT_TABLE_WRITERS;
+    private int targetCommitLatencyMS = DEFAULT_TARGET_COMMIT_LATENCY_MS;
+    private boolean earlyTimestampReplies = DEFAULT_EARLY_TIMESTAMP_REPLIES;
     private int maxItems = DEFAULT_MAX_ITEMS;
+    private int conflictDetectionShards = DEFAULT_CONFLICT_DETECTION_SHARDS;
+    private Cache.Type cacheType = DEFAULT_CACHE_TYPE;
+    private int lowWatermarkSegments = DEFAULT_LOW_WATERMARK_SEGMENTS;
+    private boolean requestBatching = DEFAULT_REQUEST_BATCHING;
+    private int hotCellsTopK = DEFAULT_HOT_CELLS_TOP_K;
+    private DisruptorRings.WaitStrategyType requestWaitStrategy = DEFAULT_REQUEST_WAIT_STRATEGY;
+    private int requestRingSize = DEFAULT_REQUEST_RING_SIZE;
+    private DisruptorRings.WaitStrategyType persistWaitStrategy = DEFAULT_PERSIST_WAIT_STRATEGY;
+    private int persistRingSize = DEFAULT_PERSIST_RING_SIZE;
+    private DisruptorRings.WaitStrategyType replyWaitStrategy = DEFAULT_REPLY_WAIT_STRATEGY;
+    private int replyRingSize = DEFAULT_REPLY_RING_SIZE;
+    private DisruptorRings.WaitStrategyType retryWaitStrategy = DEFAULT_RETRY_WAIT_STRATEGY;
+    private int retryRingSize = DEFAULT_RETRY_RING_SIZE;
+    private int recentCommits = DEFAULT_RECENT_COMMITS;
 
 
     public int getMaxBatchSize() {
@@ -55,6 +110,42 @@ public class TSOServerConfig {
         this.batchPersistTimeoutMS = batchPersistTimeoutMS;
     }
 
+    public int getPersistPipelineDepth() {
+        return persistPipelineDepth;
+    }
+
+    @Inject(optional=true)
+    public void setPersistPipelineDepth(@Named(TSO_PERSIST_PIPELINE_DEPTH_KEY) int persistPipelineDepth) {
+        this.persistPipelineDepth = persistPipelineDepth;
+    }
+
+    public int getCommitTableWriters() {
+        return commitTableWriters;
+    }
+
+    @Inject(optional=true)
+    public void setCommitTableWriters(@Named(TSO_COMMIT_TABLE_WRITERS_KEY) int commitTableWriters) {
+        this.commitTableWriters = commitTableWriters;
+    }
+
+    public int getTargetCommitLatencyMS() {
+        return targetCommitLatencyMS;
+    }
+
+    @Inject(optional=true)
+    public void setTargetCommitLatencyMS(@Named(TSO_TARGET_COMMIT_LATENCY_MS_KEY) int targetCommitLatencyMS) {
+        this.targetCommitLatencyMS = targetCommitLatencyMS;
+    }
+
+    public boolean isEarlyTimestampReplies() {
+        return earlyTimestampReplies;
+    }
+
+    @Inject(optional=true)
+    public void setEarlyTimestampReplies(@Named(TSO_EARLY_TIMESTAMP_REPLIES_KEY) boolean earlyTimestampReplies) {
+        this.earlyTimestampReplies = earlyTimestampReplies;
+    }
+
     public int getMaxItems() {
         return maxItems;
     }
@@ -64,4 +155,131 @@ public class TSOServerConfig {
         this.maxItems = maxItems;
     }
 
+    public int getConflictDetectionShards() {
+        return conflictDetectionShards;
+    }
+
+    @Inject(optional=true)
+    public void setConflictDetectionShards(
+            @Named(TSO_CONFLICT_DETECTION_SHARDS_KEY) int conflictDetectionShards) {
+        this.conflictDetectionShards = conflictDetectionShards;
+    }
+
+    public Cache.Type getCacheType() {
+        return cacheType;
+    }
+
+    @Inject(optional=true)
+    public void setCacheType(@Named(TSO_CACHE_TYPE_KEY) Cache.Type cacheType) {
+        this.cacheType = cacheType;
+    }
+
+    public int getLowWatermarkSegments() {
+        return lowWatermarkSegments;
+    }
+
+    @Inject(optional=true)
+    public void setLowWatermarkSegments(@Named(TSO_LOW_WATERMARK_SEGMENTS_KEY) int lowWatermarkSegments) {
+        this.lowWatermarkSegments = lowWatermarkSegments;
+    }
+
+    public boolean isRequestBatching() {
+        return requestBatching;
+    }
+
+    @Inject(optional=true)
+    public void setRequestBatching(@Named(TSO_REQUEST_BATCHING_KEY) boolean requestBatching) {
+        this.requestBatching = requestBatching;
+    }
+
+    public int getHotCellsTopK() {
+        return hotCellsTopK;
+    }
+
+    @Inject(optional=true)
+    public void setHotCellsTopK(@Named(TSO_HOT_CELLS_TOP_K_KEY) int hotCellsTopK) {
+        this.hotCellsTopK = hotCellsTopK;
+    }
+
+    public DisruptorRings.WaitStrategyType getRequestWaitStrategy() {
+        return requestWaitStrategy;
+    }
+
+    @Inject(optional=true)
+    public void setRequestWaitStrategy(@Named(TSO_REQUEST_WAIT_STRATEGY_KEY) DisruptorRings.WaitStrategyType requestWaitStrategy) {
+        this.requestWaitStrategy = requestWaitStrategy;
+    }
+
+    public int getRequestRingSize() {
+        return requestRingSize;
+    }
+
+    @Inject(optional=true)
+    public void setRequestRingSize(@Named(TSO_REQUEST_RING_SIZE_KEY) int requestRingSize) {
+        this.requestRingSize = requestRingSize;
+    }
+
+    public DisruptorRings.WaitStrategyType getPersistWaitStrategy() {
+        return persistWaitStrategy;
+    }
+
+    @Inject(optional=true)
+    public void setPersistWaitStrategy(@Named(TSO_PERSIST_WAIT_STRATEGY_KEY) DisruptorRings.WaitStrategyType persistWaitStrategy) {
+        this.persistWaitStrategy = persistWaitStrategy;
+    }
+
+    public int getPersistRingSize() {
+        return persistRingSize;
+    }
+
+    @Inject(optional=true)
+    public void setPersistRingSize(@Named(TSO_PERSIST_RING_SIZE_KEY) int persistRingSize) {
+        this.persistRingSize = persistRingSize;
+    }
+
+    public DisruptorRings.WaitStrategyType getReplyWaitStrategy() {
+        return replyWaitStrategy;
+    }
+
+    @Inject(optional=true)
+    public void setReplyWaitStrategy(@Named(TSO_REPLY_WAIT_STRATEGY_KEY) DisruptorRings.WaitStrategyType replyWaitStrategy) {
+        this.replyWaitStrategy = replyWaitStrategy;
+    }
+
+    public int getReplyRingSize() {
+        return replyRingSize;
+    }
+
+    @Inject(optional=true)
+    public void setReplyRingSize(@Named(TSO_REPLY_RING_SIZE_KEY) int replyRingSize) {
+        this.replyRingSize = replyRingSize;
+    }
+
+    public DisruptorRings.WaitStrategyType getRetryWaitStrategy() {
+        return retryWaitStrategy;
+    }
+
+    @Inject(optional=true)
+    public void setRetryWaitStrategy(@Named(TSO_RETRY_WAIT_STRATEGY_KEY) DisruptorRings.WaitStrategyType retryWaitStrategy) {
+        this.retryWaitStrategy = retryWaitStrategy;
+    }
+
+    public int getRetryRingSize() {
+        return retryRingSize;
+    }
+
+    @Inject(optional=true)
+    public void setRetryRingSize(@Named(TSO_RETRY_RING_SIZE_KEY) int retryRingSize) {
+        this.retryRingSize = retryRingSize;
+    }
+
+    public int getRecentCommits() {
+        return recentCommits;
+    }
+
+    @Inject(optional=true)
+    public void setRecentCommits(@Named(TSO_RECENT_COMMITS_KEY) int recentCommits) {
+        this.recentCommits = recentCommits;
+    }
+
 }
@@ -25,6 +25,11 @@ public interface TimestampOracle {
      */
     public long next() throws IOException;
 
+    /**
+     * Allocates count consecutive timestamps and returns the first one
+     */
+    public long next(int count) throws IOException;
+
     public long getLast();
 
 }
\ No newline at end of file
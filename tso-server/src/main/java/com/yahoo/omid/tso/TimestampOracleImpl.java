@@ -20,6 +20,7 @@ import static com.codahale.metrics.MetricRegistry.name;
 import java.io.IOException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -30,10 +31,18 @@ import org.slf4j.LoggerFactory;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.yahoo.omid.metrics.Gauge;
 import com.yahoo.omid.metrics.MetricsRegistry;
+import com.yahoo.omid.metrics.Timer;
 import com.yahoo.omid.timestamp.storage.TimestampStorage;
 
 /**
  * The Timestamp Oracle that gives monotonically increasing timestamps
+ *
+ * Timestamps are handed out from reservations persisted in the timestamp
+ * storage by the ts-persist thread. The size of the reservations and the
+ * headroom kept ahead of the last timestamp given grow with the measured
+ * consumption rate and storage latency, and up to
+ * MAX_RESERVATIONS_IN_FLIGHT reservations can be queued, so the thread
+ * calling next() only waits for the storage if it can't keep up.
  */
 @Singleton
 public class TimestampOracleImpl implements TimestampOracle {
@@ -61,28 +70,42 @@ public class TimestampOracleImpl implements TimestampOracle {
     }
 
     private class AllocateTimestampBatchTask implements Runnable {
-        long previousMaxTimestamp;
+        private final long previousMaxTimestamp;
+        private final long newMaxTimestamp;
 
-        public AllocateTimestampBatchTask(long previousMaxTimestamp) {
+        public AllocateTimestampBatchTask(long previousMaxTimestamp, long newMaxTimestamp) {
             this.previousMaxTimestamp = previousMaxTimestamp;
+            this.newMaxTimestamp = newMaxTimestamp;
         }
 
         @Override
         public void run() {
-            long newMaxTimestamp = previousMaxTimestamp + TIMESTAMP_BATCH;
             try {
+                long start = System.nanoTime();
                 storage.updateMaxTimestamp(previousMaxTimestamp, newMaxTimestamp);
+                long latency = System.nanoTime() - start;
+                storageUpdateTimer.update(latency);
+                storageLatencyNanos.update(latency);
                 maxAllocatedTimestamp = newMaxTimestamp;
-                previousMaxTimestamp = newMaxTimestamp;
             } catch(Throwable e) {
                 panicker.panic("Can't store the new max timestamp", e);
+            } finally {
+                reservationsInFlight.decrementAndGet();
             }
         }
 
     }
 
-    static final long TIMESTAMP_BATCH = 10 * 1000 * 1000; // 10 million
-    static final long TIMESTAMP_REMAINING_THRESHOLD = 1 * 1000 * 1000; // 1 million
+    static final long TIMESTAMP_BATCH = 10 * 1000 * 1000; // 10 million, minimum reservation
+    static final long MAX_TIMESTAMP_BATCH = 1000 * 1000 * 1000; // 1 billion
+    static final long TIMESTAMP_REMAINING_THRESHOLD = 1 * 1000 * 1000; // 1 million, minimum headroom
+    // Must be far below the remaining threshold, so a range never spans two allocations
+    static final int MAX_TIMESTAMP_RANGE = 10 * 1000;
+    static final int MAX_RESERVATIONS_IN_FLIGHT = 4;
+    // The headroom covers this number of storage updates at the current consumption rate
+    static final int HEADROOM_IN_STORAGE_UPDATES = 4;
+    // Timestamps handed out between checks of the reservations
+    static final long CHECK_INTERVAL = TIMESTAMP_REMAINING_THRESHOLD / 4;
 
     private long lastTimestamp;
 
@@ -91,13 +114,24 @@ public class TimestampOracleImpl implements TimestampOracle {
     private TimestampStorage storage;
     private Panicker panicker;
 
-    private long nextAllocationThreshold;
+    // Reservations. Only accessed from the thread calling next()
+    private long nextCheck;
+    private long requestedMaxTimestamp;
+    private long lastCheckTime;
+    private long lastCheckTimestamp;
+    private final DecayingMax consumptionRate = new DecayingMax(); // timestamps per nanosecond
+    private volatile long reservationSize = TIMESTAMP_BATCH;
+
+    // Shared with the ts-persist thread
     private volatile long maxAllocatedTimestamp;
+    private final DecayingMax storageLatencyNanos = new DecayingMax();
+    private final AtomicInteger reservationsInFlight = new AtomicInteger();
 
     private Executor executor = Executors.newSingleThreadExecutor(
             new ThreadFactoryBuilder().setNameFormat("ts-persist-%d").build());
 
-    private final Runnable allocateTimestampsBatchTask;
+    private final Timer storageUpdateTimer;
+    private final Timer stallTimer;
 
     /**
      * Returns the next timestamp if available. Otherwise spins till the
@@ -105,25 +139,79 @@ public class TimestampOracleImpl implements TimestampOracle {
      */
     @Override
     public long next() throws IOException {
-        lastTimestamp++;
+        return allocate(1);
+    }
 
-        if (lastTimestamp == nextAllocationThreshold) {
-            executor.execute(allocateTimestampsBatchTask);
+    /**
+     * Returns the first of count consecutive timestamps. As in {@link #next()},
+     * spins till the ts-persist thread allocates more timestamps if required
+     */
+    @Override
+    public long next(int count) throws IOException {
+        if (count <= 0 || count > MAX_TIMESTAMP_RANGE) {
+            throw new IllegalArgumentException("Illegal number of timestamps: " + count);
         }
+        return allocate(count);
+    }
+
+    private long allocate(int count) {
+        long first = lastTimestamp + 1;
+        lastTimestamp += count;
+
+        if (lastTimestamp >= nextCheck) {
+            checkReservations();
+        }
+
+        return first;
+    }
+
+    /**
+     * Picks up the timestamps allocated by the ts-persist thread and reserves
+     * more ahead of time if the headroom left is not enough for the measured
+     * consumption rate and storage latency. Only spins if we run out of
+     * timestamps anyway.
+     */
+    private void checkReservations() {
+        long now = System.nanoTime();
+        updateConsumptionRate(now);
+        maxTimestamp = maxAllocatedTimestamp;
+        reserveAhead();
 
         if (lastTimestamp >= maxTimestamp) {
-            assert(maxTimestamp <= maxAllocatedTimestamp);
-            while(maxAllocatedTimestamp == maxTimestamp) {
+            while (maxAllocatedTimestamp <= lastTimestamp) {
+                if (reservationsInFlight.get() == 0) {
+                    maxTimestamp = maxAllocatedTimestamp;
+                    reserveAhead();
+                }
                 // spin
             }
-            assert(maxAllocatedTimestamp > maxTimestamp);
+            stallTimer.update(System.nanoTime() - now);
             maxTimestamp = maxAllocatedTimestamp;
-            nextAllocationThreshold = maxTimestamp - TIMESTAMP_REMAINING_THRESHOLD;
-            assert(nextAllocationThreshold > lastTimestamp && nextAllocationThreshold < maxTimestamp);
-            assert(lastTimestamp < maxTimestamp);
         }
+        assert(lastTimestamp < maxTimestamp);
+        nextCheck = Math.min(maxTimestamp, lastTimestamp + CHECK_INTERVAL);
+    }
 
-        return lastTimestamp;
+    private void updateConsumptionRate(long now) {
+        long elapsed = now - lastCheckTime;
+        if (elapsed > 0) {
+            consumptionRate.update((double) (lastTimestamp - lastCheckTimestamp) / elapsed);
+        }
+        lastCheckTime = now;
+        lastCheckTimestamp = lastTimestamp;
+    }
+
+    private void reserveAhead() {
+        long headroom = Math.max(TIMESTAMP_REMAINING_THRESHOLD,
+                (long) (consumptionRate.get() * storageLatencyNanos.get() * HEADROOM_IN_STORAGE_UPDATES));
+        while (requestedMaxTimestamp - lastTimestamp < headroom
+                && reservationsInFlight.get() < MAX_RESERVATIONS_IN_FLIGHT) {
+            long size = Math.min(MAX_TIMESTAMP_BATCH, Math.max(TIMESTAMP_BATCH, headroom));
+            reservationsInFlight.incrementAndGet();
+            executor.execute(new AllocateTimestampBatchTask(requestedMaxTimestamp, requestedMaxTimestamp + size));
+            requestedMaxTimestamp += size;
+            reservationSize = size;
+        }
     }
 
     @Override
@@ -141,10 +229,16 @@ public class TimestampOracleImpl implements TimestampOracle {
         this.storage = tsStorage;
         this.panicker = panicker;
         this.lastTimestamp = this.maxTimestamp = tsStorage.getMaxTimestamp();
-        this.allocateTimestampsBatchTask = new AllocateTimestampBatchTask(lastTimestamp);
+        this.maxAllocatedTimestamp = this.requestedMaxTimestamp = this.maxTimestamp;
+        this.nextCheck = this.lastTimestamp;
+        this.lastCheckTimestamp = this.lastTimestamp;
+        this.lastCheckTime = System.nanoTime();
+
+        this.storageUpdateTimer = metrics.timer(name("tso", "timestampStorage", "update"));
+        this.stallTimer = metrics.timer(name("tso", "timestampStalls"));
 
         // Trigger first allocation of timestamps
-        executor.execute(allocateTimestampsBatchTask);
+        reserveAhead();
 
         metrics.gauge(name("tso", "maxTimestamp"), new Gauge<Long>() {
             @Override
@@ -152,6 +246,18 @@ public class TimestampOracleImpl implements TimestampOracle {
                 return maxTimestamp;
             }
         });
+        metrics.gauge(name("tso", "timestampHeadroom"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return maxAllocatedTimestamp - lastTimestamp;
+            }
+        });
+        metrics.gauge(name("tso", "timestampReservationSize"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return reservationSize;
+            }
+        });
         LOG.info("Initializing timestamp oracle with timestamp {}", this.lastTimestamp);
     }
 
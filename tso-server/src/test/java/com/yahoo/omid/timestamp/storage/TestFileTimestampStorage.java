@@ -0,0 +1,132 @@
+package com.yahoo.omid.timestamp.storage;
+
+import static com.yahoo.omid.timestamp.storage.FileTimestampStorage.INITIAL_MAX_TS_VALUE;
+import static com.yahoo.omid.timestamp.storage.FileTimestampStorage.SLOT_SIZE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class TestFileTimestampStorage {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TestFileTimestampStorage.class);
+
+    private static final int ITERATION_COUNT = 10;
+
+    private File file;
+
+    @BeforeMethod
+    public void createFile() throws Exception {
+        file = File.createTempFile("omid-max-timestamp", null);
+    }
+
+    @AfterMethod
+    public void deleteFile() throws Exception {
+        file.delete();
+    }
+
+    @Test
+    public void testBasicFunctionality() throws Exception {
+        FileTimestampStorage storage = new FileTimestampStorage(file);
+        assertEquals(storage.getMaxTimestamp(), INITIAL_MAX_TS_VALUE);
+
+        // Check new timestamp does not allow negative values...
+        try {
+            storage.updateMaxTimestamp(INITIAL_MAX_TS_VALUE, -1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            LOG.info("Expected exception", e);
+        }
+        // ...nor is less than previous timestamp...
+        try {
+            storage.updateMaxTimestamp(1, 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            LOG.info("Expected exception", e);
+        }
+        // ...nor a previous timestamp different from the stored one
+        try {
+            storage.updateMaxTimestamp(5, 10);
+            fail();
+        } catch (IOException e) {
+            LOG.info("Expected exception", e);
+        }
+
+        long previousMaxTimestamp = INITIAL_MAX_TS_VALUE;
+        for (int i = 0; i < ITERATION_COUNT; i++) {
+            long newMaxTimestamp = previousMaxTimestamp + 1_000_000;
+            storage.updateMaxTimestamp(previousMaxTimestamp, newMaxTimestamp);
+            previousMaxTimestamp = newMaxTimestamp;
+        }
+        assertEquals(storage.getMaxTimestamp(), 1_000_000 * ITERATION_COUNT);
+
+        // The file can't be shared while it's open
+        try {
+            new FileTimestampStorage(file);
+            fail();
+        } catch (IOException e) {
+            LOG.info("Expected exception", e);
+        }
+        storage.close();
+
+        storage = new FileTimestampStorage(file);
+        assertEquals(storage.getMaxTimestamp(), 1_000_000 * ITERATION_COUNT);
+        storage.close();
+    }
+
+    @Test
+    public void testTornWriteKeepsPreviousValue() throws Exception {
+        FileTimestampStorage storage = new FileTimestampStorage(file);
+        storage.updateMaxTimestamp(0, 100); // Generation 1, in the second slot
+        storage.updateMaxTimestamp(100, 200); // Generation 2, in the first slot
+        storage.close();
+
+        // Corrupt the max timestamp of the latest slot
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(8);
+            raf.writeLong(300);
+        }
+        storage = new FileTimestampStorage(file);
+        assertEquals(storage.getMaxTimestamp(), 100);
+        storage.updateMaxTimestamp(100, 400);
+        storage.close();
+
+        // Corrupt both slots
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(16);
+            raf.writeLong(0);
+            raf.seek(SLOT_SIZE + 16);
+            raf.writeLong(0);
+        }
+        try {
+            new FileTimestampStorage(file);
+            fail();
+        } catch (IOException e) {
+            LOG.info("Expected exception", e);
+        }
+    }
+
+    @Test
+    public void testFileCanOnlyBeOpenedOnce() throws Exception {
+        FileTimestampStorage storage = new FileTimestampStorage(file);
+        try {
+            new FileTimestampStorage(file);
+            fail();
+        } catch (IOException e) {
+            LOG.info("Expected exception", e);
+        }
+        storage.close();
+
+        // Once released it can be opened again
+        new FileTimestampStorage(file).close();
+    }
+
+}
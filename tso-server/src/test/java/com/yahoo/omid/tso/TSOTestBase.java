@@ -22,6 +22,7 @@ public class TSOTestBase {
     private Injector injector = null;
 
     protected Configuration clientConf = new BaseConfiguration();
+    protected TSOServerCommandLineConfig tsoConfig = TSOServerCommandLineConfig.configFactory(1234, 1000);
     protected TSOClient client;
     protected TSOClient client2;
 
@@ -36,7 +37,7 @@ public class TSOTestBase {
 
     @BeforeMethod
     public void setupTSO() throws Exception {
-        injector = Guice.createInjector(new TSOMockModule(TSOServerCommandLineConfig.configFactory(1234, 1000)));
+        injector = Guice.createInjector(new TSOMockModule(tsoConfig));
         LOG.info("Starting TSO");
         pausableTSOracle = (PausableTimestampOracle) injector.getInstance(TimestampOracle.class);
         tso = injector.getInstance(TSOServer.class);
@@ -0,0 +1,118 @@
+package com.yahoo.omid.tso;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Sets;
+import com.yahoo.omid.proto.TSOProto;
+import com.yahoo.omid.tso.util.DummyCellIdImpl;
+import com.yahoo.omid.tsoclient.CellId;
+import com.yahoo.omid.tsoclient.TSOClient;
+import com.yahoo.omid.tsoclient.TSOFuture;
+
+public class TestAdmissionControl extends TSOTestBase {
+
+    public TestAdmissionControl() {
+        tsoConfig = TSOServerCommandLineConfig.parseConfig(new String[] {
+                "-port", "1234", "-maxItems", "1000",
+                "-maxInFlightRequests", "1", "-overloadRetryAfterMs", "1" });
+        clientConf.setProperty(TSOClient.MAX_OVERLOAD_BACKOFF_MS_CONFKEY, 10);
+    }
+
+    @Test(timeOut = 10000)
+    public void testRequestsOverTheLimitAreRejected() throws Exception {
+        TSOClientRaw raw = connect(true);
+
+        TSOProto.Request timestampRequest = TSOProto.Request.newBuilder()
+            .setTimestampRequest(TSOProto.TimestampRequest.newBuilder()).build();
+        raw.write(TSOProto.Request.newBuilder()
+                  .setRequestBatch(TSOProto.RequestBatch.newBuilder()
+                                   .addRequest(timestampRequest)
+                                   .addRequest(timestampRequest)
+                                   .addRequest(TSOProto.Request.newBuilder().setCommitRequest(
+                                           TSOProto.CommitRequest.newBuilder()
+                                           .setStartTimestamp(1000).addCellId(c1.getCellId())))).build());
+
+        // Only the first request is admitted
+        List<TSOProto.OverloadedResponse> rejected = new ArrayList<>();
+        int timestamps = 0;
+        for (int i = 0; i < 3; i++) {
+            TSOProto.Response response = raw.getResponse().get();
+            if (response.hasOverloadedResponse()) {
+                rejected.add(response.getOverloadedResponse());
+            } else {
+                assertTrue(response.hasTimestampResponse());
+                timestamps++;
+            }
+        }
+        assertEquals(1, timestamps);
+        assertEquals(2, rejected.size());
+        for (TSOProto.OverloadedResponse overloaded : rejected) {
+            assertEquals(1, overloaded.getRetryAfterMs());
+            if (overloaded.getRequest().hasCommitRequest()) {
+                TSOProto.CommitRequest cr = overloaded.getRequest().getCommitRequest();
+                assertEquals(1000, cr.getStartTimestamp());
+                assertEquals("The write set is not returned", 0, cr.getCellIdCount());
+            } else {
+                assertTrue(overloaded.getRequest().hasTimestampRequest());
+            }
+        }
+
+        // The slot is released when the response is written
+        raw.write(timestampRequest);
+        assertTrue(raw.getResponse().get().hasTimestampResponse());
+        raw.close();
+    }
+
+    @Test(timeOut = 10000)
+    public void testClientsWithoutOverloadedResponsesAreNotRejected() throws Exception {
+        TSOClientRaw raw = connect(false);
+
+        TSOProto.Request timestampRequest = TSOProto.Request.newBuilder()
+            .setTimestampRequest(TSOProto.TimestampRequest.newBuilder()).build();
+        raw.write(TSOProto.Request.newBuilder()
+                  .setRequestBatch(TSOProto.RequestBatch.newBuilder()
+                                   .addRequest(timestampRequest)
+                                   .addRequest(timestampRequest)
+                                   .addRequest(timestampRequest)).build());
+        for (int i = 0; i < 3; i++) {
+            assertTrue(raw.getResponse().get().hasTimestampResponse());
+        }
+        raw.close();
+    }
+
+    @Test(timeOut = 30000)
+    public void testClientBacksOffAndSendsTheRejectedRequestsAgain() throws Exception {
+        int n = 50;
+        List<TSOFuture<Long>> timestampFutures = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            timestampFutures.add(client.getNewStartTimestamp());
+        }
+        List<TSOFuture<Long>> commitFutures = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            long ts = timestampFutures.get(i).get();
+            commitFutures.add(client.commit(ts, Sets.<CellId>newHashSet(new DummyCellIdImpl(i))));
+        }
+        for (TSOFuture<Long> f : commitFutures) {
+            assertTrue(f.get() > 0);
+        }
+    }
+
+    private TSOClientRaw connect(boolean overloadedResponses) throws Exception {
+        TSOClientRaw raw = new TSOClientRaw(clientConf.getString("tso.host"),
+                                            clientConf.getInt("tso.port"));
+        raw.write(TSOProto.Request.newBuilder()
+                  .setHandshakeRequest(TSOProto.HandshakeRequest.newBuilder()
+                                       .setClientCapabilities(TSOProto.Capabilities.newBuilder()
+                                                              .setOverloadedResponses(overloadedResponses)))
+                  .build());
+        assertTrue(raw.getResponse().get().getHandshakeResponse().getClientCompatible());
+        return raw;
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.yahoo.omid.tso;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+import com.yahoo.omid.metrics.Histogram;
+import com.yahoo.omid.metrics.Timer;
+
+public class TestBatchingController {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void testFixedBatching() {
+        BatchingController batching = new BatchingController(0, 100, 1000);
+        assertFalse(batching.isAdaptive());
+        batching.flushCompleted(500 * MS);
+        batching.batchFlushed(1000);
+        assertEquals(100 * MS, batching.getLingerNanos());
+        assertEquals(1000, batching.getBatchSizeLimit());
+    }
+
+    @Test
+    public void testLingerLeavesRoomForTheFlush() {
+        BatchingController batching = new BatchingController(10, 100, 1000);
+        assertTrue(batching.isAdaptive());
+        assertEquals(10 * MS, batching.getLingerNanos());
+
+        batching.flushCompleted(4 * MS);
+        batching.batchFlushed(1);
+        assertEquals(6 * MS, batching.getLingerNanos());
+
+        // Slow flushes raise the estimate immediately...
+        batching.flushCompleted(8 * MS);
+        batching.batchFlushed(1);
+        assertEquals(2 * MS, batching.getLingerNanos());
+
+        // ...and fast ones lower it slowly
+        batching.flushCompleted(0);
+        batching.batchFlushed(1);
+        assertEquals(6 * MS, batching.getLingerNanos());
+
+        // The linger time never exceeds the batch persist timeout
+        batching = new BatchingController(1000, 100, 1000);
+        batching.flushCompleted(0);
+        batching.batchFlushed(1);
+        assertEquals(100 * MS, batching.getLingerNanos());
+    }
+
+    @Test
+    public void testControllerIsFedFromTheMetrics() {
+        BatchingController batching = new BatchingController(10, 100, 1000);
+        Timer flushTimer = mock(Timer.class);
+        Histogram batchSizeHistogram = mock(Histogram.class);
+        Timer flushes = batching.observeFlushes(flushTimer);
+        Histogram batchSizes = batching.observeBatchSizes(batchSizeHistogram);
+
+        flushes.update(4 * MS);
+        batchSizes.update(1);
+        verify(flushTimer).update(4 * MS);
+        verify(batchSizeHistogram).update(1);
+        assertEquals(6 * MS, batching.getLingerNanos());
+    }
+
+    @Test
+    public void testBatchSizeLimit() {
+        BatchingController batching = new BatchingController(10, 100, 1000);
+
+        // Flushes slower than the target shrink the batches
+        for (int i = 0; i < 100; i++) {
+            batching.flushCompleted(20 * MS);
+            batching.batchFlushed(batching.getBatchSizeLimit());
+        }
+        assertEquals(0, batching.getLingerNanos());
+        assertEquals(BatchingController.MIN_BATCH_SIZE_LIMIT, batching.getBatchSizeLimit());
+
+        // Full batches flushed in time grow them up to the max batch size
+        for (int i = 0; i < 100; i++) {
+            batching.flushCompleted(0);
+            batching.batchFlushed(batching.getBatchSizeLimit());
+        }
+        assertEquals(1000, batching.getBatchSizeLimit());
+    }
+
+}
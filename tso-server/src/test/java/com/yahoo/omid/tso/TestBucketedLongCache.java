@@ -0,0 +1,76 @@
+package com.yahoo.omid.tso;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.Random;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.Test;
+
+public class TestBucketedLongCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TestBucketedLongCache.class);
+
+    final int entries = 1000;
+
+    @Test(timeOut=10000)
+    public void testSetAndGet() {
+        Cache cache = new BucketedLongCache(entries, 16);
+
+        assertEquals("Empty slot expected", 0, cache.set(1L, 10L));
+        assertEquals(10L, cache.get(1L));
+        assertEquals("Overwriting a key shouldn't evict anything", 0, cache.set(1L, 20L));
+        assertEquals(20L, cache.get(1L));
+        assertEquals("Unknown key", 0, cache.get(2L));
+    }
+
+    @Test(timeOut=10000)
+    public void testEvictsOldestInBucket() {
+        // Single bucket
+        Cache cache = new BucketedLongCache(4, 4);
+        for (long i = 1; i <= 4; i++) {
+            assertEquals(0, cache.set(i, i * 10));
+        }
+        assertEquals("Oldest value should be evicted", 10L, cache.set(5L, 50L));
+        assertEquals(0, cache.get(1L));
+        assertEquals(50L, cache.get(5L));
+    }
+
+    @Test(timeOut=10000, expectedExceptions = IllegalArgumentException.class)
+    public void testSizesThatOverflowAreRejected() {
+        // Rounds up to 2^31 slots instead of overflowing
+        new BucketedLongCache(Integer.MAX_VALUE - 10, 32);
+    }
+
+    @Test(timeOut=10000)
+    public void testEntriesAge() {
+        // Disjoint buckets need the same associativity used by CommitHashMap
+        // to keep the evicted entries as old as in LongCache
+        Cache cache = new BucketedLongCache(entries, 32);
+        Random random = new Random();
+
+        long seed = random.nextLong();
+        LOG.info("Random seed: " + seed);
+        random.setSeed(seed);
+
+        int removals = 0;
+        long totalAge = 0;
+        long largestDeletedTimestamp = 0;
+        int i = 0;
+        for (; i < entries * 10; ++i) {
+            largestDeletedTimestamp = Math.max(cache.set(random.nextLong(), i), largestDeletedTimestamp);
+        }
+        for (; i < entries * 100; ++i) {
+            largestDeletedTimestamp = Math.max(cache.set(random.nextLong(), i), largestDeletedTimestamp);
+            removals++;
+            totalAge += i - largestDeletedTimestamp;
+        }
+
+        double avgGap = totalAge / (double) removals;
+        LOG.info("Avg gap: " + avgGap);
+        assertTrue("avgGap should be greater than entries * 0.6",
+                   avgGap > entries * 0.6);
+    }
+}
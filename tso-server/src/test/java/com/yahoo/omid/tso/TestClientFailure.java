@@ -31,7 +31,7 @@ public class TestClientFailure extends TSOTestBase {
 
         List<Future<Long>> futures = new ArrayList<Future<Long>>();
         for (long s : startTimestamps) {
-            futures.add(client.commit(s, Sets.<CellId>newHashSet()));
+            futures.add(client.commit(s, Sets.<CellId>newHashSet(c1)));
         }
         TSOClientAccessor.closeChannel(client);
 
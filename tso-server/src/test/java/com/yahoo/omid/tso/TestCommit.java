@@ -1,11 +1,16 @@
 package com.yahoo.omid.tso;
 
+import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertTrue;
+import static org.testng.AssertJUnit.fail;
+
+import java.util.concurrent.ExecutionException;
 
 import org.testng.annotations.Test;
 
 import com.google.common.collect.Sets;
 import com.yahoo.omid.tsoclient.CellId;
+import com.yahoo.omid.tsoclient.TSOClient.AbortException;
 
 // TODO: I think we should remove this test. This functionality is already tested in TestCommitQuery
 public class TestCommit extends TSOTestBase {
@@ -13,8 +18,32 @@ public class TestCommit extends TSOTestBase {
     @Test(timeOut = 30000)
     public void testCommit() throws Exception {
         Long startTsTx1 = client.getNewStartTimestamp().get();
-        Long commitTsTx1 = client.commit(startTsTx1, Sets.<CellId>newHashSet()).get();
+        Long commitTsTx1 = client.commit(startTsTx1, Sets.<CellId>newHashSet(c1)).get();
         assertTrue(commitTsTx1 > startTsTx1);
    }
 
+    @Test(timeOut = 30000)
+    public void testEmptyCommitIsRejected() throws Exception {
+        Long startTsTx1 = client.getNewStartTimestamp().get();
+        try {
+            client.commit(startTsTx1, Sets.<CellId>newHashSet()).get();
+            fail("Empty commits should be rejected");
+        } catch (ExecutionException ee) {
+            assertEquals("Should have aborted", AbortException.class, ee.getCause().getClass());
+        }
+
+        // They don't go through the timestamp oracle nor the commit table
+        pauseTSO();
+        try {
+            client.commit(startTsTx1 + 1, Sets.<CellId>newHashSet()).get();
+            fail("Empty commits should be rejected");
+        } catch (ExecutionException ee) {
+            assertEquals("Should have aborted", AbortException.class, ee.getCause().getClass());
+        }
+        resumeTSO();
+        assertTrue(client.getNewStartTimestamp().get() > startTsTx1);
+        assertTrue("Empty commits aren't persisted",
+                   !getCommitTableClient().getCommitTimestamp(startTsTx1).get().isPresent());
+   }
+
 }
@@ -0,0 +1,63 @@
+package com.yahoo.omid.tso;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.Arrays;
+
+import org.testng.annotations.Test;
+
+public class TestCommitHashMap {
+
+    @Test(timeOut=10000)
+    public void testSortByLocation() {
+        CommitHashMap map = new CommitHashMap(100, Cache.Type.HEAP, 1, 0);
+        // The heap cache locates the cells by modulo of the table size
+        long[] cellIds = new long[] { 250L, 7L, 199L, 3L, 107L, -1L };
+        map.sortByLocation(cellIds, 5);
+        // Cells in the same slot keep their order, and the ones beyond numCells stay
+        assertTrue(Arrays.equals(new long[] { 3L, 7L, 107L, 250L, 199L, -1L }, cellIds));
+    }
+
+    @Test(timeOut=10000)
+    public void testSegmentedLowWatermarks() {
+        final long initialLowWatermark = 10;
+        CommitHashMap map = new CommitHashMap(100, Cache.Type.HEAP, 2, initialLowWatermark);
+
+        long cellInSegment1 = firstCellInSegment(map, 1, 0);
+
+        // Overflow the map only with cells of the segment 0
+        long timestamp = initialLowWatermark;
+        long cellId = 0;
+        for (int i = 0; i < 1000; i++) {
+            cellId = firstCellInSegment(map, 0, cellId + 1);
+            map.putLatestWriteForCell(cellId, ++timestamp);
+        }
+        assertTrue("Low watermark of the segment 0 should have moved forward",
+                   map.getLowWatermark(cellId) > initialLowWatermark);
+        assertEquals("Low watermark of the segment 1 shouldn't change",
+                     initialLowWatermark, map.getLowWatermark(cellInSegment1));
+        assertEquals("Low watermark of the map is the minimum of the segments",
+                     initialLowWatermark, map.getLowWatermark());
+
+        // Now overflow the map only with cells of the segment 1
+        cellId = 0;
+        for (int i = 0; i < 1000; i++) {
+            cellId = firstCellInSegment(map, 1, cellId + 1);
+            map.putLatestWriteForCell(cellId, ++timestamp);
+        }
+        assertTrue("Low watermark of the map should have moved forward",
+                   map.getLowWatermark() > initialLowWatermark);
+        assertEquals(Math.min(map.getLowWatermark(cellId), map.getLowWatermark(firstCellInSegment(map, 0, 1))),
+                     map.getLowWatermark());
+    }
+
+    private long firstCellInSegment(CommitHashMap map, int segment, long from) {
+        long cellId = from;
+        while (map.segment(cellId) != segment) {
+            cellId++;
+        }
+        return cellId;
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.yahoo.omid.tso;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+import com.yahoo.omid.metrics.NullMetricsProvider;
+
+public class TestHotCellSketch {
+
+    @Test(timeOut = 10000)
+    public void testHotCellsAreFound() {
+        HotCellSketch sketch = new HotCellSketch(8);
+        Random random = new Random(1234);
+        for (int i = 0; i < 100000; i++) {
+            sketch.record(random.nextLong());
+            if (i % 10 == 0) {
+                sketch.record(42L);
+            }
+            if (i % 20 == 0) {
+                sketch.record(-7L);
+            }
+        }
+        assertEquals(100000 + 10000 + 5000, sketch.getTotal());
+
+        List<long[]> top = HotCells.top(new HotCellSketch[] { sketch });
+        assertEquals(8, top.size());
+        assertEquals(42L, top.get(0)[0]);
+        assertTrue("Count-min never underestimates", top.get(0)[1] >= 10000);
+        assertEquals(-7L, top.get(1)[0]);
+        assertTrue("Count-min never underestimates", top.get(1)[1] >= 5000);
+    }
+
+    @Test(timeOut = 10000)
+    public void testReset() {
+        HotCellSketch sketch = new HotCellSketch(4);
+        for (int i = 0; i < 100; i++) {
+            sketch.record(1L);
+        }
+        sketch.reset();
+        sketch.record(2L);
+        assertEquals(1, sketch.getTotal());
+        assertEquals(1, sketch.getTopSize());
+        assertEquals(2L, sketch.getTopCell(0));
+        assertEquals(1L, sketch.getTopCount(0));
+    }
+
+    @Test(timeOut = 10000)
+    public void testDumpMergesTheWriters() {
+        HotCells hotCells = new HotCells(2, 4, new NullMetricsProvider());
+        hotCells.getConflicts(0).record(10L);
+        hotCells.getConflicts(1).record(20L);
+        hotCells.getConflicts(1).record(20L);
+        hotCells.getLowWatermarkRaisers(0).record(30L);
+
+        String dump = hotCells.dump();
+        assertTrue(dump, dump.contains("Cells hitting conflicts (3 total)"));
+        assertTrue(dump, dump.indexOf(" 20 ") < dump.indexOf(" 10 "));
+        assertTrue(dump, dump.contains("low watermark (1 total)"));
+    }
+
+}
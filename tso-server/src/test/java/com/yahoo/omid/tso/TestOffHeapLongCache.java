@@ -0,0 +1,44 @@
+package com.yahoo.omid.tso;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.Random;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.Test;
+
+public class TestOffHeapLongCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TestOffHeapLongCache.class);
+
+    final int entries = 1000;
+
+    @Test(timeOut=10000)
+    public void testSameEvictionsAsLongCache() {
+        // Small chunks so the probes cross chunk boundaries
+        checkSameBehaviourAsLongCache(new OffHeapLongCache(entries, 16, 4));
+        checkSameBehaviourAsLongCache(new OffHeapLongCache(entries, 16));
+    }
+
+    private void checkSameBehaviourAsLongCache(Cache offHeapCache) {
+        Cache heapCache = new LongCache(entries, 16);
+        Random random = new Random();
+
+        long seed = random.nextLong();
+        LOG.info("Random seed: " + seed);
+        random.setSeed(seed);
+
+        long[] keys = new long[entries * 2];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong() & Long.MAX_VALUE;
+        }
+
+        for (int i = 1; i < entries * 20; ++i) {
+            long key = keys[random.nextInt(keys.length)];
+            assertEquals("Evicted values should match", heapCache.set(key, i), offHeapCache.set(key, i));
+            long other = keys[random.nextInt(keys.length)];
+            assertEquals("Values should match", heapCache.get(other), offHeapCache.get(other));
+        }
+    }
+}
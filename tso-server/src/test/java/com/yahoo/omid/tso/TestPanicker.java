@@ -80,6 +80,11 @@ public class TestPanicker {
                     f.set(mockClient);
                     return f;
                 }
+
+                @Override
+                public int partitionOf(long startTimestamp, int numPartitions) {
+                    return 0;
+                }
             };
         PersistenceProcessor proc = new PersistenceProcessorImpl(metrics,
                                                                  commitTable,
@@ -114,6 +119,11 @@ public class TestPanicker {
                     f.set(mockClient);
                     return f;
                 }
+
+                @Override
+                public int partitionOf(long startTimestamp, int numPartitions) {
+                    return 0;
+                }
             };
         PersistenceProcessor proc = new PersistenceProcessorImpl(metrics,
                                                                  commitTable,
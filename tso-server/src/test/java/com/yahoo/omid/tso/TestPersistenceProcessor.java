@@ -0,0 +1,301 @@
+package com.yahoo.omid.tso;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+
+import org.jboss.netty.channel.Channel;
+import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.Test;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.yahoo.omid.committable.CommitTable;
+import com.yahoo.omid.metrics.MetricsRegistry;
+import com.yahoo.omid.metrics.NullMetricsProvider;
+
+public class TestPersistenceProcessor {
+
+    @Test(timeOut = 30000)
+    public void testLowWatermarkUpdatesAreCoalesced() throws Exception {
+        CommitTable.Writer writer = mock(CommitTable.Writer.class);
+        CommitTable commitTable = mockCommitTable(writer);
+        ReplyProcessor reply = mock(ReplyProcessor.class);
+        final CountDownLatch processing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        doAnswer(new Answer<Void>() {
+                @Override
+                public Void answer(InvocationOnMock invocation) throws Throwable {
+                    processing.countDown();
+                    release.await();
+                    return null;
+                }
+            }).when(reply).abortResponse(anyLong(), any(Channel.class));
+
+        MetricsRegistry metrics = new NullMetricsProvider();
+        PersistenceProcessor proc = new PersistenceProcessorImpl(metrics,
+                                                                 commitTable,
+                                                                 reply,
+                                                                 mock(RetryProcessor.class),
+                                                                 new MockPanicker(),
+                                                                 new TSOServerConfig());
+
+        // The persist thread is stuck replying the abort, so the updates
+        // are all handled in its next batch of events, whatever the timing
+        proc.persistAbort(1, false, null);
+        processing.await();
+        proc.persistLowWatermark(10);
+        proc.persistLowWatermark(30);
+        proc.persistLowWatermark(20);
+        release.countDown();
+
+        verify(writer, timeout(5000).times(1)).updateLowWatermark(30);
+
+        // Nothing new to write in the next flushes, and lower watermarks
+        // received after a higher one are never written
+        Thread.sleep(300);
+        verify(writer, times(1)).updateLowWatermark(anyLong());
+    }
+
+    @Test(timeOut = 30000)
+    public void testBatchedRequestsAreReplied() throws Exception {
+        CommitTable.Writer writer = mock(CommitTable.Writer.class);
+        ReplyProcessor reply = mock(ReplyProcessor.class);
+        MetricsRegistry metrics = new NullMetricsProvider();
+        PersistenceProcessor persist = new PersistenceProcessorImpl(metrics,
+                                                                    mockCommitTable(writer),
+                                                                    reply,
+                                                                    mock(RetryProcessor.class),
+                                                                    new MockPanicker(),
+                                                                    new TSOServerConfig());
+        TSOServerConfig config = new TSOServerConfig();
+        config.setMaxItems(1000);
+        config.setRequestBatching(true);
+        RequestProcessor proc = new RequestProcessorImpl(metrics,
+                new TimestampOracleImpl(metrics, new TimestampOracleImpl.InMemoryTimestampStorage(),
+                                        new MockPanicker()),
+                persist, new MockPanicker(), config);
+
+        proc.timestampRequest(null);
+        verify(reply, timeout(1000).times(1)).timestampResponse(anyLong(), any(Channel.class));
+        proc.timestampRangeRequest(5, null);
+        verify(reply, timeout(1000).times(1)).timestampRangeResponse(anyLong(), eq(5), any(Channel.class));
+        proc.commitRequest(1, new long[] { 1L }, 1, false, null);
+        verify(reply, timeout(1000).times(1)).commitResponse(eq(1L), anyLong(), any(Channel.class));
+        verify(writer, timeout(1000).atLeastOnce()).flush();
+    }
+
+    @Test(timeOut = 30000)
+    public void testBatchesAreFilledWhileFlushing() throws Exception {
+        final CountDownLatch firstFlushLatch = new CountDownLatch(1);
+        CommitTable.Writer writer = mock(CommitTable.Writer.class);
+        CommitTable commitTable = mockCommitTable(writer);
+        doAnswer(new Answer<ListenableFuture<Void>>() {
+            boolean first = true;
+
+            @Override
+            public ListenableFuture<Void> answer(InvocationOnMock invocation) throws Throwable {
+                if (first) {
+                    first = false;
+                    firstFlushLatch.await();
+                }
+                return Futures.<Void>immediateFuture(null);
+            }
+        }).when(writer).flush();
+        ReplyProcessor reply = mock(ReplyProcessor.class);
+
+        TSOServerConfig config = new TSOServerConfig();
+        config.setMaxBatchSize(1);
+        config.setPersistPipelineDepth(2);
+        PersistenceProcessor proc = new PersistenceProcessorImpl(new NullMetricsProvider(),
+                                                                 commitTable,
+                                                                 reply,
+                                                                 mock(RetryProcessor.class),
+                                                                 new MockPanicker(),
+                                                                 config);
+
+        proc.persistCommit(1, 2, null);
+        verify(writer, timeout(1000).times(1)).flush();
+        // The first batch is still flushing, the second one is filled meanwhile
+        proc.persistCommit(3, 4, null);
+        Thread.sleep(300);
+        verify(reply, never()).commitResponse(anyLong(), anyLong(), any(Channel.class));
+        verify(writer, never()).addCommittedTransaction(3, 4);
+
+        firstFlushLatch.countDown();
+        verify(reply, timeout(1000).times(1)).commitResponse(eq(3L), eq(4L), any(Channel.class));
+        InOrder inOrder = inOrder(reply);
+        inOrder.verify(reply).commitResponse(eq(1L), eq(2L), any(Channel.class));
+        inOrder.verify(reply).commitResponse(eq(3L), eq(4L), any(Channel.class));
+    }
+
+    @Test(timeOut = 30000)
+    public void testBatchIsPartitionedAmongWriters() throws Exception {
+        CommitTable.Writer writer0 = mock(CommitTable.Writer.class);
+        CommitTable.Writer writer1 = mock(CommitTable.Writer.class);
+        doReturn(Futures.<Void>immediateFuture(null)).when(writer0).flush();
+        doReturn(Futures.<Void>immediateFailedFuture(new IOException("Region server down")))
+            .when(writer1).flush();
+        CommitTable commitTable = mockCommitTable(writer0);
+        doReturn(Futures.immediateFuture(writer0)).doReturn(Futures.immediateFuture(writer1))
+            .when(commitTable).getWriter();
+        doReturn(0).when(commitTable).partitionOf(2, 2);
+        doReturn(1).when(commitTable).partitionOf(1, 2);
+        ReplyProcessor reply = mock(ReplyProcessor.class);
+        Panicker panicker = mock(Panicker.class);
+
+        TSOServerConfig config = new TSOServerConfig();
+        config.setCommitTableWriters(2);
+        PersistenceProcessor proc = new PersistenceProcessorImpl(new NullMetricsProvider(),
+                                                                 commitTable,
+                                                                 reply,
+                                                                 mock(RetryProcessor.class),
+                                                                 panicker,
+                                                                 config);
+
+        // The commit table puts them in partitions 0 and 1
+        proc.persistCommit(2, 3, null);
+        proc.persistCommit(1, 4, null);
+        proc.persistLowWatermark(1);
+
+        verify(writer0, timeout(1000).times(1)).addCommittedTransaction(2, 3);
+        verify(writer1, timeout(1000).times(1)).addCommittedTransaction(1, 4);
+        verify(writer0, timeout(1000).times(1)).updateLowWatermark(1);
+        verify(writer1, never()).updateLowWatermark(anyLong());
+        verify(writer0, never()).addCommittedTransaction(1, 4);
+        verify(writer1, never()).addCommittedTransaction(2, 3);
+
+        // A failed partition fails the whole batch
+        verify(panicker, timeout(1000).atLeastOnce()).panic(anyString(), any(Throwable.class));
+        verify(reply, never()).commitResponse(anyLong(), anyLong(), any(Channel.class));
+    }
+
+    @Test(timeOut = 30000)
+    public void testTargetCommitLatency() throws Exception {
+        CommitTable.Writer writer = mock(CommitTable.Writer.class);
+        ReplyProcessor reply = mock(ReplyProcessor.class);
+        TSOServerConfig config = new TSOServerConfig();
+        config.setBatchPersistTimeoutMS(5000);
+        config.setTargetCommitLatencyMS(10);
+        PersistenceProcessor proc = new PersistenceProcessorImpl(new NullMetricsProvider(),
+                                                                 mockCommitTable(writer),
+                                                                 reply,
+                                                                 mock(RetryProcessor.class),
+                                                                 new MockPanicker(),
+                                                                 config);
+
+        // Replied well before the batch persist timeout
+        proc.persistCommit(1, 2, null);
+        verify(reply, timeout(1000).times(1)).commitResponse(eq(1L), eq(2L), any(Channel.class));
+        proc.persistCommit(3, 4, null);
+        verify(reply, timeout(1000).times(1)).commitResponse(eq(3L), eq(4L), any(Channel.class));
+    }
+
+    @Test(timeOut = 30000)
+    public void testEarlyTimestampReplies() throws Exception {
+        final CountDownLatch[] flushLatches = { new CountDownLatch(1), new CountDownLatch(1) };
+        CommitTable.Writer writer = mock(CommitTable.Writer.class);
+        CommitTable commitTable = mockCommitTable(writer);
+        doAnswer(new Answer<ListenableFuture<Void>>() {
+            int flushes = 0;
+
+            @Override
+            public ListenableFuture<Void> answer(InvocationOnMock invocation) throws Throwable {
+                flushLatches[flushes++].await();
+                return Futures.<Void>immediateFuture(null);
+            }
+        }).when(writer).flush();
+        ReplyProcessor reply = mock(ReplyProcessor.class);
+
+        TSOServerConfig config = new TSOServerConfig();
+        config.setMaxBatchSize(1);
+        config.setPersistPipelineDepth(3);
+        config.setEarlyTimestampReplies(true);
+        PersistenceProcessor proc = new PersistenceProcessorImpl(new NullMetricsProvider(),
+                                                                 commitTable,
+                                                                 reply,
+                                                                 mock(RetryProcessor.class),
+                                                                 new MockPanicker(),
+                                                                 config);
+
+        // No commits to wait for
+        proc.persistTimestamp(1, null);
+        verify(reply, timeout(1000).times(1)).timestampResponse(eq(1L), any(Channel.class));
+
+        proc.persistCommit(2, 3, null);
+        verify(writer, timeout(1000).times(1)).flush();
+        proc.persistTimestampRange(4, 10, null);
+        proc.persistCommit(14, 15, null);
+        Thread.sleep(300);
+        verify(reply, never()).timestampRangeResponse(anyLong(), anyInt(), any(Channel.class));
+
+        // Only the commits received before the timestamps are waited for
+        flushLatches[0].countDown();
+        verify(reply, timeout(1000).times(1)).timestampRangeResponse(eq(4L), eq(10), any(Channel.class));
+        verify(reply, never()).commitResponse(eq(14L), anyLong(), any(Channel.class));
+
+        flushLatches[1].countDown();
+        verify(reply, timeout(1000).times(2)).commitResponse(anyLong(), anyLong(), any(Channel.class));
+        verify(reply).commitResponse(eq(14L), eq(15L), any(Channel.class));
+        InOrder inOrder = inOrder(reply);
+        inOrder.verify(reply).commitResponse(eq(2L), eq(3L), any(Channel.class));
+        inOrder.verify(reply).timestampRangeResponse(eq(4L), eq(10), any(Channel.class));
+    }
+
+    @Test(timeOut = 30000)
+    public void testBatchesAreFlushedWithAllWaitStrategies() throws Exception {
+        for (DisruptorRings.WaitStrategyType waitStrategy : DisruptorRings.WaitStrategyType.values()) {
+            CommitTable.Writer writer = mock(CommitTable.Writer.class);
+            ReplyProcessor reply = mock(ReplyProcessor.class);
+            TSOServerConfig config = new TSOServerConfig();
+            config.setPersistWaitStrategy(waitStrategy);
+            config.setPersistRingSize(1<<10);
+            PersistenceProcessor proc = new PersistenceProcessorImpl(new NullMetricsProvider(),
+                                                                     mockCommitTable(writer),
+                                                                     reply,
+                                                                     mock(RetryProcessor.class),
+                                                                     new MockPanicker(),
+                                                                     config);
+
+            // No more events arrive, so the batch is flushed when waiting times out
+            proc.persistCommit(1, 2, null);
+            verify(reply, timeout(1000).times(1)).commitResponse(eq(1L), eq(2L), any(Channel.class));
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRingSizeMustBePowerOfTwo() throws Exception {
+        TSOServerConfig config = new TSOServerConfig();
+        config.setPersistRingSize(1000);
+        new PersistenceProcessorImpl(new NullMetricsProvider(),
+                                     mockCommitTable(mock(CommitTable.Writer.class)),
+                                     mock(ReplyProcessor.class),
+                                     mock(RetryProcessor.class),
+                                     new MockPanicker(),
+                                     config);
+    }
+
+    private CommitTable mockCommitTable(CommitTable.Writer writer) {
+        doReturn(Futures.<Void>immediateFuture(null)).when(writer).flush();
+        CommitTable commitTable = mock(CommitTable.class);
+        doReturn(Futures.immediateFuture(writer)).when(commitTable).getWriter();
+        doReturn(Futures.immediateFuture(mock(CommitTable.Client.class))).when(commitTable).getClient();
+        return commitTable;
+    }
+
+}
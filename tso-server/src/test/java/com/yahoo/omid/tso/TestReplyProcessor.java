@@ -0,0 +1,180 @@
+package com.yahoo.omid.tso;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBufferInputStream;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.buffer.HeapChannelBufferFactory;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelConfig;
+import org.jboss.netty.channel.ChannelFuture;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.Test;
+
+import com.yahoo.omid.metrics.NullMetricsProvider;
+import com.yahoo.omid.proto.TSOProto;
+import com.yahoo.omid.tso.ReplyProcessorImpl.ReplyEvent;
+
+public class TestReplyProcessor {
+
+    @Test(timeOut=10000)
+    public void testResponsesAreCoalescedPerChannel() throws Exception {
+        ReplyProcessorImpl replyProc = new ReplyProcessorImpl(new NullMetricsProvider(),
+                                                              new MockPanicker(), new TSOServerConfig());
+        Channel c1 = mockChannel();
+        Channel c2 = mockChannel();
+
+        ReplyEvent e = new ReplyEvent();
+        ReplyEvent.makeCommitResponse(e, 1, 2, c1);
+        replyProc.onEvent(e, 0, false);
+        ReplyEvent.makeTimestampReponse(e, 3, c2);
+        replyProc.onEvent(e, 1, false);
+        ReplyEvent.makeAbortResponse(e, 4, c1);
+        replyProc.onEvent(e, 2, false);
+
+        // Nothing is written until the end of the batch
+        verify(c1, never()).write(any());
+        verify(c2, never()).write(any());
+
+        ReplyEvent.makeTimestampRangeResponse(e, 10, 5, c1);
+        replyProc.onEvent(e, 3, true);
+
+        ArgumentCaptor<Object> c1Writes = ArgumentCaptor.forClass(Object.class);
+        verify(c1, times(1)).write(c1Writes.capture());
+        ChannelBuffer buf = (ChannelBuffer) c1Writes.getValue();
+        TSOProto.Response r = readFrame(buf);
+        assertTrue(r.hasCommitResponse());
+        assertFalse(r.getCommitResponse().getAborted());
+        assertEquals(1, r.getCommitResponse().getStartTimestamp());
+        assertEquals(2, r.getCommitResponse().getCommitTimestamp());
+        r = readFrame(buf);
+        assertTrue(r.getCommitResponse().getAborted());
+        assertEquals(4, r.getCommitResponse().getStartTimestamp());
+        r = readFrame(buf);
+        assertEquals(10, r.getTimestampRangeResponse().getFirstTimestamp());
+        assertEquals(5, r.getTimestampRangeResponse().getCount());
+        assertFalse(buf.readable());
+
+        ArgumentCaptor<Object> c2Writes = ArgumentCaptor.forClass(Object.class);
+        verify(c2, times(1)).write(c2Writes.capture());
+        buf = (ChannelBuffer) c2Writes.getValue();
+        assertEquals(3, readFrame(buf).getTimestampResponse().getStartTimestamp());
+        assertFalse(buf.readable());
+
+        // The next batch starts from scratch
+        ReplyEvent.makeTimestampReponse(e, 20, c2);
+        replyProc.onEvent(e, 4, true);
+        verify(c1, times(1)).write(any());
+        verify(c2, times(2)).write(any());
+    }
+
+    @Test(timeOut=10000)
+    public void testTryEmptyCommitResponseWhenTheRingIsFull() throws Exception {
+        TSOServerConfig config = new TSOServerConfig();
+        config.setReplyRingSize(4);
+        ReplyProcessorImpl replyProc = new ReplyProcessorImpl(new NullMetricsProvider(),
+                                                              new MockPanicker(), config);
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        Channel c = mockChannel();
+        when(c.write(any())).thenAnswer(new Answer<ChannelFuture>() {
+                @Override
+                public ChannelFuture answer(InvocationOnMock invocation) throws Throwable {
+                    writing.countDown();
+                    release.await();
+                    return null;
+                }
+            });
+
+        // The reply thread is stuck writing the first response, which still
+        // takes its slot, so the ring fills up
+        replyProc.timestampResponse(1, c);
+        writing.await();
+        for (int i = 0; i < 3; i++) {
+            assertTrue(replyProc.tryEmptyCommitResponse(10 + i, i % 2 == 0, c));
+        }
+        assertFalse(replyProc.tryEmptyCommitResponse(20, true, c));
+
+        release.countDown();
+        verify(c, timeout(5000).times(2)).write(any());
+        assertTrue(replyProc.tryEmptyCommitResponse(20, true, c));
+    }
+
+    @Test(timeOut=10000)
+    public void testEncoderFramesSingleResponses() throws Exception {
+        TSOProto.Response response = TSOProto.Response.newBuilder()
+            .setTimestampResponse(TSOProto.TimestampResponse.newBuilder().setStartTimestamp(42)).build();
+        ChannelBuffer buf = (ChannelBuffer) new TSOResponseEncoder().encode(null, null, response);
+        assertEquals(42, readFrame(buf).getTimestampResponse().getStartTimestamp());
+        assertFalse(buf.readable());
+
+        // Buffers are already framed
+        Object passed = new TSOResponseEncoder().encode(null, null, buf);
+        assertTrue(passed == buf);
+    }
+
+    @Test(timeOut=10000)
+    public void testResponsesAreEncodedLikeTheGeneratedCode() throws Exception {
+        long[] timestamps = { 0, 1, 127, 128, 1L << 40, Long.MAX_VALUE, -1 };
+        for (long ts : timestamps) {
+            ChannelBuffer buf = ChannelBuffers.dynamicBuffer();
+            TSOResponseEncoder.appendTimestampResponse(buf, ts);
+            assertSameFrame(TSOProto.Response.newBuilder()
+                            .setTimestampResponse(TSOProto.TimestampResponse.newBuilder()
+                                                  .setStartTimestamp(ts)).build(), buf);
+
+            buf = ChannelBuffers.dynamicBuffer();
+            TSOResponseEncoder.appendTimestampRangeResponse(buf, ts, (int) ts);
+            assertSameFrame(TSOProto.Response.newBuilder()
+                            .setTimestampRangeResponse(TSOProto.TimestampRangeResponse.newBuilder()
+                                                       .setFirstTimestamp(ts).setCount((int) ts)).build(), buf);
+
+            buf = ChannelBuffers.dynamicBuffer();
+            TSOResponseEncoder.appendCommitResponse(buf, ts, ts + 1);
+            assertSameFrame(TSOProto.Response.newBuilder()
+                            .setCommitResponse(TSOProto.CommitResponse.newBuilder()
+                                               .setAborted(false).setStartTimestamp(ts)
+                                               .setCommitTimestamp(ts + 1)).build(), buf);
+
+            buf = ChannelBuffers.dynamicBuffer();
+            TSOResponseEncoder.appendAbortResponse(buf, ts);
+            assertSameFrame(TSOProto.Response.newBuilder()
+                            .setCommitResponse(TSOProto.CommitResponse.newBuilder()
+                                               .setAborted(true).setStartTimestamp(ts)).build(), buf);
+        }
+    }
+
+    private static void assertSameFrame(TSOProto.Response expected, ChannelBuffer actual) throws Exception {
+        ChannelBuffer buf = ChannelBuffers.dynamicBuffer();
+        TSOResponseEncoder.appendFrame(buf, expected);
+        assertEquals(buf, actual);
+    }
+
+    private static Channel mockChannel() {
+        ChannelConfig config = mock(ChannelConfig.class);
+        when(config.getBufferFactory()).thenReturn(HeapChannelBufferFactory.getInstance());
+        Channel c = mock(Channel.class);
+        when(c.getConfig()).thenReturn(config);
+        return c;
+    }
+
+    private static TSOProto.Response readFrame(ChannelBuffer buf) throws Exception {
+        int length = buf.readInt();
+        return TSOProto.Response.parseFrom(new ChannelBufferInputStream(buf, length));
+    }
+
+}
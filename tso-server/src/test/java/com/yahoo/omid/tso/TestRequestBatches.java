@@ -0,0 +1,92 @@
+package com.yahoo.omid.tso;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Future;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Sets;
+import com.yahoo.omid.proto.TSOProto;
+import com.yahoo.omid.tso.util.DummyCellIdImpl;
+import com.yahoo.omid.tsoclient.CellId;
+import com.yahoo.omid.tsoclient.TSOFuture;
+
+public class TestRequestBatches extends TSOTestBase {
+
+    @Test(timeOut = 10000)
+    public void testRequestBatchesFromRawClient() throws Exception {
+        TSOClientRaw raw = new TSOClientRaw(clientConf.getString("tso.host"),
+                                            clientConf.getInt("tso.port"));
+
+        raw.write(TSOProto.Request.newBuilder()
+                  .setHandshakeRequest(TSOProto.HandshakeRequest.newBuilder()
+                                       .setClientCapabilities(TSOProto.Capabilities.newBuilder())).build());
+        TSOProto.HandshakeResponse handshake = raw.getResponse().get().getHandshakeResponse();
+        assertTrue(handshake.getClientCompatible());
+        assertTrue("Server should support request batches",
+                   handshake.getServerCapabilities().getRequestBatches());
+
+        TSOProto.Request timestampRequest = TSOProto.Request.newBuilder()
+            .setTimestampRequest(TSOProto.TimestampRequest.newBuilder()).build();
+        raw.write(TSOProto.Request.newBuilder()
+                  .setRequestBatch(TSOProto.RequestBatch.newBuilder()
+                                   .addRequest(timestampRequest)
+                                   .addRequest(timestampRequest)).build());
+        long ts1 = raw.getResponse().get().getTimestampResponse().getStartTimestamp();
+        long ts2 = raw.getResponse().get().getTimestampResponse().getStartTimestamp();
+        assertTrue(ts2 > ts1);
+
+        // The raw client doesn't commit its read-only transactions locally,
+        // so an empty commit in the batch is committed at its start timestamp
+        raw.write(TSOProto.Request.newBuilder()
+                  .setRequestBatch(TSOProto.RequestBatch.newBuilder()
+                                   .addRequest(TSOProto.Request.newBuilder().setCommitRequest(
+                                           TSOProto.CommitRequest.newBuilder()
+                                           .setStartTimestamp(ts1).addCellId(c1.getCellId())))
+                                   .addRequest(TSOProto.Request.newBuilder().setCommitRequest(
+                                           TSOProto.CommitRequest.newBuilder().setStartTimestamp(ts2))))
+                  .build());
+        List<TSOProto.CommitResponse> responses = new ArrayList<>();
+        responses.add(raw.getResponse().get().getCommitResponse());
+        responses.add(raw.getResponse().get().getCommitResponse());
+        for (TSOProto.CommitResponse response : responses) {
+            if (response.getStartTimestamp() == ts1) {
+                assertFalse(response.getAborted());
+                assertTrue(response.getCommitTimestamp() > ts2);
+            } else {
+                assertEquals(ts2, response.getStartTimestamp());
+                assertFalse(response.getAborted());
+                assertEquals(ts2, response.getCommitTimestamp());
+            }
+        }
+        raw.close();
+    }
+
+    @Test(timeOut = 30000)
+    public void testConcurrentRequestsFromClient() throws Exception {
+        int n = 500;
+        List<TSOFuture<Long>> timestampFutures = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            timestampFutures.add(client.getNewStartTimestamp());
+        }
+        Set<Long> timestamps = new HashSet<>();
+        List<TSOFuture<Long>> commitFutures = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            long ts = timestampFutures.get(i).get();
+            assertTrue("Timestamps should be unique", timestamps.add(ts));
+            Set<CellId> writeSet = Sets.<CellId>newHashSet(new DummyCellIdImpl(i));
+            commitFutures.add(client.commit(ts, writeSet));
+        }
+        for (Future<Long> f : commitFutures) {
+            assertTrue(f.get() > 0);
+        }
+    }
+
+}
@@ -2,24 +2,34 @@ package com.yahoo.omid.tso;
 
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
 import static org.testng.AssertJUnit.assertTrue;
 
-import java.util.List;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
 
+import org.jboss.netty.buffer.ChannelBuffers;
 import org.jboss.netty.channel.Channel;
 import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.annotations.Test;
 
-import com.google.common.collect.Lists;
 import com.yahoo.omid.metrics.MetricsRegistry;
 import com.yahoo.omid.metrics.NullMetricsProvider;
+import com.yahoo.omid.proto.TSOProto;
 
 public class TestRequestProcessor {
 
@@ -43,22 +53,231 @@ public class TestRequestProcessor {
         }
     }
 
+    @Test(timeOut = 30000)
+    public void testTimestampWithRequestBatching() throws Exception {
+        PersistenceProcessor persist = mock(PersistenceProcessor.class);
+        RequestProcessor proc = buildRequestProcessor(new UnbatchingPersistenceProcessor(persist), 1, true);
+
+        for (int i = 0; i < 100; i++) {
+            proc.timestampRequest(null);
+        }
+        ArgumentCaptor<Long> TScapture = ArgumentCaptor.forClass(Long.class);
+        verify(persist, timeout(1000).times(100)).persistTimestamp(TScapture.capture(), any(Channel.class));
+        // verify that timestamps increase monotonically across batches
+        long previous = 0;
+        for (long timestamp : TScapture.getAllValues()) {
+            assertTrue("Timestamps should increase", timestamp > previous);
+            previous = timestamp;
+        }
+    }
+
+    @Test(timeOut = 30000)
+    public void testTimestampRange() throws Exception {
+        testTimestampRange(1);
+    }
+
+    @Test(timeOut = 30000)
+    public void testTimestampRangeWithShardedConflictDetection() throws Exception {
+        testTimestampRange(4);
+    }
+
+    private void testTimestampRange(int conflictDetectionShards) throws Exception {
+        PersistenceProcessor persist = mock(PersistenceProcessor.class);
+        RequestProcessor proc = buildRequestProcessor(persist, conflictDetectionShards);
+
+        proc.timestampRangeRequest(10, null);
+        ArgumentCaptor<Long> firstTScapture = ArgumentCaptor.forClass(Long.class);
+        verify(persist, timeout(1000).times(1)).persistTimestampRange(
+                firstTScapture.capture(), eq(10), any(Channel.class));
+        long firstTS = firstTScapture.getValue();
+
+        // The timestamps after the range are not leased to anybody else
+        proc.timestampRequest(null);
+        verify(persist, timeout(1000).times(1)).persistTimestamp(eq(firstTS + 10), any(Channel.class));
+
+        // Oversized ranges are truncated
+        proc.timestampRangeRequest(Integer.MAX_VALUE, null);
+        verify(persist, timeout(1000).times(1)).persistTimestampRange(
+                eq(firstTS + 11), eq(TimestampOracleImpl.MAX_TIMESTAMP_RANGE), any(Channel.class));
+    }
+
     @Test(timeOut = 30000)
     public void testCommit() throws Exception {
-        List<Long> writeSet = Lists.newArrayList(1L, 20L, 203L);
+        testCommit(1);
+    }
+
+    @Test(timeOut = 30000)
+    public void testCommitWithShardedConflictDetection() throws Exception {
+        testCommit(4);
+    }
+
+    @Test(timeOut = 30000)
+    public void testCommitWithRequestBatching() throws Exception {
+        PersistenceProcessor persist = mock(PersistenceProcessor.class);
+        testCommit(persist, buildRequestProcessor(new UnbatchingPersistenceProcessor(persist), 1, true));
+    }
+
+    @Test(timeOut = 30000)
+    public void testRequestBatchLargerThanTheRing() throws Exception {
+        PersistenceProcessor persist = mock(PersistenceProcessor.class);
+        RequestProcessor proc = buildRequestProcessor(persist);
+
+        proc.timestampRequest(null);
+        ArgumentCaptor<Long> TScapture = ArgumentCaptor.forClass(Long.class);
+        verify(persist, timeout(1000).times(1)).persistTimestamp(TScapture.capture(), any(Channel.class));
+        long startTS = TScapture.getValue();
+
+        TSOProto.RequestBatch.Builder requests = TSOProto.RequestBatch.newBuilder();
+        requests.addRequest(TSOProto.Request.newBuilder().setCommitRequest(
+                TSOProto.CommitRequest.newBuilder().setStartTimestamp(startTS).addCellId(1L).addCellId(2L)));
+        requests.addRequest(TSOProto.Request.newBuilder().setTimestampRangeRequest(
+                TSOProto.TimestampRangeRequest.newBuilder().setCount(10)));
+        int numTimestamps = RequestProcessorImpl.DEFAULT_REQUEST_RING_SIZE + 100;
+        for (int i = 0; i < numTimestamps; i++) {
+            requests.addRequest(TSOProto.Request.newBuilder().setTimestampRequest(
+                    TSOProto.TimestampRequest.newBuilder()));
+        }
+        proc.requestBatch(decodeBatch(requests), null);
+
+        verify(persist, timeout(1000).times(1)).persistCommit(eq(startTS), anyLong(), any(Channel.class));
+        verify(persist, timeout(1000).times(1)).persistTimestampRange(anyLong(), eq(10), any(Channel.class));
+        verify(persist, timeout(5000).times(numTimestamps + 1)).persistTimestamp(anyLong(), any(Channel.class));
+    }
+
+    @Test(timeOut = 30000)
+    public void testTryRequestsWhenTheRingIsFull() throws Exception {
+        final CountDownLatch processing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
         PersistenceProcessor persist = mock(PersistenceProcessor.class);
+        doAnswer(new Answer<Void>() {
+                @Override
+                public Void answer(InvocationOnMock invocation) throws Throwable {
+                    processing.countDown();
+                    release.await();
+                    return null;
+                }
+            }).doNothing().when(persist).persistTimestamp(anyLong(), any(Channel.class));
         RequestProcessor proc = buildRequestProcessor(persist);
 
+        // The processor is stuck in the first request, so the ring fills up
+        proc.timestampRequest(null);
+        processing.await();
+        int ringSize = RequestProcessorImpl.DEFAULT_REQUEST_RING_SIZE;
+        TSOProto.RequestBatch.Builder requests = TSOProto.RequestBatch.newBuilder();
+        for (int i = 0; i < ringSize; i++) {
+            requests.addRequest(TSOProto.Request.newBuilder().setTimestampRequest(
+                    TSOProto.TimestampRequest.newBuilder()));
+        }
+        TSORequestDecoder.RequestBatch batch = decodeBatch(requests);
+        assertEquals("Only the free slots are taken", ringSize - 1, proc.tryRequestBatch(batch, ringSize, null));
+        assertFalse(proc.tryTimestampRequest(null));
+        assertFalse(proc.tryTimestampRangeRequest(10, null));
+        assertFalse(proc.tryCommitRequest(1L, new long[] { 1L }, 1, false, null));
+        assertEquals(0, proc.tryRequestBatch(batch, ringSize, null));
+
+        release.countDown();
+        verify(persist, timeout(5000).times(ringSize)).persistTimestamp(anyLong(), any(Channel.class));
+        assertTrue(proc.tryTimestampRequest(null));
+        verify(persist, timeout(1000).times(ringSize + 1)).persistTimestamp(anyLong(), any(Channel.class));
+    }
+
+    @Test(timeOut = 30000)
+    public void testConflictsWithinABatch() throws Exception {
+        PersistenceProcessor persist = mock(PersistenceProcessor.class);
+        RequestProcessor proc = buildRequestProcessor(new UnbatchingPersistenceProcessor(persist), 1, true);
+
+        proc.timestampRequest(null);
+        ArgumentCaptor<Long> TScapture = ArgumentCaptor.forClass(Long.class);
+        verify(persist, timeout(1000).times(1)).persistTimestamp(TScapture.capture(), any(Channel.class));
+        long startTS = TScapture.getValue();
+
+        // Whether the requests land in the same batch or not, the first one
+        // wins. Write sets are unsorted to exercise the sorting by location
+        proc.commitRequest(startTS, new long[] { 300L, 2L, 1000L, 45L }, 4, false, null);
+        proc.commitRequest(startTS, new long[] { 7L, 45L }, 2, false, null);
+        proc.commitRequest(startTS, new long[] { 8L }, 1, false, null);
+        verify(persist, timeout(1000).times(2)).persistCommit(eq(startTS), anyLong(), any(Channel.class));
+        verify(persist, timeout(1000).times(1)).persistAbort(eq(startTS), anyBoolean(), any(Channel.class));
+    }
+
+    @Test(timeOut = 30000)
+    public void testShardedLowWatermark() throws Exception {
+        PersistenceProcessor persist = mock(PersistenceProcessor.class);
+        RequestProcessor proc = buildRequestProcessor(persist, 2);
+
         proc.timestampRequest(null);
         ArgumentCaptor<Long> TScapture = ArgumentCaptor.forClass(Long.class);
         verify(persist, timeout(100).times(1)).persistTimestamp(
                 TScapture.capture(), any(Channel.class));
         long firstTS = TScapture.getValue();
 
-        proc.commitRequest(firstTS - 1, writeSet, false, null);
+        // Fill the items of both shards so the low watermark moves forward
+        for (long i = 0; i < 10000; i++) {
+            proc.commitRequest(firstTS, new long[] { i }, 1, false, null);
+        }
+        ArgumentCaptor<Long> lowWatermarkCapture = ArgumentCaptor.forClass(Long.class);
+        verify(persist, timeout(1000).atLeast(2)).persistLowWatermark(lowWatermarkCapture.capture());
+        assertTrue("Low watermark should have moved forward",
+                   lowWatermarkCapture.getValue() > firstTS);
+
+        proc.commitRequest(firstTS, new long[] { 10001L }, 1, false, null);
+        verify(persist, timeout(1000).atLeast(1)).persistAbort(eq(firstTS), anyBoolean(), any(Channel.class));
+    }
+
+    @Test(timeOut = 30000)
+    public void testOracleFailuresReleaseTheInFlightRequests() throws Exception {
+        PersistenceProcessor persist = mock(PersistenceProcessor.class);
+        testOracleFailures(persist, persist, 1, false);
+        testOracleFailures(persist, persist, 4, false);
+        persist = mock(PersistenceProcessor.class);
+        testOracleFailures(persist, new UnbatchingPersistenceProcessor(persist), 1, true);
+    }
+
+    private void testOracleFailures(PersistenceProcessor persist, PersistenceProcessor procPersist,
+                                    int conflictDetectionShards, boolean requestBatching) throws Exception {
+        TimestampOracle timestampOracle = mock(TimestampOracle.class);
+        doThrow(new IOException("Storage failure")).when(timestampOracle).next();
+        doThrow(new IOException("Storage failure")).when(timestampOracle).next(anyInt());
+        RequestProcessor proc = new RequestProcessorImpl(new NullMetricsProvider(), timestampOracle, procPersist,
+                new MockPanicker(), config(conflictDetectionShards, requestBatching));
+
+        Channel c = mock(Channel.class);
+        InFlightRequests.track(c);
+        try {
+            InFlightRequests.acquire(c, 3);
+            proc.timestampRequest(c);
+            proc.timestampRangeRequest(10, c);
+            proc.commitRequest(1L, new long[] { 1L }, 1, false, c);
+
+            // The commit is aborted, the timestamp requests just give up their slots
+            verify(persist, timeout(1000).times(1)).persistAbort(eq(1L), anyBoolean(), eq(c));
+            while (InFlightRequests.get(c) != 1) {
+                Thread.sleep(10);
+            }
+            verify(persist, never()).persistTimestamp(anyLong(), any(Channel.class));
+        } finally {
+            InFlightRequests.untrack(c);
+        }
+    }
+
+    private void testCommit(int conflictDetectionShards) throws Exception {
+        PersistenceProcessor persist = mock(PersistenceProcessor.class);
+        testCommit(persist, buildRequestProcessor(persist, conflictDetectionShards));
+    }
+
+    private void testCommit(PersistenceProcessor persist, RequestProcessor proc) throws Exception {
+        long[] writeSet = new long[] { 1L, 20L, 203L };
+
+        proc.timestampRequest(null);
+        ArgumentCaptor<Long> TScapture = ArgumentCaptor.forClass(Long.class);
+        verify(persist, timeout(100).times(1)).persistTimestamp(
+                TScapture.capture(), any(Channel.class));
+        long firstTS = TScapture.getValue();
+
+        proc.commitRequest(firstTS - 1, writeSet, writeSet.length, false, null);
         verify(persist, timeout(100).times(1)).persistAbort(eq(firstTS - 1), anyBoolean(), any(Channel.class));
 
-        proc.commitRequest(firstTS, writeSet, false, null);
+        proc.commitRequest(firstTS, writeSet, writeSet.length, false, null);
         ArgumentCaptor<Long> commitTScapture = ArgumentCaptor.forClass(Long.class);
 
         verify(persist, timeout(100).times(1)).persistCommit(eq(firstTS), commitTScapture.capture(),
@@ -78,21 +297,108 @@ public class TestRequestProcessor {
                 TScapture.capture(), any(Channel.class));
         long thirdTS = TScapture.getValue();
 
-        proc.commitRequest(thirdTS, writeSet, false, null);
+        proc.commitRequest(thirdTS, writeSet, writeSet.length, false, null);
         verify(persist, timeout(100).times(1)).persistCommit(eq(thirdTS), anyLong(),
                                                              any(Channel.class));
-        proc.commitRequest(secondTS, writeSet, false, null);
+        proc.commitRequest(secondTS, writeSet, writeSet.length, false, null);
         verify(persist, timeout(100).times(1)).persistAbort(eq(secondTS), anyBoolean(),
                                                             any(Channel.class));
     }
 
     private RequestProcessor buildRequestProcessor(PersistenceProcessor persist) throws Exception {
+        return buildRequestProcessor(persist, 1);
+    }
+
+    private RequestProcessor buildRequestProcessor(PersistenceProcessor persist, int conflictDetectionShards)
+        throws Exception {
+        return buildRequestProcessor(persist, conflictDetectionShards, false);
+    }
+
+    private RequestProcessor buildRequestProcessor(PersistenceProcessor persist, int conflictDetectionShards,
+                                                   boolean requestBatching)
+        throws Exception {
         MetricsRegistry metrics = new NullMetricsProvider();
         TimestampOracleImpl timestampOracle = new TimestampOracleImpl(metrics,
                 new TimestampOracleImpl.InMemoryTimestampStorage(), new MockPanicker());
+        return new RequestProcessorImpl(metrics, timestampOracle, persist, new MockPanicker(),
+                                        config(conflictDetectionShards, requestBatching));
+    }
+
+    private static TSOServerConfig config(int conflictDetectionShards, boolean requestBatching) {
         TSOServerConfig config = new TSOServerConfig();
         config.setMaxItems(1000);
-        return new RequestProcessorImpl(metrics, timestampOracle, persist, new MockPanicker(), config);
+        config.setConflictDetectionShards(conflictDetectionShards);
+        config.setRequestBatching(requestBatching);
+        return config;
+    }
+
+    private static TSORequestDecoder.RequestBatch decodeBatch(TSOProto.RequestBatch.Builder batch) throws Exception {
+        TSOProto.Request request = TSOProto.Request.newBuilder().setRequestBatch(batch).build();
+        return (TSORequestDecoder.RequestBatch) new TSORequestDecoder().decode(
+                null, null, ChannelBuffers.wrappedBuffer(request.toByteArray()));
+    }
+
+    /**
+     * Splits the batches of requests in the calls the mocks can verify
+     */
+    private static class UnbatchingPersistenceProcessor implements PersistenceProcessor {
+
+        private final PersistenceProcessor delegate;
+
+        UnbatchingPersistenceProcessor(PersistenceProcessor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void persistCommit(long startTimestamp, long commitTimestamp, Channel c) {
+            delegate.persistCommit(startTimestamp, commitTimestamp, c);
+        }
+
+        @Override
+        public void persistAbort(long startTimestamp, boolean isRetry, Channel c) {
+            delegate.persistAbort(startTimestamp, isRetry, c);
+        }
+
+        @Override
+        public void persistTimestamp(long startTimestamp, Channel c) {
+            delegate.persistTimestamp(startTimestamp, c);
+        }
+
+        @Override
+        public void persistTimestampRange(long firstTimestamp, int count, Channel c) {
+            delegate.persistTimestampRange(firstTimestamp, count, c);
+        }
+
+        @Override
+        public void persistLowWatermark(long lowWatermark) {
+            delegate.persistLowWatermark(lowWatermark);
+        }
+
+        @Override
+        public void persistRequests(RequestProcessorImpl.RequestEvent[] events, int numEvents) {
+            for (int i = 0; i < numEvents; i++) {
+                RequestProcessorImpl.RequestEvent e = events[i];
+                if (e.getType() != RequestProcessorImpl.RequestEvent.Type.COMMIT && e.getTimestamp() == 0) {
+                    continue; // The oracle failed, not persisted
+                }
+                switch (e.getType()) {
+                case TIMESTAMP:
+                    delegate.persistTimestamp(e.getTimestamp(), e.getChannel());
+                    break;
+                case TIMESTAMP_RANGE:
+                    delegate.persistTimestampRange(e.getTimestamp(), e.getCount(), e.getChannel());
+                    break;
+                case COMMIT:
+                    if (e.hasConflict()) {
+                        delegate.persistAbort(e.getStartTimestamp(), e.isRetry(), e.getChannel());
+                    } else {
+                        delegate.persistCommit(e.getStartTimestamp(), e.getTimestamp(), e.getChannel());
+                    }
+                    break;
+                }
+            }
+        }
+
     }
 
-}
\ No newline at end of file
+}
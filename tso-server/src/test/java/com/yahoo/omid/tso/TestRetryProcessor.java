@@ -1,11 +1,17 @@
 package com.yahoo.omid.tso;
 
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.testng.AssertJUnit.assertEquals;
 
+import java.io.IOException;
+
 import org.jboss.netty.channel.Channel;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
@@ -13,6 +19,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.annotations.Test;
 
+import com.google.common.util.concurrent.Futures;
 import com.yahoo.omid.committable.CommitTable;
 import com.yahoo.omid.committable.InMemoryCommitTable;
 import com.yahoo.omid.metrics.MetricsRegistry;
@@ -41,7 +48,7 @@ public class TestRetryProcessor {
         
         // The element to test
         RetryProcessor retryProc = new RetryProcessorImpl(metrics, commitTable,
-                                                          replyProc, new MockPanicker());
+                                                          replyProc, new MockPanicker(), new TSOServerConfig());
 
         // Test we'll reply with an abort for a retry request when the start timestamp IS NOT in the commit table 
         retryProc.disambiguateRetryRequestHeuristically(NON_EXISTING_ST_TX, channel);
@@ -64,5 +71,92 @@ public class TestRetryProcessor {
         assertEquals("Captured timestamp should be the same as CT_TX_1", CT_TX_1, commitTS);
     }
 
+    @Test(timeOut=10000)
+    public void testRetriesOfRecentCommitsAreAnsweredFromMemory() throws Exception {
+
+        ReplyProcessor replyProc = mock(ReplyProcessor.class);
+        Channel channel = Mockito.mock(Channel.class);
+
+        CommitTable.Client commitTableClient = spy(new InMemoryCommitTable().getClient().get());
+        CommitTable commitTable = mock(CommitTable.class);
+        Mockito.doReturn(Futures.immediateFuture(commitTableClient)).when(commitTable).getClient();
+        Mockito.doReturn(Futures.immediateFuture(mock(CommitTable.Writer.class))).when(commitTable).getWriter();
+
+        RetryProcessor retryProc = new RetryProcessorImpl(metrics, commitTable,
+                                                          replyProc, new MockPanicker(), new TSOServerConfig());
+
+        // The commit was only persisted, the commit table doesn't know about it
+        retryProc.commitPersisted(ST_TX_1, CT_TX_1);
+        retryProc.disambiguateRetryRequestHeuristically(ST_TX_1, channel);
+        verify(replyProc, timeout(100).times(1)).commitResponse(eq(ST_TX_1), eq(CT_TX_1), any(Channel.class));
+        verify(commitTableClient, never()).getCommitTimestamps(any(long[].class));
+
+        // Misses are looked up in the commit table
+        retryProc.disambiguateRetryRequestHeuristically(NON_EXISTING_ST_TX, channel);
+        verify(replyProc, timeout(100).times(1)).abortResponse(eq(NON_EXISTING_ST_TX), any(Channel.class));
+        verify(commitTableClient, timeout(100).times(1)).getCommitTimestamps(any(long[].class));
+    }
+
+    @Test(timeOut=10000)
+    public void testRecentCommitsCanBeDisabled() throws Exception {
+
+        ReplyProcessor replyProc = mock(ReplyProcessor.class);
+        Channel channel = Mockito.mock(Channel.class);
+
+        TSOServerConfig config = new TSOServerConfig();
+        config.setRecentCommits(0);
+        RetryProcessor retryProc = new RetryProcessorImpl(metrics, new InMemoryCommitTable(),
+                                                          replyProc, new MockPanicker(), config);
+
+        retryProc.commitPersisted(ST_TX_1, CT_TX_1);
+        retryProc.disambiguateRetryRequestHeuristically(ST_TX_1, channel);
+        verify(replyProc, timeout(100).times(1)).abortResponse(eq(ST_TX_1), any(Channel.class));
+        verify(replyProc, never()).commitResponse(anyLong(), anyLong(), any(Channel.class));
+    }
+
+    @Test(timeOut=10000)
+    public void testRetriesAreAbortedWhenTheCommitTableFails() throws Exception {
+
+        ReplyProcessor replyProc = mock(ReplyProcessor.class);
+        Channel channel = Mockito.mock(Channel.class);
+
+        CommitTable.Client commitTableClient = mock(CommitTable.Client.class);
+        Mockito.doReturn(Futures.immediateFailedFuture(new IOException("Commit table failure")))
+            .when(commitTableClient).getCommitTimestamps(any(long[].class));
+        CommitTable commitTable = mock(CommitTable.class);
+        Mockito.doReturn(Futures.immediateFuture(commitTableClient)).when(commitTable).getClient();
+        Mockito.doReturn(Futures.immediateFuture(mock(CommitTable.Writer.class))).when(commitTable).getWriter();
+
+        TSOServerConfig config = new TSOServerConfig();
+        config.setRecentCommits(0);
+        RetryProcessor retryProc = new RetryProcessorImpl(metrics, commitTable,
+                                                          replyProc, new MockPanicker(), config);
+
+        retryProc.disambiguateRetryRequestHeuristically(ST_TX_1, channel);
+        retryProc.disambiguateRetryRequestHeuristically(NON_EXISTING_ST_TX, channel);
+        verify(replyProc, timeout(1000).times(1)).abortResponse(eq(ST_TX_1), any(Channel.class));
+        verify(replyProc, timeout(1000).times(1)).abortResponse(eq(NON_EXISTING_ST_TX), any(Channel.class));
+    }
+
+    @Test
+    public void testRecentCommits() throws Exception {
+        RecentCommits recentCommits = new RecentCommits(16);
+        for (long i = 1; i <= 1000; i++) {
+            recentCommits.add(i, i + 1);
+        }
+        // Evicted entries are misses, the others have the right commit
+        int hits = 0;
+        for (long i = 1; i <= 1000; i++) {
+            long commit = recentCommits.get(i);
+            if (commit != -1) {
+                assertEquals(i + 1, commit);
+                hits++;
+            }
+        }
+        assertEquals(true, hits > 0 && hits <= 16);
+        assertEquals(1001, recentCommits.get(1000));
+        assertEquals(-1, recentCommits.get(1001));
+    }
+
 }
 
@@ -0,0 +1,174 @@
+package com.yahoo.omid.tso;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.testng.annotations.Test;
+
+import com.google.protobuf.CodedOutputStream;
+import com.yahoo.omid.proto.TSOProto;
+
+public class TestTSORequestDecoder {
+
+    @Test(timeOut = 10000)
+    public void testPackedCommitRequest() throws Exception {
+        TSORequestDecoder decoder = new TSORequestDecoder();
+        TSOProto.CommitRequest.Builder commitBuilder = TSOProto.CommitRequest.newBuilder()
+                .setStartTimestamp(1234L)
+                .setIsRetry(true);
+        // More cells than the initial capacity of the holder and negative ids
+        for (long i = 0; i < 100; i++) {
+            commitBuilder.addCellId(i * -987654321L);
+        }
+        TSOProto.Request request = TSOProto.Request.newBuilder().setCommitRequest(commitBuilder).build();
+
+        Object msg = decoder.decode(null, null, ChannelBuffers.wrappedBuffer(request.toByteArray()));
+        assertTrue("Commit requests should be decoded into the holder",
+                   msg instanceof TSORequestDecoder.CommitRequest);
+        TSORequestDecoder.CommitRequest cr = (TSORequestDecoder.CommitRequest) msg;
+        assertEquals(1234L, cr.getStartTimestamp());
+        assertTrue(cr.isRetry());
+        assertEquals(100, cr.getNumCells());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i * -987654321L, cr.getCellIds()[i]);
+        }
+
+        // The holder is reused for the next request of the channel
+        request = TSOProto.Request.newBuilder()
+                .setCommitRequest(TSOProto.CommitRequest.newBuilder().setStartTimestamp(5L).addCellId(7L)).build();
+        Object msg2 = decoder.decode(null, null, ChannelBuffers.wrappedBuffer(request.toByteArray()));
+        assertTrue(msg == msg2);
+        assertEquals(5L, cr.getStartTimestamp());
+        assertFalse(cr.isRetry());
+        assertEquals(1, cr.getNumCells());
+        assertEquals(7L, cr.getCellIds()[0]);
+    }
+
+    @Test(timeOut = 10000)
+    public void testUnpackedCommitRequest() throws Exception {
+        // Encoding used by the clients before the cell ids were packed
+        ByteArrayOutputStream commitBytes = new ByteArrayOutputStream();
+        CodedOutputStream commitOutput = CodedOutputStream.newInstance(commitBytes);
+        commitOutput.writeInt64(1, 10L);
+        commitOutput.writeInt64(3, 20L);
+        commitOutput.writeInt64(3, 30L);
+        commitOutput.flush();
+        ByteArrayOutputStream requestBytes = new ByteArrayOutputStream();
+        CodedOutputStream requestOutput = CodedOutputStream.newInstance(requestBytes);
+        requestOutput.writeBytes(2, com.google.protobuf.ByteString.copyFrom(commitBytes.toByteArray()));
+        requestOutput.flush();
+
+        Object msg = new TSORequestDecoder().decode(null, null,
+                ChannelBuffers.wrappedBuffer(requestBytes.toByteArray()));
+        TSORequestDecoder.CommitRequest cr = (TSORequestDecoder.CommitRequest) msg;
+        assertEquals(10L, cr.getStartTimestamp());
+        assertEquals(2, cr.getNumCells());
+        assertEquals(20L, cr.getCellIds()[0]);
+        assertEquals(30L, cr.getCellIds()[1]);
+    }
+
+    @Test(timeOut = 10000)
+    public void testTimestampRequests() throws Exception {
+        TSORequestDecoder decoder = new TSORequestDecoder();
+        TSOProto.Request request = TSOProto.Request.newBuilder()
+                .setTimestampRequest(TSOProto.TimestampRequest.newBuilder()).build();
+        Object msg = decoder.decode(null, null, ChannelBuffers.wrappedBuffer(request.toByteArray()));
+        assertTrue("Timestamp requests should be decoded into the holder",
+                   msg instanceof TSORequestDecoder.TimestampRequest);
+        TSORequestDecoder.TimestampRequest tr = (TSORequestDecoder.TimestampRequest) msg;
+        assertFalse(tr.isRange());
+
+        request = TSOProto.Request.newBuilder()
+                .setTimestampRangeRequest(TSOProto.TimestampRangeRequest.newBuilder().setCount(300)).build();
+        Object msg2 = decoder.decode(null, null, ChannelBuffers.wrappedBuffer(request.toByteArray()));
+        assertTrue(msg == msg2);
+        assertTrue(tr.isRange());
+        assertEquals(300, tr.getCount());
+
+        // The count is optional
+        request = TSOProto.Request.newBuilder()
+                .setTimestampRangeRequest(TSOProto.TimestampRangeRequest.newBuilder()).build();
+        decoder.decode(null, null, ChannelBuffers.wrappedBuffer(request.toByteArray()));
+        assertTrue(tr.isRange());
+        assertEquals(0, tr.getCount());
+    }
+
+    @Test(timeOut = 10000)
+    public void testRequestBatch() throws Exception {
+        TSORequestDecoder decoder = new TSORequestDecoder();
+        TSOProto.CommitRequest.Builder commitBuilder = TSOProto.CommitRequest.newBuilder().setStartTimestamp(10L);
+        for (long i = 0; i < 100; i++) {
+            commitBuilder.addCellId(i);
+        }
+        TSOProto.Request request = TSOProto.Request.newBuilder()
+                .setRequestBatch(TSOProto.RequestBatch.newBuilder()
+                        .addRequest(TSOProto.Request.newBuilder()
+                                .setTimestampRequest(TSOProto.TimestampRequest.newBuilder()))
+                        .addRequest(TSOProto.Request.newBuilder().setCommitRequest(commitBuilder))
+                        .addRequest(TSOProto.Request.newBuilder()
+                                .setTimestampRangeRequest(TSOProto.TimestampRangeRequest.newBuilder().setCount(5)))
+                        .addRequest(TSOProto.Request.newBuilder()
+                                .setCommitRequest(TSOProto.CommitRequest.newBuilder()
+                                        .setStartTimestamp(20L).setIsRetry(true)))).build();
+
+        Object msg = decoder.decode(null, null, ChannelBuffers.wrappedBuffer(request.toByteArray()));
+        assertTrue("Request batches should be decoded into the holder",
+                   msg instanceof TSORequestDecoder.RequestBatch);
+        TSORequestDecoder.RequestBatch batch = (TSORequestDecoder.RequestBatch) msg;
+        assertEquals(4, batch.size());
+        assertFalse(((TSORequestDecoder.TimestampRequest) batch.get(0)).isRange());
+        TSORequestDecoder.CommitRequest cr = (TSORequestDecoder.CommitRequest) batch.get(1);
+        assertEquals(10L, cr.getStartTimestamp());
+        assertEquals(100, cr.getNumCells());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, cr.getCellIds()[i]);
+        }
+        TSORequestDecoder.TimestampRequest tr = (TSORequestDecoder.TimestampRequest) batch.get(2);
+        assertTrue(tr.isRange());
+        assertEquals(5, tr.getCount());
+        cr = (TSORequestDecoder.CommitRequest) batch.get(3);
+        assertEquals(20L, cr.getStartTimestamp());
+        assertTrue(cr.isRetry());
+        assertEquals(0, cr.getNumCells());
+
+        // The holders are reused for the next batch of the channel
+        request = TSOProto.Request.newBuilder()
+                .setRequestBatch(TSOProto.RequestBatch.newBuilder()
+                        .addRequest(TSOProto.Request.newBuilder()
+                                .setCommitRequest(TSOProto.CommitRequest.newBuilder()
+                                        .setStartTimestamp(30L).addCellId(7L)))).build();
+        Object msg2 = decoder.decode(null, null, ChannelBuffers.wrappedBuffer(request.toByteArray()));
+        assertTrue(msg == msg2);
+        assertEquals(1, batch.size());
+        cr = (TSORequestDecoder.CommitRequest) batch.get(0);
+        assertEquals(30L, cr.getStartTimestamp());
+        assertFalse(cr.isRetry());
+        assertEquals(1, cr.getNumCells());
+        assertEquals(7L, cr.getCellIds()[0]);
+    }
+
+    @Test(timeOut = 10000)
+    public void testOtherRequestsAreDecodedByProtobuf() throws Exception {
+        // A batch with anything but timestamp and commit requests too
+        TSOProto.Request request = TSOProto.Request.newBuilder()
+                .setRequestBatch(TSOProto.RequestBatch.newBuilder()
+                        .addRequest(TSOProto.Request.newBuilder()
+                                .setTimestampRequest(TSOProto.TimestampRequest.newBuilder()))
+                        .addRequest(TSOProto.Request.newBuilder()
+                                .setHandshakeRequest(TSOProto.HandshakeRequest.newBuilder()))).build();
+        ChannelBuffer buf = ChannelBuffers.wrappedBuffer(request.toByteArray());
+        assertEquals(request, new TSORequestDecoder().decode(null, null, buf));
+
+        request = TSOProto.Request.newBuilder()
+                .setHandshakeRequest(TSOProto.HandshakeRequest.newBuilder()
+                        .setClientCapabilities(TSOProto.Capabilities.newBuilder())).build();
+        buf = ChannelBuffers.wrappedBuffer(request.toByteArray());
+        assertEquals(request, new TSORequestDecoder().decode(null, null, buf));
+    }
+
+}
@@ -26,4 +26,45 @@ public class TestTimestampOracle {
         LOG.info("Last timestamp: {}", last);
     }
 
+    @Test(timeOut = 60000)
+    public void testReservationsGrowWithSlowStorage() throws Exception {
+        SlowTimestampStorage storage = new SlowTimestampStorage(50);
+        TimestampOracleImpl tso = new TimestampOracleImpl(metrics, storage, new MockPanicker());
+        long last = tso.next();
+        for (int i = 0; i < (5 * TimestampOracleImpl.TIMESTAMP_BATCH); i++) {
+            long current = tso.next();
+            AssertJUnit.assertEquals("Not monotonic growth", last + 1, current);
+            last = current;
+        }
+        AssertJUnit.assertTrue("Reservations should be chained", storage.chained);
+        AssertJUnit.assertTrue("Reservations should grow with the consumption rate",
+                               storage.largestReservation > TimestampOracleImpl.TIMESTAMP_BATCH);
+        AssertJUnit.assertTrue("Reservations should be capped",
+                               storage.largestReservation <= TimestampOracleImpl.MAX_TIMESTAMP_BATCH);
+    }
+
+    static class SlowTimestampStorage extends TimestampOracleImpl.InMemoryTimestampStorage {
+
+        final long latencyMs;
+        volatile boolean chained = true;
+        volatile long largestReservation = 0;
+
+        SlowTimestampStorage(long latencyMs) {
+            this.latencyMs = latencyMs;
+        }
+
+        @Override
+        public void updateMaxTimestamp(long previousMaxTimestamp, long nextMaxTimestamp) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            chained &= previousMaxTimestamp == maxTimestamp;
+            largestReservation = Math.max(largestReservation, nextMaxTimestamp - previousMaxTimestamp);
+            super.updateMaxTimestamp(previousMaxTimestamp, nextMaxTimestamp);
+        }
+
+    }
+
 }
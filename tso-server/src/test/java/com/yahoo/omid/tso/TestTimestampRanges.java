@@ -0,0 +1,45 @@
+package com.yahoo.omid.tso;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Sets;
+import com.yahoo.omid.tsoclient.TSOClient;
+
+public class TestTimestampRanges extends TSOTestBase {
+
+    public TestTimestampRanges() {
+        clientConf.setProperty(TSOClient.TIMESTAMP_RANGE_SIZE_CONFKEY, 10);
+        clientConf.setProperty(TSOClient.TIMESTAMP_RANGE_MAX_AGE_MS_CONFKEY, 60000);
+    }
+
+    @Test(timeOut = 10000)
+    public void testTimestampsFromRangesGrowMonotonically() throws Exception {
+        long previous = client.getNewStartTimestamp().get();
+        // Go through several ranges
+        for (int i = 0; i < 35; i++) {
+            long timestamp = client.getNewStartTimestamp().get();
+            assertTrue("Should grow monotonically", timestamp > previous);
+            previous = timestamp;
+        }
+    }
+
+    @Test(timeOut = 10000)
+    public void testTimestampsAfterOwnCommitAreGreater() throws Exception {
+        long tr1 = client.getNewStartTimestamp().get();
+        long tr2 = client.getNewStartTimestamp().get();
+        assertEquals("Should be taken from the same range", tr1 + 1, tr2);
+
+        long cr1 = client.commit(tr1, Sets.newHashSet(c1)).get();
+        assertTrue("Commit TS must be greater than the range", cr1 > tr2);
+
+        long tr3 = client.getNewStartTimestamp().get();
+        assertTrue("Should see the previous commit", tr3 > cr1);
+
+        long cr2 = client.commit(tr3, Sets.newHashSet(c1)).get();
+        assertTrue("Should not conflict with the previous commit", cr2 > tr3);
+    }
+
+}
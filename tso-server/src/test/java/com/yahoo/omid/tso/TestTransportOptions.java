@@ -0,0 +1,40 @@
+package com.yahoo.omid.tso;
+
+import static org.testng.AssertJUnit.assertTrue;
+import static org.testng.AssertJUnit.fail;
+
+import java.util.concurrent.ExecutionException;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Sets;
+import com.yahoo.omid.tsoclient.TSOClient;
+
+public class TestTransportOptions extends TSOTestBase {
+
+    public TestTransportOptions() {
+        tsoConfig = TSOServerCommandLineConfig.parseConfig(new String[] {
+                "-port", "1234", "-maxItems", "1000",
+                "-ioThreads", "2", "-directBuffers", "-socketBufferSize", "65536",
+                "-tcpNoDelay", "-keepAlive", "-reuseAddress" });
+        clientConf.setProperty(TSOClient.TSO_DIRECT_BUFFERS_CONFKEY, true);
+        clientConf.setProperty(TSOClient.TSO_SOCKET_BUFFER_SIZE_CONFKEY, 65536);
+    }
+
+    @Test(timeOut = 10000)
+    public void testDirectBuffers() throws Exception {
+        long tr1 = client.getNewStartTimestamp().get();
+        long tr2 = client2.getNewStartTimestamp().get();
+        assertTrue(tr2 > tr1);
+
+        long cr1 = client.commit(tr1, Sets.newHashSet(c1)).get();
+        assertTrue(cr1 > tr2);
+        try {
+            client2.commit(tr2, Sets.newHashSet(c1)).get();
+            fail("Should conflict");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TSOClient.AbortException);
+        }
+    }
+
+}